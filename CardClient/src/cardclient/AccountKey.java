@@ -0,0 +1,51 @@
+package cardclient;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Key of the player, a random secret created the first time the client
+ * connects and kept in a file (see {@link ClientConfig#getAccountKey()}).
+ * It is sent after the name in HELLO, and the server only lets a client
+ * use the chips of a name if it sends the key with which the name was
+ * first used. Copying the file to another computer lets the player use
+ * its chips there.
+ * @author Jose Valera
+ * @version 1.0
+ * @since 19/10/2026
+ */
+public class AccountKey {
+    private static final int KEY_BYTES = 32;
+
+    private AccountKey() {}
+
+    /**
+     * Reads the key of the player, creating it if it does not exist.
+     * @return The key, or an empty text if it can not be read or saved,
+     *      in which case the player plays with chips that it can not
+     *      claim again.
+     */
+    public static String load() {
+        Path path = Paths.get(ClientConfig.getAccountKey());
+
+        try {
+            if(Files.isRegularFile(path))
+                return Files.readString(path, StandardCharsets.US_ASCII).trim();
+
+            byte[] secret = new byte[KEY_BYTES];
+            new SecureRandom().nextBytes(secret);
+            String key = Base64.getUrlEncoder().withoutPadding().encodeToString(secret);
+
+            Files.writeString(path, key, StandardCharsets.US_ASCII);
+            return key;
+        } catch (IOException e) {
+            System.err.println("The account key could not be used: " + e.getMessage());
+            return "";
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package cardclient;
+
+import java.io.IOException;
+import java.net.Socket;
+
+/**
+ * Class that gathers the configurable parameters of the client. They are
+ * read from the system properties when the client starts, for example:
+ * <br/><br/>
+ * java -Dcardclient.tcpNoDelay=false -Dcardclient.receiveBuffer=65536 ...
+ * @author Jose Valera
+ * @version 1.0
+ * @since 19/10/2026
+ */
+public class ClientConfig {
+    private static final int HEARTBEAT_INTERVALS = 5;
+
+    private static final boolean tcpNoDelay =
+            Boolean.parseBoolean(System.getProperty("cardclient.tcpNoDelay", "true"));
+    private static final int sendBufferSize =
+            Integer.getInteger("cardclient.sendBuffer", 0);
+    private static final int receiveBufferSize =
+            Integer.getInteger("cardclient.receiveBuffer", 0);
+    private static final int connectTimeout =
+            Integer.getInteger("cardclient.connectTimeout", 5000);
+    private static final int serverTimeout =
+            Integer.getInteger("cardclient.serverTimeout", 0);
+    private static final boolean tls =
+            Boolean.parseBoolean(System.getProperty("cardclient.tls", "false"));
+    private static final String trustStore =
+            System.getProperty("cardclient.trustStore", "client-trust.p12");
+    private static final String trustStorePassword =
+            System.getProperty("cardclient.trustStorePassword", "changeit");
+    private static final String accountKey =
+            System.getProperty("cardclient.accountKey", "account.key");
+
+    private static final boolean renderStats =
+            Boolean.parseBoolean(System.getProperty("cardclient.renderStats", "false"));
+    private static final int historySize =
+            Integer.getInteger("cardclient.historySize", 131072);
+    private static final boolean startupBenchmark =
+            Boolean.parseBoolean(System.getProperty("cardclient.startupBenchmark", "false"));
+    private static final boolean startupStats = startupBenchmark ||
+            Boolean.parseBoolean(System.getProperty("cardclient.startupStats", "false"));
+
+    private ClientConfig() {}
+
+    /**
+     * Returns the maximum time to wait for the connection with the server.
+     * @return Connection timeout in milliseconds.
+     */
+    public static int getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    /**
+     * Returns the maximum silence of the server, after which the
+     * connection is considered lost. By default it is 0: the client waits
+     * forever until the server announces its heartbeat, see
+     * {@link #getServerTimeout(long)}.
+     * @return Timeout in milliseconds, or 0 to wait forever.
+     */
+    public static int getServerTimeout() {
+        return Math.max(serverTimeout, 0);
+    }
+
+    /**
+     * Returns the maximum silence of a server with a heartbeat. The
+     * server sends a PING at least every two intervals of its heartbeat,
+     * so unless another timeout has been configured, it is lost after
+     * {@value #HEARTBEAT_INTERVALS} intervals.
+     * @param heartbeatMillis Interval of the heartbeat of the server.
+     * @return Timeout in milliseconds.
+     */
+    public static int getServerTimeout(long heartbeatMillis) {
+        if(serverTimeout > 0)
+            return serverTimeout;
+
+        return (int) Math.min(heartbeatMillis * HEARTBEAT_INTERVALS, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns whether the connection with the server is encrypted
+     * with TLS.
+     * @return true if TLS is enabled.
+     */
+    public static boolean isTls() {
+        return tls;
+    }
+
+    /**
+     * Returns the path of the PKCS12 file with the certificates that
+     * the client trusts.
+     * @return Path of the trust store.
+     */
+    public static String getTrustStore() {
+        return trustStore;
+    }
+
+    /**
+     * Returns the password of the trust store.
+     * @return Password of the trust store.
+     */
+    public static char[] getTrustStorePassword() {
+        return trustStorePassword.toCharArray();
+    }
+
+    /**
+     * Returns the path of the file with the key that binds the chips of
+     * the name of the player to this client, see {@link AccountKey}.
+     * @return Path of the account key.
+     */
+    public static String getAccountKey() {
+        return accountKey;
+    }
+
+    /**
+     * Returns whether the counters of the updates of the window are
+     * printed after each game.
+     * @return true if the render statistics are enabled.
+     */
+    public static boolean isRenderStats() {
+        return renderStats;
+    }
+
+    /**
+     * Returns the maximum number of rows (cards and results) of the
+     * history of the session.
+     * @return Capacity of the history.
+     */
+    public static int getHistorySize() {
+        return Math.max(historySize, 64);
+    }
+
+    /**
+     * Returns whether the milestones of the start of the client are
+     * printed once the window is ready.
+     * @return true if the startup statistics are enabled.
+     */
+    public static boolean isStartupStats() {
+        return startupStats;
+    }
+
+    /**
+     * Returns whether the client exits after printing the milestones of
+     * its start, to measure it repeatedly.
+     * @return true if the client is run by the startup benchmark.
+     */
+    public static boolean isStartupBenchmark() {
+        return startupBenchmark;
+    }
+
+    /**
+     * Applies TCP_NODELAY, the buffer sizes and the timeout of the reads
+     * (see {@link #getServerTimeout()}) to the socket of the client.
+     * It must be called before connecting it so that the receive buffer is
+     * taken into account.
+     * @param socket Unconnected client socket.
+     * @throws IOException If the socket rejects the options.
+     */
+    public static void configure(Socket socket) throws IOException {
+        socket.setTcpNoDelay(tcpNoDelay);
+        socket.setSoTimeout(getServerTimeout());
+
+        if(sendBufferSize > 0)
+            socket.setSendBufferSize(sendBufferSize);
+
+        if(receiveBufferSize > 0)
+            socket.setReceiveBufferSize(receiveBufferSize);
+    }
+}
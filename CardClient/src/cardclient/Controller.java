@@ -1,6 +1,10 @@
 package cardclient;
 
 import cardmodel.Card;
+import cardmodel.Outcome;
+import cardmodel.Rules;
+import cardmodel.protocol.GameResult;
+import cardmodel.protocol.MessageType;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.geometry.Rectangle2D;
@@ -21,9 +25,10 @@ import java.util.ResourceBundle;
  * @version 1.0
  * @since 20/12/2020
  */
-public class Controller implements Initializable {
+public class Controller implements Initializable, ServerConnection.Listener,
+        TableViewModel.View {
     @FXML
-    private ListView listCard;
+    private ListView<Integer> listCard;
     @FXML
     private HBox hBoxUpperBar;
     @FXML
@@ -39,19 +44,24 @@ public class Controller implements Initializable {
     @FXML
     private TextField txtPort;
     @FXML
+    private TextField txtName;
+    @FXML
     private Label txtCurrentCard;
     @FXML
     private Label txtScore;
+    @FXML
+    private Label txtChips;
+    @FXML
+    private TextField txtBet;
 
     private int defaultPort;
 
-    private Socket mySocket;
-    private ObjectInputStream objectSocketIn;
-    private DataOutputStream dataSocketOut;
-    private DataInputStream dataSocketIn;
+    private ServerConnection connection;
+    private boolean wantsRetry;
 
     final private Image cardSheet;
-    private float totalValue;
+    final private TableViewModel model;
+    final private HandHistory history;
 
     static private Color[] suitsColors =  {
             Color.GOLD, //GOLDS
@@ -65,9 +75,17 @@ public class Controller implements Initializable {
      */
     public Controller() {
         defaultPort = 7000;
-        totalValue = 0;
-        File file = new File("cards.png");
-        cardSheet = new Image(file.toURI().toString());
+        model = new TableViewModel(this);
+        history = new HandHistory(
+                ClientConfig.getHistorySize(),
+                ClientConfig.getHistorySize() / 64);
+
+        // Loaded in the background from the module, the cards appear
+        // when it is ready instead of delaying the window.
+        cardSheet = new Image(
+                Controller.class.getResource("cards.png").toExternalForm(),
+                true);
+        StartupStats.watch(cardSheet);
     }
 
     /**
@@ -76,36 +94,51 @@ public class Controller implements Initializable {
      */
     @Override
     public void initialize(URL url, ResourceBundle resourceBundle) {
-        disableMoreCardsOption(true);
-
         imgCurrentCard.setImage(cardSheet);
         configureListWithImages();
-        resetGame();
+        model.reset();
     }
 
+    /*
+     * The list shows the history of the session. With a fixed cell size
+     * the ListView does not measure the rows, so it only creates and
+     * updates the cells of the visible ones however long the history is.
+     */
     private void configureListWithImages(){
-        listCard.setCellFactory(param -> new ListCell<Card>() {
+        listCard.setItems(history);
+        listCard.setFixedCellSize(44);
+        listCard.setCellFactory(param -> new ListCell<Integer>() {
             private ImageView imageView = new ImageView();
 
+            {
+                imageView.setFitWidth(27.5);
+                imageView.setFitHeight(40);
+                imageView.setImage(cardSheet);
+            }
+
             @Override
-            public void updateItem(Card card, boolean empty) {
-                super.updateItem(card, empty);
+            public void updateItem(Integer row, boolean empty) {
+                super.updateItem(row, empty);
 
                 if (empty) {
                     setText(null);
                     setGraphic(null);
                 }
 
-                else {
-                    setText(card.toString());
-                    setTextFill(suitsColors[card.getSuitIndex()]);
+                else if (HandHistory.isResult(row)) {
+                    Outcome outcome = HandHistory.getOutcome(row);
 
-                    imageView.setFitWidth(27.5);
-                    imageView.setFitHeight(40);
-                    imageView.setImage(cardSheet);
+                    setText(outcome + " (" + HandHistory.getTotal(row) + ")");
+                    setTextFill(getOutcomeColor(outcome));
+                    setGraphic(null);
+                }
 
-                    showCard(card, imageView);
+                else {
+                    Card card = HandHistory.getCard(row);
 
+                    setText(card + " (" + HandHistory.getTotal(row) + ")");
+                    setTextFill(suitsColors[card.getSuitIndex()]);
+                    showCard(card, imageView);
                     setGraphic(imageView);
                 }
             }
@@ -117,19 +150,15 @@ public class Controller implements Initializable {
         disableUpperBar(true);
 
         try {
-            mySocket = new Socket(
+            Socket mySocket = ServerConnector.connect(
                     txtAddress.getText(),
                     extractPortNumber()
             );
 
-            objectSocketIn =
-                    new ObjectInputStream(mySocket.getInputStream());
-            dataSocketOut =
-                    new DataOutputStream(mySocket.getOutputStream());
-            dataSocketIn =
-                    new DataInputStream(mySocket.getInputStream());
-
-            getNextCard();
+            connection = new ServerConnection(mySocket, this);
+            connection.send(MessageType.HELLO, txtName.getText() + "\n" + AccountKey.load());
+            connection.send(MessageType.BET, extractBet());
+            connection.start();
         } catch (IOException e) {
             MessageUtils.showError(
                     "Connection error!",
@@ -151,122 +180,278 @@ public class Controller implements Initializable {
         return port;
     }
 
-    private void closeResources() {
-        if(mySocket != null) {
-            try { mySocket.close(); } catch (IOException e) {}
+    private long extractBet() {
+        try {
+            return Math.max(Long.parseLong(txtBet.getText().trim()), 0);
+        } catch (NumberFormatException e) {
+            txtBet.setText("0");
+            return 0;
         }
+    }
 
-        if(objectSocketIn != null) {
-            try { objectSocketIn.close(); } catch (IOException e) {}
+    private void closeResources() {
+        if(connection != null) {
+            connection.close();
+            connection = null;
         }
 
-        if(dataSocketOut != null) {
-            try { dataSocketOut.close(); } catch (IOException e) {}
-        }
+        disableUpperBar(false);
+    }
 
-        if(dataSocketIn != null) {
-            try { dataSocketIn.close(); } catch (IOException e) {}
-        }
+    /*
+     * The messages of the server arrive in the thread of the connection:
+     * they only change the model, which updates the window in the next
+     * JavaFX pulse.
+     */
 
-        disableUpperBar(false);
+    /**
+     * Keeps the rules of the variant played, with which the score is
+     * calculated.
+     * @param rules Rules of the variant.
+     */
+    @Override
+    public void onRules(Rules rules) {
+        model.setRules(rules);
     }
 
-    @FXML
-    private void getNextCard() {
-        disableMoreCardsOption(false);
+    /**
+     * Adds the card received from the server to the game. If the score
+     * reaches the target of the variant (7.5 in the classic game) the
+     * player can not ask for more cards and waits for the result.
+     * @param currentCard The card received.
+     */
+    @Override
+    public void onCard(Card currentCard) {
+        model.addCard(currentCard);
+    }
 
-        try {
-            Card currentCard = (Card) objectSocketIn.readObject();
-            listCard.getItems().add(currentCard);
-            totalValue += currentCard.getValue();
+    /**
+     * Updates the chips of the player.
+     * @param chips Chips of the player.
+     */
+    @Override
+    public void onChips(long chips) {
+        model.setChips(chips);
+    }
 
-            showCard(currentCard, imgCurrentCard);
-            setCardName(currentCard);
-            setScore();
-        } catch (IOException e) {
+    /**
+     * Shows the result of the game and enables the option to repeat it.
+     * @param result Result of the game.
+     */
+    @Override
+    public void onResult(GameResult result) {
+        model.setResult(result);
+        model.post(RenderStats::report);
+    }
+
+    /**
+     * Clears the table for the new game, whose first card arrives next.
+     */
+    @Override
+    public void onRetry() {
+        model.reset();
+    }
+
+    /**
+     * Clears the table and closes the connection, warning the player
+     * if they wanted to repeat the game.
+     */
+    @Override
+    public void onFinish() {
+        model.reset();
+        model.post(() -> {
+            if(wantsRetry)
+                MessageUtils.showMessage(
+                        "Game Over!",
+                        "Some player has not been able or wanted to repeat the game.");
+
+            closeResources();
+        });
+    }
+
+    /**
+     * Warns the player that the server is busy and closes the connection.
+     */
+    @Override
+    public void onServerBusy() {
+        model.post(() -> {
             MessageUtils.showError(
-                    "The server does not respond!",
-                    "Could not receive a card from the server.");
+                    "The server is busy!",
+                    "There are no free seats, try again later.");
             resetByConnectionError();
-        } catch (ClassNotFoundException e) {
-            e.printStackTrace();
+        });
+    }
+
+    /**
+     * Warns the player that the server does not respond and clears
+     * the table.
+     */
+    @Override
+    public void onConnectionError() {
+        model.post(() -> {
+            MessageUtils.showError(
+                    "The server does not respond!",
+                    "The connection with the server has been lost.");
             resetByConnectionError();
+        });
+    }
+
+    /**
+     * Applies to the controls the changes of the table accumulated since
+     * the previous pulse.
+     * @param changes Changes of the table.
+     */
+    @Override
+    public void render(TableViewModel.Changes changes) {
+        if(changes.has(TableViewModel.HISTORY)) {
+            history.append(changes.getNewRows(), changes.getNewRows().length);
+            listCard.scrollTo(history.size() - 1);
         }
 
-        if(totalValue >= 7.5f) {
-            getResult();
-            disableMoreCardsOption(true);
+        if(changes.has(TableViewModel.CARDS)) {
+            showCard(changes.getCurrentCard(), imgCurrentCard);
+            setCardName(changes.getCurrentCard());
+        }
+
+        if(changes.has(TableViewModel.SCORE))
+            setScore(changes);
+
+        if(changes.has(TableViewModel.RESULT))
+            setResult(changes.getResult());
+
+        if(changes.has(TableViewModel.CHIPS) && changes.getChips() >= 0)
+            txtChips.setText(String.valueOf(changes.getChips()));
+
+        if(changes.has(TableViewModel.OPTIONS)) {
+            hBoxMoreCards.setVisible(changes.isMoreCardsVisible());
+            hBoxRetry.setVisible(changes.isRetryVisible());
         }
     }
 
-    private void setScore() {
-        txtScore.setText(String.valueOf(totalValue));
-        txtScore.setTextFill(
-                totalValue <= 7.5f?
-                        Color.BLUE:
-                        Color.RED
-        );
+    private void setScore(TableViewModel.Changes changes) {
+        if(changes.getCurrentCard() == null) {
+            txtScore.setText("...");
+            txtScore.setTextFill(Color.BLACK);
+        }
+
+        else {
+            txtScore.setText(String.valueOf(changes.getTotalHalfPoints() / 2f));
+            txtScore.setTextFill(changes.isBust()? Color.RED: Color.BLUE);
+        }
     }
 
     private void setCardName(Card card) {
-        txtCurrentCard.setText(card.toString());
-        txtCurrentCard.setTextFill(suitsColors[card.getSuitIndex()]);
+        if(card == null) {
+            txtCurrentCard.setText("...");
+            txtCurrentCard.setTextFill(Color.BLACK);
+        }
+
+        else {
+            txtCurrentCard.setText(card.toString());
+            txtCurrentCard.setTextFill(suitsColors[card.getSuitIndex()]);
+        }
     }
 
-    private void disableUpperBar(boolean disable) {
-        hBoxUpperBar.setDisable(disable);
+    private void setResult(GameResult result) {
+        if(result == null) {
+            txtResult.setVisible(false);
+            return;
+        }
+
+        switch (result.getOutcome()) {
+            case WIN:
+                txtResult.setText("YOU WIN!");
+                break;
+
+            case TIE:
+                txtResult.setText("TIE!");
+                break;
+
+            default:
+                txtResult.setText("YOU LOSE!");
+        }
+
+        txtResult.setTextFill(getOutcomeColor(result.getOutcome()));
+
+        txtResult.setTooltip(new Tooltip(describeTable(result)));
+        txtResult.setVisible(true);
+    }
+
+    private static Color getOutcomeColor(Outcome outcome) {
+        switch (outcome) {
+            case WIN:
+                return Color.LIGHTGREEN;
+
+            case TIE:
+                return Color.YELLOWGREEN;
+
+            default:
+                return Color.INDIANRED;
+        }
     }
 
-    private void disableMoreCardsOption(boolean disable) {
-        hBoxMoreCards.setVisible(!disable);
+    private String describeTable(GameResult result) {
+        StringBuilder description = new StringBuilder();
+
+        if(result.hasDealer())
+            description.append("Dealer: ").append(result.getDealerTotal()).append('\n');
+
+        if(result.hasWinner())
+            description.append("Winning total: ").append(result.getWinningTotal())
+                    .append(" (").append(result.getWinners()).append(" winners)\n");
+
+        for (int i = 0; i < result.getSeats(); i++)
+            description.append(i == result.getSeat()? "You": "Player " + (i + 1))
+                    .append(": ").append(result.getTotal(i))
+                    .append(" - ").append(result.getOutcome(i)).append('\n');
+
+        return description.toString().trim();
+    }
+
+    private void disableUpperBar(boolean disable) {
+        hBoxUpperBar.setDisable(disable);
     }
 
     @FXML
     private void askForNewCard() {
-        if(sendMessageToServer("YES"))
-            getNextCard();
+        model.hideOptions();
+        sendMessageToServer(MessageType.YES);
     }
 
     @FXML
     private void refuseNewCard() {
-        if(sendMessageToServer("NO"))
-            getResult();
-
-        disableMoreCardsOption(true);
+        model.hideOptions();
+        sendMessageToServer(MessageType.NO);
     }
 
     @FXML
     private void retryGame() {
-        if(sendMessageToServer("YES")) {
-            boolean canRetry = canRetryGame();
-
-            resetGame();
-
-            if (canRetry)
-                getNextCard();
+        model.hideOptions();
+        wantsRetry = true;
 
-            else {
-                MessageUtils.showMessage(
-                        "Game Over!",
-                        "Some player has not been able or wanted to repeat the game.");
-                disableUpperBar(false);
-            }
-        }
+        // The bet of the next game goes with the answer.
+        if(sendMessageToServer(MessageType.YES))
+            sendMessageToServer(MessageType.BET, extractBet());
     }
 
     @FXML
     private void NoRetryGame() {
-        if(sendMessageToServer("NO")) {
-            canRetryGame();
-            resetGame();
-            disableUpperBar(false);
-        }
+        model.hideOptions();
+        wantsRetry = false;
+        sendMessageToServer(MessageType.NO);
     }
 
-    private boolean sendMessageToServer(String message) {
+    private boolean sendMessageToServer(MessageType message) {
+        return sendMessageToServer(message, -1);
+    }
+
+    private boolean sendMessageToServer(MessageType message, long value) {
         try {
-            dataSocketOut.writeUTF(message);
-            dataSocketOut.flush();
+            if(value < 0)
+                connection.send(message);
+
+            else
+                connection.send(message, value);
         } catch (IOException e) {
             MessageUtils.showError(
                     "The server does not respond!",
@@ -279,16 +464,13 @@ public class Controller implements Initializable {
         return true;
     }
 
-    private void getResult() {
-        new ResultThread(dataSocketIn, txtResult, hBoxRetry).start();
-    }
-
     private void showCard(Card cardToShow, ImageView imageView) {
-        final int CARD_WIDTH = 55, CARD_HEIGHT = 80;
+        final int CARD_WIDTH = 55, CARD_HEIGHT = 80, SHEET_COLUMNS = 10;
         int minX, minY;
 
-        if(cardToShow == null) {
-            minX = 10 * CARD_WIDTH;
+        // The sheet has no image for the cards of the 48-card variants.
+        if(cardToShow == null || cardToShow.getSymbolIndex() >= SHEET_COLUMNS) {
+            minX = SHEET_COLUMNS * CARD_WIDTH;
             minY = 0;
         }
 
@@ -307,38 +489,8 @@ public class Controller implements Initializable {
         imageView.setViewport(cardTile);
     }
 
-    private void resetGame() {
-        listCard.getItems().clear();
-        showCard(null, imgCurrentCard);
-        totalValue = 0;
-        txtScore.setText("...");
-        txtResult.setVisible(false);
-        txtCurrentCard.setText("...");
-        hBoxRetry.setVisible(false);
-        txtScore.setTextFill(Color.BLACK);
-        txtCurrentCard.setTextFill(Color.BLACK);
-    }
-
     private void resetByConnectionError() {
-        disableMoreCardsOption(true);
-        resetGame();
+        model.reset();
         closeResources();
     }
-
-    private boolean canRetryGame() {
-        String result = "";
-
-        try {
-            result = dataSocketIn.readUTF();
-        } catch (IOException e) {
-            MessageUtils.showError(
-                    "The server does not respond!",
-                    "A response from the server was not detected.");
-        }
-
-        if(result.equals("RETRY"))
-            return true;
-
-        return false;
-    }
 }
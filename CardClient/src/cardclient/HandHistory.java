@@ -0,0 +1,177 @@
+package cardclient;
+
+import cardmodel.Card;
+import cardmodel.Outcome;
+import javafx.collections.ObservableListBase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * History of the cards and results of all the games of the session, shown
+ * in the list of the player window.<br/><br/>
+ * The rows are not kept as objects: each one takes two bytes of a ring
+ * buffer of fixed capacity, a code (the identifier of the card, or the
+ * outcome of the game) and the total of the player after it, in half
+ * points. The list only creates the Integer of a row when the ListView
+ * asks for it, which happens only for the visible cells, so the memory
+ * of the history does not grow however long the session is.<br/><br/>
+ * When the buffer is full the oldest rows are discarded a page at a
+ * time, with a single change of the list.<br/><br/>
+ * A row is encoded as (code &lt;&lt; 8) | total, and decoded with the
+ * static methods of this class. It must only be changed in the JavaFX
+ * thread.
+ * @author Jose Valera
+ * @version 1.0
+ * @since 19/10/2026
+ */
+public class HandHistory extends ObservableListBase<Integer> {
+    private static final int RESULT = 0x80;
+    private static final int MAX_TOTAL = 0xFF;
+    private static final Outcome[] outcomes = Outcome.values();
+
+    private final byte[] codes;
+    private final byte[] totals;
+    private final int pageSize;
+    private int head;
+    private int size;
+
+    /**
+     * Constructor that creates an empty history.
+     * @param capacity Maximum number of rows kept.
+     * @param pageSize Number of rows discarded together when the
+     *      history is full.
+     */
+    public HandHistory(int capacity, int pageSize) {
+        codes = new byte[capacity];
+        totals = new byte[capacity];
+        this.pageSize = Math.max(1, Math.min(pageSize, capacity));
+    }
+
+    /**
+     * Encodes the row of a card.
+     * @param card Card received.
+     * @param totalHalfPoints Total of the player after the card.
+     * @return The row.
+     */
+    public static short cardRow(Card card, int totalHalfPoints) {
+        return row(card.getId(), totalHalfPoints);
+    }
+
+    /**
+     * Encodes the row of the result of a game.
+     * @param outcome Outcome of the player.
+     * @param totalHalfPoints Final total of the player.
+     * @return The row.
+     */
+    public static short resultRow(Outcome outcome, int totalHalfPoints) {
+        return row(RESULT | outcome.ordinal(), totalHalfPoints);
+    }
+
+    private static short row(int code, int totalHalfPoints) {
+        int total = Math.max(0, Math.min(totalHalfPoints, MAX_TOTAL));
+        return (short) (code << 8 | total);
+    }
+
+    /**
+     * Checks if a row is the result of a game.
+     * @param row Row of the history.
+     * @return true if it is a result, false if it is a card.
+     */
+    public static boolean isResult(int row) {
+        return (row >> 8 & RESULT) != 0;
+    }
+
+    /**
+     * Returns the card of a row.
+     * @param row Row of a card.
+     * @return The card.
+     */
+    public static Card getCard(int row) {
+        return Card.of(row >> 8 & 0x7F);
+    }
+
+    /**
+     * Returns the outcome of a row.
+     * @param row Row of a result.
+     * @return The outcome of the game.
+     */
+    public static Outcome getOutcome(int row) {
+        return outcomes[row >> 8 & 0x7F];
+    }
+
+    /**
+     * Returns the total of the player in a row.
+     * @param row Row of the history.
+     * @return Total of the player.
+     */
+    public static float getTotal(int row) {
+        return (row & MAX_TOTAL) / 2f;
+    }
+
+    /**
+     * Adds rows at the end of the history, discarding the oldest pages
+     * if there is no room for them.
+     * @param rows Rows to add.
+     * @param count Number of rows of the array to add.
+     */
+    public void append(short[] rows, int count) {
+        if(count == 0)
+            return;
+
+        int capacity = codes.length;
+        int first = Math.max(0, count - capacity);
+        int added = count - first;
+
+        beginChange();
+
+        if(size + added > capacity)
+            discard(Math.min(size, ceilPages(size + added - capacity)));
+
+        int from = size;
+
+        for (int i = first; i < count; i++) {
+            int index = physical(size);
+            codes[index] = (byte) (rows[i] >> 8);
+            totals[index] = (byte) rows[i];
+            size++;
+        }
+
+        nextAdd(from, size);
+        endChange();
+    }
+
+    private int ceilPages(int rows) {
+        return (rows + pageSize - 1) / pageSize * pageSize;
+    }
+
+    private void discard(int count) {
+        List<Integer> removed = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++)
+            removed.add(get(i));
+
+        head = physical(count);
+        size -= count;
+        nextRemove(0, removed);
+    }
+
+    private int physical(int index) {
+        int position = head + index;
+        return position >= codes.length? position - codes.length: position;
+    }
+
+    @Override
+    public Integer get(int index) {
+        if(index < 0 || index >= size)
+            throw new IndexOutOfBoundsException(index);
+
+        int position = physical(index);
+        return (codes[position] & 0xFF) << 8 | totals[position] & 0xFF;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
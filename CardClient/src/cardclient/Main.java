@@ -1,20 +1,54 @@
 package cardclient;
 
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
+import javafx.scene.control.Label;
+import javafx.scene.layout.StackPane;
 import javafx.stage.Stage;
 
+import java.io.IOException;
+
 public class Main extends Application {
 
+    /*
+     * The window is shown at once with an empty table, and main.fxml is
+     * loaded in another thread: the reflection of the FXMLLoader and the
+     * creation of the controls no longer delay the first frame. The
+     * controls are attached to the window when they are ready.
+     */
     @Override
-    public void start(Stage primaryStage) throws Exception{
-        Parent root = FXMLLoader.load(getClass().getResource("main.fxml"));
+    public void start(Stage primaryStage) {
+        Scene scene = new Scene(new StackPane(new Label("Loading...")), 600, 400);
+        StartupStats.launched(scene);
+        RenderStats.attach(scene);
         primaryStage.setTitle("Seven And A Half");
-        primaryStage.setScene(new Scene(root, 600, 400));
+        primaryStage.setScene(scene);
         primaryStage.setResizable(false);
         primaryStage.show();
+
+        loadTable(scene);
+    }
+
+    private void loadTable(Scene scene) {
+        Thread loader = new Thread(() -> {
+            try {
+                Parent root = FXMLLoader.load(Main.class.getResource("main.fxml"));
+
+                Platform.runLater(() -> {
+                    scene.setRoot(root);
+                    StartupStats.tableAttached();
+                });
+            } catch (IOException e) {
+                System.err.println("Could not load the window: " + e.getMessage());
+                Platform.exit();
+            }
+        }, "FXML-loader");
+
+        loader.setDaemon(true);
+        loader.start();
     }
 
 
@@ -0,0 +1,66 @@
+package cardclient;
+
+import javafx.scene.Scene;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counters of the updates of the player window: changes of the table,
+ * pulses that have applied them, time spent applying them and layout
+ * passes of the scene. They are printed after each game when the client
+ * is started with -Dcardclient.renderStats=true.
+ * <br/><br/>
+ * All the counters are updated in the JavaFX thread.
+ * @author Jose Valera
+ * @version 1.0
+ * @since 19/10/2026
+ */
+public class RenderStats {
+    private static long events;
+    private static long frames;
+    private static long frameNanos;
+    private static long maxFrameNanos;
+    private static long layouts;
+
+    private RenderStats() {}
+
+    /**
+     * Counts the layout passes of the scene of the window.
+     * @param scene Scene of the player window.
+     */
+    public static void attach(Scene scene) {
+        scene.addPostLayoutPulseListener(() -> layouts++);
+    }
+
+    /**
+     * Counts a pulse that has applied changes to the window.
+     * @param coalesced Number of changes applied together.
+     * @param nanos Time spent applying them.
+     */
+    static void frame(int coalesced, long nanos) {
+        events += coalesced;
+        frames++;
+        frameNanos += nanos;
+        maxFrameNanos = Math.max(maxFrameNanos, nanos);
+    }
+
+    /**
+     * Prints the counters since the previous report, if enabled, and
+     * starts counting again.
+     */
+    public static void report() {
+        if(ClientConfig.isRenderStats() && frames > 0)
+            System.out.printf("Render: %d changes in %d frames " +
+                            "(avg %d us, max %d us), %d layouts%n",
+                    events, frames,
+                    TimeUnit.NANOSECONDS.toMicros(frameNanos / frames),
+                    TimeUnit.NANOSECONDS.toMicros(maxFrameNanos),
+                    layouts);
+
+        events = 0;
+        frames = 0;
+        frameNanos = 0;
+        maxFrameNanos = 0;
+        layouts = 0;
+    }
+}
@@ -0,0 +1,232 @@
+package cardclient;
+
+import cardmodel.Card;
+import cardmodel.Rules;
+import cardmodel.protocol.FrameChannel;
+import cardmodel.protocol.GameResult;
+import cardmodel.protocol.MessageType;
+
+import java.io.IOException;
+import java.net.Socket;
+
+/**
+ * Thread that reads all the messages of the server through a single
+ * frame channel and dispatches them to a listener, so the window is never
+ * blocked waiting for the server.<br/><br/>
+ * The messages to the server are sent from the JavaFX thread with
+ * {@link #send(MessageType)}. The PINGs of the heartbeat of the server
+ * are answered by this thread. The first one announces the interval of
+ * the heartbeat, and from then on a server that is silent for longer
+ * than {@link ClientConfig#getServerTimeout(long)} is considered lost.
+ * A server without heartbeat is waited for forever, unless a timeout has
+ * been configured.
+ * @author Jose Valera
+ * @version 1.0
+ * @since 19/10/2026
+ */
+public class ServerConnection extends Thread {
+    /**
+     * Receiver of the messages of the server. All its methods are called
+     * in the thread of the connection, so they must not change the window
+     * directly.
+     */
+    public interface Listener {
+        /**
+         * The rules of the variant played have been received.
+         * @param rules Rules of the variant.
+         */
+        void onRules(Rules rules);
+
+        /**
+         * A card has been received.
+         * @param card The card received.
+         */
+        void onCard(Card card);
+
+        /**
+         * The chips of the player have been received, after joining or
+         * after settling a game.
+         * @param chips Chips of the player.
+         */
+        void onChips(long chips);
+
+        /**
+         * The result of the game has been received.
+         * @param result Result of the game.
+         */
+        void onResult(GameResult result);
+
+        /**
+         * The server repeats the game.
+         */
+        void onRetry();
+
+        /**
+         * The server has finished the game.
+         */
+        void onFinish();
+
+        /**
+         * The server has rejected the connection because it is busy.
+         */
+        void onServerBusy();
+
+        /**
+         * The connection with the server has been lost.
+         */
+        void onConnectionError();
+    }
+
+    private static final int BUFFER_SIZE = 1024;
+
+    private final Socket socket;
+    private final FrameChannel channel;
+    private final Listener listener;
+    private long heartbeatMillis;
+    private volatile boolean closed;
+
+    /**
+     * Constructor that creates the channel over the socket connected to
+     * the server.
+     * @param socket Socket connected to the server.
+     * @param listener Receiver of the messages of the server.
+     * @throws IOException If the streams of the socket can not be obtained.
+     */
+    public ServerConnection(Socket socket, Listener listener) throws IOException {
+        this.socket = socket;
+        channel = new FrameChannel(socket, BUFFER_SIZE);
+        this.listener = listener;
+        setDaemon(true);
+    }
+
+    /**
+     * Reads the messages of the server until the game is finished, the
+     * server rejects the connection or the connection is closed.
+     */
+    @Override
+    public void run() {
+        try {
+            MessageType type;
+
+            do {
+                type = channel.read();
+                dispatch(type);
+            } while (type != MessageType.FINISH && type != MessageType.BUSY);
+        } catch (IOException e) {
+            if(!closed)
+                listener.onConnectionError();
+        }
+    }
+
+    private void dispatch(MessageType type) throws IOException {
+        switch (type) {
+            case CARD:
+                Card card = channel.readCard();
+                listener.onCard(card);
+                break;
+
+            case RULES:
+                Rules rules;
+
+                try {
+                    rules = Rules.decode(channel.getPayload());
+                } catch (RuntimeException e) {
+                    throw new IOException("Invalid rules frame.", e);
+                }
+
+                listener.onRules(rules);
+                break;
+
+            case RESULT:
+                GameResult result;
+
+                try {
+                    result = GameResult.decode(channel.getPayload());
+                } catch (RuntimeException e) {
+                    throw new IOException("Invalid result frame.", e);
+                }
+
+                listener.onResult(result);
+                break;
+
+            case CHIPS:
+                long chips = channel.readLong();
+                listener.onChips(chips);
+                break;
+
+            case RETRY:
+                listener.onRetry();
+                break;
+
+            case FINISH:
+                listener.onFinish();
+                break;
+
+            case BUSY:
+                listener.onServerBusy();
+                break;
+
+            case PING:
+                watchHeartbeat(channel.readLong());
+                send(MessageType.PONG);
+                break;
+
+            default:
+                throw new IOException("Unexpected message: " + type);
+        }
+    }
+
+    private void watchHeartbeat(long intervalMillis) throws IOException {
+        if(intervalMillis > 0 && intervalMillis != heartbeatMillis) {
+            heartbeatMillis = intervalMillis;
+            socket.setSoTimeout(ClientConfig.getServerTimeout(intervalMillis));
+        }
+    }
+
+    /**
+     * Sends a message to the server.
+     * @param type Type of the message.
+     * @throws IOException If the message can not be sent.
+     */
+    public void send(MessageType type) throws IOException {
+        synchronized (channel) {
+            channel.write(type);
+            channel.flush();
+        }
+    }
+
+    /**
+     * Sends a message with a text to the server.
+     * @param type Type of the message.
+     * @param text Text of the message.
+     * @throws IOException If the message can not be sent.
+     */
+    public void send(MessageType type, String text) throws IOException {
+        synchronized (channel) {
+            channel.write(type, text);
+            channel.flush();
+        }
+    }
+
+    /**
+     * Sends a message with a number to the server.
+     * @param type Type of the message.
+     * @param value Number sent.
+     * @throws IOException If the message can not be sent.
+     */
+    public void send(MessageType type, long value) throws IOException {
+        synchronized (channel) {
+            channel.write(type, value);
+            channel.flush();
+        }
+    }
+
+    /**
+     * Closes the connection with the server.
+     */
+    public void close() {
+        closed = true;
+
+        try { channel.close(); } catch (IOException e) {}
+    }
+}
@@ -0,0 +1,106 @@
+package cardclient;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
+import javax.net.ssl.TrustManagerFactory;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+
+/**
+ * Class in charge of opening the connection with the server, encrypted
+ * with TLS or not depending on the configuration.<br/><br/>
+ * With TLS the certificate of the server must be trusted and issued for
+ * the address to which the client connects, as a browser checks it, so
+ * the handshake fails if another server answers.<br/><br/>
+ * The TLS context is created only once, so its session cache lets the
+ * client resume the session when it reconnects to the same server
+ * instead of repeating the full handshake.
+ * @author Jose Valera
+ * @version 1.0
+ * @since 19/10/2026
+ */
+public class ServerConnector {
+    private static SSLSocketFactory tlsFactory;
+
+    private ServerConnector() {}
+
+    /**
+     * Opens a connection with the server applying the socket options
+     * of the configuration.
+     * @param host Address of the server.
+     * @param port Port of the server.
+     * @return The connected socket, with the handshake done if TLS is
+     *      enabled.
+     * @throws IOException If the connection can not be established.
+     */
+    public static Socket connect(String host, int port) throws IOException {
+        Socket socket = new Socket();
+
+        try {
+            ClientConfig.configure(socket);
+            socket.connect(
+                    new InetSocketAddress(host, port),
+                    ClientConfig.getConnectTimeout());
+
+            if(!ClientConfig.isTls())
+                return socket;
+
+            SSLSocket tlsSocket = (SSLSocket) getTlsFactory()
+                    .createSocket(socket, host, port, true);
+            SSLParameters parameters = tlsSocket.getSSLParameters();
+            parameters.setEndpointIdentificationAlgorithm("HTTPS");
+            tlsSocket.setSSLParameters(parameters);
+            startHandshake(tlsSocket);
+
+            return tlsSocket;
+        } catch (IOException e) {
+            try { socket.close(); } catch (IOException ex) {}
+            throw e;
+        }
+    }
+
+    private static void startHandshake(SSLSocket socket) throws IOException {
+        long start = System.nanoTime();
+        socket.startHandshake();
+        long elapsed = System.nanoTime() - start;
+
+        System.out.println("TLS handshake -> " + elapsed / 1000 + " us (" +
+                socket.getSession().getProtocol() + ")");
+    }
+
+    private static synchronized SSLSocketFactory getTlsFactory()
+            throws IOException {
+        if(tlsFactory == null)
+            tlsFactory = createContext().getSocketFactory();
+
+        return tlsFactory;
+    }
+
+    private static SSLContext createContext() throws IOException {
+        char[] password = ClientConfig.getTrustStorePassword();
+
+        try (InputStream in = new FileInputStream(ClientConfig.getTrustStore())) {
+            KeyStore trustStore = KeyStore.getInstance("PKCS12");
+            trustStore.load(in, password);
+
+            TrustManagerFactory trustManagers = TrustManagerFactory.getInstance(
+                    TrustManagerFactory.getDefaultAlgorithm());
+            trustManagers.init(trustStore);
+
+            SSLContext context = SSLContext.getInstance("TLS");
+            context.init(null, trustManagers.getTrustManagers(), null);
+
+            return context;
+        } catch (GeneralSecurityException e) {
+            throw new IOException("Invalid trust store: " +
+                    ClientConfig.getTrustStore(), e);
+        }
+    }
+}
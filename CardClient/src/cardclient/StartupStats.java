@@ -0,0 +1,117 @@
+package cardclient;
+
+import javafx.application.Platform;
+import javafx.scene.Scene;
+import javafx.scene.image.Image;
+
+/**
+ * Milestones of the start of the client, measured from the start of the
+ * process:<br/>
+ * - launch: JavaFX calls the start method of the application,<br/>
+ * - first frame: the window has been laid out for the first time,<br/>
+ * - table: the controls of the table have been laid out,<br/>
+ * - images: the sheet of cards has been loaded.<br/><br/>
+ * They are printed once all of them are reached when the client is
+ * started with -Dcardclient.startupStats=true. With
+ * -Dcardclient.startupBenchmark=true the client also exits after
+ * printing them, which is what the startup benchmark runs.<br/><br/>
+ * All the milestones are marked in the JavaFX thread.
+ * @author Jose Valera
+ * @version 1.0
+ * @since 19/10/2026
+ */
+public class StartupStats {
+    private static final long processStart = ProcessHandle.current().info()
+            .startInstant()
+            .map(instant -> instant.toEpochMilli())
+            .orElse(System.currentTimeMillis());
+
+    private static long launch = -1;
+    private static long firstFrame = -1;
+    private static long table = -1;
+    private static long images = -1;
+    private static boolean tableAttached;
+    private static boolean reported;
+    private static Scene scene;
+    private static final Runnable layoutListener = StartupStats::layoutDone;
+
+    private StartupStats() {}
+
+    private static long elapsed() {
+        return System.currentTimeMillis() - processStart;
+    }
+
+    /**
+     * Marks the launch of the application and starts waiting for the
+     * first layout of its window.
+     * @param window Scene of the player window, before it is shown.
+     */
+    public static void launched(Scene window) {
+        launch = elapsed();
+        scene = window;
+        scene.addPostLayoutPulseListener(layoutListener);
+    }
+
+    /**
+     * Notes that the controls of the table have been attached to the
+     * window, so the next layout is that of the table.
+     */
+    public static void tableAttached() {
+        tableAttached = true;
+    }
+
+    /**
+     * Waits for the sheet of cards, which is loaded in the background.
+     * @param cardSheet Image of the sheet of cards.
+     */
+    public static void watch(Image cardSheet) {
+        if(cardSheet.progressProperty().get() >= 1)
+            imagesLoaded();
+
+        else
+            cardSheet.progressProperty().addListener((observable, oldValue, newValue) -> {
+                if(newValue.doubleValue() >= 1)
+                    imagesLoaded();
+            });
+    }
+
+    private static void imagesLoaded() {
+        if(!Platform.isFxApplicationThread()) {
+            Platform.runLater(StartupStats::imagesLoaded);
+            return;
+        }
+
+        if(images < 0)
+            images = elapsed();
+
+        report();
+    }
+
+    private static void layoutDone() {
+        if(firstFrame < 0)
+            firstFrame = elapsed();
+
+        else if(tableAttached && table < 0)
+            table = elapsed();
+
+        report();
+    }
+
+    private static void report() {
+        if(reported || firstFrame < 0 || table < 0 || images < 0)
+            return;
+
+        reported = true;
+        scene.removePostLayoutPulseListener(layoutListener);
+
+        if(!ClientConfig.isStartupStats())
+            return;
+
+        System.out.printf("Startup: launch %d ms, first frame %d ms, " +
+                        "table %d ms, images %d ms%n",
+                launch, firstFrame, table, images);
+
+        if(ClientConfig.isStartupBenchmark())
+            Platform.exit();
+    }
+}
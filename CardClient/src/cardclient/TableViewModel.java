@@ -0,0 +1,303 @@
+package cardclient;
+
+import cardmodel.Card;
+import cardmodel.Rules;
+import cardmodel.protocol.GameResult;
+import javafx.application.Platform;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * State of the table shown in the player window, updated by the thread
+ * that reads the server.<br/><br/>
+ * The changes are not applied to the window one by one: they are
+ * accumulated, and a single JavaFX pulse applies all the changes made
+ * since the previous one, so a burst of messages of the server causes
+ * one update (and one layout) of the window instead of one per message.
+ * @author Jose Valera
+ * @version 1.0
+ * @since 19/10/2026
+ */
+public class TableViewModel {
+    /** Rows have been added to the history of the session. */
+    public static final int HISTORY = 1;
+    /** The current card has changed. */
+    public static final int CARDS = 1 << 1;
+    /** The score has changed. */
+    public static final int SCORE = 1 << 2;
+    /** The result of the game has changed. */
+    public static final int RESULT = 1 << 3;
+    /** The chips of the player have changed. */
+    public static final int CHIPS = 1 << 4;
+    /** The options of the player have changed. */
+    public static final int OPTIONS = 1 << 5;
+
+    /**
+     * Receiver of the changes, called in the JavaFX thread.
+     */
+    public interface View {
+        /**
+         * Applies the accumulated changes to the window.
+         * @param changes Changes made since the previous pulse.
+         */
+        void render(Changes changes);
+    }
+
+    /**
+     * Copy of the changes made since the previous pulse.
+     */
+    public static class Changes {
+        private final int dirty;
+        private final short[] newRows;
+        private final Card currentCard;
+        private final int totalHalfPoints;
+        private final boolean bust;
+        private final GameResult result;
+        private final long chips;
+        private final boolean moreCardsVisible;
+        private final boolean retryVisible;
+
+        private Changes(TableViewModel model) {
+            dirty = model.dirty;
+            newRows = Arrays.copyOf(model.newRows, model.newRowCount);
+            currentCard = model.currentCard;
+            totalHalfPoints = model.totalHalfPoints;
+            bust = model.rules.isBust(model.totalHalfPoints);
+            result = model.result;
+            chips = model.chips;
+            moreCardsVisible = model.moreCardsVisible;
+            retryVisible = model.retryVisible;
+        }
+
+        /**
+         * Checks if a part of the table has changed.
+         * @param part Part of the table (HISTORY, CARDS, SCORE, RESULT,
+         *      CHIPS or OPTIONS).
+         * @return true if it has changed.
+         */
+        public boolean has(int part) {
+            return (dirty & part) != 0;
+        }
+
+        /**
+         * Returns the rows of the history added since the previous pulse,
+         * encoded as in {@link HandHistory}.
+         * @return New rows, in order.
+         */
+        public short[] getNewRows() {
+            return newRows;
+        }
+
+        /**
+         * Returns the last card received.
+         * @return Current card, or null if the game has not started.
+         */
+        public Card getCurrentCard() {
+            return currentCard;
+        }
+
+        /**
+         * Returns the score of the player.
+         * @return Score in half points, 0 if there are no cards.
+         */
+        public int getTotalHalfPoints() {
+            return totalHalfPoints;
+        }
+
+        /**
+         * Checks if the score of the player exceeds the target.
+         * @return true if the player has busted.
+         */
+        public boolean isBust() {
+            return bust;
+        }
+
+        /**
+         * Returns the result of the game.
+         * @return Result, or null if the game has not finished.
+         */
+        public GameResult getResult() {
+            return result;
+        }
+
+        /**
+         * Returns the chips of the player.
+         * @return Chips, or -1 if they are not known.
+         */
+        public long getChips() {
+            return chips;
+        }
+
+        /**
+         * Checks if the player can ask for more cards.
+         * @return true if the option of more cards is shown.
+         */
+        public boolean isMoreCardsVisible() {
+            return moreCardsVisible;
+        }
+
+        /**
+         * Checks if the player can choose to repeat the game.
+         * @return true if the option of retry is shown.
+         */
+        public boolean isRetryVisible() {
+            return retryVisible;
+        }
+    }
+
+    private final View view;
+    private short[] newRows = new short[16];
+    private int newRowCount;
+    private final List<Runnable> actions = new ArrayList<>();
+    private Rules rules = Rules.getDefault();
+    private int baseHalfPoints;
+    private int wildCards;
+    private int totalHalfPoints;
+    private Card currentCard;
+    private GameResult result;
+    private long chips = -1;
+    private boolean moreCardsVisible;
+    private boolean retryVisible;
+    private int dirty;
+    private int events;
+    private boolean scheduled;
+
+    /**
+     * Constructor that creates an empty table.
+     * @param view Receiver of the changes.
+     */
+    public TableViewModel(View view) {
+        this.view = view;
+    }
+
+    /**
+     * Changes the rules with which the score is calculated.
+     * @param rules Rules of the variant played.
+     */
+    public synchronized void setRules(Rules rules) {
+        this.rules = rules;
+    }
+
+    /**
+     * Adds a card to the game of the player and updates the score. If the
+     * score reaches the target the player can not ask for more cards.
+     * @param card Card received.
+     */
+    public synchronized void addCard(Card card) {
+        int id = card.getId();
+
+        if(rules.isWild(id))
+            wildCards++;
+
+        else
+            baseHalfPoints += rules.halfPoints(id);
+
+        totalHalfPoints = rules.score(baseHalfPoints, wildCards);
+        addRow(HandHistory.cardRow(card, totalHalfPoints));
+        currentCard = card;
+        moreCardsVisible = totalHalfPoints < rules.getTarget();
+        changed(HISTORY | CARDS | SCORE | OPTIONS);
+    }
+
+    /**
+     * Shows the result of the game and the option to repeat it.
+     * @param result Result of the game.
+     */
+    public synchronized void setResult(GameResult result) {
+        this.result = result;
+        addRow(HandHistory.resultRow(
+                result.getOutcome(), Math.round(result.getTotal() * 2)));
+        moreCardsVisible = false;
+        retryVisible = true;
+        changed(HISTORY | RESULT | OPTIONS);
+    }
+
+    private void addRow(short row) {
+        if(newRowCount == newRows.length)
+            newRows = Arrays.copyOf(newRows, newRows.length * 2);
+
+        newRows[newRowCount++] = row;
+    }
+
+    /**
+     * Updates the chips of the player.
+     * @param chips Chips of the player.
+     */
+    public synchronized void setChips(long chips) {
+        this.chips = chips;
+        changed(CHIPS);
+    }
+
+    /**
+     * Hides the options of the player while the server answers.
+     */
+    public synchronized void hideOptions() {
+        moreCardsVisible = false;
+        retryVisible = false;
+        changed(OPTIONS);
+    }
+
+    /**
+     * Clears the table for a new game. The history of the session is
+     * kept.
+     */
+    public synchronized void reset() {
+        baseHalfPoints = 0;
+        wildCards = 0;
+        totalHalfPoints = 0;
+        currentCard = null;
+        result = null;
+        moreCardsVisible = false;
+        retryVisible = false;
+        changed(CARDS | SCORE | RESULT | OPTIONS);
+    }
+
+    /**
+     * Runs an action in the JavaFX thread after applying the changes made
+     * before it, like showing a dialog.
+     * @param action Action to run.
+     */
+    public synchronized void post(Runnable action) {
+        actions.add(action);
+        changed(0);
+    }
+
+    private void changed(int parts) {
+        dirty |= parts;
+        events++;
+
+        if(!scheduled) {
+            scheduled = true;
+            Platform.runLater(this::pulse);
+        }
+    }
+
+    private void pulse() {
+        Changes changes;
+        List<Runnable> pendingActions;
+        int coalesced;
+
+        synchronized (this) {
+            changes = new Changes(this);
+            pendingActions = new ArrayList<>(actions);
+            coalesced = events;
+            newRowCount = 0;
+            actions.clear();
+            dirty = 0;
+            events = 0;
+            scheduled = false;
+        }
+
+        long start = System.nanoTime();
+
+        if(changes.dirty != 0)
+            view.render(changes);
+
+        RenderStats.frame(coalesced, System.nanoTime() - start);
+
+        for (Runnable action : pendingActions)
+            action.run();
+    }
+}
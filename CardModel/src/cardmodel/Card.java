@@ -9,6 +9,9 @@ import java.io.Serializable;
  * @since 20/10/2020
  */
 public class Card implements Serializable {
+    private static final int symbolCount = CardSymbol.values().length;
+    private static final Card[] cards = createCards();
+
     private CardSymbol symbol;
     private CardSuit suit;
 
@@ -24,11 +27,48 @@ public class Card implements Serializable {
     }
 
     /**
-     * Returns the value of the card in the game of seven and a half.
-     * @return Value of the card in the game of seven and a half.
+     * Returns the card with the identifier passed by parameter. The cards
+     * are shared, so no object is created.
+     * @param id Identifier of the card (see {@link #getId()}).
+     * @return The card with that identifier.
+     * @throws IllegalArgumentException If the identifier is not valid.
+     */
+    public static Card of(int id) {
+        if(id < 0 || id >= cards.length)
+            throw new IllegalArgumentException("Invalid card: " + id);
+
+        return cards[id];
+    }
+
+    /**
+     * Returns the number of different cards, which is also the limit
+     * of their identifiers.
+     * @return Number of different cards.
+     */
+    public static int count() {
+        return cards.length;
+    }
+
+    private static Card[] createCards() {
+        CardSuit[] suits = CardSuit.values();
+        CardSymbol[] symbols = CardSymbol.values();
+        Card[] cards = new Card[suits.length * symbols.length];
+
+        for (CardSuit suit : suits)
+            for (CardSymbol symbol : symbols)
+                cards[suit.ordinal() * symbols.length + symbol.ordinal()] =
+                        new Card(symbol, suit);
+
+        return cards;
+    }
+
+    /**
+     * Returns the identifier of the card, a number that fits in a byte
+     * and that is used to send it through the network.
+     * @return Identifier of the card.
      */
-    public float getValue() {
-        return symbol.getValue();
+    public int getId() {
+        return suit.ordinal() * symbolCount + symbol.ordinal();
     }
 
     /**
@@ -1,7 +1,8 @@
 package cardmodel;
 
 /**
- * Enumerator with the symbols of a deck of playing cards.
+ * Enumerator with the symbols of a deck of playing cards. The 8 and the 9
+ * are only used by the variants with 48 cards.
  * @author Jose Valera
  * @version 1.0
  * @since 20/10/2020
@@ -16,7 +17,9 @@ public enum CardSymbol {
     S7(7),
     SJ(0.5f),
     SQ(0.5f),
-    SK(0.5f);
+    SK(0.5f),
+    S8(8),
+    S9(9);
 
     private float value;
 
@@ -25,8 +28,9 @@ public enum CardSymbol {
     }
 
     /**
-     * Returns the value of the symbol in the game of seven and a half.
-     * @return Value of the symbol in the game of seven and a half.
+     * Returns the value of the symbol in the classic game of seven and a
+     * half. A variant may give it another one, see {@link Rules}.
+     * @return Value of the symbol in the classic game.
      */
     public float getValue() {
         return value;
@@ -12,19 +12,40 @@ public class Deck {
     private Stack<Card> cards;
 
     /**
-     * Initialize a deck with the 40 possible combinations in
+     * Initialize a deck with the 40 cards of the classic game in
      * pseudo-random order.
      */
     public Deck() {
+        this(Rules.getDefault());
+    }
+
+    /**
+     * Initialize a deck with the cards of a variant in pseudo-random
+     * order.
+     * @param rules Rules of the variant.
+     */
+    public Deck(Rules rules) {
+        this(rules, new Random());
+    }
+
+    /**
+     * Initialize a deck with the cards of a variant in the order given by
+     * a seed: the same seed always deals the same cards, which allows
+     * reproducing a recorded game.
+     * @param rules Rules of the variant.
+     * @param seed Seed of the shuffle.
+     */
+    public Deck(Rules rules, long seed) {
+        this(rules, new Random(seed));
+    }
+
+    private Deck(Rules rules, Random random) {
         cards = new Stack<>();
 
-        Arrays.stream(CardSuit.values()).forEach(suit -> {
-            Arrays.stream(CardSymbol.values()).forEach( symbol -> {
-                cards.push(new Card(symbol, suit));
-            });
-        });
+        for (int id : rules.getDeckCards())
+            cards.push(Card.of(id));
 
-        Collections.shuffle(cards);
+        Collections.shuffle(cards, random);
     }
 
     /**
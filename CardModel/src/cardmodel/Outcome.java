@@ -0,0 +1,13 @@
+package cardmodel;
+
+/**
+ * Enumerator with the possible results of a game for a player.
+ * @author Jose Valera
+ * @version 1.0
+ * @since 19/10/2026
+ */
+public enum Outcome {
+    WIN,
+    TIE,
+    LOSS
+}
@@ -0,0 +1,366 @@
+package cardmodel;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Properties;
+
+/**
+ * Rules of a variant of the game of seven and a half, compiled into
+ * tables so that the game only looks up arrays when dealing.<br/><br/>
+ * A variant is defined in a properties file with the keys:<br/>
+ * - name: name of the variant,<br/>
+ * - target: score that must not be exceeded (7.5 in the classic game),
+ * <br/>
+ * - cards: symbols included in the deck (each one in the four suits),
+ * <br/>
+ * - value.SYMBOL: value of a symbol, if it is not its usual one,<br/>
+ * - wild: optional wild card ("SK GOLDS"), worth the value of one of
+ * the other cards of the deck, the one that brings the player closest to
+ * the target.<br/><br/>
+ * The variants included are in the cardmodel/variants folder.
+ * All the scores are handled in half points.
+ * @author Jose Valera
+ * @version 1.0
+ * @since 19/10/2026
+ */
+public class Rules {
+    private static final int NO_WILD = -1;
+    private static Rules defaultRules;
+
+    private final String name;
+    private final byte[] halfPoints;
+    private final int[] deckCards;
+    private final int target;
+    private final int wildCard;
+    private final BitSet wildValues;
+    private final int minHalfPoints;
+    private final byte[] bestWild;
+
+    private Rules(String name, byte[] halfPoints, int[] deckCards,
+                  int target, int wildCard, BitSet wildValues) {
+        this.name = name;
+        this.halfPoints = halfPoints;
+        this.deckCards = deckCards;
+        this.target = target;
+        this.wildCard = wildCard;
+        this.wildValues = wildValues;
+        this.minHalfPoints = wildValues.nextSetBit(0);
+
+        // Highest value that one wild card can take without exceeding each
+        // score left to the target, or -1 if none fits.
+        bestWild = new byte[target + 1];
+
+        for (int limit = 0; limit <= target; limit++)
+            bestWild[limit] = (byte) wildValues.previousSetBit(limit);
+    }
+
+    /**
+     * Returns the rules of the classic game (40 cards, target 7.5).
+     * @return The classic rules.
+     */
+    public static synchronized Rules getDefault() {
+        if(defaultRules == null) {
+            try {
+                defaultRules = load("classic");
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        return defaultRules;
+    }
+
+    /**
+     * Loads a variant from a properties file or, if there is no file with
+     * that path, from the variants included with that name.
+     * @param variant Path of a file or name of an included variant.
+     * @return The compiled rules of the variant.
+     * @throws IOException If the variant does not exist or is not valid.
+     */
+    public static Rules load(String variant) throws IOException {
+        Properties definition = new Properties();
+        Path path = Paths.get(variant);
+
+        try (InputStream in = Files.isRegularFile(path)?
+                Files.newInputStream(path):
+                Rules.class.getResourceAsStream("variants/" + variant + ".properties")) {
+            if(in == null)
+                throw new FileNotFoundException("Unknown variant: " + variant);
+
+            definition.load(in);
+        }
+
+        try {
+            return compile(definition);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid variant " + variant + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Compiles the definition of a variant.
+     * @param definition Properties with the definition of the variant.
+     * @return The compiled rules.
+     * @throws IllegalArgumentException If the definition is not valid.
+     */
+    public static Rules compile(Properties definition) {
+        CardSymbol[] symbols = CardSymbol.values();
+        CardSuit[] suits = CardSuit.values();
+        byte[] halfPoints = new byte[Card.count()];
+        String[] included = definition.getProperty("cards", "").split(",");
+        int[] deckCards = new int[included.length * suits.length];
+        int cards = 0;
+
+        for (CardSymbol symbol : symbols) {
+            float value = Float.parseFloat(definition.getProperty(
+                    "value." + symbol.name(),
+                    String.valueOf(symbol.getValue())));
+
+            for (CardSuit suit : suits)
+                halfPoints[suit.ordinal() * symbols.length + symbol.ordinal()] =
+                        toHalfPoints(value);
+        }
+
+        for (String symbolName : included) {
+            CardSymbol symbol = CardSymbol.valueOf(symbolName.trim());
+
+            for (CardSuit suit : suits)
+                deckCards[cards++] = suit.ordinal() * symbols.length + symbol.ordinal();
+        }
+
+        if(cards == 0)
+            throw new IllegalArgumentException("The deck has no cards.");
+
+        int wildCard = NO_WILD;
+        String wild = definition.getProperty("wild");
+
+        if(wild != null) {
+            String[] parts = wild.trim().split("\\s+");
+
+            if(parts.length != 2)
+                throw new IllegalArgumentException("Invalid wild card: " + wild);
+
+            wildCard = new Card(CardSymbol.valueOf(parts[0]), CardSuit.valueOf(parts[1])).getId();
+        }
+
+        // Values that the wild card can take: those of the other cards.
+        BitSet wildValues = new BitSet(Byte.MAX_VALUE + 1);
+
+        for (int i = 0; i < cards; i++)
+            if(deckCards[i] != wildCard)
+                wildValues.set(halfPoints[deckCards[i]]);
+
+        if(wildValues.isEmpty())
+            wildValues.set(0);
+
+        int min = wildValues.nextSetBit(0);
+
+        // Every game must end before the deck runs out: the whole deck,
+        // with the wild card at its lowest value, exceeds the target.
+        int target = toHalfPoints(Float.parseFloat(definition.getProperty("target", "7.5")));
+        int total = 0;
+
+        for (int i = 0; i < cards; i++)
+            total += deckCards[i] == wildCard? min: halfPoints[deckCards[i]];
+
+        if(total <= target)
+            throw new IllegalArgumentException("The deck does not exceed the target.");
+
+        return new Rules(
+                definition.getProperty("name", "Custom"),
+                halfPoints,
+                Arrays.copyOf(deckCards, cards),
+                target,
+                wildCard,
+                wildValues);
+    }
+
+    private static byte toHalfPoints(float value) {
+        int halfPoints = Math.round(value * 2);
+
+        if(halfPoints < 0 || halfPoints > Byte.MAX_VALUE || halfPoints / 2f != value)
+            throw new IllegalArgumentException("Invalid value: " + value);
+
+        return (byte) halfPoints;
+    }
+
+    /**
+     * Writes the tables of the rules in a buffer, to send them to the
+     * players. The deck is not included.
+     * @param buffer Buffer in which the rules are written.
+     */
+    public void encode(ByteBuffer buffer) {
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        long[] values = Arrays.copyOf(wildValues.toLongArray(), 2);
+
+        buffer.put((byte) target)
+              .put((byte) wildCard)
+              .putLong(values[0])
+              .putLong(values[1])
+              .put((byte) halfPoints.length)
+              .put(halfPoints)
+              .put(nameBytes);
+    }
+
+    /**
+     * Returns the maximum number of bytes written by
+     * {@link #encode(ByteBuffer)}.
+     * @return Size of the encoded rules.
+     */
+    public int encodedSize() {
+        return 19 + halfPoints.length + name.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    /**
+     * Reads the rules written by {@link #encode(ByteBuffer)}.
+     * @param buffer Buffer positioned at the start of the rules.
+     * @return The rules read, without deck.
+     * @throws IllegalArgumentException If the rules are not valid.
+     */
+    public static Rules decode(ByteBuffer buffer) {
+        int target = buffer.get();
+        int wildCard = buffer.get();
+        BitSet wildValues = BitSet.valueOf(new long[] {buffer.getLong(), buffer.getLong()});
+        int count = buffer.get() & 0xFF;
+
+        if(count != Card.count() || wildCard < NO_WILD || wildCard >= count)
+            throw new IllegalArgumentException("Rules for another deck.");
+
+        if(target < 0 || wildValues.isEmpty())
+            throw new IllegalArgumentException("Invalid rules.");
+
+        byte[] halfPoints = new byte[count];
+        buffer.get(halfPoints);
+
+        byte[] nameBytes = new byte[buffer.remaining()];
+        buffer.get(nameBytes);
+
+        return new Rules(
+                new String(nameBytes, StandardCharsets.UTF_8),
+                halfPoints,
+                new int[0],
+                target,
+                wildCard,
+                wildValues);
+    }
+
+    /**
+     * Returns the name of the variant.
+     * @return Name of the variant.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the value of a card in half points (0 for the wild card,
+     * whose value depends on the rest of the hand).
+     * @param cardId Identifier of the card.
+     * @return Value of the card in half points.
+     */
+    public int halfPoints(int cardId) {
+        return cardId == wildCard? 0: halfPoints[cardId];
+    }
+
+    /**
+     * Checks if a card is the wild card of the variant.
+     * @param cardId Identifier of the card.
+     * @return true if it is the wild card.
+     */
+    public boolean isWild(int cardId) {
+        return cardId == wildCard;
+    }
+
+    /**
+     * Returns the score of a hand. Each wild card takes the value of one
+     * of the other cards of the deck, so that the hand gets as close to
+     * the target as it can without exceeding it. If no values fit, the
+     * wild cards take the lowest one and the hand busts.
+     * @param baseHalfPoints Sum of the cards that are not wild, in half
+     *      points.
+     * @param wildCards Number of wild cards in the hand.
+     * @return Score of the hand in half points.
+     */
+    public int score(int baseHalfPoints, int wildCards) {
+        if(wildCards == 0)
+            return baseHalfPoints;
+
+        int limit = target - baseHalfPoints;
+        int wildValue = -1;
+
+        if(limit >= 0)
+            wildValue = wildCards == 1? bestWild[limit]: bestSum(wildCards, limit);
+
+        return baseHalfPoints + (wildValue >= 0? wildValue: wildCards * minHalfPoints);
+    }
+
+    /*
+     * Highest sum of the values of several wild cards that does not
+     * exceed the limit, or -1. The deck has a single wild card, so this
+     * is only used by hands made up by the tools.
+     */
+    private int bestSum(int wildCards, int limit) {
+        BitSet sums = new BitSet();
+        sums.set(0);
+
+        for (int i = 0; i < wildCards; i++) {
+            BitSet next = new BitSet();
+
+            for (int sum = sums.nextSetBit(0); sum >= 0 && sum <= limit; sum = sums.nextSetBit(sum + 1))
+                for (int value = wildValues.nextSetBit(0); value >= 0; value = wildValues.nextSetBit(value + 1))
+                    next.set(sum + value);
+
+            sums = next;
+        }
+
+        return sums.previousSetBit(limit);
+    }
+
+    /**
+     * Returns the score that must not be exceeded.
+     * @return Target score in half points.
+     */
+    public int getTarget() {
+        return target;
+    }
+
+    /**
+     * Returns the score that must not be exceeded.
+     * @return Target score (7.5 in the classic game).
+     */
+    public float getTargetValue() {
+        return target / 2f;
+    }
+
+    /**
+     * Checks if a score exceeds the target.
+     * @param halfPoints Score in half points.
+     * @return true if the player has busted.
+     */
+    public boolean isBust(int halfPoints) {
+        return halfPoints > target;
+    }
+
+    /**
+     * Returns the identifiers of the cards of the deck of the variant.
+     * @return Identifiers of the cards of the deck.
+     */
+    public int[] getDeckCards() {
+        return deckCards.clone();
+    }
+
+    /**
+     * Returns the name of the variant.
+     * @return The name of the variant.
+     */
+    @Override
+    public String toString() {
+        return name;
+    }
+}
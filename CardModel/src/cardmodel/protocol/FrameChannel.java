@@ -0,0 +1,341 @@
+package cardmodel.protocol;
+
+import cardmodel.Card;
+
+import java.io.*;
+import java.net.Socket;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Channel that exchanges length-prefixed frames through a socket. It is
+ * the only stream layer of a connection: one buffer for reading and one
+ * for writing, both reused for all the frames.<br/><br/>
+ * Each frame is formed by a header (2 bytes with the length of the
+ * payload and 1 byte with the {@link MessageType}) and the payload.
+ * <br/><br/>
+ * The written frames are grouped in the output buffer and only sent to
+ * the socket by {@link #flush()}. The buffers are heap buffers because
+ * socket streams (also the TLS ones) work with arrays; they are written
+ * and read without intermediate copies.
+ * @author Jose Valera
+ * @version 1.0
+ * @since 19/10/2026
+ */
+public class FrameChannel implements Closeable {
+    /**
+     * Size of the header of a frame in bytes.
+     */
+    public static final int HEADER_SIZE = 3;
+
+    private final Socket socket;
+    private final InputStream in;
+    private final OutputStream out;
+
+    private final ByteBuffer readBuffer;
+    private final ByteBuffer writeBuffer;
+    private int frameEnd;
+    private int dataEnd;
+    private int frameStart = -1;
+    private int writes;
+    private volatile boolean writing;
+    private volatile long writeStart;
+    private volatile FrameTap tap;
+
+    /**
+     * Constructor that creates the channel over a connected socket.
+     * @param socket Connected socket.
+     * @param bufferSize Size of the buffers, which is also the maximum
+     *      size of a frame.
+     * @throws IOException If the streams of the socket can not be obtained.
+     */
+    public FrameChannel(Socket socket, int bufferSize) throws IOException {
+        this.socket = socket;
+        in = socket.getInputStream();
+        out = socket.getOutputStream();
+        readBuffer = ByteBuffer.allocate(bufferSize);
+        readBuffer.flip();
+        writeBuffer = ByteBuffer.allocate(bufferSize);
+    }
+
+    /**
+     * Returns the socket of the channel.
+     * @return The socket of the channel.
+     */
+    public Socket getSocket() {
+        return socket;
+    }
+
+    /**
+     * Sets the observer of the frames read and sent by the channel.
+     * @param tap Observer of the frames, or null to remove it.
+     */
+    public void setTap(FrameTap tap) {
+        this.tap = tap;
+    }
+
+    /**
+     * Waits for the next frame and returns its type. Its payload can be
+     * read with {@link #getPayload()} until the next call.
+     * @return Type of the frame received.
+     * @throws IOException If the connection fails, is closed or the frame
+     *      is not valid.
+     */
+    public MessageType read() throws IOException {
+        readBuffer.limit(dataEnd).position(frameEnd);
+
+        fill(HEADER_SIZE);
+        int length = readBuffer.getShort() & 0xFFFF;
+        byte code = readBuffer.get();
+
+        fill(length);
+        frameEnd = readBuffer.position() + length;
+        dataEnd = readBuffer.limit();
+        readBuffer.limit(frameEnd);
+        MessageType type;
+
+        try {
+            type = MessageType.of(code);
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage());
+        }
+
+        FrameTap currentTap = tap;
+
+        if(currentTap != null)
+            currentTap.received(
+                    type,
+                    readBuffer.array(),
+                    readBuffer.arrayOffset() + readBuffer.position(),
+                    length);
+
+        return type;
+    }
+
+    /**
+     * Returns the payload of the last frame read, positioned at its start.
+     * @return Buffer with the payload of the last frame.
+     */
+    public ByteBuffer getPayload() {
+        return readBuffer;
+    }
+
+    /**
+     * Reads the card carried in the payload of the last frame.
+     * @return The card received.
+     * @throws IOException If the payload is not a valid card.
+     */
+    public Card readCard() throws IOException {
+        try {
+            return Card.of(readBuffer.get() & 0xFF);
+        } catch (RuntimeException e) {
+            throw new IOException("Invalid card frame.", e);
+        }
+    }
+
+    /**
+     * Reads the number carried in the payload of the last frame.
+     * @return The number received.
+     * @throws IOException If the payload is not a number.
+     */
+    public long readLong() throws IOException {
+        if(readBuffer.remaining() < Long.BYTES)
+            throw new IOException("Invalid number frame.");
+
+        return readBuffer.getLong();
+    }
+
+    /**
+     * Reads the text carried in the payload of the last frame.
+     * @return The text received.
+     */
+    public String readText() {
+        String text = new String(
+                readBuffer.array(),
+                readBuffer.arrayOffset() + readBuffer.position(),
+                readBuffer.remaining(),
+                StandardCharsets.UTF_8);
+        readBuffer.position(readBuffer.limit());
+
+        return text;
+    }
+
+    private void fill(int needed) throws IOException {
+        if(readBuffer.remaining() >= needed)
+            return;
+
+        if(needed > readBuffer.capacity())
+            throw new IOException("Frame too large: " + needed + " bytes.");
+
+        readBuffer.compact();
+
+        while (readBuffer.position() < needed) {
+            int read = in.read(
+                    readBuffer.array(),
+                    readBuffer.arrayOffset() + readBuffer.position(),
+                    readBuffer.remaining());
+
+            if(read < 0)
+                throw new EOFException("Connection closed by the other side.");
+
+            readBuffer.position(readBuffer.position() + read);
+        }
+
+        readBuffer.flip();
+    }
+
+    /**
+     * Adds a frame without payload to the output buffer.
+     * @param type Type of the frame.
+     * @throws IOException If the buffer was full and could not be sent.
+     */
+    public synchronized void write(MessageType type) throws IOException {
+        begin(type, 0);
+        end();
+    }
+
+    /**
+     * Adds a frame with a card to the output buffer.
+     * @param card Card to send.
+     * @throws IOException If the buffer was full and could not be sent.
+     */
+    public synchronized void write(Card card) throws IOException {
+        begin(MessageType.CARD, 1).put((byte) card.getId());
+        end();
+    }
+
+    /**
+     * Adds a frame with a text to the output buffer.
+     * @param type Type of the frame.
+     * @param text Text to send.
+     * @throws IOException If the buffer was full and could not be sent.
+     */
+    public synchronized void write(MessageType type, String text)
+            throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        begin(type, bytes.length).put(bytes);
+        end();
+    }
+
+    /**
+     * Adds a frame with a number to the output buffer.
+     * @param type Type of the frame.
+     * @param value Number to send.
+     * @throws IOException If the buffer was full and could not be sent.
+     */
+    public synchronized void write(MessageType type, long value)
+            throws IOException {
+        begin(type, Long.BYTES).putLong(value);
+        end();
+    }
+
+    /**
+     * Starts a frame in the output buffer and returns the buffer so that
+     * the payload is put directly into it. The frame must be closed with
+     * {@link #end()} by the same thread, while holding the lock of the
+     * channel if other threads can write on it.
+     * @param type Type of the frame.
+     * @param maxLength Maximum length of the payload.
+     * @return The output buffer, positioned at the start of the payload.
+     * @throws IOException If the buffer was full and could not be sent.
+     */
+    public synchronized ByteBuffer begin(MessageType type, int maxLength)
+            throws IOException {
+        if(maxLength > Math.min(0xFFFF, writeBuffer.capacity() - HEADER_SIZE))
+            throw new IOException("Frame too large: " + maxLength + " bytes.");
+
+        if(writeBuffer.remaining() < HEADER_SIZE + maxLength)
+            flush();
+
+        frameStart = writeBuffer.position();
+        writeBuffer.putShort((short) 0).put(type.getCode());
+
+        return writeBuffer;
+    }
+
+    /**
+     * Closes the frame started by {@link #begin(MessageType, int)},
+     * writing the length of its payload in the header.
+     */
+    public synchronized void end() {
+        if(frameStart < 0)
+            throw new IllegalStateException("No frame started.");
+
+        int length = writeBuffer.position() - frameStart - HEADER_SIZE;
+
+        if(length > 0xFFFF)
+            throw new BufferOverflowException();
+
+        writeBuffer.putShort(frameStart, (short) length);
+        frameStart = -1;
+    }
+
+    /**
+     * Sends all the frames of the output buffer in a single write.
+     * @throws IOException If the socket can not be written.
+     */
+    public synchronized void flush() throws IOException {
+        if(frameStart >= 0)
+            throw new IllegalStateException("Frame not finished.");
+
+        if(writeBuffer.position() > 0) {
+            writeStart = System.nanoTime();
+            writing = true;
+
+            try {
+                out.write(
+                        writeBuffer.array(),
+                        writeBuffer.arrayOffset(),
+                        writeBuffer.position());
+                out.flush();
+            } finally {
+                writing = false;
+            }
+
+            FrameTap currentTap = tap;
+
+            if(currentTap != null)
+                currentTap.sent(
+                        writeBuffer.array(),
+                        writeBuffer.arrayOffset(),
+                        writeBuffer.position());
+
+            writeBuffer.clear();
+            writes++;
+        }
+    }
+
+    /**
+     * Returns for how long the current write to the socket has been
+     * blocked, without taking the lock of the channel, so that another
+     * thread can find a peer that does not read what is sent to it.
+     * @param now Current time in nanoseconds, see {@link System#nanoTime()}.
+     * @return Time in nanoseconds, or 0 if the channel is not writing.
+     */
+    public long getWriteStall(long now) {
+        long start = writeStart;
+
+        return writing? Math.max(now - start, 1): 0;
+    }
+
+    /**
+     * Returns the number of writes made to the socket since the last call
+     * and restarts the count.
+     * @return Number of writes made to the socket.
+     */
+    public synchronized int takeWriteCount() {
+        int lastWrites = writes;
+        writes = 0;
+        return lastWrites;
+    }
+
+    /**
+     * Closes the socket of the channel, the pending frames are discarded.
+     * @throws IOException If the socket can not be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+}
@@ -0,0 +1,28 @@
+package cardmodel.protocol;
+
+/**
+ * Observer of the frames exchanged by a {@link FrameChannel}, like a
+ * recorder of the traffic of a connection. It is called by the thread
+ * that reads or sends the frames, so it must be fast.
+ * @author Jose Valera
+ * @version 1.0
+ * @since 19/10/2026
+ */
+public interface FrameTap {
+    /**
+     * Called when a frame has been read.
+     * @param type Type of the frame.
+     * @param payload Array with the payload of the frame.
+     * @param offset Position of the payload in the array.
+     * @param length Length of the payload.
+     */
+    void received(MessageType type, byte[] payload, int offset, int length);
+
+    /**
+     * Called when a group of frames has been sent to the socket.
+     * @param frames Array with the frames sent, headers included.
+     * @param offset Position of the first frame in the array.
+     * @param length Length of all the frames.
+     */
+    void sent(byte[] frames, int offset, int length);
+}
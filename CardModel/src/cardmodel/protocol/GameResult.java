@@ -0,0 +1,204 @@
+package cardmodel.protocol;
+
+import cardmodel.Outcome;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Result of a game, as received by a player in a RESULT frame.<br/><br/>
+ * The server encodes the record of a table only once, with the results
+ * of all the seats, and each player receives it preceded by the number
+ * of its own seat:<br/>
+ * - seat of the player (byte),<br/>
+ * - number of seats (byte),<br/>
+ * - winning total (short, -1 if nobody has won),<br/>
+ * - number of winners (byte),<br/>
+ * - total of the dealer (short, -1 if there is no dealer),<br/>
+ * - for each seat, its outcome (byte) and its total (short).<br/><br/>
+ * All the totals are in half points.
+ * @author Jose Valera
+ * @version 1.0
+ * @since 19/10/2026
+ */
+public final class GameResult {
+    /**
+     * Maximum number of seats of a table, since the number of seats, of
+     * winners and the seat of the player are bytes.
+     */
+    public static final int MAX_SEATS = 255;
+
+    private static final Outcome[] outcomes = Outcome.values();
+    private static final int TABLE_HEADER_SIZE = 6;
+    private static final int SEAT_SIZE = 3;
+
+    private final int seat;
+    private final int winningTotal;
+    private final int winners;
+    private final int dealerTotal;
+    private final Outcome[] seatOutcomes;
+    private final int[] seatTotals;
+
+    private GameResult(int seat, int winningTotal, int winners, int dealerTotal,
+                       Outcome[] seatOutcomes, int[] seatTotals) {
+        this.seat = seat;
+        this.winningTotal = winningTotal;
+        this.winners = winners;
+        this.dealerTotal = dealerTotal;
+        this.seatOutcomes = seatOutcomes;
+        this.seatTotals = seatTotals;
+    }
+
+    /**
+     * Encodes the record of a table, shared by all its seats.
+     * @param winningTotal Winning total in half points, -1 if nobody has
+     *      won.
+     * @param winners Number of winners.
+     * @param dealerTotal Total of the dealer in half points, -1 if there
+     *      is no dealer.
+     * @param outcomes Outcome of each seat.
+     * @param totals Total of each seat in half points.
+     * @return The record of the table, without the seat of the player.
+     */
+    public static byte[] encodeTable(int winningTotal, int winners, int dealerTotal,
+                                     Outcome[] outcomes, int[] totals) {
+        ByteBuffer record = ByteBuffer.allocate(
+                TABLE_HEADER_SIZE + SEAT_SIZE * outcomes.length);
+
+        record.put((byte) outcomes.length)
+              .putShort((short) winningTotal)
+              .put((byte) winners)
+              .putShort((short) dealerTotal);
+
+        for (int i = 0; i < outcomes.length; i++)
+            record.put((byte) outcomes[i].ordinal())
+                  .putShort((short) totals[i]);
+
+        return record.array();
+    }
+
+    /**
+     * Reads a result from the payload of a RESULT frame.
+     * @param payload Payload positioned at the start of the result.
+     * @return The result read.
+     * @throws IllegalArgumentException If the payload is not valid.
+     */
+    public static GameResult decode(ByteBuffer payload) {
+        if(payload.remaining() < 1 + TABLE_HEADER_SIZE)
+            throw new IllegalArgumentException("Result too short.");
+
+        int seat = payload.get() & 0xFF;
+        int seats = payload.get() & 0xFF;
+        int winningTotal = payload.getShort();
+        int winners = payload.get() & 0xFF;
+        int dealerTotal = payload.getShort();
+
+        if(seat >= seats || payload.remaining() < SEAT_SIZE * seats)
+            throw new IllegalArgumentException("Invalid result.");
+
+        Outcome[] seatOutcomes = new Outcome[seats];
+        int[] seatTotals = new int[seats];
+
+        for (int i = 0; i < seats; i++) {
+            int code = payload.get();
+
+            if(code < 0 || code >= outcomes.length)
+                throw new IllegalArgumentException("Invalid outcome: " + code);
+
+            seatOutcomes[i] = outcomes[code];
+            seatTotals[i] = payload.getShort();
+        }
+
+        return new GameResult(seat, winningTotal, winners, dealerTotal,
+                seatOutcomes, seatTotals);
+    }
+
+    /**
+     * Returns the outcome of the player.
+     * @return Outcome of the player.
+     */
+    public Outcome getOutcome() {
+        return seatOutcomes[seat];
+    }
+
+    /**
+     * Returns the total of the player.
+     * @return Total of the player.
+     */
+    public float getTotal() {
+        return getTotal(seat);
+    }
+
+    /**
+     * Returns the seat of the player, from 0.
+     * @return Seat of the player.
+     */
+    public int getSeat() {
+        return seat;
+    }
+
+    /**
+     * Returns the number of seats of the table.
+     * @return Number of seats.
+     */
+    public int getSeats() {
+        return seatOutcomes.length;
+    }
+
+    /**
+     * Returns whether some player has won or tied.
+     * @return true if there is a winning total.
+     */
+    public boolean hasWinner() {
+        return winningTotal >= 0;
+    }
+
+    /**
+     * Returns the total with which the game has been won.
+     * @return Winning total, or -1 if nobody has won.
+     */
+    public float getWinningTotal() {
+        return winningTotal < 0? -1: winningTotal / 2f;
+    }
+
+    /**
+     * Returns the number of players that have won or tied.
+     * @return Number of winners.
+     */
+    public int getWinners() {
+        return winners;
+    }
+
+    /**
+     * Returns whether the game has been played against a dealer.
+     * @return true if there is a dealer.
+     */
+    public boolean hasDealer() {
+        return dealerTotal >= 0;
+    }
+
+    /**
+     * Returns the total of the dealer.
+     * @return Total of the dealer, or -1 if there is no dealer.
+     */
+    public float getDealerTotal() {
+        return dealerTotal < 0? -1: dealerTotal / 2f;
+    }
+
+    /**
+     * Returns the outcome of a seat.
+     * @param seat Seat, from 0.
+     * @return Outcome of the seat.
+     */
+    public Outcome getOutcome(int seat) {
+        return seatOutcomes[seat];
+    }
+
+    /**
+     * Returns the total of a seat.
+     * @param seat Seat, from 0.
+     * @return Total of the seat.
+     */
+    public float getTotal(int seat) {
+        return seatTotals[seat] / 2f;
+    }
+}
@@ -0,0 +1,77 @@
+package cardmodel.protocol;
+
+/**
+ * Enumerator with the types of the messages exchanged between the server
+ * and the players. Each type is sent as one byte in the header of
+ * its frame.
+ * @author Jose Valera
+ * @version 1.0
+ * @since 19/10/2026
+ */
+public enum MessageType {
+    /** Server to player: a card, the payload is its identifier. */
+    CARD,
+    /** Server to player: the result of the game, see {@link GameResult}. */
+    RESULT,
+    /** Server to player: the game is repeated. */
+    RETRY,
+    /** Server to player: the game is over. */
+    FINISH,
+    /** Server to player: the connection is rejected, the server is busy. */
+    BUSY,
+    /**
+     * Player to server: name of the player, the payload is a text. It may
+     * be followed by a line with the key of the player, which binds the
+     * chips of the name to it.
+     */
+    HELLO,
+    /** Player to server: positive answer (more cards or retry). */
+    YES,
+    /** Player to server: negative answer (no more cards or no retry). */
+    NO,
+    /** Server to player: rules of the variant, sent once after HELLO. */
+    RULES,
+    /** Player to server: chips bet in the next game, before its first card. */
+    BET,
+    /** Server to player: chips of the player after joining or settling. */
+    CHIPS,
+    /**
+     * Server to player: heartbeat, with its interval in milliseconds
+     * (long). The player answers with PONG.
+     */
+    PING,
+    /** Player to server: answer to a PING. */
+    PONG;
+
+    private static final MessageType[] types = values();
+
+    /**
+     * Returns the code with which the type is sent.
+     * @return Code of the type.
+     */
+    public byte getCode() {
+        return (byte) ordinal();
+    }
+
+    /**
+     * Returns whether the type is part of the heartbeat of the connection
+     * instead of the game.
+     * @return true for PING and PONG.
+     */
+    public boolean isHeartbeat() {
+        return this == PING || this == PONG;
+    }
+
+    /**
+     * Returns the type that corresponds to a code received.
+     * @param code Code of the type.
+     * @return The type of the message.
+     * @throws IllegalArgumentException If the code is not valid.
+     */
+    public static MessageType of(byte code) {
+        if(code < 0 || code >= types.length)
+            throw new IllegalArgumentException("Invalid message type: " + code);
+
+        return types[code];
+    }
+}
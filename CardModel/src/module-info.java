@@ -1,3 +1,4 @@
 module CardModel {
     exports cardmodel;
+    exports cardmodel.protocol;
 }
\ No newline at end of file
@@ -0,0 +1,308 @@
+package cardserver;
+
+import cardmodel.protocol.MessageType;
+
+import javax.net.ssl.SSLSocket;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thread that accepts the connections of the players and decides which
+ * of them are admitted before creating anything for them.<br/><br/>
+ * A connection is admitted if its IP address has not exceeded its rate
+ * of connections (token bucket), there is a free seat and there is room
+ * in the queue of admitted connections. Otherwise it receives a BUSY
+ * message and is closed immediately. Once all the seats of the table are
+ * taken ({@link #closeSeating()}), every connection is rejected, since
+ * nobody would take it out of the queue.<br/><br/>
+ * The buckets of the last {@value #MAX_BUCKETS} addresses are kept, and
+ * the one used least recently is evicted when another address arrives,
+ * so a flood from many addresses can not make them grow without bound.
+ * An evicted address starts again with a full bucket.
+ * @author Jose Valera
+ * @version 1.0
+ * @since 19/10/2026
+ */
+public class AdmissionControl extends Thread {
+    private static final int MAX_BUCKETS = 1024;
+    private static final byte[] busyFrame = {0, 0, MessageType.BUSY.getCode()};
+
+    private final ServerSocket server;
+    private final int maxSeats;
+    private final BlockingQueue<Socket> queue;
+    private final Map<InetAddress, TokenBucket> buckets =
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<InetAddress, TokenBucket> eldest) {
+                    if(size() <= MAX_BUCKETS)
+                        return false;
+
+                    evictedBuckets.incrementAndGet();
+                    return true;
+                }
+            };
+
+    private final AtomicInteger seats = new AtomicInteger();
+    private volatile boolean seatingClosed;
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong rejectedByRate = new AtomicLong();
+    private final AtomicLong rejectedByCapacity = new AtomicLong();
+    private final AtomicLong evictedBuckets = new AtomicLong();
+
+    /**
+     * Constructor that prepares the admission of the connections of a
+     * bound server socket.
+     * @param server Socket that listens to the players.
+     * @param maxSeats Maximum number of players seated at the same time.
+     */
+    public AdmissionControl(ServerSocket server, int maxSeats) {
+        super("AdmissionControl");
+        this.server = server;
+        this.maxSeats = maxSeats;
+        queue = new ArrayBlockingQueue<>(ServerConfig.getAcceptQueue());
+        setDaemon(true);
+    }
+
+    /**
+     * Accepts connections until the server socket is closed.
+     */
+    @Override
+    public void run() {
+        while (!server.isClosed()) {
+            try {
+                admit(server.accept());
+            } catch (IOException e) {
+                if(!server.isClosed())
+                    System.err.println("Admission: " + e);
+            }
+        }
+    }
+
+    private void admit(Socket socket) {
+        if(seatingClosed) {
+            rejectedByCapacity.incrementAndGet();
+            reject(socket);
+        }
+
+        else if(!acquireToken(socket.getInetAddress())) {
+            rejectedByRate.incrementAndGet();
+            reject(socket);
+        }
+
+        else if(!reserveSeat()) {
+            rejectedByCapacity.incrementAndGet();
+            reject(socket);
+        }
+
+        else if(!queue.offer(socket)) {
+            releaseSeat();
+            rejectedByCapacity.incrementAndGet();
+            reject(socket);
+        }
+
+        // Seating closed while it was queued: it would never be taken.
+        else if(seatingClosed && queue.remove(socket)) {
+            releaseSeat();
+            rejectedByCapacity.incrementAndGet();
+            reject(socket);
+        }
+
+        else
+            accepted.incrementAndGet();
+    }
+
+    /**
+     * Decides whether a connection accepted by another endpoint (like the
+     * WebSocket gateway) is admitted, with the same limits, and reserves
+     * its seat. The seat is freed with {@link #releaseSeat()}.
+     * @param address IP address of the connection.
+     * @return true if the connection is admitted.
+     */
+    public boolean admit(InetAddress address) {
+        if(seatingClosed) {
+            rejectedByCapacity.incrementAndGet();
+            return false;
+        }
+
+        if(!acquireToken(address)) {
+            rejectedByRate.incrementAndGet();
+            return false;
+        }
+
+        if(!reserveSeat()) {
+            rejectedByCapacity.incrementAndGet();
+            return false;
+        }
+
+        accepted.incrementAndGet();
+        return true;
+    }
+
+    /*
+     * Called by this thread and by the WebSocket gateway, the lock only
+     * covers the lookup in the buckets.
+     */
+    private boolean acquireToken(InetAddress address) {
+        TokenBucket bucket;
+
+        synchronized (buckets) {
+            bucket = buckets.computeIfAbsent(
+                    address,
+                    a -> new TokenBucket(
+                            ServerConfig.getConnectionsPerSecond(),
+                            ServerConfig.getConnectionBurst()));
+        }
+
+        return bucket.tryAcquire();
+    }
+
+    private boolean reserveSeat() {
+        int current;
+
+        do {
+            current = seats.get();
+
+            if(current >= maxSeats)
+                return false;
+        } while (!seats.compareAndSet(current, current + 1));
+
+        return true;
+    }
+
+    /*
+     * The TLS sockets are closed without message, writing it would need
+     * the handshake in this thread.
+     */
+    private void reject(Socket socket) {
+        if(!(socket instanceof SSLSocket)) {
+            try {
+                OutputStream out = socket.getOutputStream();
+                out.write(busyFrame);
+                out.flush();
+            } catch (IOException e) {}
+        }
+
+        try { socket.close(); } catch (IOException e) {}
+    }
+
+    /**
+     * Waits for the next admitted connection and takes it out of
+     * the queue.
+     * @return Socket of the admitted player.
+     * @throws InterruptedException If the thread is interrupted while
+     *      waiting.
+     */
+    public Socket take() throws InterruptedException {
+        return queue.take();
+    }
+
+    /**
+     * Waits for the next admitted connection for a limited time.
+     * @param millis Maximum time to wait in milliseconds.
+     * @return Socket of the admitted player, or null if none has been
+     *      admitted in that time.
+     * @throws InterruptedException If the thread is interrupted while
+     *      waiting.
+     */
+    public Socket poll(long millis) throws InterruptedException {
+        return queue.poll(millis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops admitting connections because all the seats of the table are
+     * taken. The connections still in the queue receive a BUSY message
+     * and are closed.
+     */
+    public void closeSeating() {
+        seatingClosed = true;
+        Socket socket;
+
+        while ((socket = queue.poll()) != null) {
+            releaseSeat();
+            rejectedByCapacity.incrementAndGet();
+            reject(socket);
+        }
+    }
+
+    /**
+     * Frees the seat of a player that has left the game.
+     */
+    public void releaseSeat() {
+        seats.decrementAndGet();
+    }
+
+    /**
+     * Stops accepting connections and closes the server socket.
+     */
+    public void close() {
+        try { server.close(); } catch (IOException e) {}
+    }
+
+    /**
+     * Returns the number of connections admitted.
+     * @return Number of connections admitted.
+     */
+    public long getAccepted() {
+        return accepted.get();
+    }
+
+    /**
+     * Returns the number of admitted connections waiting for a seat.
+     * @return Number of connections in the queue.
+     */
+    public int getQueued() {
+        return queue.size();
+    }
+
+    /**
+     * Returns the number of connections rejected.
+     * @return Number of connections rejected by rate or capacity.
+     */
+    public long getRejected() {
+        return rejectedByRate.get() + rejectedByCapacity.get();
+    }
+
+    /**
+     * Returns the number of addresses whose rate is being limited.
+     * @return Number of token buckets kept.
+     */
+    public int getBuckets() {
+        synchronized (buckets) {
+            return buckets.size();
+        }
+    }
+
+    /**
+     * Returns the number of buckets evicted to make room for other
+     * addresses.
+     * @return Number of token buckets evicted.
+     */
+    public long getEvictedBuckets() {
+        return evictedBuckets.get();
+    }
+
+    /**
+     * Returns a text with the counters of the admission.
+     * @return Text with the counters.
+     */
+    @Override
+    public String toString() {
+        return "accepted=" + accepted.get() +
+                " queued=" + queue.size() +
+                " seats=" + seats.get() + "/" + maxSeats +
+                " rejected(rate)=" + rejectedByRate.get() +
+                " rejected(capacity)=" + rejectedByCapacity.get() +
+                " buckets=" + getBuckets() +
+                " evicted=" + evictedBuckets.get();
+    }
+}
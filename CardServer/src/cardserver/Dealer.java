@@ -0,0 +1,134 @@
+package cardserver;
+
+import cardmodel.Card;
+import cardmodel.Deck;
+import cardmodel.Rules;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Automated dealer of the bank mode (banca): it plays after all the
+ * players with its own deck, and every seat is settled against its
+ * score.<br/><br/>
+ * The dealer has no thread: each card it draws is a task scheduled on
+ * the executor of the table, so the pause between its cards does not
+ * block any thread.
+ * @author Jose Valera
+ * @version 1.0
+ * @since 19/10/2026
+ */
+public class Dealer {
+    /**
+     * Policies with which the dealer decides whether to draw another card.
+     */
+    public enum Policy {
+        /** Draws until it reaches its stand score. */
+        STAND,
+        /** Draws while some player still beats it, up to the target. */
+        CHASE
+    }
+
+    private final Rules rules;
+    private final Policy policy;
+    private final int standsOn;
+    private final long delayMillis;
+
+    /**
+     * Constructor that configures the dealer.
+     * @param rules Rules of the variant played.
+     * @param policy Policy with which the dealer draws.
+     * @param standsOn Score, in half points, from which the dealer
+     *      stands with the STAND policy.
+     * @param delayMillis Pause between the cards of the dealer.
+     */
+    public Dealer(Rules rules, Policy policy, int standsOn, long delayMillis) {
+        this.rules = rules;
+        this.policy = policy;
+        this.standsOn = standsOn;
+        this.delayMillis = delayMillis;
+    }
+
+    /**
+     * Plays the hand of the dealer on the executor of the table.
+     * @param scheduler Executor of the table.
+     * @param bestPlayer Best score of the players that have not busted,
+     *      in half points (-1 if there is none).
+     * @param seed Seed of the deck of the dealer.
+     * @return Future completed with the score of the dealer in half
+     *      points.
+     */
+    public CompletableFuture<Integer> play(ScheduledExecutorService scheduler,
+                                           int bestPlayer, long seed) {
+        Hand hand = new Hand(scheduler, bestPlayer, seed);
+        scheduler.execute(hand);
+
+        return hand.result;
+    }
+
+    @Override
+    public String toString() {
+        return policy == Policy.STAND?
+                "stands on " + standsOn / 2f:
+                "chases the players";
+    }
+
+    /*
+     * Each run draws a card and, if the dealer must go on, schedules the
+     * next one.
+     */
+    private class Hand implements Runnable {
+        private final CompletableFuture<Integer> result = new CompletableFuture<>();
+        private final ScheduledExecutorService scheduler;
+        private final int bestPlayer;
+        private final Deck deck;
+        private int baseHalfPoints;
+        private int wildCards;
+        private int score;
+
+        private Hand(ScheduledExecutorService scheduler, int bestPlayer, long seed) {
+            this.scheduler = scheduler;
+            this.bestPlayer = bestPlayer;
+            deck = new Deck(rules, seed);
+        }
+
+        @Override
+        public void run() {
+            try {
+                Card card = deck.next();
+
+                if(card != null) {
+                    int id = card.getId();
+
+                    if(rules.isWild(id))
+                        wildCards++;
+
+                    else
+                        baseHalfPoints += rules.halfPoints(id);
+
+                    score = rules.score(baseHalfPoints, wildCards);
+                    System.out.println("Dealer: " + card + " -> " + score / 2f);
+                }
+
+                if(card != null && mustDraw())
+                    scheduler.schedule(this, delayMillis, TimeUnit.MILLISECONDS);
+
+                else
+                    result.complete(score);
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        }
+
+        private boolean mustDraw() {
+            if(score >= rules.getTarget())
+                return false;
+
+            // The ties are won by the bank.
+            return policy == Policy.STAND?
+                    score < standsOn:
+                    score < bestPlayer;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package cardserver;
+
+/**
+ * Seeds of the decks of the games, derived from the base seed of the
+ * server (cardserver.seed): each player and the dealer get a different
+ * deck in each round, and a server started with the same base seed deals
+ * the same cards to the same seats, which is what allows replaying a
+ * recorded session.
+ * @author Jose Valera
+ * @version 1.0
+ * @since 19/10/2026
+ */
+public final class DeckSeeds {
+    private static final int DEALER = 0;
+
+    private DeckSeeds() {}
+
+    /**
+     * Returns the seed of the deck of a player in a round.
+     * @param numPlayer Identification number of the player, from 1.
+     * @param round Round of the table, from 0.
+     * @return Seed of the deck.
+     */
+    public static long forPlayer(int numPlayer, int round) {
+        return mix(ServerConfig.getSeed() + mix(((long) numPlayer << 32) | round));
+    }
+
+    /**
+     * Returns the seed of the deck of the dealer in a round.
+     * @param round Round of the table, from 0.
+     * @return Seed of the deck.
+     */
+    public static long forDealer(int round) {
+        return forPlayer(DEALER, round);
+    }
+
+    // Finalizer of SplitMix64: close inputs give unrelated seeds.
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
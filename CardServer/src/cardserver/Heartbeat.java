@@ -0,0 +1,222 @@
+package cardserver;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Heartbeat of the connections of the players, to detect the ones that
+ * vanish without closing (a laptop that is closed, a lost Wi-Fi), whose
+ * threads would otherwise wait for them forever.<br/><br/>
+ * A single timer checks all the connections in each interval: a player
+ * from whom nothing has been heard for an interval is sent a PING, which
+ * it answers with PONG, and a player that is not heard for some
+ * intervals while the server waits for it is considered dead and its
+ * connection is closed, so its seat goes on with a connection error and
+ * is freed at the end of the game. A player whose writes are blocked for
+ * as long, because it does not read, is closed too.<br/><br/>
+ * The timer never writes to a socket, since a full send buffer would
+ * block it and stop the checks of all the players: the PINGs are sent by
+ * a pool of threads, and a player with a write in progress (a PING or a
+ * message of the game) is not sent another one.<br/><br/>
+ * The connections that are served by a thread of their own (the
+ * WebSocket gateway) are checked by that thread when the timer asks for
+ * it, see {@link #addSweep(Runnable)}.
+ * @author Jose Valera
+ * @version 1.0
+ * @since 19/10/2026
+ */
+public class Heartbeat {
+    /**
+     * Connection checked by the heartbeat.
+     */
+    public interface Peer {
+        /**
+         * Returns when the player was last heard, or since when the server
+         * waits for it if that is later.
+         * @return Time in nanoseconds, see {@link System#nanoTime()}.
+         */
+        long getLastHeard();
+
+        /**
+         * Returns whether the server is waiting for a message of the
+         * player. Only then its silence means that it is dead.
+         * @return true if the server is waiting for the player.
+         */
+        boolean isWaitingPeer();
+
+        /**
+         * Returns for how long the current write to the player has been
+         * blocked, because the player does not read what is sent to it.
+         * @param now Current time in nanoseconds.
+         * @return Time in nanoseconds, or 0 if nothing is being written.
+         */
+        long getWriteStall(long now);
+
+        /**
+         * Sends a PING to the player. It may block, so it is never called
+         * by the timer, see {@link Heartbeat}.
+         */
+        void ping();
+
+        /**
+         * Closes the connection of a dead player.
+         */
+        void expire();
+    }
+
+    private final long intervalNanos;
+    private final long deadNanos;
+    private final Set<Peer> peers = ConcurrentHashMap.newKeySet();
+    private final List<Runnable> sweeps = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService timer;
+    private final ExecutorService pinger;
+    private final Set<Peer> pinging = ConcurrentHashMap.newKeySet();
+    private final AtomicLong pings = new AtomicLong();
+    private final AtomicLong expired = new AtomicLong();
+    private volatile boolean closing;
+
+    /**
+     * Constructor that starts the timer.
+     * @param intervalMillis Interval of the heartbeat.
+     * @param misses Intervals without hearing from a player after which
+     *      it is dead.
+     */
+    public Heartbeat(long intervalMillis, int misses) {
+        intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+        deadNanos = intervalNanos * misses;
+        timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "Heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        pinger = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "Heartbeat-ping");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer.scheduleAtFixedRate(this::sweep, intervalMillis, intervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Returns the interval of the heartbeat.
+     * @return Interval in nanoseconds.
+     */
+    public long getIntervalNanos() {
+        return intervalNanos;
+    }
+
+    /**
+     * Returns the silence after which a player is dead.
+     * @return Time in nanoseconds.
+     */
+    public long getDeadNanos() {
+        return deadNanos;
+    }
+
+    /**
+     * Starts checking a connection.
+     * @param peer Connection of a player.
+     */
+    public void register(Peer peer) {
+        peers.add(peer);
+    }
+
+    /**
+     * Stops checking a connection.
+     * @param peer Connection of a player.
+     */
+    public void unregister(Peer peer) {
+        peers.remove(peer);
+
+        if(closing && peers.isEmpty())
+            shutdown();
+    }
+
+    /**
+     * Adds a check that is run in each interval, for the connections
+     * that are not registered one by one.
+     * @param sweep Check of a group of connections. It must not block.
+     */
+    public void addSweep(Runnable sweep) {
+        sweeps.add(sweep);
+    }
+
+    /**
+     * Counts a PING sent by a sweep.
+     */
+    public void pinged() {
+        pings.incrementAndGet();
+    }
+
+    /**
+     * Counts a dead connection closed by a sweep.
+     */
+    public void expired() {
+        expired.incrementAndGet();
+    }
+
+    private void sweep() {
+        long now = System.nanoTime();
+
+        for (Peer peer : peers) {
+            long silence = now - peer.getLastHeard();
+            long stall = peer.getWriteStall(now);
+
+            if(stall >= deadNanos ||
+                    (silence >= deadNanos && peer.isWaitingPeer())) {
+                expired();
+                peer.expire();
+            }
+
+            else if(silence >= intervalNanos && stall == 0 && pinging.add(peer)) {
+                pinged();
+                pinger.execute(() -> {
+                    try {
+                        peer.ping();
+                    } finally {
+                        pinging.remove(peer);
+                    }
+                });
+            }
+        }
+
+        for (Runnable sweep : sweeps)
+            sweep.run();
+    }
+
+    /**
+     * Stops the timer once the last connection has been unregistered:
+     * the thread of a player can outlive the table while it waits for an
+     * answer that does not come, and only the heartbeat frees it.
+     */
+    public void close() {
+        closing = true;
+
+        if(peers.isEmpty())
+            shutdown();
+    }
+
+    private void shutdown() {
+        timer.shutdown();
+        pinger.shutdown();
+    }
+
+    /**
+     * Returns a text with the counters of the heartbeat.
+     * @return Text with the counters.
+     */
+    @Override
+    public String toString() {
+        return "connections=" + peers.size() +
+                " pings=" + pings.get() +
+                " expired=" + expired.get();
+    }
+}
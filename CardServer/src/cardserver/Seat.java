@@ -0,0 +1,50 @@
+package cardserver;
+
+/**
+ * Seat of a table, as the table sees it: a connected player
+ * ({@link ServerThread}) or a player run by the server itself, like the
+ * bots of {@link cardserver.bots.BotSeat}. The table only reads and
+ * changes the {@link SeatState} of each seat, which it keeps itself, so
+ * every kind of seat follows the same ready/play/result/retry flow.
+ * @author Jose Valera
+ * @version 1.0
+ * @since 19/10/2026
+ */
+public interface Seat {
+    /**
+     * Returns the name of the player of the seat.
+     * @return Name of the player.
+     */
+    String getPlayerName();
+
+    /**
+     * Gives the player the state of its seat, which the table reads and
+     * changes without locks. Called by the table when the player is
+     * seated, before it starts.
+     * @param seatState State of the seat.
+     */
+    void setSeatState(SeatState seatState);
+
+    /**
+     * Returns the chips bet in the current game, which are in the escrow
+     * of the ledger until the table settles them.
+     * @return Chips bet in the current game.
+     */
+    long getBet();
+
+    /**
+     * Gives the player the result of the game and lets it continue.
+     * Called by the table when all the players have finished.
+     * @param gameResult Result record of the table, shared by all the
+     *      seats (see {@link cardmodel.protocol.GameResult}).
+     * @param seat Seat of the player in the record, from 0.
+     */
+    void publishResult(byte[] gameResult, int seat);
+
+    /**
+     * Notifies that the state of the table has changed. The seats that
+     * have their own thread poll the table and can ignore it; the seats
+     * without a thread use it to run their next step.
+     */
+    default void tableChanged() {}
+}
@@ -0,0 +1,232 @@
+package cardserver;
+
+/**
+ * State of a seat of the table, shared between the thread of the player
+ * and the table without locks.<br/><br/>
+ * The whole state is encoded in a single word (phase, score in half
+ * points and connection error flag) that is only modified by
+ * compare-and-set, so any thread can read a consistent copy of it with
+ * a single volatile read. The word and the deck of the seat are kept in
+ * the {@link SeatStore} of the table; this is only a view of them.
+ * @author Jose Valera
+ * @version 1.0
+ * @since 19/10/2026
+ */
+public final class SeatState {
+    /**
+     * Phases of a seat in a game, in the order in which they happen.
+     */
+    public enum Phase {
+        /** The player has joined but the game has not been prepared. */
+        JOINED,
+        /** The player is ready to start the game. */
+        READY,
+        /** The player is receiving cards. */
+        PLAYING,
+        /** The player has finished its game. */
+        DONE,
+        /** The result of the game is available for the player. */
+        RESULT,
+        /** The player wants to repeat the game. */
+        RETRY_YES,
+        /** The player does not want to repeat the game. */
+        RETRY_NO
+    }
+
+    private static final Phase[] phases = Phase.values();
+    private static final long PHASE_MASK = 0xFF;
+    private static final int HALF_POINTS_SHIFT = 8;
+    private static final long HALF_POINTS_MASK = 0xFFFF;
+    private static final long ERROR_FLAG = 1L << 24;
+
+    private final SeatStore store;
+    private final int index;
+
+    SeatState(SeatStore store, int index) {
+        this.store = store;
+        this.index = index;
+    }
+
+    /**
+     * Returns the number of the seat at the table.
+     * @return Number of the seat, from 0.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Returns a consistent copy of the whole state. Its parts are
+     * obtained with the static methods of this class.
+     * @return Word with the state of the seat.
+     */
+    public long get() {
+        return store.word(index);
+    }
+
+    /**
+     * Returns the phase of the seat.
+     * @return Current phase.
+     */
+    public Phase getPhase() {
+        return phase(get());
+    }
+
+    /**
+     * Returns the phase encoded in a state word.
+     * @param word Word with the state of a seat.
+     * @return Phase of the seat.
+     */
+    public static Phase phase(long word) {
+        return phases[(int) (word & PHASE_MASK)];
+    }
+
+    /**
+     * Returns the score, in half points, encoded in a state word.
+     * @param word Word with the state of a seat.
+     * @return Score of the seat in half points.
+     */
+    public static int halfPoints(long word) {
+        return (int) ((word >>> HALF_POINTS_SHIFT) & HALF_POINTS_MASK);
+    }
+
+    /**
+     * Returns the score encoded in a state word.
+     * @param word Word with the state of a seat.
+     * @return Score of the seat.
+     */
+    public static float total(long word) {
+        return halfPoints(word) / 2f;
+    }
+
+    /**
+     * Returns whether the state word has the connection error flag.
+     * @param word Word with the state of a seat.
+     * @return true if the player has suffered connection errors.
+     */
+    public static boolean hasError(long word) {
+        return (word & ERROR_FLAG) != 0;
+    }
+
+    /**
+     * Changes the phase of the seat only if it is in the expected one.
+     * @param from Expected phase.
+     * @param to New phase.
+     * @return true if the phase has been changed.
+     */
+    public boolean transition(Phase from, Phase to) {
+        return transition(store, index, from, to);
+    }
+
+    static boolean transition(SeatStore store, int index, Phase from, Phase to) {
+        long current;
+
+        do {
+            current = store.word(index);
+
+            if(phase(current) != from)
+                return false;
+        } while (!store.compareAndSet(index, current, withPhase(current, to)));
+
+        return true;
+    }
+
+    /**
+     * Changes the phase of the seat whatever the current one is.
+     * @param to New phase.
+     * @return Phase that the seat had before.
+     */
+    public Phase forcePhase(Phase to) {
+        long current;
+
+        do {
+            current = store.word(index);
+        } while (!store.compareAndSet(index, current, withPhase(current, to)));
+
+        return phase(current);
+    }
+
+    /**
+     * Prepares the seat for a new game: READY phase and score 0. The
+     * connection error flag is kept.
+     */
+    public void startGame() {
+        long current;
+
+        do {
+            current = store.word(index);
+        } while (!store.compareAndSet(index, current,
+                (current & ERROR_FLAG) | Phase.READY.ordinal()));
+    }
+
+    /**
+     * Changes the score of the seat, like when a wild card changes its
+     * value.
+     * @param halfPoints New score, in half points.
+     * @return The new state word.
+     */
+    public long setHalfPoints(int halfPoints) {
+        long current, next;
+        long points = Math.min(Math.max(halfPoints, 0), HALF_POINTS_MASK);
+
+        do {
+            current = store.word(index);
+            next = (current & ~(HALF_POINTS_MASK << HALF_POINTS_SHIFT)) |
+                    (points << HALF_POINTS_SHIFT);
+        } while (!store.compareAndSet(index, current, next));
+
+        return next;
+    }
+
+    /**
+     * Adds points to the score of the seat.
+     * @param halfPoints Points to add, in half points.
+     * @return The new state word.
+     */
+    public long addHalfPoints(int halfPoints) {
+        long current, next;
+
+        do {
+            current = store.word(index);
+            long points = Math.min(
+                    halfPoints(current) + halfPoints,
+                    HALF_POINTS_MASK);
+            next = (current & ~(HALF_POINTS_MASK << HALF_POINTS_SHIFT)) |
+                    (points << HALF_POINTS_SHIFT);
+        } while (!store.compareAndSet(index, current, next));
+
+        return next;
+    }
+
+    /**
+     * Shuffles the deck of the seat for a new game, in the same order as
+     * a {@link cardmodel.Deck} with the same seed.
+     * @param seed Seed of the shuffle.
+     */
+    public void shuffle(long seed) {
+        store.shuffle(index, seed);
+    }
+
+    /**
+     * Deals the next card of the deck of the seat.
+     * @return Identifier of the card, or -1 if the deck is empty.
+     */
+    public int nextCard() {
+        return store.nextCard(index);
+    }
+
+    /**
+     * Marks the seat as having suffered connection errors.
+     */
+    public void markError() {
+        long current;
+
+        do {
+            current = store.word(index);
+        } while (!store.compareAndSet(index, current, current | ERROR_FLAG));
+    }
+
+    private static long withPhase(long word, Phase phase) {
+        return (word & ~PHASE_MASK) | phase.ordinal();
+    }
+}
@@ -0,0 +1,157 @@
+package cardserver;
+
+import cardmodel.Rules;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Random;
+
+/**
+ * State of all the seats of a table kept in packed arrays of primitives,
+ * one entry (or one fixed slice) per seat: the state word of each seat
+ * (see {@link SeatState}), the order of its deck and the number of cards
+ * dealt from it. The connections and the other objects of the players
+ * are kept apart, in the {@link Seat} of each one.<br/><br/>
+ * A seat costs some tens of bytes instead of a deck of card references
+ * and a state object of its own, and the operations of the table over
+ * all the seats (waiting for a phase, reading the scores to settle the
+ * game) are linear scans of a single array.<br/><br/>
+ * The state words are only changed by compare-and-set, like before. The
+ * deck of a seat is only used by the thread that runs the seat.
+ * @author Jose Valera
+ * @version 1.0
+ * @since 19/10/2026
+ */
+public final class SeatStore {
+    private static final VarHandle WORDS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final long[] words;
+    private final byte[] decks;
+    private final byte[] dealt;
+    private final byte[] deckCards;
+    private final int deckSize;
+
+    /**
+     * Constructor that creates the store of an empty table.
+     * @param capacity Number of seats of the table.
+     * @param rules Rules of the variant, whose deck every seat uses.
+     */
+    public SeatStore(int capacity, Rules rules) {
+        int[] cards = rules.getDeckCards();
+        deckSize = cards.length;
+        deckCards = new byte[deckSize];
+
+        for (int i = 0; i < deckSize; i++)
+            deckCards[i] = (byte) cards[i];
+
+        words = new long[capacity];
+        decks = new byte[capacity * deckSize];
+        dealt = new byte[capacity];
+    }
+
+    /**
+     * Returns the number of seats of the store.
+     * @return Number of seats.
+     */
+    public int getCapacity() {
+        return words.length;
+    }
+
+    /**
+     * Returns a view of the state of a seat.
+     * @param index Number of the seat, from 0.
+     * @return State of the seat, backed by this store.
+     */
+    public SeatState state(int index) {
+        return new SeatState(this, index);
+    }
+
+    long word(int index) {
+        return (long) WORDS.getVolatile(words, index);
+    }
+
+    boolean compareAndSet(int index, long expected, long next) {
+        return WORDS.compareAndSet(words, index, expected, next);
+    }
+
+    /**
+     * Copies the state words of all the seats, read without locks.
+     * @param into Array in which they are copied, of the capacity of the
+     *      store.
+     */
+    public void snapshot(long[] into) {
+        for (int i = 0; i < words.length; i++)
+            into[i] = word(i);
+    }
+
+    /**
+     * Checks whether all the seats are in a phase.
+     * @param phase Phase of the seats.
+     * @return true if every seat is in it.
+     */
+    public boolean allIn(SeatState.Phase phase) {
+        for (int i = 0; i < words.length; i++)
+            if(SeatState.phase(word(i)) != phase)
+                return false;
+
+        return true;
+    }
+
+    /**
+     * Checks whether all the seats are in any of two phases.
+     * @param phase One of the phases.
+     * @param other The other phase.
+     * @return true if every seat is in one of them.
+     */
+    public boolean allIn(SeatState.Phase phase, SeatState.Phase other) {
+        for (int i = 0; i < words.length; i++) {
+            SeatState.Phase current = SeatState.phase(word(i));
+
+            if(current != phase && current != other)
+                return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Changes the phase of every seat that is in the expected one.
+     * @param from Expected phase.
+     * @param to New phase.
+     */
+    public void transitionAll(SeatState.Phase from, SeatState.Phase to) {
+        for (int i = 0; i < words.length; i++)
+            SeatState.transition(this, i, from, to);
+    }
+
+    /*
+     * The cards are shuffled exactly like cardmodel.Deck shuffles its
+     * stack with the same seed, and dealt from the end like it pops them,
+     * so the seats deal the same games as before with the same seeds.
+     */
+    void shuffle(int index, long seed) {
+        Random random = new Random(seed);
+        int start = index * deckSize;
+
+        System.arraycopy(deckCards, 0, decks, start, deckSize);
+
+        for (int i = deckSize; i > 1; i--) {
+            int j = start + random.nextInt(i);
+            byte card = decks[start + i - 1];
+            decks[start + i - 1] = decks[j];
+            decks[j] = card;
+        }
+
+        dealt[index] = 0;
+    }
+
+    int nextCard(int index) {
+        int count = dealt[index] & 0xFF;
+
+        if(count >= deckSize)
+            return -1;
+
+        dealt[index] = (byte) (count + 1);
+        return decks[index * deckSize + deckSize - 1 - count] & 0xFF;
+    }
+}
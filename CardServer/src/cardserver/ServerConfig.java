@@ -0,0 +1,540 @@
+package cardserver;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.SecureRandom;
+
+/**
+ * Class that gathers the configurable parameters of the server. They are
+ * read from the system properties when the server starts, for example:
+ * <br/><br/>
+ * java -Dcardserver.tcpNoDelay=false -Dcardserver.sendBuffer=65536 ...
+ * @author Jose Valera
+ * @version 1.0
+ * @since 19/10/2026
+ */
+public class ServerConfig {
+    private static final int port =
+            Integer.getInteger("cardserver.port", 7000);
+    private static final boolean tcpNoDelay =
+            Boolean.parseBoolean(System.getProperty("cardserver.tcpNoDelay", "true"));
+    private static final int sendBufferSize =
+            Integer.getInteger("cardserver.sendBuffer", 0);
+    private static final int receiveBufferSize =
+            Integer.getInteger("cardserver.receiveBuffer", 0);
+    private static final int outputBufferSize =
+            Integer.getInteger("cardserver.outputBuffer", 8192);
+    private static final boolean tls =
+            Boolean.parseBoolean(System.getProperty("cardserver.tls", "false"));
+    private static final String keyStore =
+            System.getProperty("cardserver.keyStore", "server.p12");
+    private static final String keyStorePassword =
+            System.getProperty("cardserver.keyStorePassword", "changeit");
+    private static final int tlsSessionCacheSize =
+            Integer.getInteger("cardserver.tlsSessionCache", 1024);
+    private static final int tlsSessionTimeout =
+            Integer.getInteger("cardserver.tlsSessionTimeout", 3600);
+    private static final int tlsHandshakeTimeout =
+            Integer.getInteger("cardserver.tlsHandshakeTimeout", 10000);
+    private static final int backlog =
+            Integer.getInteger("cardserver.backlog", 50);
+    private static final int acceptQueue =
+            Integer.getInteger("cardserver.acceptQueue", 16);
+    private static final int maxSeats =
+            Integer.getInteger("cardserver.maxSeats", 0);
+    private static final double connectionsPerSecond =
+            Double.parseDouble(System.getProperty("cardserver.connectionsPerSecond", "2"));
+    private static final int connectionBurst =
+            Integer.getInteger("cardserver.connectionBurst", 5);
+    private static final String playerStore =
+            System.getProperty("cardserver.playerStore", "players.db");
+    private static final int playerCache =
+            Integer.getInteger("cardserver.playerCache", 1024);
+    private static final long playerFlushMillis =
+            Long.getLong("cardserver.playerFlushMillis", 2000);
+
+    private static final String rules =
+            System.getProperty("cardserver.rules", "classic");
+    private static final String chipJournal =
+            System.getProperty("cardserver.chipJournal", "chips.journal");
+    private static final long initialChips =
+            Long.getLong("cardserver.initialChips", 1000);
+    private static final long maxBet =
+            Long.getLong("cardserver.maxBet", 100);
+    private static final long chipFlushMillis =
+            Long.getLong("cardserver.chipFlushMillis", 500);
+    private static final String mode =
+            System.getProperty("cardserver.mode", "players");
+    private static final String dealerPolicy =
+            System.getProperty("cardserver.dealerPolicy", "stand");
+    private static final float dealerStandsOn =
+            Float.parseFloat(System.getProperty("cardserver.dealerStandsOn", "6"));
+    private static final long dealerDelayMillis =
+            Long.getLong("cardserver.dealerDelayMillis", 250);
+    private static final long seed =
+            Long.getLong("cardserver.seed", new SecureRandom().nextLong());
+    private static final String captureDir =
+            System.getProperty("cardserver.capture", "");
+    private static final boolean fairness =
+            Boolean.parseBoolean(System.getProperty("cardserver.fairness", "true"));
+    private static final long fairnessCheckMillis =
+            Long.getLong("cardserver.fairnessCheckMillis", 60000);
+    private static final double fairnessAlertZ =
+            Double.parseDouble(System.getProperty("cardserver.fairnessAlertZ", "5"));
+    private static final boolean integrity =
+            Boolean.parseBoolean(System.getProperty("cardserver.integrity", "true"));
+    private static final long integrityCheckMillis =
+            Long.getLong("cardserver.integrityCheckMillis", 60000);
+    private static final double integrityAlertZ =
+            Double.parseDouble(System.getProperty("cardserver.integrityAlertZ", "5"));
+    private static final int integrityMinGames =
+            Integer.getInteger("cardserver.integrityMinGames", 30);
+    private static final int bots =
+            Integer.getInteger("cardserver.bots", 0);
+    private static final String botStrategy =
+            System.getProperty("cardserver.botStrategy", "threshold");
+    private static final float botStandsOn =
+            Float.parseFloat(System.getProperty("cardserver.botStandsOn", "5.5"));
+    private static final double botMinOdds =
+            Double.parseDouble(System.getProperty("cardserver.botMinOdds", "0.5"));
+    private static final long botBet =
+            Long.getLong("cardserver.botBet", 10);
+    private static final long botDelayMillis =
+            Long.getLong("cardserver.botDelayMillis", 500);
+    private static final int botThreads =
+            Integer.getInteger("cardserver.botThreads", 2);
+    private static final int webSocketPort =
+            Integer.getInteger("cardserver.webSocketPort", 0);
+    private static final long heartbeatMillis =
+            Long.getLong("cardserver.heartbeatMillis", 2000);
+    private static final int heartbeatMisses =
+            Integer.getInteger("cardserver.heartbeatMisses", 3);
+
+    private ServerConfig() {}
+
+    /**
+     * Returns the port in which the server listens to the players.
+     * @return The port of the server (7000 by default).
+     */
+    public static int getPort() {
+        return port;
+    }
+
+    /**
+     * Returns whether Nagle's algorithm is disabled on the player sockets.
+     * The messages are already coalesced by the server, so it is disabled
+     * by default.
+     * @return true if TCP_NODELAY is enabled.
+     */
+    public static boolean isTcpNoDelay() {
+        return tcpNoDelay;
+    }
+
+    /**
+     * Returns the size of the application buffer in which the messages
+     * of a player are grouped before being written to the socket.
+     * @return Size of the output buffer in bytes.
+     */
+    public static int getOutputBufferSize() {
+        return outputBufferSize;
+    }
+
+    /**
+     * Returns whether the connections with the players are encrypted
+     * with TLS.
+     * @return true if TLS is enabled.
+     */
+    public static boolean isTls() {
+        return tls;
+    }
+
+    /**
+     * Returns the path of the PKCS12 file with the key and the certificate
+     * of the server.
+     * @return Path of the key store.
+     */
+    public static String getKeyStore() {
+        return keyStore;
+    }
+
+    /**
+     * Returns the password of the key store.
+     * @return Password of the key store.
+     */
+    public static char[] getKeyStorePassword() {
+        return keyStorePassword.toCharArray();
+    }
+
+    /**
+     * Returns the maximum number of TLS sessions that the server keeps so
+     * that the players can resume them when they reconnect.
+     * @return Size of the session cache.
+     */
+    public static int getTlsSessionCacheSize() {
+        return tlsSessionCacheSize;
+    }
+
+    /**
+     * Returns the time during which a TLS session can be resumed.
+     * @return Session timeout in seconds.
+     */
+    public static int getTlsSessionTimeout() {
+        return tlsSessionTimeout;
+    }
+
+    /**
+     * Returns the maximum time to complete the TLS handshake of a player.
+     * A client that opens the connection and never finishes it would
+     * otherwise block the thread of its seat, and the whole table, since
+     * the heartbeat only checks the connections already established.
+     * @return Timeout in milliseconds, 0 to wait forever.
+     */
+    public static int getTlsHandshakeTimeout() {
+        return Math.max(tlsHandshakeTimeout, 0);
+    }
+
+    /**
+     * Returns the maximum number of connections that the operating system
+     * keeps waiting to be accepted.
+     * @return Size of the accept backlog.
+     */
+    public static int getBacklog() {
+        return backlog;
+    }
+
+    /**
+     * Returns the maximum number of admitted connections that can wait
+     * for a seat.
+     * @return Size of the queue of admitted connections.
+     */
+    public static int getAcceptQueue() {
+        return acceptQueue;
+    }
+
+    /**
+     * Returns the maximum number of players seated at the same time.
+     * @param defaultSeats Value used if it has not been configured.
+     * @return Maximum number of concurrent seats.
+     */
+    public static int getMaxSeats(int defaultSeats) {
+        return maxSeats > 0? maxSeats: defaultSeats;
+    }
+
+    /**
+     * Returns the number of new connections per second allowed to each
+     * IP address.
+     * @return Rate of connections per IP address.
+     */
+    public static double getConnectionsPerSecond() {
+        return connectionsPerSecond;
+    }
+
+    /**
+     * Returns the number of connections that an IP address can open in a
+     * burst before being limited by the rate.
+     * @return Burst of connections per IP address.
+     */
+    public static int getConnectionBurst() {
+        return connectionBurst;
+    }
+
+    /**
+     * Returns the path of the file in which the profiles of the players
+     * are stored.
+     * @return Path of the player store.
+     */
+    public static Path getPlayerStore() {
+        return Paths.get(playerStore);
+    }
+
+    /**
+     * Returns the maximum number of player profiles kept in memory.
+     * @return Size of the cache of profiles.
+     */
+    public static int getPlayerCache() {
+        return playerCache;
+    }
+
+    /**
+     * Returns the time between the writes of the modified profiles.
+     * @return Time between writes in milliseconds.
+     */
+    public static long getPlayerFlushMillis() {
+        return playerFlushMillis;
+    }
+
+    /**
+     * Returns the path of the journal with the chip movements.
+     * @return Path of the chip journal.
+     */
+    public static Path getChipJournal() {
+        return Paths.get(chipJournal);
+    }
+
+    /**
+     * Returns the chips that a new player receives.
+     * @return Initial chips of a player.
+     */
+    public static long getInitialChips() {
+        return initialChips;
+    }
+
+    /**
+     * Returns the maximum number of chips that can be bet in a game.
+     * @return Maximum bet.
+     */
+    public static long getMaxBet() {
+        return maxBet;
+    }
+
+    /**
+     * Returns the time between the writes of the chip journal.
+     * @return Time between writes in milliseconds.
+     */
+    public static long getChipFlushMillis() {
+        return chipFlushMillis;
+    }
+
+    /**
+     * Returns the variant of the game played: the name of an included
+     * variant (classic, spanish48, wildking) or the path of a file with
+     * its definition.
+     * @return The variant of the game ("classic" by default).
+     */
+    public static String getRules() {
+        return rules;
+    }
+
+    /**
+     * Returns whether the players play against an automated dealer (bank
+     * mode) instead of against each other.
+     * @return true if cardserver.mode is "dealer".
+     */
+    public static boolean isDealerMode() {
+        return mode.equalsIgnoreCase("dealer");
+    }
+
+    /**
+     * Returns the policy with which the dealer draws its cards.
+     * @return Policy of the dealer (STAND by default).
+     */
+    public static Dealer.Policy getDealerPolicy() {
+        return Dealer.Policy.valueOf(dealerPolicy.toUpperCase());
+    }
+
+    /**
+     * Returns the score from which the dealer stands with the STAND
+     * policy.
+     * @return Stand score in half points (6 points by default).
+     */
+    public static int getDealerStandsOn() {
+        return Math.round(dealerStandsOn * 2);
+    }
+
+    /**
+     * Returns the pause between the cards of the dealer.
+     * @return Pause in milliseconds.
+     */
+    public static long getDealerDelayMillis() {
+        return dealerDelayMillis;
+    }
+
+    /**
+     * Returns the seed from which the decks of all the games are shuffled
+     * (see {@link DeckSeeds}).
+     * @return Base seed of the decks (random by default).
+     */
+    public static long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Returns the directory where the traffic of each connection is
+     * recorded, to replay it later.
+     * @return Directory of the captures, or null if they are disabled
+     *      (by default).
+     */
+    public static Path getCaptureDir() {
+        return captureDir.isEmpty()? null: Paths.get(captureDir);
+    }
+
+    /**
+     * Returns whether the statistics of the shuffles are collected from
+     * the cards dealt.
+     * @return true if the fairness statistics are enabled (by default).
+     */
+    public static boolean isFairness() {
+        return fairness;
+    }
+
+    /**
+     * Returns the time between the checks of the fairness statistics.
+     * @return Time between checks in milliseconds.
+     */
+    public static long getFairnessCheckMillis() {
+        return fairnessCheckMillis;
+    }
+
+    /**
+     * Returns the z-score from which a fairness statistic is reported as
+     * an alert.
+     * @return Alert threshold (5 by default).
+     */
+    public static double getFairnessAlertZ() {
+        return fairnessAlertZ;
+    }
+
+    /**
+     * Returns whether the games are analyzed to flag players who collude
+     * or play like a program.
+     * @return true if the integrity monitor is enabled (by default).
+     */
+    public static boolean isIntegrity() {
+        return integrity;
+    }
+
+    /**
+     * Returns the time between the checks of the integrity monitor.
+     * @return Time between checks in milliseconds.
+     */
+    public static long getIntegrityCheckMillis() {
+        return integrityCheckMillis;
+    }
+
+    /**
+     * Returns the z-score of the confidence intervals with which the
+     * integrity monitor flags a player.
+     * @return z-score (5 by default).
+     */
+    public static double getIntegrityAlertZ() {
+        return integrityAlertZ;
+    }
+
+    /**
+     * Returns the games (or decisions) of a player or a pair of players
+     * before the integrity monitor can flag it.
+     * @return Minimum number of games (30 by default).
+     */
+    public static int getIntegrityMinGames() {
+        return integrityMinGames;
+    }
+
+    /**
+     * Returns the number of seats of the table played by bots of the
+     * server, in addition to the connected players.
+     * @return Number of bots (0 by default).
+     */
+    public static int getBots() {
+        return bots;
+    }
+
+    /**
+     * Returns whether the bots ask for cards by the odds of not exceeding
+     * the target (odds) instead of up to a score (threshold).
+     * @return true if cardserver.botStrategy is "odds".
+     */
+    public static boolean isOddsBots() {
+        return botStrategy.equalsIgnoreCase("odds");
+    }
+
+    /**
+     * Returns the score from which the bots stand with the threshold
+     * strategy.
+     * @return Stand score in half points (5.5 points by default).
+     */
+    public static int getBotStandsOn() {
+        return Math.round(botStandsOn * 2);
+    }
+
+    /**
+     * Returns the minimum probability of not exceeding the target with
+     * which the bots ask for a card with the odds strategy.
+     * @return Minimum probability (0.5 by default).
+     */
+    public static double getBotMinOdds() {
+        return botMinOdds;
+    }
+
+    /**
+     * Returns the chips bet by the bots in each game.
+     * @return Bet of the bots (10 by default).
+     */
+    public static long getBotBet() {
+        return Math.min(botBet, maxBet);
+    }
+
+    /**
+     * Returns the pause of the bots before each card after the first one.
+     * @return Pause in milliseconds.
+     */
+    public static long getBotDelayMillis() {
+        return botDelayMillis;
+    }
+
+    /**
+     * Returns the number of threads of the executor shared by all the
+     * bots.
+     * @return Number of threads (2 by default).
+     */
+    public static int getBotThreads() {
+        return Math.max(botThreads, 1);
+    }
+
+    /**
+     * Returns the port of the WebSocket endpoint for the browser clients.
+     * @return Port of the endpoint, or 0 if it is disabled (by default).
+     */
+    public static int getWebSocketPort() {
+        return webSocketPort;
+    }
+
+    /**
+     * Returns the interval of the heartbeat: a player from whom nothing
+     * has been heard for this time is sent a PING.
+     * @return Interval in milliseconds, or 0 if the heartbeat is
+     *      disabled (2000 by default).
+     */
+    public static long getHeartbeatMillis() {
+        return Math.max(heartbeatMillis, 0);
+    }
+
+    /**
+     * Returns the number of intervals of the heartbeat without hearing
+     * from a player, while the server waits for it, after which its
+     * connection is considered dead and closed.
+     * @return Number of intervals (3 by default).
+     */
+    public static int getHeartbeatMisses() {
+        return Math.max(heartbeatMisses, 1);
+    }
+
+    /**
+     * Applies the buffer sizes to the socket that listens to the players.
+     * It must be called before binding it so that the accepted sockets
+     * inherit the receive buffer.
+     * @param server Unbound server socket.
+     * @throws IOException If the socket rejects the options.
+     */
+    public static void configure(ServerSocket server) throws IOException {
+        if(receiveBufferSize > 0)
+            server.setReceiveBufferSize(receiveBufferSize);
+    }
+
+    /**
+     * Applies TCP_NODELAY and the buffer sizes to the socket of a player.
+     * @param socket Socket that connects to the client (Player).
+     * @throws IOException If the socket rejects the options.
+     */
+    public static void configure(Socket socket) throws IOException {
+        socket.setTcpNoDelay(tcpNoDelay);
+
+        if(sendBufferSize > 0)
+            socket.setSendBufferSize(sendBufferSize);
+
+        if(receiveBufferSize > 0)
+            socket.setReceiveBufferSize(receiveBufferSize);
+    }
+}
@@ -1,23 +1,44 @@
 package cardserver;
 
+import cardmodel.Rules;
+import cardmodel.protocol.GameResult;
+import cardserver.bots.BotSeat;
+import cardserver.bots.BotStrategy;
+import cardserver.chips.ChipLedger;
+import cardserver.fairness.ShuffleStats;
+import cardserver.integrity.IntegrityMonitor;
+import cardserver.jfr.TableCreatedEvent;
+import cardserver.players.PlayerStore;
+import cardserver.web.WebSocketGateway;
+import cardserver.web.WebSocketSeat;
+
 import java.io.IOException;
+import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
-import java.util.Arrays;
-import java.util.Optional;
 import java.util.Scanner;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ScheduledExecutorService;
 
 /**
- * Class in charge of creating, managing and coordinating the
- * threads of the players of a card game.
+ * Class in charge of creating the table of a card game and the
+ * threads of its players.
  * @author Jose Valera
  * @version 1.0
  * @since 20/12/2020
  */
 public class ServerMain {
+    private static final long PLAYER_POLL_MILLIS = 10;
+
     private static Scanner sc = new Scanner(System.in);
-    private static ServerThread[] threads;
+    private static Table table;
+    private static AdmissionControl admission;
+    private static PlayerStore playerStore;
+    private static ChipLedger ledger;
+    private static ShuffleStats shuffleStats;
+    private static IntegrityMonitor integrity;
+    private static ScheduledExecutorService botExecutor;
+    private static WebSocketGateway gateway;
+    private static Heartbeat heartbeat;
 
     /**
      * Create a card game by creating connections with the players.
@@ -29,9 +50,61 @@ public class ServerMain {
      */
     public static void main(String[] args) {
         int amountOfPlayers = checkAmountOfPlayers(args);
+        Rules rules = loadRules();
+
+        if(rules == null || !openPlayerStore())
+            return;
+
+        if(!openLedger()) {
+            closePlayerStore();
+            return;
+        }
+
+        if(ServerConfig.getCaptureDir() != null)
+            System.out.println("Capturing traffic in " + ServerConfig.getCaptureDir() +
+                    " (seed " + ServerConfig.getSeed() + ")");
+
+        shuffleStats = createShuffleStats(rules);
+        integrity = createIntegrityMonitor();
+        int amountOfBots = checkAmountOfBots(amountOfPlayers);
+        Dealer dealer = createDealer(rules);
+        table = new Table(amountOfPlayers + amountOfBots, playerStore, ledger,
+                rules, dealer, shuffleStats, integrity);
+        TableCreatedEvent.emit(table.getCapacity(), amountOfBots,
+                rules.getName(), dealer != null);
+        seatBots(amountOfPlayers, amountOfBots);
+
+        if(listenToPlayers(amountOfPlayers))
+            table.play();
+
+        if(botExecutor != null)
+            botExecutor.shutdown();
+
+        closePlayerStore();
+        closeLedger();
+
+        if(shuffleStats != null)
+            shuffleStats.close();
+
+        if(integrity != null) {
+            integrity.close();
+            System.out.println("Integrity: " + integrity);
+        }
+
+        if(admission != null) {
+            System.out.println("Admission: " + admission);
+            admission.close();
+        }
+
+        if(heartbeat != null) {
+            System.out.println("Heartbeat: " + heartbeat);
+            heartbeat.close();
+        }
 
-        listenToPlayers(amountOfPlayers);
-        playGame();
+        if(gateway != null) {
+            System.out.println("WebSocket: " + gateway);
+            gateway.close();
+        }
     }
 
     private static int checkAmountOfPlayers(String[] args) {
@@ -59,7 +132,13 @@ public class ServerMain {
             if(amountPlayers <= 0)
                 throw new NumberFormatException();
 
-            System.out.println(amountPlayers);
+            if(amountPlayers > GameResult.MAX_SEATS) {
+                amountPlayers = GameResult.MAX_SEATS;
+                System.out.println(amountPlayers + " (Maximum)");
+            }
+
+            else
+                System.out.println(amountPlayers);
         } catch(NumberFormatException e) {
             amountPlayers = 2;
             System.out.println(amountPlayers + " (Prefixed)");
@@ -68,143 +147,223 @@ public class ServerMain {
         return amountPlayers;
     }
 
-    private static void listenToPlayers(int amountOfPlayers) {
-        threads = new ServerThread[amountOfPlayers];
-
-        try (ServerSocket server = new ServerSocket(7000))
-        {
-            System.out.println("Waiting players...");
-
-            for (int joinedPlayers = 0; joinedPlayers < amountOfPlayers; joinedPlayers++)
-            {
-                Socket service = server.accept();
+    private static int checkAmountOfBots(int amountOfPlayers) {
+        int amountOfBots = ServerConfig.getBots();
+        int freeSeats = GameResult.MAX_SEATS - amountOfPlayers;
 
-                System.out.println("Player " + (joinedPlayers + 1) + " found.");
-                ServerThread st = new ServerThread(service, joinedPlayers + 1);
+        if(amountOfBots > freeSeats) {
+            System.err.println("A table has at most " + GameResult.MAX_SEATS +
+                    " seats, only " + freeSeats + " bots are seated.");
+            amountOfBots = freeSeats;
+        }
 
-                threads[joinedPlayers] = st;
-                st.start();
-            }
+        return amountOfBots;
+    }
 
+    private static Rules loadRules() {
+        try {
+            Rules rules = Rules.load(ServerConfig.getRules());
+            System.out.println("Variant: " + rules + " (target " +
+                    rules.getTargetValue() + ")");
+            return rules;
         } catch (IOException e) {
-            System.out.println(e);
+            System.err.println("The rules could not be loaded: " + e.getMessage());
+            return null;
         }
     }
 
-    private static void playGame() {
-        boolean finish;
+    private static Dealer createDealer(Rules rules) {
+        if(!ServerConfig.isDealerMode())
+            return null;
 
-        do {
-            System.out.println("Starting Game...");
-            startGame();
-            System.out.println("Game Started!");
-            waitGamesOver();
-            System.out.println("Players have finished!");
-            showResults();
-            finish = !retryGame();
-        } while (!finish);
+        Dealer dealer = new Dealer(
+                rules,
+                ServerConfig.getDealerPolicy(),
+                ServerConfig.getDealerStandsOn(),
+                ServerConfig.getDealerDelayMillis());
+        System.out.println("Bank mode: the dealer " + dealer + ".");
 
-        System.out.println("Game Finished!");
+        return dealer;
     }
 
-    private static void startGame() {
-        ServerThread.setReadyToStart(ServerThread.ELECTION.NOTHING);
+    private static ShuffleStats createShuffleStats(Rules rules) {
+        if(!ServerConfig.isFairness())
+            return null;
 
-        boolean allPlayersReady;
+        ShuffleStats stats = new ShuffleStats(rules, ServerConfig.getFairnessAlertZ());
+        stats.startChecks(ServerConfig.getFairnessCheckMillis());
 
-        do {
-            allPlayersReady = Arrays.stream(threads)
-                    .allMatch(t -> t.getReady() == ServerThread.ELECTION.YES);
+        return stats;
+    }
 
-            if(!allPlayersReady) {
-                sleepSeconds(1);
-            }
-        } while(!allPlayersReady);
+    private static IntegrityMonitor createIntegrityMonitor() {
+        if(!ServerConfig.isIntegrity())
+            return null;
 
-        Arrays.stream(threads)
-              .forEach(t -> t.setReady(ServerThread.ELECTION.NO));
-        ServerThread.setReadyToStart(ServerThread.ELECTION.YES);
+        return new IntegrityMonitor(
+                ServerConfig.getIntegrityAlertZ(),
+                ServerConfig.getIntegrityMinGames(),
+                ServerConfig.getIntegrityCheckMillis(),
+                flag -> System.err.println("Integrity alert: " + flag));
     }
 
-    private static void waitGamesOver() {
-        boolean isGameOver;
+    /*
+     * The bots take the seats after the ones of the connected players and
+     * wait for them in the READY phase.
+     */
+    private static void seatBots(int amountOfPlayers, int amountOfBots) {
+        if(amountOfBots <= 0)
+            return;
+
+        BotStrategy strategy = ServerConfig.isOddsBots()?
+                BotStrategy.odds(ServerConfig.getBotMinOdds()):
+                BotStrategy.threshold(ServerConfig.getBotStandsOn());
+        botExecutor = BotSeat.newExecutor(ServerConfig.getBotThreads());
+
+        for (int i = 0; i < amountOfBots; i++) {
+            int numPlayer = amountOfPlayers + i + 1;
+            BotSeat bot = new BotSeat(numPlayer, table, strategy, botExecutor,
+                    ServerConfig.getBotBet(), ServerConfig.getBotDelayMillis(), 0);
+
+            table.seat(numPlayer - 1, bot);
+            bot.start();
+        }
+
+        System.out.println("Bots: " + amountOfBots + " (" + strategy + ").");
+    }
 
-        do {
-            isGameOver =
-                    Arrays.stream(threads)
-                          .allMatch(t -> t.isGameOver());
+    private static boolean openPlayerStore() {
+        try {
+            playerStore = new PlayerStore(
+                    ServerConfig.getPlayerStore(),
+                    ServerConfig.getPlayerCache(),
+                    ServerConfig.getPlayerFlushMillis());
+            System.out.println("Players registered: " +
+                    playerStore.size());
+            return true;
+        } catch (IOException e) {
+            System.err.println("The player store could not be opened: " + e);
+            return false;
+        }
+    }
 
-            if(!isGameOver)
-                sleepSeconds(1);
-        } while(!isGameOver);
+    private static void closePlayerStore() {
+        try {
+            playerStore.close();
+        } catch (IOException e) {
+            System.err.println("The player store could not be saved: " + e);
+        }
     }
 
-    private static void showResults() {
-        String victoryMessage = "YOU WIN!";
-        String defeatMessage = "YOU LOSE!";
-        Optional<Float> maxScoreOptional = Arrays.stream(threads)
-                               .filter(t -> t.getTotalValue() <= 7.5f && !t.isConnectionErrors())
-                               .map(t -> t.getTotalValue())
-                               .max((v1, v2) -> Float.compare(v1, v2));
-        float maxScore = maxScoreOptional.isPresent()? maxScoreOptional.get(): -1;
+    private static boolean openLedger() {
+        try {
+            ledger = new ChipLedger(
+                    ServerConfig.getChipJournal(),
+                    ServerConfig.getInitialChips(),
+                    ServerConfig.getChipFlushMillis());
+            System.out.println("Chip accounts: " + ledger.size() +
+                    " (house " + ledger.getHouse() + ")");
+            return true;
+        } catch (IOException e) {
+            System.err.println("The chip ledger could not be opened: " + e);
+            return false;
+        }
+    }
 
-        Arrays.stream(threads)
-              .filter(t -> t.getTotalValue() != maxScore)
-              .forEach(t -> t.setGameResult(defeatMessage));
+    private static void closeLedger() {
+        try {
+            System.out.println("Chips: house " + ledger.getHouse() +
+                    ", escrow " + ledger.getEscrow() + ", total " + ledger.total());
+            ledger.close();
+        } catch (IOException e) {
+            System.err.println("The chip ledger could not be saved: " + e);
+        }
+    }
 
+    private static boolean listenToPlayers(int amountOfPlayers) {
+        try
+        {
+            ServerSocket server = TlsSupport.createServerSocket();
+            ServerConfig.configure(server);
+            server.bind(
+                    new InetSocketAddress(ServerConfig.getPort()),
+                    ServerConfig.getBacklog());
+
+            admission = new AdmissionControl(
+                    server,
+                    ServerConfig.getMaxSeats(amountOfPlayers));
+            admission.start();
+
+            if(ServerConfig.getHeartbeatMillis() > 0)
+                heartbeat = new Heartbeat(
+                        ServerConfig.getHeartbeatMillis(),
+                        ServerConfig.getHeartbeatMisses());
+
+            if(ServerConfig.getWebSocketPort() > 0) {
+                gateway = new WebSocketGateway(
+                        ServerConfig.getWebSocketPort(), table, admission);
+
+                if(heartbeat != null)
+                    gateway.setHeartbeat(heartbeat);
+
+                gateway.start();
+                System.out.println("WebSocket endpoint on port " +
+                        ServerConfig.getWebSocketPort() + ".");
+            }
 
-        Long winners = Arrays.stream(threads)
-                             .filter(t -> t.getTotalValue() == maxScore && !t.isConnectionErrors())
-                             .count();
+            System.out.println("Waiting players" +
+                    (ServerConfig.isTls()? " (TLS)...": "..."));
 
-        if(winners > 1)
-            victoryMessage = "TIE!";
+            for (int joinedPlayers = 0; joinedPlayers < amountOfPlayers; joinedPlayers++)
+                seatPlayer(joinedPlayers);
 
-        final String finalVictoryMessage = victoryMessage;
-        Arrays.stream(threads)
-              .filter(t -> t.getTotalValue() == maxScore)
-              .forEach(t -> t.setGameResult(finalVictoryMessage));
-    }
+            // The seats freed by the players that leave are not reused.
+            admission.closeSeating();
 
-    private static boolean retryGame() {
-        boolean choicesMade, retryGame = false;
+            if(gateway != null)
+                gateway.closeSeating();
 
-        if(ServerThread.getHaveBuggyPlayer()) {
-            ServerThread.setRepeatGame(ServerThread.ELECTION.NO);
-            System.err.println("The replay is canceled because a " +
-                    "player has suffered connection errors.");
+            System.out.println("Admission: " + admission);
+            return true;
+        } catch (IOException | InterruptedException e) {
+            System.out.println(e);
+            return false;
         }
+    }
 
-        else {
-            ServerThread.setRepeatGame(ServerThread.ELECTION.NOTHING);
+    /*
+     * Without WebSocket endpoint the server waits for the next socket.
+     * With it, the socket queue and the gateway are polled in turn.
+     */
+    private static void seatPlayer(int index) throws InterruptedException {
+        int numPlayer = index + 1;
 
-            do {
-                choicesMade =
-                        Arrays.stream(threads)
-                                .allMatch(t -> t.getRetry() != ServerThread.ELECTION.NOTHING);
+        while (true) {
+            Socket service = gateway == null?
+                    admission.take():
+                    admission.poll(PLAYER_POLL_MILLIS);
 
-                if (choicesMade) {
-                    retryGame = Arrays.stream(threads)
-                            .allMatch(t -> t.getRetry() == ServerThread.ELECTION.YES);
+            if(service != null) {
+                System.out.println("Player " + numPlayer + " found.");
+                ServerThread st = new ServerThread(service, numPlayer, table);
+                st.setOnLeave(admission::releaseSeat);
+                st.setHeartbeat(heartbeat);
 
-                    ServerThread.setRepeatGame(
-                            retryGame ?
-                                    ServerThread.ELECTION.YES :
-                                    ServerThread.ELECTION.NO
-                    );
-                } else
-                    sleepSeconds(1);
-            } while (!choicesMade);
-        }
+                table.seat(index, st);
+                st.start();
+                return;
+            }
 
-        return retryGame;
-    }
+            WebSocketSeat webPlayer = gateway.poll();
 
-    private static void sleepSeconds(int seconds) {
-        try {
-            TimeUnit.SECONDS.sleep(seconds);
-        } catch (InterruptedException e) {
-            e.printStackTrace();
+            if(webPlayer != null) {
+                System.out.println("Player " + numPlayer + " found (WebSocket).");
+                webPlayer.setOnLeave(admission::releaseSeat);
+
+                table.seat(index, webPlayer);
+                webPlayer.join(numPlayer);
+                return;
+            }
         }
     }
 }
@@ -1,8 +1,18 @@
 package cardserver;
 
 import cardmodel.Card;
-import cardmodel.Deck;
-
+import cardmodel.Rules;
+import cardmodel.protocol.FrameChannel;
+import cardmodel.protocol.MessageType;
+import cardserver.capture.CaptureWriter;
+import cardserver.chips.ChipLedger;
+import cardserver.fairness.ShuffleStats;
+import cardserver.integrity.IntegrityMonitor;
+import cardserver.jfr.CardDealtEvent;
+import cardserver.jfr.ConnectionErrorEvent;
+import cardserver.jfr.DecisionWaitEvent;
+
+import javax.net.ssl.SSLSocket;
 import java.io.*;
 import java.net.Socket;
 import java.util.concurrent.TimeUnit;
@@ -14,133 +24,130 @@ import java.util.concurrent.TimeUnit;
  * @version 1.0
  * @since 20/12/2020
  */
-public class ServerThread extends Thread {
+public class ServerThread extends Thread implements Seat, Heartbeat.Peer {
+    private static final int MAX_NAME_LENGTH = 32;
+
     private int numPlayer;
+    private String playerName;
 
     private Socket service;
-    DataInputStream dataSocketIn;
-    ObjectOutputStream ObjectSocketOut;
-    DataOutputStream DataSocketOut;
-
-    private Deck deck;
-    private float totalValue;
+    private FrameChannel channel;
+    private Runnable onLeave;
+    private Heartbeat heartbeat;
+    private volatile long lastHeard = System.nanoTime();
+    private volatile boolean waitingPeer;
+    private volatile boolean expired;
+
+    private final Table table;
+    private final Rules rules;
+    private final ChipLedger ledger;
+    private final ShuffleStats.Recorder shuffleRecorder;
+    private final IntegrityMonitor integrity;
+    private SeatState seatState;
+    private volatile byte[] gameResult;
+    private volatile int seat;
+    private volatile long bet;
+    private CaptureWriter capture;
+    private int baseHalfPoints;
+    private int wildCards;
+    private int round;
 
     /**
-     * Enumerator comprising three states of election: <br/>
-     * NOTHING (No election), <br/>
-     * YES (Positive election) and <br/>
-     * NO (Negative election).
-     */
-    public enum ELECTION {
-        NOTHING,
-        YES,
-        NO
-    }
-
-    private static ELECTION readyToStart = ELECTION.NOTHING;
-    private ELECTION ready;
-    private boolean gameOver;
-    private String gameResult;
-    private static ELECTION repeatGame = ELECTION.NOTHING;
-    private ELECTION retry;
-
-    private static boolean haveBuggyPlayer = false;
-    private boolean connectionErrors = false;
-
-    /**
-     * Constructor that initializes the input and output sockets with
-     * the player, initializes the necessary variables and assigns the
-     * identifier of the player.
+     * Constructor that keeps the socket with the player and assigns the
+     * identifier of the player. The input and output streams (and the TLS
+     * handshake, if enabled) are initialized by the thread itself so that
+     * they do not delay the acceptance of other players.
      * @param s Socket that connects to the client (Player).
      * @param numPlayer Identification number in the game for the player.
+     * @param table Table at which the player is seated.
      */
-    public ServerThread(Socket s, int numPlayer)
+    public ServerThread(Socket s, int numPlayer, Table table)
     {
         this.numPlayer = numPlayer;
-        setConnection(s);
-    }
-
-    /**
-     * Returns the current total value of the game of the player who
-     * manages the thread.
-     * @return current total value.
-     */
-    public float getTotalValue() {
-        return totalValue;
+        this.table = table;
+        rules = table.getRules();
+        ledger = table.getLedger();
+        shuffleRecorder = table.getShuffleStats() == null?
+                null:
+                table.getShuffleStats().recorder();
+        integrity = table.getIntegrityMonitor();
+        playerName = "Player " + numPlayer;
+        service = s;
     }
 
     /**
-     * Let all players know whether or not they can start the game.
-     * @param ready Boolean that indicates whether or not they can
-     *      start the game.
+     * Sets the action executed when the player leaves the game, like
+     * freeing its seat.
+     * @param onLeave Action executed when the player leaves.
      */
-    public static void setReadyToStart(ELECTION ready) {
-        readyToStart = ready;
+    public void setOnLeave(Runnable onLeave) {
+        this.onLeave = onLeave;
     }
 
     /**
-     * Returns a boolean that responds to whether the player is ready
-     * to start the game.
-     * @return A boolean that responds to whether the player is ready
-     *      to start the game.
+     * Sets the heartbeat that checks the connection once it is
+     * established.
+     * @param heartbeat Heartbeat of the server, or null if it is
+     *      disabled.
      */
-    public ELECTION getReady() {
-        return ready;
+    public void setHeartbeat(Heartbeat heartbeat) {
+        this.heartbeat = heartbeat;
     }
 
     /**
-     * Determines the willingness of the player to start the game.
-     * @param ready Willingness of the player to start the game.
+     * Returns the name with which the player has identified, or
+     * "Player N" if it has not sent any, made unique at the table.
+     * @return Name of the player.
      */
-    public void setReady(ELECTION ready) {
-        this.ready = ready;
+    @Override
+    public String getPlayerName() {
+        return playerName;
     }
 
     /**
-     * Method that checks if the player's game has ended or is still
-     * in progress.
-     * @return Boolean indicating whether the player's game has ended
-     * or is still in progress.
+     * Keeps the state of the seat of the player, which the table reads
+     * and changes without locks.
+     * @param seatState State of the seat.
      */
-    public boolean isGameOver() {
-        return gameOver;
+    @Override
+    public void setSeatState(SeatState seatState) {
+        this.seatState = seatState;
     }
 
     /**
-     * Let all players know whether or not they can repeat the game.
-     * @param repeatGame Boolean that indicates whether or not they can
-     *      repeat the game.
+     * Returns the current total value of the game of the player who
+     * manages the thread.
+     * @return current total value.
      */
-    public static void setRepeatGame(ELECTION repeatGame) {
-        ServerThread.repeatGame = repeatGame;
+    public float getTotalValue() {
+        return SeatState.total(seatState.get());
     }
 
     /**
-     * Returns a boolean that responds to whether the player is ready
-     * to retry the game.
-     * @return A boolean that responds to whether the player is ready
-     *      to retry the game.
+     * Returns the chips bet by the player in the current game, which are
+     * in the escrow of the ledger until the table settles them.
+     * @return Chips bet in the current game.
      */
-    public ELECTION getRetry() {
-        return retry;
+    @Override
+    public long getBet() {
+        return bet;
     }
 
     /**
-     * It allows giving value to the message that the player will receive
-     * once his game is over.
-     * @param gameResult Message that the player will receive
-     * once his game is over.
+     * Gives the player the result that it will receive once its game is
+     * over and lets it continue. Called by the table when all the players
+     * have finished.
+     * @param gameResult Result record of the table, shared by all the
+     *      seats (see {@link cardmodel.protocol.GameResult}).
+     * @param seat Seat of the player in the record, from 0.
      */
-    public void setGameResult(String gameResult) {
+    @Override
+    public void publishResult(byte[] gameResult, int seat) {
+        this.seat = seat;
         this.gameResult = gameResult;
-    }
 
-    /**
-     * Return true if have some player with connection error.
-     * @return true if have some player with connection error.
-     */
-    public static boolean getHaveBuggyPlayer() {
-        return haveBuggyPlayer;
+        if(!seatState.transition(SeatState.Phase.DONE, SeatState.Phase.RESULT))
+            seatState.forcePhase(SeatState.Phase.RESULT);
     }
 
     /**
@@ -148,28 +155,143 @@ public class ServerThread extends Thread {
      * @return true if have Connection errors.
      */
     public boolean isConnectionErrors() {
-        return connectionErrors;
+        return SeatState.hasError(seatState.get());
     }
 
-    private void setConnection(Socket s) {
-        service = s;
-
+    private void setConnection() {
         try {
-            dataSocketIn = new DataInputStream(service.getInputStream());
-            ObjectSocketOut = new ObjectOutputStream(service.getOutputStream());
-            DataSocketOut = new DataOutputStream(service.getOutputStream());
+            ServerConfig.configure(service);
+
+            if(service instanceof SSLSocket)
+                startHandshake((SSLSocket) service);
+
+            channel = new FrameChannel(
+                    service,
+                    ServerConfig.getOutputBufferSize());
         } catch (IOException e) {
             showConnectionError("Failed to establish connection to client.");
+            return;
+        }
+
+        if(ServerConfig.getCaptureDir() != null)
+            startCapture();
+
+        if(heartbeat != null)
+            heartbeat.register(this);
+    }
+
+    private void startCapture() {
+        try {
+            capture = CaptureWriter.open(
+                    ServerConfig.getCaptureDir(),
+                    ServerConfig.getSeed(),
+                    numPlayer);
+            channel.setTap(capture);
+            showDebuggerMessage("Capturing traffic in " + capture.getPath());
+        } catch (IOException e) {
+            showDebuggerError("The traffic can not be captured: " + e.getMessage());
+        }
+    }
+
+    private void startHandshake(SSLSocket socket) throws IOException {
+        int timeout = socket.getSoTimeout();
+        long start = System.nanoTime();
+        socket.setSoTimeout(ServerConfig.getTlsHandshakeTimeout());
+
+        try {
+            socket.startHandshake();
+        } finally {
+            socket.setSoTimeout(timeout);
+        }
+
+        long elapsed = System.nanoTime() - start;
+
+        showDebuggerMessage("TLS handshake -> " +
+                TimeUnit.NANOSECONDS.toMicros(elapsed) + " us (" +
+                socket.getSession().getProtocol() + ")");
+    }
+
+    private void readPlayerName() {
+        MessageType message = readMessage();
+
+        String key = "";
+
+        if(message == MessageType.HELLO) {
+            String hello = channel.readText();
+            int line = hello.indexOf('\n');
+            String name = (line < 0? hello: hello.substring(0, line)).trim();
+
+            if(line >= 0)
+                key = hello.substring(line + 1).trim();
+
+            if(!name.isEmpty())
+                playerName = name.length() > MAX_NAME_LENGTH?
+                        name.substring(0, MAX_NAME_LENGTH):
+                        name;
+        }
+
+        playerName = table.claimName(playerName, key);
+        showDebuggerMessage("Joined as " + playerName + ".");
+    }
+
+    private void sendRules() {
+        if(isConnectionErrors())
+            return;
+
+        try {
+            synchronized (channel) {
+                rules.encode(channel.begin(MessageType.RULES, rules.encodedSize()));
+                channel.end();
+            }
+        } catch (IOException e) {
+            showConnectionError("Error trying to send message to client.");
+        }
+    }
+
+    private void sendChips() {
+        sendMessage(MessageType.CHIPS, ledger.balance(playerName));
+    }
+
+    private void placeBet() {
+        MessageType message = readDecision("bet");
+
+        if(message == null)
+            return;
+
+        if(message != MessageType.BET) {
+            showConnectionError("Bet expected, received " + message + ".");
+            return;
+        }
+
+        try {
+            long amount = Math.min(
+                    Math.max(channel.readLong(), 0),
+                    ServerConfig.getMaxBet());
+
+            if(ledger.placeBet(playerName, amount))
+                bet = amount;
+
+            showDebuggerMessage("Bet -> " + bet);
+        } catch (IOException e) {
+            showConnectionError("Invalid bet received from client.");
         }
     }
 
     private void resetData() {
-        deck = new Deck();
-        totalValue = 0;
-        gameOver = false;
-        gameResult = "";
-        ready = ELECTION.YES;
-        retry = ELECTION.NOTHING;
+        long seed = DeckSeeds.forPlayer(numPlayer, round);
+        seatState.shuffle(seed);
+
+        if(capture != null)
+            capture.seed(seed);
+
+        if(shuffleRecorder != null)
+            shuffleRecorder.newDeck();
+
+        bet = 0;
+        baseHalfPoints = 0;
+        wildCards = 0;
+        gameResult = null;
+        seatState.startGame();
     }
 
     /**
@@ -179,6 +301,13 @@ public class ServerThread extends Thread {
     @Override
     public void run()
     {
+        setConnection();
+        readPlayerName();
+        sendRules();
+        sendChips();
+
+        boolean repeatGame;
+
         do {
             resetData();
             waitPlayersToStart();
@@ -187,127 +316,334 @@ public class ServerThread extends Thread {
             waitToResult();
 
             askForRetry();
-            waitForRetry();
+            repeatGame = waitForRetry();
 
-            if(!connectionErrors)
-                sendMessage(repeatGame == ELECTION.YES?
-                    "RETRY":
-                    "FINISH"
+            if(!isConnectionErrors()) {
+                sendMessage(repeatGame?
+                    MessageType.RETRY:
+                    MessageType.FINISH
                 );
-        } while (repeatGame == ELECTION.YES);
+                showDebuggerMessage("Socket writes -> " + channel.takeWriteCount());
+            }
+
+            round++;
+        } while (repeatGame);
 
         closeServer();
         showDebuggerMessage("Left the game.");
+
+        if(onLeave != null)
+            onLeave.run();
     }
 
     private void waitPlayersToStart() {
-        while(readyToStart == ELECTION.NOTHING && !haveBuggyPlayer) {
-            sleepSeconds(1);
-        }
+        Table.await(() -> seatState.getPhase() != SeatState.Phase.READY);
     }
 
     private void play() {
-        if(!connectionErrors) {
-            String message;
+        if(!isConnectionErrors())
+            placeBet();
 
-            while (!gameOver) {
-                sendMessage(getNextCard());
-                gameOver = totalValue >= 7.5f;
-                showDebuggerMessage("Total value -> " + totalValue);
+        boolean gameOver = isConnectionErrors();
+        MessageType message;
 
-                if (!gameOver) {
-                    message = readMessage();
-                    showDebuggerMessage("More cards? -> " + message);
+        while (!gameOver) {
+            Card card = getNextCard();
 
-                    gameOver = message == null || message.equals("NO");
-                }
+            // The deck has run out, the game ends with the cards dealt.
+            if(card == null)
+                break;
+
+            sendMessage(card);
+            float totalValue = getTotalValue();
+            gameOver = SeatState.halfPoints(seatState.get()) >= rules.getTarget();
+            showDebuggerMessage("Total value -> " + totalValue);
+
+            if (!gameOver) {
+                long asked = System.nanoTime();
+                message = readDecision("card");
+                showDebuggerMessage("More cards? -> " + message);
+
+                if(integrity != null && message != null)
+                    integrity.decision(playerName, message == MessageType.YES,
+                            asked, System.nanoTime());
+
+                gameOver = message != MessageType.YES;
             }
         }
+
+        seatState.transition(SeatState.Phase.PLAYING, SeatState.Phase.DONE);
     }
 
     private Card getNextCard() {
-        Card card = deck.next();
-        totalValue += card.getValue();
-        return card;
+        int id = seatState.nextCard();
+
+        if(id < 0)
+            return null;
+
+        if(shuffleRecorder != null)
+            shuffleRecorder.dealt(id);
+
+        if(rules.isWild(id))
+            wildCards++;
+
+        else
+            baseHalfPoints += rules.halfPoints(id);
+
+        long word = seatState.setHalfPoints(rules.score(baseHalfPoints, wildCards));
+        CardDealtEvent.emit(numPlayer, id, SeatState.total(word));
+        return Card.of(id);
     }
 
     private void waitToResult() {
-        while(gameResult.isEmpty())
-            sleepSeconds(1);
+        Table.await(() -> seatState.getPhase() == SeatState.Phase.RESULT);
 
-        if(!connectionErrors)
-            sendMessage(gameResult);
+        if(!isConnectionErrors()) {
+            sendResult();
+            sendChips();
+            flushMessages();
+        }
     }
 
     private void askForRetry() {
-        if(!connectionErrors) {
-            String message = readMessage();
+        MessageType message = null;
+
+        if(!isConnectionErrors()) {
+            message = readDecision("retry");
             showDebuggerMessage("Retry -> " + message);
+        }
+
+        seatState.transition(
+                SeatState.Phase.RESULT,
+                message == MessageType.YES ?
+                        SeatState.Phase.RETRY_YES :
+                        SeatState.Phase.RETRY_NO);
+    }
+
+    private boolean waitForRetry() {
+        long[] tableState = new long[1];
+
+        Table.await(() -> {
+            tableState[0] = table.getState();
+            Table.Phase phase = Table.phase(tableState[0]);
+
+            return Table.round(tableState[0]) > round ||
+                    phase == Table.Phase.REPEAT ||
+                    phase == Table.Phase.FINISH;
+        });
+
+        return Table.round(tableState[0]) > round ||
+                Table.phase(tableState[0]) == Table.Phase.REPEAT;
+    }
 
-            retry = message != null && message.equals("YES") ?
-                    ELECTION.YES :
-                    ELECTION.NO;
+    /*
+     * The messages are only grouped in the output buffer, they are sent
+     * to the client by flushMessages() when the thread is going to wait
+     * for the client or for the rest of the players. This way the last
+     * card travels with the result and RETRY/FINISH with the first card
+     * of the next game.
+     */
+    private void sendMessage(MessageType message) {
+        if(isConnectionErrors())
+            return;
+
+        try {
+            channel.write(message);
+        } catch (IOException e) {
+            showConnectionError("Error trying to send message to client.");
         }
     }
 
-    private void waitForRetry() {
-        while(repeatGame == ELECTION.NOTHING)
-            sleepSeconds(1);
+    private void sendResult() {
+        if(isConnectionErrors())
+            return;
+
+        try {
+            synchronized (channel) {
+                channel.begin(MessageType.RESULT, 1 + gameResult.length)
+                        .put((byte) seat)
+                        .put(gameResult);
+                channel.end();
+            }
+        } catch (IOException e) {
+            showConnectionError("Error trying to send message to client.");
+        }
     }
 
-    private void sendMessage(String message) {
+    private void sendMessage(MessageType type, long value) {
+        if(isConnectionErrors())
+            return;
+
+        try {
+            channel.write(type, value);
+        } catch (IOException e) {
+            showConnectionError("Error trying to send message to client.");
+        }
+    }
+
+    private void sendMessage(Card card) {
+        if(isConnectionErrors())
+            return;
+
         try {
-            DataSocketOut.writeUTF(message);
-            DataSocketOut.flush();
+            channel.write(card);
         } catch (IOException e) {
             showConnectionError("Error trying to send message to client.");
         }
     }
 
-    private <T extends Serializable> void sendMessage(T message) {
+    private void flushMessages() {
+        if(isConnectionErrors())
+            return;
+
         try {
-            ObjectSocketOut.writeObject(message);
-            ObjectSocketOut.flush();
+            channel.flush();
         } catch (IOException e) {
             showConnectionError("Error trying to send message to client.");
         }
     }
 
-    private String readMessage() {
+    /*
+     * The answers to the PINGs of the heartbeat are skipped, they only
+     * show that the player is still there.
+     */
+    private MessageType readMessage() {
+        flushMessages();
+
+        if(isConnectionErrors())
+            return null;
+
         try {
-            return dataSocketIn.readUTF();
+            MessageType message;
+            lastHeard = System.nanoTime();
+            waitingPeer = true;
+
+            do {
+                message = channel.read();
+                lastHeard = System.nanoTime();
+            } while (message.isHeartbeat());
+
+            return message;
         } catch (IOException e) {
-            showConnectionError("Error trying to read message from client.");
+            showConnectionError(expired?
+                    "No answer to the heartbeat, the connection is closed.":
+                    "Error trying to read message from client.");
             return null;
+        } finally {
+            waitingPeer = false;
         }
     }
 
-    private void sleepSeconds(int seconds) {
+    /*
+     * Reads the answer of the player to a question, recording the wait
+     * for the flight recorder if it is long enough.
+     */
+    private MessageType readDecision(String decision) {
+        DecisionWaitEvent event = new DecisionWaitEvent();
+        event.begin();
+        MessageType message = readMessage();
+        event.commit(numPlayer, decision, message);
+
+        return message;
+    }
+
+    /**
+     * Returns when the player was last heard, or since when the thread
+     * waits for it.
+     * @return Time in nanoseconds.
+     */
+    @Override
+    public long getLastHeard() {
+        return lastHeard;
+    }
+
+    /**
+     * Returns whether the thread is waiting for a message of the player.
+     * @return true if the thread is reading from the player.
+     */
+    @Override
+    public boolean isWaitingPeer() {
+        return waitingPeer;
+    }
+
+    /**
+     * Returns for how long the current write to the player has been
+     * blocked.
+     * @param now Current time in nanoseconds.
+     * @return Time in nanoseconds, or 0 if nothing is being written.
+     */
+    @Override
+    public long getWriteStall(long now) {
+        return channel.getWriteStall(now);
+    }
+
+    /**
+     * Sends a PING to the player, together with the messages grouped
+     * until now. Called by a thread of the heartbeat.
+     */
+    @Override
+    public void ping() {
+        if(isConnectionErrors())
+            return;
+
         try {
-            TimeUnit.SECONDS.sleep(seconds);
-        } catch (InterruptedException e) {
-            e.printStackTrace();
+            synchronized (channel) {
+                channel.write(MessageType.PING,
+                        TimeUnit.NANOSECONDS.toMillis(heartbeat.getIntervalNanos()));
+                channel.flush();
+            }
+        } catch (IOException e) {
+            // The thread of the player finds the error when it reads.
         }
     }
 
+    /**
+     * Closes the connection of the player, which has not been heard for
+     * too long, so that the thread stops waiting for it.
+     */
+    @Override
+    public void expire() {
+        long now = System.nanoTime();
+        long stall = channel.getWriteStall(now);
+        expired = true;
+
+        if(stall > 0)
+            showDebuggerError("The player does not read, a write has been blocked for " +
+                    TimeUnit.NANOSECONDS.toMillis(stall) + " ms.");
+
+        else
+            showDebuggerError("No answer to the heartbeat in " +
+                    TimeUnit.NANOSECONDS.toMillis(now - lastHeard) + " ms.");
+
+        try { service.close(); } catch (IOException e) {}
+    }
+
     private void closeServer() {
+        // The last messages are sent while the heartbeat can still close
+        // a player that does not read them.
+        if(channel != null)
+            flushMessages();
+
+        if(heartbeat != null)
+            heartbeat.unregister(this);
+
         if (service != null)
             try { service.close(); } catch (IOException ex) {}
 
-        if(dataSocketIn != null)
-            try { dataSocketIn.close(); } catch (IOException e) {}
+        if(shuffleRecorder != null)
+            shuffleRecorder.merge();
 
-        if(ObjectSocketOut != null)
-            try { ObjectSocketOut.close(); } catch (IOException e) {}
-
-        if(DataSocketOut != null)
-            try { DataSocketOut.close(); } catch (IOException e) {}
+        if(capture != null)
+            try { capture.close(); } catch (IOException e) {
+                showDebuggerError("The capture could not be saved: " + e.getMessage());
+            }
     }
 
     private void showConnectionError(String message) {
         showDebuggerError(message);
-        haveBuggyPlayer = true;
-        connectionErrors = true;
+        ConnectionErrorEvent.emit(numPlayer, message);
+        seatState.markError();
+        table.reportBuggyPlayer();
     }
 
     private void showDebuggerError(String message) {
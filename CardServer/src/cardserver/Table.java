@@ -0,0 +1,460 @@
+package cardserver;
+
+import cardmodel.Outcome;
+import cardmodel.Rules;
+import cardmodel.protocol.GameResult;
+import cardserver.chips.ChipLedger;
+import cardserver.fairness.ShuffleStats;
+import cardserver.integrity.IntegrityMonitor;
+import cardserver.jfr.ResultsPublishedEvent;
+import cardserver.jfr.RetryDecisionEvent;
+import cardserver.jfr.RoundPlayEvent;
+import cardserver.jfr.RoundStartEvent;
+import cardserver.players.PlayerStore;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Class that coordinates the seats of a card game table: it starts the
+ * games when all the players are ready, waits for them to finish,
+ * publishes the results and decides whether the game is repeated.
+ * <br/><br/>
+ * The table and the threads of the players only communicate through
+ * atomic state words (the {@link SeatState} of each seat and the state
+ * of the table, which encodes the phase and the number of the game), so
+ * no locks are needed and every change is visible to the other threads.
+ * The words of all the seats are packed in the {@link SeatStore} of the
+ * table, so the table checks and reads them with linear scans.
+ * The seats without a thread of their own (the bots) are also notified
+ * of each change of the state of the table, see {@link Seat}.
+ * <br/><br/>
+ * With a {@link Dealer} (bank mode) the players do not compete with each
+ * other: the dealer plays last, on the executor of the table, and each
+ * seat wins only if it beats the dealer.
+ * @author Jose Valera
+ * @version 1.0
+ * @since 19/10/2026
+ */
+public class Table {
+    /**
+     * Phases of the table in a game, in the order in which they happen.
+     */
+    public enum Phase {
+        /** Waiting for all the players to be ready. */
+        WAITING_PLAYERS,
+        /** The players are receiving cards. */
+        PLAYING,
+        /** The results have been published. */
+        RESULTS,
+        /** The game will be repeated. */
+        REPEAT,
+        /** The game is over. */
+        FINISH
+    }
+
+    private static final Phase[] phases = Phase.values();
+    private static final int ROUND_SHIFT = 8;
+    private static final long POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final int LEADERBOARD_SIZE = 5;
+
+    private final Seat[] seats;
+    private final SeatStore store;
+    private final PlayerStore playerStore;
+    private final ChipLedger ledger;
+    private final Rules rules;
+    private final Dealer dealer;
+    private final ShuffleStats shuffleStats;
+    private final IntegrityMonitor integrity;
+    private final ScheduledExecutorService scheduler;
+    private final AtomicLong state = new AtomicLong();
+    private final Set<String> names = ConcurrentHashMap.newKeySet();
+    private volatile boolean buggyPlayer;
+    private int dealerScore = -1;
+
+    /**
+     * Constructor that creates an empty table.
+     * @param capacity Number of seats of the table, at most
+     *      {@link GameResult#MAX_SEATS}.
+     * @param playerStore Store in which the results of the players are
+     *      recorded.
+     * @param ledger Ledger with the chips of the players.
+     * @param rules Rules of the variant played at the table.
+     * @param dealer Dealer against which the players play, or null if
+     *      they play against each other.
+     * @param shuffleStats Statistics of the cards dealt, or null if they
+     *      are not collected.
+     * @param integrity Monitor that analyzes the games, or null if they
+     *      are not analyzed.
+     */
+    public Table(int capacity, PlayerStore playerStore, ChipLedger ledger,
+                 Rules rules, Dealer dealer, ShuffleStats shuffleStats,
+                 IntegrityMonitor integrity) {
+        if(capacity <= 0 || capacity > GameResult.MAX_SEATS)
+            throw new IllegalArgumentException("Invalid capacity: " + capacity);
+
+        seats = new Seat[capacity];
+        store = new SeatStore(capacity, rules);
+        this.playerStore = playerStore;
+        this.ledger = ledger;
+        this.rules = rules;
+        this.dealer = dealer;
+        this.shuffleStats = shuffleStats;
+        this.integrity = integrity;
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "Table-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Sits a player at a seat of the table and gives it the state of the
+     * seat. The player must not start before.
+     * @param index Number of the seat, from 0.
+     * @param player Connected player or bot.
+     */
+    public void seat(int index, Seat player) {
+        seats[index] = player;
+        player.setSeatState(store.state(index));
+    }
+
+    /**
+     * Returns the number of seats of the table.
+     * @return Number of seats.
+     */
+    public int getCapacity() {
+        return seats.length;
+    }
+
+    /**
+     * Returns the ledger with the chips of the players.
+     * @return Ledger of the table.
+     */
+    public ChipLedger getLedger() {
+        return ledger;
+    }
+
+    /**
+     * Returns the statistics of the cards dealt at the table.
+     * @return Fairness statistics, or null if they are not collected.
+     */
+    public ShuffleStats getShuffleStats() {
+        return shuffleStats;
+    }
+
+    /**
+     * Returns the monitor that analyzes the games of the table, which the
+     * seats feed with the decisions of the players.
+     * @return Integrity monitor, or null if the games are not analyzed.
+     */
+    public IntegrityMonitor getIntegrityMonitor() {
+        return integrity;
+    }
+
+    /**
+     * Returns the rules of the variant played at the table.
+     * @return Rules of the table.
+     */
+    public Rules getRules() {
+        return rules;
+    }
+
+    /**
+     * Returns the state word of the table, whose parts are obtained with
+     * {@link #phase(long)} and {@link #round(long)}.
+     * @return State word of the table.
+     */
+    public long getState() {
+        return state.get();
+    }
+
+    /**
+     * Returns the phase encoded in a state word of the table.
+     * @param word State word of the table.
+     * @return Phase of the table.
+     */
+    public static Phase phase(long word) {
+        return phases[(int) (word & 0xFF)];
+    }
+
+    /**
+     * Returns the number of game encoded in a state word of the table.
+     * @param word State word of the table.
+     * @return Number of the game, from 0.
+     */
+    public static int round(long word) {
+        return (int) (word >>> ROUND_SHIFT);
+    }
+
+    /**
+     * Reserves a name for a player of the table. The name is the key of
+     * the profile and the chips of the player, so if another player of
+     * the table already has it a number is added: "Name (2)", "Name (3)"...
+     * @param name Name wanted by the player.
+     * @return Name reserved, which no other player of the table has.
+     */
+    public String claimName(String name) {
+        String claimed = name;
+
+        for (int n = 2; !names.add(claimed); n++)
+            claimed = name + " (" + n + ")";
+
+        return claimed;
+    }
+
+    /**
+     * Reserves a name for a player that has connected, which must also be
+     * able to use the chips of the name: a name whose account is bound to
+     * another key is refused like one taken at the table, see
+     * {@link ChipLedger#claim(String, String)}.
+     * @param name Name wanted by the player.
+     * @param key Secret sent by the player, empty if it has none.
+     * @return Name reserved, whose account belongs to the player.
+     */
+    public String claimName(String name, String key) {
+        String claimed = name;
+
+        for (int n = 2; ; n++) {
+            if(names.add(claimed)) {
+                if(ledger.claim(claimed, key))
+                    return claimed;
+
+                names.remove(claimed);
+            }
+
+            claimed = name + " (" + n + ")";
+        }
+    }
+
+    /**
+     * Notifies that a player has suffered connection errors, so the game
+     * will not be repeated.
+     */
+    public void reportBuggyPlayer() {
+        buggyPlayer = true;
+    }
+
+    /**
+     * Return true if have some player with connection error.
+     * @return true if have some player with connection error.
+     */
+    public boolean hasBuggyPlayer() {
+        return buggyPlayer;
+    }
+
+    /**
+     * Returns a copy of the state words of all the seats, read without
+     * locks. Each word is consistent by itself, and once all the seats
+     * have finished their game none of them changes until the table
+     * publishes the results, so the whole copy is consistent too.
+     * @return State words of the seats.
+     */
+    public long[] snapshot() {
+        long[] words = new long[seats.length];
+        store.snapshot(words);
+
+        return words;
+    }
+
+    /**
+     * Plays games until some player does not want or can not repeat.
+     */
+    public void play() {
+        boolean finish;
+        int round = 0;
+
+        do {
+            System.out.println("Starting Game...");
+            startGame(round);
+            System.out.println("Game Started!");
+            waitGamesOver(round);
+            System.out.println("Players have finished!");
+
+            ResultsPublishedEvent event = new ResultsPublishedEvent();
+            event.begin();
+            long[] words = snapshot();
+            publishResults(words, dealer != null?
+                    settleAgainstDealer(words):
+                    compareScores(words));
+
+            setState(round, Phase.RESULTS);
+            event.commit(round, seats.length, dealerScore);
+            System.out.println("Leaderboard: " +
+                    playerStore.getLeaderboard().top(LEADERBOARD_SIZE));
+            finish = !retryGame(round);
+            round++;
+        } while (!finish);
+
+        scheduler.shutdown();
+        System.out.println("Game Finished!");
+    }
+
+    private void startGame(int round) {
+        RoundStartEvent event = new RoundStartEvent();
+        event.begin();
+        setState(round, Phase.WAITING_PLAYERS);
+
+        await(() -> store.allIn(SeatState.Phase.READY));
+        store.transitionAll(SeatState.Phase.READY, SeatState.Phase.PLAYING);
+
+        setState(round, Phase.PLAYING);
+        event.commit(round, seats.length);
+    }
+
+    private void waitGamesOver(int round) {
+        RoundPlayEvent event = new RoundPlayEvent();
+        event.begin();
+        await(() -> store.allIn(SeatState.Phase.DONE));
+        event.commit(round);
+    }
+
+    private Outcome[] compareScores(long[] words) {
+        Outcome[] outcomes = new Outcome[words.length];
+        int maxScore = -1;
+        int winners = 0;
+
+        for (long word : words) {
+            int score = SeatState.halfPoints(word);
+
+            if(!rules.isBust(score) && !SeatState.hasError(word) && score > maxScore)
+                maxScore = score;
+        }
+
+        for (long word : words)
+            if(SeatState.halfPoints(word) == maxScore && !SeatState.hasError(word))
+                winners++;
+
+        for (int i = 0; i < words.length; i++) {
+            boolean isWinner = SeatState.halfPoints(words[i]) == maxScore;
+            outcomes[i] = !isWinner || SeatState.hasError(words[i])?
+                    Outcome.LOSS:
+                    winners > 1? Outcome.TIE: Outcome.WIN;
+        }
+
+        return outcomes;
+    }
+
+    /*
+     * The dealer plays once all the seats are done, and then every seat is
+     * settled in a single pass over the snapshot: a seat wins if it has
+     * not busted and the dealer has busted or has a lower score. The ties
+     * are won by the bank.
+     */
+    private Outcome[] settleAgainstDealer(long[] words) {
+        Outcome[] outcomes = new Outcome[words.length];
+        int bestPlayer = -1;
+
+        for (long word : words) {
+            int score = SeatState.halfPoints(word);
+
+            if(!rules.isBust(score) && !SeatState.hasError(word))
+                bestPlayer = Math.max(bestPlayer, score);
+        }
+
+        dealerScore = dealer.play(scheduler, bestPlayer,
+                DeckSeeds.forDealer(round(state.get()))).join();
+        boolean dealerBust = rules.isBust(dealerScore);
+        System.out.println("Dealer -> " + dealerScore / 2f +
+                (dealerBust? " (bust)": ""));
+
+        for (int i = 0; i < words.length; i++) {
+            int score = SeatState.halfPoints(words[i]);
+            boolean wins = !SeatState.hasError(words[i]) && !rules.isBust(score) &&
+                    (dealerBust || score > dealerScore);
+
+            outcomes[i] = wins? Outcome.WIN: Outcome.LOSS;
+        }
+
+        return outcomes;
+    }
+
+    /*
+     * The bets of all the seats are settled in a single batch of the
+     * ledger before the players receive their results, so the chips they
+     * are told already include the game. The result record is encoded
+     * once for the whole table and every seat sends the same bytes. The
+     * integrity monitor only queues the outcomes, it analyzes them in its
+     * own thread.
+     */
+    private void publishResults(long[] words, Outcome[] outcomes) {
+        String[] names = new String[seats.length];
+        long[] bets = new long[seats.length];
+        long[] payouts = new long[seats.length];
+        int[] totals = new int[seats.length];
+        int winningTotal = -1;
+        int winners = 0;
+
+        for (int i = 0; i < seats.length; i++) {
+            names[i] = seats[i].getPlayerName();
+            bets[i] = seats[i].getBet();
+            payouts[i] = outcomes[i] == Outcome.WIN? 2 * bets[i]:
+                    outcomes[i] == Outcome.TIE? bets[i]: 0;
+            totals[i] = SeatState.halfPoints(words[i]);
+
+            if(outcomes[i] != Outcome.LOSS) {
+                winningTotal = Math.max(winningTotal, totals[i]);
+                winners++;
+            }
+        }
+
+        // Against the dealer, if no player has won the dealer has.
+        if(winners == 0 && dealerScore >= 0 && !rules.isBust(dealerScore))
+            winningTotal = dealerScore;
+
+        ledger.settle(names, bets, payouts);
+        byte[] record = GameResult.encodeTable(
+                winningTotal, winners, dealerScore, outcomes, totals);
+
+        for (int i = 0; i < seats.length; i++) {
+            playerStore.record(names[i], outcomes[i], SeatState.total(words[i]));
+            seats[i].publishResult(record, i);
+        }
+
+        if(integrity != null)
+            integrity.results(names, outcomes);
+    }
+
+    private boolean retryGame(int round) {
+        RetryDecisionEvent event = new RetryDecisionEvent();
+        event.begin();
+        boolean retryGame = false;
+
+        if(buggyPlayer)
+            System.err.println("The replay is canceled because a " +
+                    "player has suffered connection errors.");
+
+        else {
+            await(() -> store.allIn(SeatState.Phase.RETRY_YES, SeatState.Phase.RETRY_NO));
+
+            retryGame = !buggyPlayer &&
+                    store.allIn(SeatState.Phase.RETRY_YES);
+        }
+
+        setState(round, retryGame? Phase.REPEAT: Phase.FINISH);
+        event.commit(round, retryGame);
+        return retryGame;
+    }
+
+    private void setState(int round, Phase phase) {
+        state.set(((long) round << ROUND_SHIFT) | phase.ordinal());
+
+        for (Seat seat : seats)
+            seat.tableChanged();
+    }
+
+    /**
+     * Waits, without blocking other threads, until a condition is met.
+     * @param condition Condition to wait for.
+     */
+    static void await(BooleanSupplier condition) {
+        while (!condition.getAsBoolean())
+            LockSupport.parkNanos(POLL_NANOS);
+    }
+}
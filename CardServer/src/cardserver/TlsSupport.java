@@ -0,0 +1,76 @@
+package cardserver;
+
+import javax.net.ssl.*;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ServerSocket;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+
+/**
+ * Class in charge of creating the socket that listens to the players,
+ * encrypted with TLS or not depending on the configuration.<br/><br/>
+ * The server keeps a cache of sessions, so a player that reconnects or
+ * retries with the same client resumes its session instead of repeating
+ * the full handshake.
+ * @author Jose Valera
+ * @version 1.0
+ * @since 19/10/2026
+ */
+public class TlsSupport {
+    private static final String[] protocols = {"TLSv1.3", "TLSv1.2"};
+
+    private TlsSupport() {}
+
+    /**
+     * Creates the unbound socket that listens to the players.
+     * @return A plain server socket or a TLS one if it is enabled.
+     * @throws IOException If the key store can not be loaded.
+     */
+    public static ServerSocket createServerSocket() throws IOException {
+        if(!ServerConfig.isTls())
+            return new ServerSocket();
+
+        SSLContext context = createContext(
+                ServerConfig.getKeyStore(),
+                ServerConfig.getKeyStorePassword());
+
+        SSLSessionContext sessions = context.getServerSessionContext();
+        sessions.setSessionCacheSize(ServerConfig.getTlsSessionCacheSize());
+        sessions.setSessionTimeout(ServerConfig.getTlsSessionTimeout());
+
+        SSLServerSocket server =
+                (SSLServerSocket) context.getServerSocketFactory().createServerSocket();
+        server.setEnabledProtocols(protocols);
+
+        return server;
+    }
+
+    /**
+     * Creates a TLS context with the key and certificate stored in a
+     * PKCS12 file.
+     * @param keyStorePath Path of the key store.
+     * @param password Password of the key store.
+     * @return The initialized TLS context.
+     * @throws IOException If the key store can not be loaded.
+     */
+    public static SSLContext createContext(String keyStorePath, char[] password)
+            throws IOException {
+        try (InputStream in = new FileInputStream(keyStorePath)) {
+            KeyStore keyStore = KeyStore.getInstance("PKCS12");
+            keyStore.load(in, password);
+
+            KeyManagerFactory keyManagers = KeyManagerFactory.getInstance(
+                    KeyManagerFactory.getDefaultAlgorithm());
+            keyManagers.init(keyStore, password);
+
+            SSLContext context = SSLContext.getInstance("TLS");
+            context.init(keyManagers.getKeyManagers(), null, null);
+
+            return context;
+        } catch (GeneralSecurityException e) {
+            throw new IOException("Invalid key store: " + keyStorePath, e);
+        }
+    }
+}
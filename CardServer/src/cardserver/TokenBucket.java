@@ -0,0 +1,47 @@
+package cardserver;
+
+/**
+ * Token bucket that limits the rate of an event, allowing bursts of a
+ * maximum size. The tokens are refilled lazily when they are requested.
+ * @author Jose Valera
+ * @version 1.0
+ * @since 19/10/2026
+ */
+class TokenBucket {
+    private final double tokensPerNano;
+    private final double capacity;
+    private double tokens;
+    private long lastRefill;
+
+    /**
+     * Constructor that creates a full bucket.
+     * @param ratePerSecond Tokens refilled each second.
+     * @param capacity Maximum number of tokens (size of the burst).
+     */
+    TokenBucket(double ratePerSecond, int capacity) {
+        this.tokensPerNano = ratePerSecond / 1_000_000_000d;
+        this.capacity = capacity;
+        tokens = capacity;
+        lastRefill = System.nanoTime();
+    }
+
+    /**
+     * Takes a token if there is one available.
+     * @return true if the token has been taken.
+     */
+    synchronized boolean tryAcquire() {
+        refill();
+
+        if(tokens < 1)
+            return false;
+
+        tokens--;
+        return true;
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+        lastRefill = now;
+    }
+}
@@ -0,0 +1,121 @@
+package cardserver.bots;
+
+import cardmodel.Card;
+import cardmodel.Rules;
+
+/**
+ * Hand of a bot in a game, with what it knows of its deck: the cards of
+ * the deck of the variant minus the ones it has already received. Each
+ * seat plays with its own deck, so this is exactly what is left in it.
+ * @author Jose Valera
+ * @version 1.0
+ * @since 19/10/2026
+ */
+public class BotHand {
+    private final Rules rules;
+    private final byte[] fullDeck = new byte[Card.count()];
+    private final byte[] remaining = new byte[Card.count()];
+    private final int deckSize;
+    private int remainingCards;
+    private int baseHalfPoints;
+    private int wildCards;
+    private int score;
+
+    /**
+     * Constructor that creates an empty hand.
+     * @param rules Rules of the variant played.
+     */
+    public BotHand(Rules rules) {
+        this.rules = rules;
+
+        int[] deckCards = rules.getDeckCards();
+
+        for (int id : deckCards)
+            fullDeck[id]++;
+
+        deckSize = deckCards.length;
+        reset();
+    }
+
+    /**
+     * Empties the hand for a new game with a full deck.
+     */
+    public void reset() {
+        System.arraycopy(fullDeck, 0, remaining, 0, fullDeck.length);
+        remainingCards = deckSize;
+        baseHalfPoints = 0;
+        wildCards = 0;
+        score = 0;
+    }
+
+    /**
+     * Adds a card received to the hand.
+     * @param cardId Identifier of the card.
+     * @return New score of the hand in half points.
+     */
+    public int add(int cardId) {
+        if(remaining[cardId] > 0) {
+            remaining[cardId]--;
+            remainingCards--;
+        }
+
+        if(rules.isWild(cardId))
+            wildCards++;
+
+        else
+            baseHalfPoints += rules.halfPoints(cardId);
+
+        score = rules.score(baseHalfPoints, wildCards);
+        return score;
+    }
+
+    /**
+     * Returns the rules of the variant played.
+     * @return Rules of the hand.
+     */
+    public Rules getRules() {
+        return rules;
+    }
+
+    /**
+     * Returns the score of the hand.
+     * @return Score in half points.
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Returns the number of cards left in the deck.
+     * @return Cards left.
+     */
+    public int getRemainingCards() {
+        return remainingCards;
+    }
+
+    /**
+     * Returns the probability that the next card of the deck does not
+     * make the hand exceed the target.
+     * @return Probability between 0 and 1 (0 if the deck is empty).
+     */
+    public double getSafeProbability() {
+        if(remainingCards == 0)
+            return 0;
+
+        int safe = 0;
+
+        for (int id = 0; id < remaining.length; id++) {
+            if(remaining[id] == 0)
+                continue;
+
+            int next = rules.isWild(id)?
+                    rules.score(baseHalfPoints, wildCards + 1):
+                    rules.score(baseHalfPoints + rules.halfPoints(id), wildCards);
+
+            if(!rules.isBust(next))
+                safe += remaining[id];
+        }
+
+        return (double) safe / remainingCards;
+    }
+}
@@ -0,0 +1,256 @@
+package cardserver.bots;
+
+import cardmodel.Rules;
+import cardserver.DeckSeeds;
+import cardserver.Seat;
+import cardserver.SeatState;
+import cardserver.Table;
+import cardserver.chips.ChipLedger;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Seat played by a bot of the server, with no socket and no thread of
+ * its own: it follows the same ready/play/result/retry flow as a
+ * {@link cardserver.ServerThread}, but each step is a short task run on
+ * an executor shared by all the bots, so a few threads serve any number
+ * of them.<br/><br/>
+ * The steps are triggered by the table (when its state changes and when
+ * it publishes the results) and by the pause between the cards, never by
+ * polling. A bot only waits in its {@link SeatState}, so the table can not
+ * tell it apart from a connected player.
+ * @author Jose Valera
+ * @version 1.0
+ * @since 19/10/2026
+ */
+public class BotSeat implements Seat {
+    private final int numPlayer;
+    private final String playerName;
+    private final Table table;
+    private final Rules rules;
+    private final ChipLedger ledger;
+    private final BotStrategy strategy;
+    private final ScheduledExecutorService executor;
+    private final long betAmount;
+    private final long delayMillis;
+    private final int maxGames;
+    private final BotHand hand;
+    private SeatState seatState;
+    private final AtomicBoolean queued = new AtomicBoolean();
+    private volatile long bet;
+    private Runnable onLeave;
+    private boolean betPlaced;
+    private long nextCardNanos;
+    private int round;
+    private int games;
+    private boolean left;
+
+    /**
+     * Constructor that creates a bot for a seat of a table.
+     * @param numPlayer Identification number of the player, which gives
+     *      the seeds of its decks like those of the connected players.
+     * @param table Table at which the bot is seated.
+     * @param strategy Strategy with which it asks for cards.
+     * @param executor Executor shared by the bots.
+     * @param betAmount Chips bet in each game.
+     * @param delayMillis Pause before each card after the first one.
+     * @param maxGames Games after which the bot does not want to repeat,
+     *      or 0 to repeat while the rest of the table does.
+     */
+    public BotSeat(int numPlayer, Table table, BotStrategy strategy,
+                   ScheduledExecutorService executor, long betAmount,
+                   long delayMillis, int maxGames) {
+        this.numPlayer = numPlayer;
+        this.table = table;
+        this.strategy = strategy;
+        this.executor = executor;
+        this.betAmount = betAmount;
+        this.delayMillis = delayMillis;
+        this.maxGames = maxGames;
+        rules = table.getRules();
+        ledger = table.getLedger();
+        hand = new BotHand(rules);
+        playerName = table.claimName("Bot " + numPlayer);
+    }
+
+    /**
+     * Creates an executor for the bots, with daemon threads.
+     * @param threads Number of threads.
+     * @return The executor.
+     */
+    public static ScheduledExecutorService newExecutor(int threads) {
+        AtomicInteger count = new AtomicInteger();
+
+        return Executors.newScheduledThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "Bots-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Sets the action executed when the bot leaves the table.
+     * @param onLeave Action executed when the bot leaves.
+     */
+    public void setOnLeave(Runnable onLeave) {
+        this.onLeave = onLeave;
+    }
+
+    /**
+     * Prepares the first game of the bot, which then waits for the table.
+     */
+    public void start() {
+        synchronized (this) {
+            resetData();
+        }
+    }
+
+    @Override
+    public String getPlayerName() {
+        return playerName;
+    }
+
+    @Override
+    public void setSeatState(SeatState seatState) {
+        this.seatState = seatState;
+    }
+
+    @Override
+    public long getBet() {
+        return bet;
+    }
+
+    @Override
+    public void publishResult(byte[] gameResult, int seat) {
+        if(!seatState.transition(SeatState.Phase.DONE, SeatState.Phase.RESULT))
+            seatState.forcePhase(SeatState.Phase.RESULT);
+
+        wake();
+    }
+
+    @Override
+    public void tableChanged() {
+        wake();
+    }
+
+    /*
+     * Several wakes before the step runs are served by a single task. The
+     * flag is cleared before the step, so a change made while it runs
+     * queues another one.
+     */
+    private void wake() {
+        if(queued.compareAndSet(false, true))
+            executor.execute(this::run);
+    }
+
+    private void run() {
+        queued.set(false);
+
+        synchronized (this) {
+            try {
+                step();
+            } catch (RuntimeException e) {
+                System.err.println(playerName + ": " + e);
+                seatState.markError();
+                table.reportBuggyPlayer();
+                seatState.transition(SeatState.Phase.PLAYING, SeatState.Phase.DONE);
+            }
+        }
+    }
+
+    private void step() {
+        switch (seatState.getPhase()) {
+            case PLAYING:
+                play();
+                break;
+
+            case RESULT:
+                answerRetry();
+                break;
+
+            case RETRY_YES:
+            case RETRY_NO:
+                waitForRetry();
+                break;
+
+            default:
+                // READY and DONE: waiting for the table.
+                break;
+        }
+    }
+
+    private void resetData() {
+        seatState.shuffle(DeckSeeds.forPlayer(numPlayer, round));
+        hand.reset();
+        bet = 0;
+        betPlaced = false;
+        nextCardNanos = 0;
+        seatState.startGame();
+    }
+
+    private void play() {
+        if(!betPlaced) {
+            if(ledger.placeBet(playerName, betAmount))
+                bet = betAmount;
+
+            betPlaced = true;
+        }
+
+        // Woken by the table before the pause of the next card is over.
+        if(System.nanoTime() < nextCardNanos)
+            return;
+
+        boolean gameOver;
+
+        do {
+            int id = seatState.nextCard();
+
+            if(id >= 0)
+                seatState.setHalfPoints(hand.add(id));
+
+            gameOver = id < 0 ||
+                    hand.getScore() >= rules.getTarget() ||
+                    !strategy.wantsCard(hand);
+        } while (!gameOver && delayMillis == 0);
+
+        if(gameOver) {
+            System.out.println(playerName + ": Total value -> " + hand.getScore() / 2f);
+            seatState.transition(SeatState.Phase.PLAYING, SeatState.Phase.DONE);
+        }
+
+        else {
+            nextCardNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMillis);
+            executor.schedule(this::wake, delayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void answerRetry() {
+        games++;
+        boolean retry = maxGames == 0 || games < maxGames;
+
+        seatState.transition(
+                SeatState.Phase.RESULT,
+                retry? SeatState.Phase.RETRY_YES: SeatState.Phase.RETRY_NO);
+    }
+
+    private void waitForRetry() {
+        long tableState = table.getState();
+        Table.Phase phase = Table.phase(tableState);
+
+        if(Table.round(tableState) > round || phase == Table.Phase.REPEAT) {
+            round++;
+            resetData();
+        }
+
+        else if(phase == Table.Phase.FINISH && !left) {
+            left = true;
+
+            if(onLeave != null)
+                onLeave.run();
+        }
+    }
+}
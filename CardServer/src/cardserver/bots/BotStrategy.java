@@ -0,0 +1,61 @@
+package cardserver.bots;
+
+/**
+ * Strategy with which a bot decides whether to ask for another card.
+ * The strategies have no state of their own, so one is shared by all
+ * the bots of the server.
+ * @author Jose Valera
+ * @version 1.0
+ * @since 19/10/2026
+ */
+public interface BotStrategy {
+    /**
+     * Decides whether the bot asks for another card. It is only asked
+     * while the hand has not reached the target.
+     * @param hand Hand of the bot.
+     * @return true to ask for another card.
+     */
+    boolean wantsCard(BotHand hand);
+
+    /**
+     * Returns a strategy that asks for cards until the hand reaches a
+     * score, like the dealer.
+     * @param standsOn Score, in half points, from which the bot stands.
+     * @return The strategy.
+     */
+    static BotStrategy threshold(int standsOn) {
+        return new BotStrategy() {
+            @Override
+            public boolean wantsCard(BotHand hand) {
+                return hand.getScore() < standsOn;
+            }
+
+            @Override
+            public String toString() {
+                return "stands on " + standsOn / 2f;
+            }
+        };
+    }
+
+    /**
+     * Returns a strategy that asks for a card while the probability of
+     * not exceeding the target with it, computed from the cards left in
+     * its deck, is high enough.
+     * @param minProbability Minimum probability of not exceeding the
+     *      target, between 0 and 1.
+     * @return The strategy.
+     */
+    static BotStrategy odds(double minProbability) {
+        return new BotStrategy() {
+            @Override
+            public boolean wantsCard(BotHand hand) {
+                return hand.getSafeProbability() >= minProbability;
+            }
+
+            @Override
+            public String toString() {
+                return "draws while it does not bust with p >= " + minProbability;
+            }
+        };
+    }
+}
@@ -0,0 +1,211 @@
+package cardserver.capture;
+
+import cardmodel.protocol.MessageType;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Traffic of a connection recorded by {@link CaptureWriter}. The file is
+ * formed by a header:<br/>
+ * - magic number (int),<br/>
+ * - base seed of the decks of the server (long),<br/>
+ * - identification number of the player (int),<br/>
+ * - start of the connection (long, epoch milliseconds),<br/>
+ * followed by the records, each with its kind (byte) and the time since
+ * the start of the connection (long, nanoseconds):<br/>
+ * - RECEIVED and SENT: a frame of the channel (length of the payload as
+ * short, type as byte and payload),<br/>
+ * - SEED: the seed of the deck of a new game (long).<br/><br/>
+ * A file cut by a crash of the server is read up to its last complete
+ * record.
+ * @author Jose Valera
+ * @version 1.0
+ * @since 19/10/2026
+ */
+public class CaptureFile {
+    static final int MAGIC = 0x43415031;
+
+    /**
+     * Kinds of record.
+     */
+    public enum Kind {
+        /** Frame received from the player. */
+        RECEIVED,
+        /** Frame sent to the player. */
+        SENT,
+        /** Seed of the deck of a new game. */
+        SEED
+    }
+
+    /**
+     * A record of the capture.
+     */
+    public static class Record {
+        private final Kind kind;
+        private final long nanos;
+        private final MessageType type;
+        private final byte[] payload;
+        private final long seed;
+
+        private Record(Kind kind, long nanos, MessageType type, byte[] payload, long seed) {
+            this.kind = kind;
+            this.nanos = nanos;
+            this.type = type;
+            this.payload = payload;
+            this.seed = seed;
+        }
+
+        /**
+         * Returns the kind of the record.
+         * @return Kind of the record.
+         */
+        public Kind getKind() {
+            return kind;
+        }
+
+        /**
+         * Returns when the record was made.
+         * @return Time since the start of the connection in nanoseconds.
+         */
+        public long getNanos() {
+            return nanos;
+        }
+
+        /**
+         * Returns the type of the frame.
+         * @return Type of the frame, null in SEED records.
+         */
+        public MessageType getType() {
+            return type;
+        }
+
+        /**
+         * Returns the payload of the frame.
+         * @return Payload of the frame, empty in SEED records.
+         */
+        public byte[] getPayload() {
+            return payload;
+        }
+
+        /**
+         * Returns the seed of the deck.
+         * @return Seed of the deck, 0 in frame records.
+         */
+        public long getSeed() {
+            return seed;
+        }
+    }
+
+    private final Path path;
+    private final long baseSeed;
+    private final int numPlayer;
+    private final long startMillis;
+    private final List<Record> records;
+
+    private CaptureFile(Path path, long baseSeed, int numPlayer, long startMillis,
+                        List<Record> records) {
+        this.path = path;
+        this.baseSeed = baseSeed;
+        this.numPlayer = numPlayer;
+        this.startMillis = startMillis;
+        this.records = Collections.unmodifiableList(records);
+    }
+
+    /**
+     * Reads a capture.
+     * @param path Path of the file.
+     * @return The capture read.
+     * @throws IOException If the file can not be read or is not a capture.
+     */
+    public static CaptureFile read(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(path)))) {
+            if(in.readInt() != MAGIC)
+                throw new IOException(path + " is not a capture.");
+
+            long baseSeed = in.readLong();
+            int numPlayer = in.readInt();
+            long startMillis = in.readLong();
+            List<Record> records = new ArrayList<>();
+
+            try {
+                while (true)
+                    records.add(readRecord(in));
+            } catch (EOFException e) {
+                // End of the file, or a record cut by a crash.
+            }
+
+            return new CaptureFile(path, baseSeed, numPlayer, startMillis, records);
+        }
+    }
+
+    private static Record readRecord(DataInputStream in) throws IOException {
+        int code = in.readByte();
+
+        if(code < 0 || code >= Kind.values().length)
+            throw new IOException("Invalid record: " + code);
+
+        Kind kind = Kind.values()[code];
+        long nanos = in.readLong();
+
+        if(kind == Kind.SEED)
+            return new Record(kind, nanos, null, new byte[0], in.readLong());
+
+        int length = in.readUnsignedShort();
+        MessageType type = MessageType.of(in.readByte());
+        byte[] payload = new byte[length];
+        in.readFully(payload);
+
+        return new Record(kind, nanos, type, payload, 0);
+    }
+
+    /**
+     * Returns the path of the capture.
+     * @return Path of the file.
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Returns the base seed of the decks of the server that recorded the
+     * capture, with which the server must be started to replay it.
+     * @return Base seed of the decks.
+     */
+    public long getBaseSeed() {
+        return baseSeed;
+    }
+
+    /**
+     * Returns the identification number of the player, which is the order
+     * in which it joined the table.
+     * @return Identification number of the player.
+     */
+    public int getNumPlayer() {
+        return numPlayer;
+    }
+
+    /**
+     * Returns when the connection started.
+     * @return Start of the connection in epoch milliseconds.
+     */
+    public long getStartMillis() {
+        return startMillis;
+    }
+
+    /**
+     * Returns the records of the capture, in order.
+     * @return Records of the capture.
+     */
+    public List<Record> getRecords() {
+        return records;
+    }
+}
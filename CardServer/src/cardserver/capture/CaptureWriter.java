@@ -0,0 +1,149 @@
+package cardserver.capture;
+
+import cardmodel.protocol.FrameChannel;
+import cardmodel.protocol.FrameTap;
+import cardmodel.protocol.MessageType;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Recorder of the traffic of a connection: the frames received and sent
+ * by its channel and the seeds of its decks, each with the time elapsed
+ * since the connection started. The file is read by {@link CaptureFile}.
+ * <br/><br/>
+ * The records are grouped in a memory buffer and written to the file
+ * when it is full or when the connection is closed, so recording does
+ * not add a disk write to each frame. If the file can not be written
+ * the recording stops, but the game goes on.
+ * @author Jose Valera
+ * @version 1.0
+ * @since 19/10/2026
+ */
+public class CaptureWriter implements FrameTap, Closeable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final long RUN = System.currentTimeMillis();
+
+    private final Path path;
+    private final DataOutputStream out;
+    private final long start = System.nanoTime();
+    private boolean failed;
+
+    private CaptureWriter(Path path, long baseSeed, int numPlayer) throws IOException {
+        this.path = path;
+        out = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(path), BUFFER_SIZE));
+        out.writeInt(CaptureFile.MAGIC);
+        out.writeLong(baseSeed);
+        out.writeInt(numPlayer);
+        out.writeLong(System.currentTimeMillis());
+    }
+
+    /**
+     * Creates the capture of a connection in a directory. The name of the
+     * file has the start time of the server and the number of the player.
+     * @param dir Directory of the captures, created if it does not exist.
+     * @param baseSeed Base seed of the decks of the server.
+     * @param numPlayer Identification number of the player.
+     * @return The recorder of the connection.
+     * @throws IOException If the file can not be created.
+     */
+    public static CaptureWriter open(Path dir, long baseSeed, int numPlayer)
+            throws IOException {
+        Files.createDirectories(dir);
+        return new CaptureWriter(
+                dir.resolve(RUN + "-p" + numPlayer + ".cap"),
+                baseSeed,
+                numPlayer);
+    }
+
+    /**
+     * Returns the path of the capture.
+     * @return Path of the file.
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    @Override
+    public synchronized void received(MessageType type, byte[] payload,
+                                      int offset, int length) {
+        if(failed || type.isHeartbeat())
+            return;
+
+        try {
+            writeFrame(CaptureFile.Kind.RECEIVED, System.nanoTime() - start,
+                    type.getCode(), payload, offset, length);
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    @Override
+    public synchronized void sent(byte[] frames, int offset, int length) {
+        if(failed)
+            return;
+
+        long nanos = System.nanoTime() - start;
+        int end = offset + length;
+
+        try {
+            while (offset < end) {
+                int payloadLength = (frames[offset] & 0xFF) << 8 | frames[offset + 1] & 0xFF;
+
+                // The heartbeat depends on the timing, it is not replayed.
+                if(frames[offset + 2] != MessageType.PING.getCode())
+                    writeFrame(CaptureFile.Kind.SENT, nanos, frames[offset + 2],
+                            frames, offset + FrameChannel.HEADER_SIZE, payloadLength);
+
+                offset += FrameChannel.HEADER_SIZE + payloadLength;
+            }
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Records the seed of the deck of a new game.
+     * @param seed Seed of the deck.
+     */
+    public synchronized void seed(long seed) {
+        if(failed)
+            return;
+
+        try {
+            out.writeByte(CaptureFile.Kind.SEED.ordinal());
+            out.writeLong(System.nanoTime() - start);
+            out.writeLong(seed);
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    private void writeFrame(CaptureFile.Kind kind, long nanos, byte code,
+                            byte[] payload, int offset, int length) throws IOException {
+        out.writeByte(kind.ordinal());
+        out.writeLong(nanos);
+        out.writeShort(length);
+        out.writeByte(code);
+        out.write(payload, offset, length);
+    }
+
+    private void fail(IOException e) {
+        failed = true;
+        System.err.println("Capture " + path + " stopped: " + e.getMessage());
+    }
+
+    /**
+     * Writes the pending records and closes the file.
+     * @throws IOException If the file can not be written.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        out.close();
+    }
+}
@@ -0,0 +1,426 @@
+package cardserver.chips;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Chip balances of the players, shared by all the tables.<br/><br/>
+ * Every account is an independent atomic counter, so tables that settle
+ * different players never wait for each other. Besides the players there
+ * are two internal accounts: the escrow, which holds the bets of the
+ * games in progress, and the house, which gives the initial chips to new
+ * players and pays or collects the bets. The chips are never created or
+ * destroyed: the sum of all the accounts is always 0.<br/><br/>
+ * The changes are recorded in a journal file as batches of balance
+ * movements that add up to 0 (a settlement or a new account). The
+ * batches are written together by a background thread every few
+ * milliseconds, and the balances are rebuilt from the complete batches
+ * when the ledger is opened. Only settled games are written, so the bets
+ * of a game interrupted by a shutdown are returned to their players.
+ * <br/><br/>
+ * The accounts are keyed by the name that the players send in HELLO, so
+ * a player only gets an account with {@link #claim(String, String)}: a
+ * name that has no account yet is bound to the key sent by the player
+ * (a random secret that the client keeps), and a name that already has
+ * one is refused unless the player sends the same key. Players without
+ * a key get an account that nobody can claim again, and so do the
+ * accounts of journals older than the keys. Only a SHA-256 hash of each
+ * key is kept, in a second file next to the journal (".keys") written
+ * with the same batches. The key travels in clear unless the server
+ * uses TLS.
+ * @author Jose Valera
+ * @version 1.0
+ * @since 19/10/2026
+ */
+public class ChipLedger implements Closeable {
+    // Name of the house in the journal, no player can have an empty name.
+    private static final String HOUSE = "";
+
+    private final long initialChips;
+    private final Map<String, AtomicLong> accounts = new ConcurrentHashMap<>();
+    private final AtomicLong house = new AtomicLong();
+    private final AtomicLong escrow = new AtomicLong();
+    private final Map<String, byte[]> keys = new ConcurrentHashMap<>();
+    private final Queue<Movement[]> pending = new ConcurrentLinkedQueue<>();
+    private final Queue<String> pendingKeys = new ConcurrentLinkedQueue<>();
+    private final DataOutputStream journal;
+    private final DataOutputStream keyFile;
+    private final ScheduledExecutorService writer;
+
+    private static class Movement {
+        private final String account;
+        private final long amount;
+
+        private Movement(String account, long amount) {
+            this.account = account;
+            this.amount = amount;
+        }
+    }
+
+    /**
+     * Constructor that opens (or creates) the journal, rebuilds the
+     * balances from it and starts the thread that writes the movements.
+     * @param path Path of the journal.
+     * @param initialChips Chips that the house gives to a new player.
+     * @param flushMillis Time between the writes of the journal.
+     * @throws IOException If the journal can not be opened or read.
+     */
+    public ChipLedger(Path path, long initialChips, long flushMillis) throws IOException {
+        this.initialChips = initialChips;
+        Path keyPath = path.resolveSibling(path.getFileName() + ".keys");
+        truncate(path, replay(path));
+        truncate(keyPath, replayKeys(keyPath));
+        journal = open(path);
+        keyFile = open(keyPath);
+
+        writer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "ChipLedger-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        writer.scheduleWithFixedDelay(this::flushQuietly,
+                flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Claims the account of a name for a player. A name without account
+     * gets one with the initial chips, bound to the key of the player.
+     * @param name Name of the player.
+     * @param key Secret of the player, empty if it has none.
+     * @return true if the account can be used by the player: it is new,
+     *      or it is bound to the same key.
+     */
+    public boolean claim(String name, String key) {
+        byte[] hash = key.isEmpty()? null: hash(key);
+        boolean[] opened = new boolean[1];
+
+        accounts.computeIfAbsent(name, n -> {
+            if(hash != null) {
+                keys.put(n, hash);
+                pendingKeys.add(n);
+            }
+
+            opened[0] = true;
+            return newAccount(n);
+        });
+
+        if(opened[0])
+            return true;
+
+        byte[] bound = keys.get(name);
+        return hash != null && bound != null && MessageDigest.isEqual(bound, hash);
+    }
+
+    /**
+     * Returns the chips of a player, opening its account with the initial
+     * chips if it does not have one. The name must have been claimed
+     * before by the player, see {@link #claim(String, String)}.
+     * @param name Name of the player.
+     * @return Chips of the player.
+     */
+    public long balance(String name) {
+        return account(name).get();
+    }
+
+    /**
+     * Moves a bet from the account of a player to the escrow, if the
+     * player has enough chips.
+     * @param name Name of the player.
+     * @param amount Chips bet.
+     * @return true if the bet has been placed.
+     */
+    public boolean placeBet(String name, long amount) {
+        if(amount < 0)
+            return false;
+
+        AtomicLong account = account(name);
+        long current;
+
+        do {
+            current = account.get();
+
+            if(current < amount)
+                return false;
+        } while (!account.compareAndSet(current, current - amount));
+
+        escrow.addAndGet(amount);
+        return true;
+    }
+
+    /**
+     * Settles the bets of a table in a single batch: each bet leaves the
+     * escrow, the player receives its payout and the house keeps the
+     * difference (or pays it, if it is negative).
+     * @param names Names of the players.
+     * @param bets Chips bet by each player.
+     * @param payouts Chips paid to each player (0 if it has lost, the
+     *      bet if it has tied, twice the bet if it has won).
+     */
+    public void settle(String[] names, long[] bets, long[] payouts) {
+        Movement[] batch = new Movement[names.length + 1];
+        long totalBets = 0;
+        long houseAmount = 0;
+
+        for (int i = 0; i < names.length; i++) {
+            account(names[i]).addAndGet(payouts[i]);
+            batch[i] = new Movement(names[i], payouts[i] - bets[i]);
+            totalBets += bets[i];
+            houseAmount += bets[i] - payouts[i];
+        }
+
+        escrow.addAndGet(-totalBets);
+        house.addAndGet(houseAmount);
+        batch[names.length] = new Movement(HOUSE, houseAmount);
+        pending.add(batch);
+    }
+
+    /**
+     * Returns the chips of the house, which are negative when it has
+     * given or paid more chips than it has collected.
+     * @return Chips of the house.
+     */
+    public long getHouse() {
+        return house.get();
+    }
+
+    /**
+     * Returns the chips bet in the games in progress.
+     * @return Chips in the escrow.
+     */
+    public long getEscrow() {
+        return escrow.get();
+    }
+
+    /**
+     * Returns the sum of all the accounts, which must be 0 when no
+     * operation is in progress.
+     * @return Sum of the chips of the players, the house and the escrow.
+     */
+    public long total() {
+        long total = house.get() + escrow.get();
+
+        for (AtomicLong account : accounts.values())
+            total += account.get();
+
+        return total;
+    }
+
+    /**
+     * Returns the number of accounts of players.
+     * @return Number of players with an account.
+     */
+    public int size() {
+        return accounts.size();
+    }
+
+    /**
+     * Writes all the pending movements to the journal. Each batch is
+     * written as its number of movements (short) followed by the account
+     * (UTF) and the amount (long) of each movement.
+     * @throws IOException If the journal can not be written.
+     */
+    public synchronized void flush() throws IOException {
+        Movement[] batch;
+        String name;
+        boolean written = false;
+
+        // The keys first, so an account in the journal is never left
+        // without its key.
+        while ((name = pendingKeys.poll()) != null) {
+            keyFile.writeUTF(name);
+            keyFile.write(keys.get(name));
+            written = true;
+        }
+
+        if(written)
+            keyFile.flush();
+
+        written = false;
+
+        while ((batch = pending.poll()) != null) {
+            journal.writeShort(batch.length);
+
+            for (Movement movement : batch) {
+                journal.writeUTF(movement.account);
+                journal.writeLong(movement.amount);
+            }
+
+            written = true;
+        }
+
+        if(written)
+            journal.flush();
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (IOException e) {
+            System.err.println("The chips could not be saved: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the pending movements and closes the journal.
+     * @throws IOException If the journal can not be written.
+     */
+    @Override
+    public void close() throws IOException {
+        writer.shutdown();
+
+        try {
+            flush();
+        } finally {
+            journal.close();
+            keyFile.close();
+        }
+    }
+
+    private AtomicLong account(String name) {
+        return accounts.computeIfAbsent(name, this::newAccount);
+    }
+
+    private AtomicLong newAccount(String name) {
+        house.addAndGet(-initialChips);
+        pending.add(new Movement[] {
+                new Movement(name, initialChips),
+                new Movement(HOUSE, -initialChips)
+        });
+
+        return new AtomicLong(initialChips);
+    }
+
+    private static byte[] hash(String key) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static DataOutputStream open(Path path) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND)));
+    }
+
+    // Discards the end of a file that was not completely written.
+    private static void truncate(Path path, long valid) throws IOException {
+        if(Files.exists(path) && valid < Files.size(path))
+            try (FileOutputStream out = new FileOutputStream(path.toFile(), true)) {
+                out.getChannel().truncate(valid);
+            }
+    }
+
+    /*
+     * Returns the length of the valid part of the journal, a batch that
+     * was not completely written is discarded.
+     */
+    private long replay(Path path) throws IOException {
+        if(!Files.exists(path))
+            return 0;
+
+        List<Movement> movements = new ArrayList<>();
+        long valid = 0;
+
+        try (CountingInputStream counter = new CountingInputStream(
+                new BufferedInputStream(Files.newInputStream(path)));
+             DataInputStream in = new DataInputStream(counter)) {
+            while (true) {
+                try {
+                    int size = in.readUnsignedShort();
+                    Movement[] batch = new Movement[size];
+
+                    for (int i = 0; i < size; i++)
+                        batch[i] = new Movement(in.readUTF(), in.readLong());
+
+                    movements.addAll(Arrays.asList(batch));
+                    valid = counter.count;
+                } catch (EOFException e) {
+                    break;
+                }
+            }
+        }
+
+        for (Movement movement : movements) {
+            if(movement.account.equals(HOUSE))
+                house.addAndGet(movement.amount);
+
+            else
+                accounts.computeIfAbsent(movement.account, n -> new AtomicLong())
+                        .addAndGet(movement.amount);
+        }
+
+        return valid;
+    }
+
+    /*
+     * Returns the length of the valid part of the file of the keys, each
+     * one written as the name (UTF) and the hash of the key (32 bytes).
+     */
+    private long replayKeys(Path path) throws IOException {
+        if(!Files.exists(path))
+            return 0;
+
+        long valid = 0;
+
+        try (CountingInputStream counter = new CountingInputStream(
+                new BufferedInputStream(Files.newInputStream(path)));
+             DataInputStream in = new DataInputStream(counter)) {
+            while (true) {
+                try {
+                    String name = in.readUTF();
+                    byte[] hash = new byte[32];
+                    in.readFully(hash);
+
+                    keys.put(name, hash);
+                    valid = counter.count;
+                } catch (EOFException e) {
+                    break;
+                }
+            }
+        }
+
+        return valid;
+    }
+
+    private static class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        private CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+
+            if(b >= 0)
+                count++;
+
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+
+            if(read > 0)
+                count += read;
+
+            return read;
+        }
+    }
+}
@@ -0,0 +1,415 @@
+package cardserver.fairness;
+
+import cardmodel.Card;
+import cardmodel.Rules;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Statistics of the shuffles of the decks, fed with every card dealt to
+ * check that the decks are uniformly shuffled in production:<br/>
+ * - frequency of each card in each position of the deck, with a
+ * chi-square test per position,<br/>
+ * - frequency of each card after each other card, with a chi-square test
+ * of the pairs and the serial correlation of consecutive cards (which is
+ * -1/(N-1) in a random permutation of N cards),<br/>
+ * - distribution of the symbol and the suit of the first card.<br/><br/>
+ * The memory used only depends on the size of the deck. Each thread that
+ * deals cards counts them in its own {@link Recorder}, without locks nor
+ * atomic operations, and adds its counts to the shared ones every few
+ * thousand cards. The checks run in their own thread over the shared
+ * counts, both over all the cards dealt and over the cards dealt since
+ * the previous check, so that a recent drift is not hidden by a long fair
+ * history. A statistic whose z-score exceeds the alert threshold is
+ * reported as an alert.
+ * @author Jose Valera
+ * @version 1.0
+ * @since 19/10/2026
+ */
+public class ShuffleStats {
+    private static final int MERGE_CARDS = 4096;
+    private static final long MERGE_NANOS = TimeUnit.SECONDS.toNanos(10);
+    private static final int MIN_EXPECTED = 5;
+    private static final int MIN_PAIRS = 100;
+
+    private final int deckSize;
+    private final int[] deckIndex;
+    private final int[] symbolOf;
+    private final int[] suitOf;
+    private final AtomicLongArray positions;
+    private final AtomicLongArray pairs;
+    private final double alertZ;
+    private long[] lastPositions;
+    private long[] lastPairs;
+    private ScheduledExecutorService checker;
+
+    /**
+     * Counts of the cards dealt by a thread. It must only be used by the
+     * thread that deals the cards.
+     */
+    public final class Recorder {
+        private final long[] positionCounts = new long[deckSize * deckSize];
+        private final long[] pairCounts = new long[deckSize * deckSize];
+        private int position;
+        private int previous = -1;
+        private int pending;
+        private long lastMerge = System.nanoTime();
+
+        private Recorder() {}
+
+        /**
+         * Starts counting the cards of a new deck. The counts are added to
+         * the shared ones if enough cards or time have passed.
+         */
+        public void newDeck() {
+            position = 0;
+            previous = -1;
+
+            if(pending >= MERGE_CARDS || System.nanoTime() - lastMerge >= MERGE_NANOS)
+                merge();
+        }
+
+        /**
+         * Counts the next card dealt from the current deck.
+         * @param cardId Identifier of the card.
+         */
+        public void dealt(int cardId) {
+            int card = deckIndex[cardId];
+
+            if(card < 0 || position >= deckSize)
+                return;
+
+            positionCounts[position * deckSize + card]++;
+
+            if(previous >= 0)
+                pairCounts[previous * deckSize + card]++;
+
+            previous = card;
+            position++;
+            pending++;
+        }
+
+        /**
+         * Adds the counts to the shared ones and starts counting again.
+         */
+        public void merge() {
+            add(positionCounts, positions);
+            add(pairCounts, pairs);
+            pending = 0;
+            lastMerge = System.nanoTime();
+        }
+
+        private void add(long[] local, AtomicLongArray shared) {
+            for (int i = 0; i < local.length; i++) {
+                if(local[i] != 0) {
+                    shared.getAndAdd(i, local[i]);
+                    local[i] = 0;
+                }
+            }
+        }
+    }
+
+    /**
+     * Constructor that creates empty statistics for the deck of a variant.
+     * @param rules Rules of the variant.
+     * @param alertZ z-score from which a statistic is reported as an
+     *      alert.
+     */
+    public ShuffleStats(Rules rules, double alertZ) {
+        int[] deck = rules.getDeckCards();
+        deckSize = deck.length;
+        deckIndex = new int[Card.count()];
+        symbolOf = new int[deckSize];
+        suitOf = new int[deckSize];
+        this.alertZ = alertZ;
+
+        Arrays.fill(deckIndex, -1);
+
+        for (int i = 0; i < deckSize; i++) {
+            deckIndex[deck[i]] = i;
+            symbolOf[i] = Card.of(deck[i]).getSymbolIndex();
+            suitOf[i] = Card.of(deck[i]).getSuitIndex();
+        }
+
+        positions = new AtomicLongArray(deckSize * deckSize);
+        pairs = new AtomicLongArray(deckSize * deckSize);
+    }
+
+    /**
+     * Creates the counts of a thread that deals cards.
+     * @return A new recorder.
+     */
+    public Recorder recorder() {
+        return new Recorder();
+    }
+
+    /**
+     * Checks the statistics every period in a background thread, printing
+     * a summary and the alerts.
+     * @param periodMillis Time between checks in milliseconds.
+     */
+    public synchronized void startChecks(long periodMillis) {
+        checker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "Fairness-checker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        checker.scheduleAtFixedRate(this::report,
+                periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the periodic checks and prints the final summary.
+     */
+    public synchronized void close() {
+        if(checker != null)
+            checker.shutdown();
+
+        report();
+    }
+
+    private void report() {
+        List<String> alerts = new ArrayList<>();
+        String summary = check(alerts);
+
+        if(summary != null)
+            System.out.println(summary);
+
+        for (String alert : alerts)
+            System.err.println("Fairness alert: " + alert);
+    }
+
+    /**
+     * Checks the statistics of all the cards dealt and of the cards dealt
+     * since the previous check.
+     * @param alerts List to which the alerts are added.
+     * @return Summary of all the cards dealt, or null if no card has been
+     *      dealt since the previous check.
+     */
+    public synchronized String check(List<String> alerts) {
+        long[] totalPositions = snapshot(positions);
+        long[] totalPairs = snapshot(pairs);
+        String summary = null;
+
+        long previousCards = lastPositions == null? 0: sum(lastPositions);
+
+        if(sum(totalPositions) > previousCards) {
+            summary = analyze("all cards", totalPositions, totalPairs, alerts);
+
+            if(lastPositions != null)
+                analyze("last period",
+                        subtract(totalPositions, lastPositions),
+                        subtract(totalPairs, lastPairs),
+                        alerts);
+        }
+
+        lastPositions = totalPositions;
+        lastPairs = totalPairs;
+
+        return summary;
+    }
+
+    private String analyze(String scope, long[] positionCounts, long[] pairCounts,
+                           List<String> alerts) {
+        long cards = sum(positionCounts);
+
+        // Each position of the deck, the worst one is reported.
+        double worstPosition = 0;
+        int worstIndex = -1;
+
+        for (int p = 0; p < deckSize; p++) {
+            double z = uniformZ(positionCounts, p * deckSize);
+
+            if(Math.abs(z) > Math.abs(worstPosition)) {
+                worstPosition = z;
+                worstIndex = p;
+            }
+        }
+
+        double pairsZ = pairsZ(pairCounts);
+        double serial = serialCorrelation(pairCounts);
+        double serialZ = serialZ(pairCounts, serial);
+        double symbolZ = groupZ(positionCounts, symbolOf);
+        double suitZ = groupZ(positionCounts, suitOf);
+
+        alertIf(alerts, scope, "position " + (worstIndex + 1), worstPosition);
+        alertIf(alerts, scope, "card pairs", pairsZ);
+        alertIf(alerts, scope, "serial correlation " + String.format("%.4f", serial),
+                serialZ);
+        alertIf(alerts, scope, "first card symbol", symbolZ);
+        alertIf(alerts, scope, "first card suit", suitZ);
+
+        return String.format("Fairness (%s): %d cards, worst position z=%.1f, " +
+                        "pairs z=%.1f, serial r=%.4f (z=%.1f), " +
+                        "first symbol z=%.1f, first suit z=%.1f",
+                scope, cards, worstPosition, pairsZ, serial, serialZ, symbolZ, suitZ);
+    }
+
+    /*
+     * Both tails are alerts: a chi-square far below its degrees of freedom
+     * means that the cards are dealt too evenly to be random.
+     */
+    private void alertIf(List<String> alerts, String scope, String statistic, double z) {
+        if(Math.abs(z) > alertZ)
+            alerts.add(String.format("%s of %s, z=%.1f", statistic, scope, z));
+    }
+
+    /*
+     * Chi-square test of a position against a uniform distribution.
+     * Returns 0 if there are too few cards.
+     */
+    private double uniformZ(long[] counts, int start) {
+        long total = 0;
+
+        for (int c = 0; c < deckSize; c++)
+            total += counts[start + c];
+
+        if(total < (long) MIN_EXPECTED * deckSize)
+            return 0;
+
+        double expected = (double) total / deckSize;
+
+        return chiSquareZ(rowChiSquare(counts, start, -1, expected), deckSize - 1);
+    }
+
+    // The column skipped is the previous card in the pairs.
+    private double rowChiSquare(long[] counts, int start, int skip, double expected) {
+        double chi = 0;
+
+        for (int c = 0; c < deckSize; c++) {
+            if(c != skip) {
+                double difference = counts[start + c] - expected;
+                chi += difference * difference / expected;
+            }
+        }
+
+        return chi;
+    }
+
+    private double pairsZ(long[] pairCounts) {
+        double chi = 0;
+        int freedom = 0;
+
+        for (int previous = 0; previous < deckSize; previous++) {
+            int start = previous * deckSize;
+            long total = 0;
+
+            for (int c = 0; c < deckSize; c++)
+                total += pairCounts[start + c];
+
+            if(total >= (long) MIN_EXPECTED * (deckSize - 1)) {
+                chi += rowChiSquare(pairCounts, start, previous,
+                        (double) total / (deckSize - 1));
+                freedom += deckSize - 2;
+            }
+        }
+
+        return freedom == 0? 0: chiSquareZ(chi, freedom);
+    }
+
+    private double serialCorrelation(long[] pairCounts) {
+        double n = 0, sumX = 0, sumY = 0, sumXY = 0, sumXX = 0, sumYY = 0;
+
+        for (int x = 0; x < deckSize; x++) {
+            for (int y = 0; y < deckSize; y++) {
+                long count = pairCounts[x * deckSize + y];
+                n += count;
+                sumX += (double) count * x;
+                sumY += (double) count * y;
+                sumXY += (double) count * x * y;
+                sumXX += (double) count * x * x;
+                sumYY += (double) count * y * y;
+            }
+        }
+
+        double denominator = Math.sqrt((n * sumXX - sumX * sumX) * (n * sumYY - sumY * sumY));
+
+        return n < MIN_PAIRS || denominator == 0? 0: (n * sumXY - sumX * sumY) / denominator;
+    }
+
+    private double serialZ(long[] pairCounts, double correlation) {
+        long n = sum(pairCounts);
+
+        if(n < MIN_PAIRS)
+            return 0;
+
+        return (correlation + 1.0 / (deckSize - 1)) * Math.sqrt(n);
+    }
+
+    /*
+     * Chi-square test of the first card grouped by symbol or suit: the
+     * expected count of a group is proportional to its cards in the deck.
+     */
+    private double groupZ(long[] positionCounts, int[] groupOf) {
+        int groups = 0;
+
+        for (int group : groupOf)
+            groups = Math.max(groups, group + 1);
+
+        long[] observed = new long[groups];
+        int[] cards = new int[groups];
+        long total = 0;
+
+        for (int c = 0; c < deckSize; c++) {
+            observed[groupOf[c]] += positionCounts[c];
+            cards[groupOf[c]]++;
+            total += positionCounts[c];
+        }
+
+        if(total < (long) MIN_EXPECTED * deckSize)
+            return 0;
+
+        double chi = 0;
+        int present = 0;
+
+        for (int g = 0; g < groups; g++) {
+            if(cards[g] > 0) {
+                double expected = (double) total * cards[g] / deckSize;
+                double difference = observed[g] - expected;
+                chi += difference * difference / expected;
+                present++;
+            }
+        }
+
+        return present < 2? 0: chiSquareZ(chi, present - 1);
+    }
+
+    // Wilson-Hilferty transformation of a chi-square statistic to a z-score.
+    private static double chiSquareZ(double chi, int freedom) {
+        double variance = 2.0 / (9 * freedom);
+        return (Math.cbrt(chi / freedom) - (1 - variance)) / Math.sqrt(variance);
+    }
+
+    private static long[] snapshot(AtomicLongArray counts) {
+        long[] copy = new long[counts.length()];
+
+        for (int i = 0; i < copy.length; i++)
+            copy[i] = counts.get(i);
+
+        return copy;
+    }
+
+    private static long[] subtract(long[] a, long[] b) {
+        long[] difference = new long[a.length];
+
+        for (int i = 0; i < a.length; i++)
+            difference[i] = a[i] - b[i];
+
+        return difference;
+    }
+
+    private static long sum(long[] counts) {
+        long total = 0;
+
+        for (long count : counts)
+            total += count;
+
+        return total;
+    }
+}
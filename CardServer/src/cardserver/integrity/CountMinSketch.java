@@ -0,0 +1,81 @@
+package cardserver.integrity;
+
+/**
+ * Count-min sketch: approximate counts of any number of keys in a fixed
+ * memory. Each key is counted in one cell of each row, chosen by a
+ * different hash per row, and its count is the minimum of its cells, so
+ * it is never below the true count and only exceeds it by the keys that
+ * share all its cells. Its size is fixed, 4 rows of the given width.<br/><br/>
+ * It is not thread safe, it is only used by the thread of the
+ * {@link IntegrityMonitor}.
+ * @author Jose Valera
+ * @version 1.0
+ * @since 19/10/2026
+ */
+class CountMinSketch {
+    private static final long[] SEEDS = {
+            0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL,
+            0x165667B19E3779F9L, 0xD6E8FEB86659FD93L
+    };
+
+    private final long[][] rows;
+    private final int mask;
+
+    /**
+     * Constructor that creates an empty sketch.
+     * @param width Cells of each row, rounded up to a power of 2.
+     */
+    CountMinSketch(int width) {
+        int cells = Integer.highestOneBit(Math.max(width - 1, 1)) << 1;
+        rows = new long[SEEDS.length][cells];
+        mask = cells - 1;
+    }
+
+    /**
+     * Adds one to the count of a key. Only the cells that hold the
+     * current estimate are increased (conservative update): the others
+     * already count more than the key, so the estimate is the same and
+     * the keys that share them are less overestimated.
+     * @param key Key counted, already hashed.
+     */
+    void add(long key) {
+        long count = estimate(key);
+
+        for (int r = 0; r < rows.length; r++) {
+            int cell = cell(key, r);
+
+            if(rows[r][cell] == count)
+                rows[r][cell]++;
+        }
+    }
+
+    /**
+     * Returns the estimated count of a key.
+     * @param key Key counted, already hashed.
+     * @return Count, never below the true one.
+     */
+    long estimate(long key) {
+        long count = Long.MAX_VALUE;
+
+        for (int r = 0; r < rows.length; r++)
+            count = Math.min(count, rows[r][cell(key, r)]);
+
+        return count;
+    }
+
+    private int cell(long key, int row) {
+        return (int) mix(key ^ SEEDS[row]) & mask;
+    }
+
+    /**
+     * Mixes the bits of a number (finalizer of SplitMix64), so that close
+     * numbers give unrelated hashes.
+     * @param x Number mixed.
+     * @return Hash of the number.
+     */
+    static long mix(long x) {
+        x = (x ^ (x >>> 30)) * 0xBF58476D1CE4E5B9L;
+        x = (x ^ (x >>> 27)) * 0x94D049BB133111EBL;
+        return x ^ (x >>> 31);
+    }
+}
@@ -0,0 +1,459 @@
+package cardserver.integrity;
+
+import cardmodel.Outcome;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Engine that looks in the stream of the games for players who cheat:
+ * <br/>
+ * - seats that stand together: pairs of players whose stand decisions
+ * arrive within a few milliseconds of each other in most of the games
+ * they play together, as if a single program played both,<br/>
+ * - machine-like timing: players who decide faster than a person or with
+ * a steadiness that no person has (see {@link TimingHistogram}),<br/>
+ * - suspicious win rates: players whose wins are, with a confidence
+ * interval, above the wins that the games they played give.
+ * <br/><br/>
+ * The seats feed it with {@link #decision(String, boolean, long, long)}
+ * and the table with {@link #results(String[], Outcome[])}. Both calls
+ * only put an event in a bounded queue without waiting, so the games are
+ * never slowed: if the queue is full the event is dropped, and the checks
+ * see fewer games than were played. The events dropped until then are
+ * reported with each alert and counted in {@link #getDropped()}.
+ * A single thread takes the events, updates the sketches and checks them
+ * every period, and passes each flagged player to the listener.<br/><br/>
+ * The memory is bounded whatever the number of players and games: only
+ * the profiles of the most recently seen players are kept, the pairs
+ * seated together are counted in a {@link CountMinSketch} and only the
+ * pairs that stand together most often are kept ({@link TopPairs}).
+ * @author Jose Valera
+ * @version 1.0
+ * @since 19/10/2026
+ */
+public class IntegrityMonitor {
+    private static final int QUEUE_CAPACITY = 65536;
+    private static final int MAX_PLAYERS = 65536;
+    private static final int SKETCH_WIDTH = 65536;
+    private static final int TOP_PAIRS = 4096;
+    private static final long SYNC_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final double SYNC_SHARE = 0.5;
+    private static final double HUMAN_MILLIS = 150;
+    private static final double MACHINE_SPREAD = 0.1;
+    private static final int FLAG_WINS = 1;
+    private static final int FLAG_TIMING = 2;
+    private static final Event STOP = new Event(null, null);
+
+    /*
+     * A decision of a player or the results of a game, created by the
+     * threads of the game and read by the thread of the monitor.
+     */
+    private static final class Event {
+        private final String player;
+        private final boolean hit;
+        private final long askedNanos;
+        private final long answeredNanos;
+        private final String[] names;
+        private final Outcome[] outcomes;
+
+        private Event(String player, boolean hit, long askedNanos, long answeredNanos) {
+            this.player = player;
+            this.hit = hit;
+            this.askedNanos = askedNanos;
+            this.answeredNanos = answeredNanos;
+            names = null;
+            outcomes = null;
+        }
+
+        private Event(String[] names, Outcome[] outcomes) {
+            player = null;
+            hit = false;
+            askedNanos = 0;
+            answeredNanos = 0;
+            this.names = names;
+            this.outcomes = outcomes;
+        }
+    }
+
+    /*
+     * What is known of a player, only used by the thread of the monitor.
+     */
+    private static final class Profile {
+        private final String name;
+        private final long hash;
+        private final TimingHistogram timing = new TimingHistogram();
+        private long games;
+        private long wins;
+        private double expectedWins;
+        private long standNanos;
+        private boolean stood;
+        private int flags;
+
+        private Profile(String name) {
+            this.name = name;
+            hash = hash(name);
+        }
+    }
+
+    private final double alertZ;
+    private final int minGames;
+    private final long checkNanos;
+    private final Consumer<String> listener;
+    private final BlockingQueue<Event> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final AtomicLong dropped = new AtomicLong();
+    private final Map<String, Profile> profiles =
+            new LinkedHashMap<>(MAX_PLAYERS, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Profile> eldest) {
+                    return size() > MAX_PLAYERS;
+                }
+            };
+    private final CountMinSketch seatedTogether = new CountMinSketch(SKETCH_WIDTH);
+    private final TopPairs standTogether = new TopPairs(TOP_PAIRS);
+    private final Thread worker;
+    private volatile boolean closed;
+    private volatile long decisions;
+    private volatile long games;
+    private volatile long flags;
+
+    /**
+     * Constructor that starts the thread of the monitor.
+     * @param alertZ z-score of the confidence intervals of the checks.
+     * @param minGames Games (or decisions) of a player or a pair before
+     *      it can be flagged.
+     * @param checkMillis Time between checks in milliseconds.
+     * @param listener Receiver of the description of each player or pair
+     *      flagged, called in the thread of the monitor.
+     */
+    public IntegrityMonitor(double alertZ, int minGames, long checkMillis,
+                            Consumer<String> listener) {
+        this.alertZ = alertZ;
+        this.minGames = Math.max(minGames, 2);
+        checkNanos = TimeUnit.MILLISECONDS.toNanos(checkMillis);
+        this.listener = listener;
+        worker = new Thread(this::run, "Integrity-monitor");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Counts a decision of a player on whether to receive another card.
+     * @param player Name of the player.
+     * @param hit true if the player asked for another card, false if it
+     *      stood.
+     * @param askedNanos When the player was asked, see
+     *      {@link System#nanoTime()}.
+     * @param answeredNanos When the answer arrived.
+     * @return false if the event has been dropped because the monitor is
+     *      overloaded or closed.
+     */
+    public boolean decision(String player, boolean hit, long askedNanos, long answeredNanos) {
+        return offer(new Event(player, hit, askedNanos, answeredNanos));
+    }
+
+    /**
+     * Counts the results of a game. The arrays must not be changed later.
+     * @param names Names of the players of the seats of the table.
+     * @param outcomes Outcome of each seat.
+     * @return false if the event has been dropped because the monitor is
+     *      overloaded or closed.
+     */
+    public boolean results(String[] names, Outcome[] outcomes) {
+        return offer(new Event(names, outcomes));
+    }
+
+    private boolean offer(Event event) {
+        if(closed)
+            return false;
+
+        if(!queue.offer(event)) {
+            dropped.incrementAndGet();
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Processes the events queued until now, checks the players a last
+     * time and stops the thread of the monitor.
+     */
+    public void close() {
+        if(closed)
+            return;
+
+        closed = true;
+
+        try {
+            queue.put(STOP);
+            worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        long nextCheck = System.nanoTime() + checkNanos;
+
+        try {
+            while (true) {
+                Event event = queue.poll(Math.max(nextCheck - System.nanoTime(), 0),
+                        TimeUnit.NANOSECONDS);
+
+                if(event == STOP)
+                    break;
+
+                if(event != null) {
+                    if(event.names == null)
+                        decided(event);
+
+                    else
+                        played(event);
+                }
+
+                if(System.nanoTime() - nextCheck >= 0) {
+                    check();
+                    nextCheck = System.nanoTime() + checkNanos;
+                }
+            }
+        } catch (InterruptedException e) {
+            // Closed without waiting, the last check is still done.
+        }
+
+        check();
+    }
+
+    private void decided(Event event) {
+        Profile profile = profile(event.player);
+        profile.timing.record((event.answeredNanos - event.askedNanos) / 1e6);
+
+        if(!event.hit) {
+            profile.standNanos = event.answeredNanos;
+            profile.stood = true;
+        }
+
+        decisions++;
+    }
+
+    /*
+     * Every pair of the table has been seated together, but only the
+     * pairs whose stand decisions were close in time have stood together:
+     * the stands are sorted by time and each one is paired with the
+     * following ones in the window.
+     */
+    private void played(Event event) {
+        String[] names = event.names;
+        Profile[] players = new Profile[names.length];
+        List<Profile> stands = new ArrayList<>();
+        int winners = 0;
+
+        for (Outcome outcome : event.outcomes)
+            if(outcome != Outcome.LOSS)
+                winners++;
+
+        double share = (double) winners / names.length;
+
+        for (int i = 0; i < names.length; i++) {
+            if(names[i] == null)
+                continue;
+
+            Profile profile = profile(names[i]);
+            profile.games++;
+            profile.expectedWins += share;
+
+            if(event.outcomes[i] != Outcome.LOSS)
+                profile.wins++;
+
+            if(profile.stood) {
+                stands.add(profile);
+                profile.stood = false;
+            }
+
+            players[i] = profile;
+        }
+
+        for (int i = 0; i < players.length; i++)
+            for (int j = i + 1; j < players.length && players[i] != null; j++)
+                if(players[j] != null)
+                    seatedTogether.add(pairKey(players[i], players[j]));
+
+        stands.sort((a, b) -> Long.compare(a.standNanos, b.standNanos));
+
+        for (int i = 0; i < stands.size(); i++) {
+            Profile first = stands.get(i);
+
+            for (int j = i + 1; j < stands.size() &&
+                    stands.get(j).standNanos - first.standNanos <= SYNC_NANOS; j++) {
+                Profile second = stands.get(j);
+                boolean ordered = first.hash < second.hash;
+                standTogether.add(pairKey(first, second),
+                        ordered? first.name: second.name,
+                        ordered? second.name: first.name);
+            }
+        }
+
+        games++;
+    }
+
+    private Profile profile(String name) {
+        Profile profile = profiles.get(name);
+
+        if(profile == null) {
+            profile = new Profile(name);
+            profiles.put(name, profile);
+        }
+
+        return profile;
+    }
+
+    private void check() {
+        for (Profile profile : profiles.values()) {
+            if((profile.flags & FLAG_WINS) == 0 && profile.games >= minGames)
+                checkWins(profile);
+
+            if((profile.flags & FLAG_TIMING) == 0 && profile.timing.getCount() >= minGames)
+                checkTiming(profile);
+        }
+
+        for (TopPairs.Pair pair : standTogether.atLeast(minGames)) {
+            if(pair.isFlagged())
+                continue;
+
+            long stood = pair.getGuaranteed();
+            long seated = Math.max(seatedTogether.estimate(pair.getKey()), stood);
+
+            if(wilson(stood, seated, -alertZ) > SYNC_SHARE) {
+                pair.flag();
+                flag(String.format("%s and %s stand within %d ms of each other " +
+                                "in %d of %d games together",
+                        pair.getFirst(), pair.getSecond(),
+                        TimeUnit.NANOSECONDS.toMillis(SYNC_NANOS), stood, seated));
+            }
+        }
+    }
+
+    /*
+     * The player is flagged if even the lower limit of its wins is above
+     * the wins expected from the games it played (the winners of each
+     * game shared among its seats).
+     */
+    private void checkWins(Profile profile) {
+        double low = poisson(profile.wins, -alertZ);
+
+        if(low > profile.expectedWins) {
+            double high = Math.min(poisson(profile.wins, alertZ), profile.games);
+            profile.flags |= FLAG_WINS;
+            flag(String.format("%s wins %d of %d games (%.0f%% to %.0f%%), " +
+                            "%.0f%% expected",
+                    profile.name, profile.wins, profile.games,
+                    low * 100 / profile.games, high * 100 / profile.games,
+                    profile.expectedWins * 100 / profile.games));
+        }
+    }
+
+    private void checkTiming(Profile profile) {
+        TimingHistogram timing = profile.timing;
+        double median = timing.median();
+        double spread = timing.spread();
+
+        if(median < HUMAN_MILLIS) {
+            profile.flags |= FLAG_TIMING;
+            flag(String.format("%s decides in %.0f ms (median of %d decisions), " +
+                            "faster than a person",
+                    profile.name, median, timing.getCount()));
+        }
+
+        else if(spread < MACHINE_SPREAD) {
+            profile.flags |= FLAG_TIMING;
+            flag(String.format("%s decides in %.0f ms with a spread of %.0f%% " +
+                            "(%d decisions), steadier than a person",
+                    profile.name, median, spread * 100, timing.getCount()));
+        }
+    }
+
+    private void flag(String description) {
+        long lost = dropped.get();
+        flags++;
+        listener.accept(lost == 0?
+                description:
+                description + " (" + lost + " events dropped)");
+    }
+
+    /*
+     * Wilson score interval of a proportion: a negative z gives the lower
+     * limit and a positive one the upper limit.
+     */
+    private static double wilson(long successes, long trials, double z) {
+        double p = (double) successes / trials;
+        double z2 = z * z / trials;
+        double center = p + z2 / 2;
+        double half = z * Math.sqrt(p * (1 - p) / trials + z2 / (4 * trials));
+
+        return (center + half) / (1 + z2);
+    }
+
+    /*
+     * Confidence limit of the mean of a count of events (Poisson), with
+     * the Wilson-Hilferty approximation of the exact limits, which holds
+     * even for a few events: a negative z gives the lower limit and a
+     * positive one the upper limit. For the wins of a player at a small
+     * table it is wider than the binomial interval, so it errs on the
+     * side of not flagging.
+     */
+    private static double poisson(long count, double z) {
+        double k = z < 0? count: count + 1;
+
+        if(k == 0)
+            return 0;
+
+        double root = 1 - 1 / (9 * k) + z / (3 * Math.sqrt(k));
+
+        return root <= 0? 0: k * root * root * root;
+    }
+
+    private static long pairKey(Profile a, Profile b) {
+        return CountMinSketch.mix(Math.min(a.hash, b.hash) +
+                CountMinSketch.mix(Math.max(a.hash, b.hash)));
+    }
+
+    // FNV-1a over the characters of the name.
+    private static long hash(String name) {
+        long hash = 0xCBF29CE484222325L;
+
+        for (int i = 0; i < name.length(); i++) {
+            hash ^= name.charAt(i);
+            hash *= 0x100000001B3L;
+        }
+
+        return hash;
+    }
+
+    /**
+     * Returns the number of events dropped because the queue was full or
+     * the monitor was closed.
+     * @return Events dropped.
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    /**
+     * Returns a text with the counters of the monitor.
+     * @return Text with the counters.
+     */
+    @Override
+    public String toString() {
+        return "games=" + games +
+                " decisions=" + decisions +
+                " dropped=" + dropped.get() +
+                " flags=" + flags;
+    }
+}
@@ -0,0 +1,75 @@
+package cardserver.integrity;
+
+/**
+ * Histogram of the times that a player takes to decide, in buckets of a
+ * quarter of an octave (each bucket is 19% wider than the previous one)
+ * from 1 ms to more than a minute, together with the mean and the
+ * variance of the logarithm of the times, updated with Welford's method.
+ * The spread of the logarithm is the relative variation of the times:
+ * a person varies a lot from one decision to the next, a program barely.
+ * <br/><br/>
+ * It is not thread safe, it is only used by the thread of the
+ * {@link IntegrityMonitor}.
+ * @author Jose Valera
+ * @version 1.0
+ * @since 19/10/2026
+ */
+class TimingHistogram {
+    private static final int BUCKETS_PER_OCTAVE = 4;
+    private static final int BUCKETS = 64;
+
+    private final int[] buckets = new int[BUCKETS];
+    private long count;
+    private double mean;
+    private double squares;
+
+    /**
+     * Counts the time of a decision.
+     * @param millis Time in milliseconds.
+     */
+    void record(double millis) {
+        double log = Math.log(Math.max(millis, 1));
+        int bucket = (int) (log / Math.log(2) * BUCKETS_PER_OCTAVE);
+        buckets[Math.min(bucket, BUCKETS - 1)]++;
+
+        count++;
+        double delta = log - mean;
+        mean += delta / count;
+        squares += delta * (log - mean);
+    }
+
+    /**
+     * Returns the number of decisions counted.
+     * @return Number of decisions.
+     */
+    long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the median time, as the middle of its bucket.
+     * @return Median in milliseconds, or 0 without decisions.
+     */
+    double median() {
+        long seen = 0;
+
+        for (int b = 0; b < BUCKETS; b++) {
+            seen += buckets[b];
+
+            if(seen * 2 > count)
+                return Math.pow(2, (b + 0.5) / BUCKETS_PER_OCTAVE);
+        }
+
+        return 0;
+    }
+
+    /**
+     * Returns the standard deviation of the logarithm of the times, which
+     * is about the relative variation of the times when it is small
+     * (0.1 means about 10%).
+     * @return Spread of the times, or 0 with less than two decisions.
+     */
+    double spread() {
+        return count < 2? 0: Math.sqrt(squares / (count - 1));
+    }
+}
@@ -0,0 +1,157 @@
+package cardserver.integrity;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * The pairs of players counted most often, kept in a fixed number of
+ * entries with the Space-Saving algorithm: a new pair takes the place of
+ * the least counted one and inherits its count as possible error, so a
+ * pair that is really frequent is never lost and its count is never below
+ * the true one by more than its error. The least counted pair is found
+ * with a heap of the counts that is only refreshed when it is consulted,
+ * so counting a pair already kept does not touch the heap.<br/><br/>
+ * It is not thread safe, it is only used by the thread of the
+ * {@link IntegrityMonitor}.
+ * @author Jose Valera
+ * @version 1.0
+ * @since 19/10/2026
+ */
+class TopPairs {
+    /**
+     * Counted pair of players.
+     */
+    static class Pair {
+        private final long key;
+        private final String first;
+        private final String second;
+        private long count;
+        private long error;
+        private boolean flagged;
+
+        private Pair(long key, String first, String second, long count, long error) {
+            this.key = key;
+            this.first = first;
+            this.second = second;
+            this.count = count;
+            this.error = error;
+        }
+
+        long getKey() {
+            return key;
+        }
+
+        String getFirst() {
+            return first;
+        }
+
+        String getSecond() {
+            return second;
+        }
+
+        /**
+         * Returns the count that the pair has surely reached.
+         * @return Count without the possible error.
+         */
+        long getGuaranteed() {
+            return count - error;
+        }
+
+        boolean isFlagged() {
+            return flagged;
+        }
+
+        void flag() {
+            flagged = true;
+        }
+    }
+
+    /*
+     * Count of a pair when it was put in the heap, it may be outdated.
+     */
+    private static class Entry {
+        private final Pair pair;
+        private long count;
+
+        private Entry(Pair pair) {
+            this.pair = pair;
+            count = pair.count;
+        }
+    }
+
+    private final int capacity;
+    private final Map<Long, Pair> pairs;
+    private final PriorityQueue<Entry> least;
+
+    /**
+     * Constructor that creates an empty list.
+     * @param capacity Maximum number of pairs kept.
+     */
+    TopPairs(int capacity) {
+        this.capacity = capacity;
+        pairs = new HashMap<>(capacity * 2);
+        least = new PriorityQueue<>(capacity, (a, b) -> Long.compare(a.count, b.count));
+    }
+
+    /**
+     * Adds one to the count of a pair.
+     * @param key Hash of the pair.
+     * @param first Name of a player.
+     * @param second Name of the other player.
+     */
+    void add(long key, String first, String second) {
+        Pair pair = pairs.get(key);
+
+        if(pair != null) {
+            pair.count++;
+            return;
+        }
+
+        long floor = 0;
+
+        if(pairs.size() >= capacity) {
+            Pair evicted = removeLeast();
+            pairs.remove(evicted.key);
+            floor = evicted.count;
+        }
+
+        pair = new Pair(key, first, second, floor + 1, floor);
+        pairs.put(key, pair);
+        least.add(new Entry(pair));
+    }
+
+    /*
+     * An outdated entry is put back with the current count. The first
+     * entry that is up to date has the least count, since the rest can
+     * only have grown since they were put in the heap.
+     */
+    private Pair removeLeast() {
+        while (true) {
+            Entry entry = least.poll();
+
+            if(entry.count == entry.pair.count)
+                return entry.pair;
+
+            entry.count = entry.pair.count;
+            least.add(entry);
+        }
+    }
+
+    /**
+     * Returns the pairs whose count has surely reached a minimum.
+     * @param minimum Minimum count.
+     * @return Pairs, in no order.
+     */
+    List<Pair> atLeast(long minimum) {
+        List<Pair> frequent = new ArrayList<>();
+
+        for (Pair pair : pairs.values())
+            if(pair.getGuaranteed() >= minimum)
+                frequent.add(pair);
+
+        return frequent;
+    }
+}
@@ -0,0 +1,46 @@
+package cardserver.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event of a card dealt to a seat.
+ * @author Jose Valera
+ * @version 1.0
+ * @since 19/10/2026
+ */
+@Name("cardserver.CardDealt")
+@Label("Card Dealt")
+@Category({"CardServer", "Seat"})
+@Description("A card has been dealt to a seat.")
+@StackTrace(false)
+public final class CardDealtEvent extends jdk.jfr.Event {
+    @Label("Player")
+    int player;
+
+    @Label("Card")
+    int card;
+
+    @Label("Total")
+    float total;
+
+    /**
+     * Records a card dealt, if the event is enabled.
+     * @param player Identification number of the player.
+     * @param card Identifier of the card.
+     * @param total Total value of the hand with the card.
+     */
+    public static void emit(int player, int card, float total) {
+        CardDealtEvent event = new CardDealtEvent();
+
+        if(event.isEnabled()) {
+            event.player = player;
+            event.card = card;
+            event.total = total;
+            event.commit();
+        }
+    }
+}
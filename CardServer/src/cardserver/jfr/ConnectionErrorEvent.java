@@ -0,0 +1,40 @@
+package cardserver.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event of a connection error of a player, with the
+ * stack trace of where it was detected.
+ * @author Jose Valera
+ * @version 1.0
+ * @since 19/10/2026
+ */
+@Name("cardserver.ConnectionError")
+@Label("Connection Error")
+@Category({"CardServer", "Seat"})
+@Description("The connection with a player has failed.")
+public final class ConnectionErrorEvent extends jdk.jfr.Event {
+    @Label("Player")
+    int player;
+
+    @Label("Message")
+    String message;
+
+    /**
+     * Records a connection error, if the event is enabled.
+     * @param player Identification number of the player.
+     * @param message Description of the error.
+     */
+    public static void emit(int player, String message) {
+        ConnectionErrorEvent event = new ConnectionErrorEvent();
+
+        if(event.isEnabled()) {
+            event.player = player;
+            event.message = message;
+            event.commit();
+        }
+    }
+}
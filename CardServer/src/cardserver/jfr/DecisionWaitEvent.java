@@ -0,0 +1,49 @@
+package cardserver.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Flight recorder event of the wait of a seat for a decision of its
+ * player (bet, another card or retry), from the flush of the messages
+ * that ask for it until the answer is read.
+ * @author Jose Valera
+ * @version 1.0
+ * @since 19/10/2026
+ */
+@Name("cardserver.DecisionWait")
+@Label("Decision Wait")
+@Category({"CardServer", "Seat"})
+@Description("A seat waits for a decision of its player.")
+@StackTrace(false)
+@Threshold("20 ms")
+public final class DecisionWaitEvent extends jdk.jfr.Event {
+    @Label("Player")
+    int player;
+
+    @Label("Decision")
+    String decision;
+
+    @Label("Answer")
+    String answer;
+
+    /**
+     * Ends the event and records it, if it is enabled and has exceeded
+     * its threshold.
+     * @param player Identification number of the player.
+     * @param decision Decision waited for: bet, card or retry.
+     * @param answer Message received, or null if none could be read.
+     */
+    public void commit(int player, String decision, Object answer) {
+        if(shouldCommit()) {
+            this.player = player;
+            this.decision = decision;
+            this.answer = String.valueOf(answer);
+            commit();
+        }
+    }
+}
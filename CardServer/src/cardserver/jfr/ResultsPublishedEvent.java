@@ -0,0 +1,50 @@
+package cardserver.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Flight recorder event of the results of a round: the dealer plays, if
+ * there is one, the bets are settled and every seat receives its result.
+ * @author Jose Valera
+ * @version 1.0
+ * @since 19/10/2026
+ */
+@Name("cardserver.ResultsPublished")
+@Label("Results Published")
+@Category({"CardServer", "Table"})
+@Description("The results of a round are computed, settled and published.")
+@StackTrace(false)
+@Threshold("0 ms")
+public final class ResultsPublishedEvent extends jdk.jfr.Event {
+    @Label("Round")
+    int round;
+
+    @Label("Seats")
+    int seats;
+
+    @Label("Dealer Total")
+    @Description("Score of the dealer, negative without dealer.")
+    float dealerTotal;
+
+    /**
+     * Ends the event and records it, if it is enabled and has exceeded
+     * its threshold.
+     * @param round Number of the round, from 0.
+     * @param seats Number of seats of the table.
+     * @param dealerHalfPoints Score of the dealer in half points, or -1
+     *      without dealer.
+     */
+    public void commit(int round, int seats, int dealerHalfPoints) {
+        if(shouldCommit()) {
+            this.round = round;
+            this.seats = seats;
+            dealerTotal = dealerHalfPoints / 2f;
+            commit();
+        }
+    }
+}
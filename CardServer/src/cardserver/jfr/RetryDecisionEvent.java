@@ -0,0 +1,43 @@
+package cardserver.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Flight recorder event of the decision of repeating a round: from the
+ * publication of the results until all the seats have answered.
+ * @author Jose Valera
+ * @version 1.0
+ * @since 19/10/2026
+ */
+@Name("cardserver.RetryDecision")
+@Label("Retry Decision")
+@Category({"CardServer", "Table"})
+@Description("The table waits for every seat to decide whether to repeat.")
+@StackTrace(false)
+@Threshold("0 ms")
+public final class RetryDecisionEvent extends jdk.jfr.Event {
+    @Label("Round")
+    int round;
+
+    @Label("Repeat")
+    boolean repeat;
+
+    /**
+     * Ends the event and records it, if it is enabled and has exceeded
+     * its threshold.
+     * @param round Number of the round, from 0.
+     * @param repeat true if the round is repeated.
+     */
+    public void commit(int round, boolean repeat) {
+        if(shouldCommit()) {
+            this.round = round;
+            this.repeat = repeat;
+            commit();
+        }
+    }
+}
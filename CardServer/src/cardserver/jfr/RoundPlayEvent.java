@@ -0,0 +1,38 @@
+package cardserver.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Flight recorder event of the play of a round: from the first card until
+ * all the seats have finished their game.
+ * @author Jose Valera
+ * @version 1.0
+ * @since 19/10/2026
+ */
+@Name("cardserver.RoundPlay")
+@Label("Round Play")
+@Category({"CardServer", "Table"})
+@Description("The seats receive their cards until all of them have finished.")
+@StackTrace(false)
+@Threshold("0 ms")
+public final class RoundPlayEvent extends jdk.jfr.Event {
+    @Label("Round")
+    int round;
+
+    /**
+     * Ends the event and records it, if it is enabled and has exceeded
+     * its threshold.
+     * @param round Number of the round, from 0.
+     */
+    public void commit(int round) {
+        if(shouldCommit()) {
+            this.round = round;
+            commit();
+        }
+    }
+}
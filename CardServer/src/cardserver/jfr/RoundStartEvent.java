@@ -0,0 +1,44 @@
+package cardserver.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Flight recorder event of the start of a round: from the moment the
+ * table waits for its players until all of them are ready and the cards
+ * start to be dealt.
+ * @author Jose Valera
+ * @version 1.0
+ * @since 19/10/2026
+ */
+@Name("cardserver.RoundStart")
+@Label("Round Start")
+@Category({"CardServer", "Table"})
+@Description("The table waits until all the seats are ready for a round.")
+@StackTrace(false)
+@Threshold("0 ms")
+public final class RoundStartEvent extends jdk.jfr.Event {
+    @Label("Round")
+    int round;
+
+    @Label("Seats")
+    int seats;
+
+    /**
+     * Ends the event and records it, if it is enabled and has exceeded
+     * its threshold.
+     * @param round Number of the round, from 0.
+     * @param seats Number of seats of the table.
+     */
+    public void commit(int round, int seats) {
+        if(shouldCommit()) {
+            this.round = round;
+            this.seats = seats;
+            commit();
+        }
+    }
+}
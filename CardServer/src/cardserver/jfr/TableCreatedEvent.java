@@ -0,0 +1,51 @@
+package cardserver.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event of the creation of the table of the server.
+ * @author Jose Valera
+ * @version 1.0
+ * @since 19/10/2026
+ */
+@Name("cardserver.TableCreated")
+@Label("Table Created")
+@Category({"CardServer", "Table"})
+@Description("The table of the server has been created.")
+@StackTrace(false)
+public final class TableCreatedEvent extends jdk.jfr.Event {
+    @Label("Capacity")
+    int capacity;
+
+    @Label("Bots")
+    int bots;
+
+    @Label("Variant")
+    String variant;
+
+    @Label("Dealer")
+    boolean dealer;
+
+    /**
+     * Records the creation of a table, if the event is enabled.
+     * @param capacity Number of seats of the table.
+     * @param bots Number of seats played by bots.
+     * @param variant Name of the variant played.
+     * @param dealer true if the players play against a dealer.
+     */
+    public static void emit(int capacity, int bots, String variant, boolean dealer) {
+        TableCreatedEvent event = new TableCreatedEvent();
+
+        if(event.isEnabled()) {
+            event.capacity = capacity;
+            event.bots = bots;
+            event.variant = variant;
+            event.dealer = dealer;
+            event.commit();
+        }
+    }
+}
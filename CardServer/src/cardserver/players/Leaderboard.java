@@ -0,0 +1,138 @@
+package cardserver.players;
+
+import java.util.*;
+
+/**
+ * Ranking of the players by games won, then games tied and then fewer
+ * games lost. It is kept sorted and updated player by player, so a query
+ * of the best players does not sort all of them again.<br/><br/>
+ * Only the best players are kept, up to a fixed number, so its memory
+ * does not grow with all the players ever seen. A player below the last
+ * one kept enters again when its games put it above it; a player that
+ * loses can fall below one that is not kept, so a player may be missing
+ * from the last places, not from the first ones while the ranking is
+ * much larger than the places queried.
+ * @author Jose Valera
+ * @version 1.0
+ * @since 19/10/2026
+ */
+public class Leaderboard {
+    /**
+     * Position of a player in the ranking.
+     */
+    public static class Entry {
+        private final String name;
+        private final int wins;
+        private final int ties;
+        private final int losses;
+
+        private Entry(String name, int wins, int ties, int losses) {
+            this.name = name;
+            this.wins = wins;
+            this.ties = ties;
+            this.losses = losses;
+        }
+
+        /**
+         * Returns the name of the player.
+         * @return Name of the player.
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Returns the number of games won.
+         * @return Number of games won.
+         */
+        public int getWins() {
+            return wins;
+        }
+
+        /**
+         * Returns the number of games tied.
+         * @return Number of games tied.
+         */
+        public int getTies() {
+            return ties;
+        }
+
+        /**
+         * Returns the number of games lost.
+         * @return Number of games lost.
+         */
+        public int getLosses() {
+            return losses;
+        }
+
+        @Override
+        public String toString() {
+            return name + " (W " + wins + " / T " + ties + " / L " + losses + ")";
+        }
+    }
+
+    private static final Comparator<Entry> ranking =
+            Comparator.comparingInt((Entry e) -> -e.wins)
+                    .thenComparingInt(e -> -e.ties)
+                    .thenComparingInt(e -> e.losses)
+                    .thenComparing(e -> e.name);
+
+    private final int capacity;
+    private final NavigableSet<Entry> entries = new TreeSet<>(ranking);
+    private final Map<String, Entry> entriesByName = new HashMap<>();
+
+    /**
+     * Constructor that creates an empty ranking.
+     * @param capacity Maximum number of players kept.
+     */
+    public Leaderboard(int capacity) {
+        this.capacity = Math.max(capacity, 1);
+    }
+
+    /**
+     * Moves a player to the position that corresponds to its games.
+     * @param name Name of the player.
+     * @param wins Number of games won.
+     * @param ties Number of games tied.
+     * @param losses Number of games lost.
+     */
+    public synchronized void update(String name, int wins, int ties, int losses) {
+        Entry entry = new Entry(name, wins, ties, losses);
+        Entry old = entriesByName.remove(name);
+
+        if(old != null)
+            entries.remove(old);
+
+        if(entries.size() >= capacity && ranking.compare(entry, entries.last()) > 0)
+            return;
+
+        entries.add(entry);
+        entriesByName.put(name, entry);
+
+        if(entries.size() > capacity)
+            entriesByName.remove(entries.pollLast().name);
+    }
+
+    /**
+     * Returns the best players of the ranking.
+     * @param n Maximum number of players returned.
+     * @return The first n players of the ranking, in order.
+     */
+    public synchronized List<Entry> top(int n) {
+        List<Entry> top = new ArrayList<>(Math.min(n, entries.size()));
+        Iterator<Entry> iterator = entries.iterator();
+
+        while (top.size() < n && iterator.hasNext())
+            top.add(iterator.next());
+
+        return top;
+    }
+
+    /**
+     * Returns the number of players kept in the ranking.
+     * @return Number of players, at most the capacity.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+}
@@ -0,0 +1,128 @@
+package cardserver.players;
+
+import cardmodel.Outcome;
+
+/**
+ * Class representing the profile of a player: its name, the number of
+ * games won, tied and lost and the scores of its last games.
+ * @author Jose Valera
+ * @version 1.0
+ * @since 19/10/2026
+ */
+public class PlayerProfile {
+    /**
+     * Number of scores kept in the history of a player.
+     */
+    public static final int HISTORY_SIZE = 16;
+
+    private final String name;
+    private int wins;
+    private int ties;
+    private int losses;
+
+    private final byte[] history = new byte[HISTORY_SIZE];
+    private int historyCount;
+    private int historyNext;
+
+    /**
+     * Constructor that creates a profile without games.
+     * @param name Name of the player.
+     */
+    public PlayerProfile(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Adds the result of a game to the profile.
+     * @param outcome Result of the game.
+     * @param total Final score of the player.
+     */
+    public void record(Outcome outcome, float total) {
+        switch (outcome) {
+            case WIN: wins++; break;
+            case TIE: ties++; break;
+            default: losses++;
+        }
+
+        addScore((int) (total * 2));
+    }
+
+    /*
+     * Copy that the store writes while the profile keeps changing.
+     */
+    PlayerProfile copy() {
+        PlayerProfile copy = new PlayerProfile(name);
+        copy.setStats(wins, ties, losses);
+        System.arraycopy(history, 0, copy.history, 0, HISTORY_SIZE);
+        copy.historyCount = historyCount;
+        copy.historyNext = historyNext;
+        return copy;
+    }
+
+    void setStats(int wins, int ties, int losses) {
+        this.wins = wins;
+        this.ties = ties;
+        this.losses = losses;
+    }
+
+    void addScore(int halfPoints) {
+        history[historyNext] = (byte) Math.min(halfPoints, Byte.MAX_VALUE);
+        historyNext = (historyNext + 1) % HISTORY_SIZE;
+        historyCount = Math.min(historyCount + 1, HISTORY_SIZE);
+    }
+
+    /**
+     * Returns the name of the player.
+     * @return Name of the player.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the number of games won.
+     * @return Number of games won.
+     */
+    public int getWins() {
+        return wins;
+    }
+
+    /**
+     * Returns the number of games tied.
+     * @return Number of games tied.
+     */
+    public int getTies() {
+        return ties;
+    }
+
+    /**
+     * Returns the number of games lost.
+     * @return Number of games lost.
+     */
+    public int getLosses() {
+        return losses;
+    }
+
+    /**
+     * Returns the scores of the last games, from the oldest to the newest.
+     * @return Scores of the last games.
+     */
+    public float[] getScoreHistory() {
+        float[] scores = new float[historyCount];
+        int first = (historyNext - historyCount + HISTORY_SIZE) % HISTORY_SIZE;
+
+        for (int i = 0; i < historyCount; i++)
+            scores[i] = history[(first + i) % HISTORY_SIZE] / 2f;
+
+        return scores;
+    }
+
+    /**
+     * Returns a text string with the profile information.
+     * @return Name and number of games won, tied and lost.
+     */
+    @Override
+    public String toString() {
+        return name + " (W " + wins + " / T " + ties + " / L " + losses + ")";
+    }
+}
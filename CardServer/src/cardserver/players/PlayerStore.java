@@ -0,0 +1,334 @@
+package cardserver.players;
+
+import cardmodel.Outcome;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Local store of the profiles of the players, kept in a single file.
+ * <br/><br/>
+ * The file is a log of records: each time a profile changes, its new
+ * version is appended at the end and the index in memory points to it.
+ * The changes are not written immediately: the modified profiles are
+ * written together by a background thread every few seconds
+ * (write-behind), outside the lock of the store, so the games that record
+ * their results never wait for the disk. The most used profiles are kept
+ * in a cache of limited size, the rest are read from the file when they
+ * are needed.<br/><br/>
+ * The memory is bounded except for the index, which keeps the position
+ * in the file of every player ever seen (about 100 bytes per player plus
+ * its name): a million players take about 150 MB. The ranking only keeps
+ * the best {@value #LEADERBOARD_SIZE} players, see {@link Leaderboard}.
+ * <br/><br/>
+ * When the file is opened with more than twice as many records as
+ * players, it is compacted.
+ * @author Jose Valera
+ * @version 1.0
+ * @since 19/10/2026
+ */
+public class PlayerStore implements Closeable {
+    private static final int LEADERBOARD_SIZE = 1024;
+
+    private final Path path;
+    private final FileChannel file;
+    private final Map<String, Long> offsets = new HashMap<>();
+    private final Map<String, PlayerProfile> cache;
+    private Map<String, PlayerProfile> dirty = new LinkedHashMap<>();
+    private Map<String, PlayerProfile> writing = Collections.emptyMap();
+    private final Object flushLock = new Object();
+    private final Leaderboard leaderboard = new Leaderboard(LEADERBOARD_SIZE);
+    private final ScheduledExecutorService writer;
+
+    /**
+     * Constructor that opens (or creates) the file of the store and starts
+     * the thread that writes the changes.
+     * @param path Path of the file of the store.
+     * @param cacheSize Maximum number of profiles kept in memory.
+     * @param flushMillis Time between the writes of the changes.
+     * @throws IOException If the file can not be opened or read.
+     */
+    public PlayerStore(Path path, int cacheSize, long flushMillis) throws IOException {
+        this.path = path;
+        cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PlayerProfile> eldest) {
+                return size() > cacheSize;
+            }
+        };
+
+        int records = load();
+
+        if(records > 2 * offsets.size())
+            compact();
+
+        file = FileChannel.open(path,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+
+        writer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "PlayerStore-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        writer.scheduleWithFixedDelay(this::flushQuietly,
+                flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Returns the profile of a player, creating it if it does not exist.
+     * The profile must only be modified through the store.
+     * @param name Name of the player.
+     * @return The profile of the player.
+     */
+    public synchronized PlayerProfile get(String name) {
+        PlayerProfile profile = cache.get(name);
+
+        if(profile == null)
+            profile = dirty.get(name);
+
+        if(profile == null)
+            profile = writing.get(name);
+
+        if(profile == null) {
+            Long offset = offsets.get(name);
+            profile = offset != null? readProfile(offset): new PlayerProfile(name);
+        }
+
+        cache.put(name, profile);
+        return profile;
+    }
+
+    /**
+     * Adds the result of a game to the profile of a player. The change is
+     * written to the file later.
+     * @param name Name of the player.
+     * @param outcome Result of the game.
+     * @param total Final score of the player.
+     */
+    public synchronized void record(String name, Outcome outcome, float total) {
+        PlayerProfile profile = get(name);
+        profile.record(outcome, total);
+        dirty.put(name, profile);
+
+        leaderboard.update(name,
+                profile.getWins(), profile.getTies(), profile.getLosses());
+    }
+
+    /**
+     * Returns the ranking of the best players of the store.
+     * @return The ranking of the players.
+     */
+    public Leaderboard getLeaderboard() {
+        return leaderboard;
+    }
+
+    /**
+     * Returns the number of players of the store.
+     * @return Number of players with a profile.
+     */
+    public synchronized int size() {
+        int players = offsets.size();
+
+        for (String name : dirty.keySet())
+            if(!offsets.containsKey(name) && !writing.containsKey(name))
+                players++;
+
+        for (String name : writing.keySet())
+            if(!offsets.containsKey(name))
+                players++;
+
+        return players;
+    }
+
+    /**
+     * Writes all the pending changes to the file in a single write. Only
+     * the pending profiles are taken with the lock of the store: they are
+     * encoded, written and forced to the disk without it, and the profiles
+     * being written are still found by {@link #get(String)} until the
+     * index points to them.
+     * @throws IOException If the file can not be written.
+     */
+    public void flush() throws IOException {
+        synchronized (flushLock) {
+            List<PlayerProfile> pending = new ArrayList<>();
+
+            synchronized (this) {
+                if(dirty.isEmpty())
+                    return;
+
+                writing = dirty;
+                dirty = new LinkedHashMap<>();
+
+                for (PlayerProfile profile : writing.values())
+                    pending.add(profile.copy());
+            }
+
+            Map<String, Long> newOffsets = new HashMap<>();
+
+            try {
+                ByteArrayOutputStream batch = new ByteArrayOutputStream();
+                DataOutputStream out = new DataOutputStream(batch);
+                long position = file.size();
+
+                for (PlayerProfile profile : pending) {
+                    newOffsets.put(profile.getName(), position + out.size());
+                    writeRecord(out, profile);
+                }
+
+                ByteBuffer buffer = ByteBuffer.wrap(batch.toByteArray());
+
+                while (buffer.hasRemaining())
+                    file.write(buffer, position + buffer.position());
+
+                file.force(false);
+            } catch (IOException e) {
+                // They are written again in the next flush.
+                synchronized (this) {
+                    for (Map.Entry<String, PlayerProfile> entry : writing.entrySet())
+                        dirty.putIfAbsent(entry.getKey(), entry.getValue());
+
+                    writing = Collections.emptyMap();
+                }
+
+                throw e;
+            }
+
+            synchronized (this) {
+                offsets.putAll(newOffsets);
+                writing = Collections.emptyMap();
+            }
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (IOException e) {
+            System.err.println("Players could not be saved: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the pending changes and closes the file.
+     * @throws IOException If the file can not be written.
+     */
+    @Override
+    public void close() throws IOException {
+        writer.shutdown();
+
+        try {
+            flush();
+        } finally {
+            file.close();
+        }
+    }
+
+    private int load() throws IOException {
+        if(!Files.exists(path))
+            return 0;
+
+        int records = 0;
+        long offset = 0;
+
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(path)))) {
+            while (true) {
+                PlayerProfile profile;
+
+                try {
+                    profile = readRecord(in);
+                } catch (EOFException e) {
+                    break;
+                }
+
+                offsets.put(profile.getName(), offset);
+                leaderboard.update(profile.getName(),
+                        profile.getWins(), profile.getTies(), profile.getLosses());
+                offset += recordSize(profile);
+                records++;
+            }
+        }
+
+        // Discards a record that was not completely written.
+        if(offset < Files.size(path))
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                channel.truncate(offset);
+            }
+
+        return records;
+    }
+
+    private void compact() throws IOException {
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        Map<String, Long> newOffsets = new HashMap<>();
+
+        try (RandomAccessFile old = new RandomAccessFile(path.toFile(), "r");
+             DataOutputStream out = new DataOutputStream(
+                     new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            for (Map.Entry<String, Long> entry : offsets.entrySet()) {
+                old.seek(entry.getValue());
+                newOffsets.put(entry.getKey(), (long) out.size());
+                writeRecord(out, readRecord(old));
+            }
+        }
+
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+        offsets.putAll(newOffsets);
+    }
+
+    private PlayerProfile readProfile(long offset) {
+        try (RandomAccessFile in = new RandomAccessFile(path.toFile(), "r")) {
+            in.seek(offset);
+            return readRecord(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /*
+     * Record: name (UTF), wins, ties, losses (int), number of scores (byte)
+     * and the scores in half points (byte each).
+     */
+    private static void writeRecord(DataOutput out, PlayerProfile profile)
+            throws IOException {
+        float[] scores = profile.getScoreHistory();
+
+        out.writeUTF(profile.getName());
+        out.writeInt(profile.getWins());
+        out.writeInt(profile.getTies());
+        out.writeInt(profile.getLosses());
+        out.writeByte(scores.length);
+
+        for (float score : scores)
+            out.writeByte((int) (score * 2));
+    }
+
+    private static PlayerProfile readRecord(DataInput in) throws IOException {
+        PlayerProfile profile = new PlayerProfile(in.readUTF());
+        profile.setStats(in.readInt(), in.readInt(), in.readInt());
+
+        int scores = in.readUnsignedByte();
+
+        for (int i = 0; i < scores; i++)
+            profile.addScore(in.readByte());
+
+        return profile;
+    }
+
+    private static int recordSize(PlayerProfile profile) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        writeRecord(new DataOutputStream(bytes), profile);
+        return bytes.size();
+    }
+}
@@ -0,0 +1,80 @@
+package cardserver.tournament;
+
+/**
+ * Player registered in a tournament. Its chips and its table are only
+ * changed by the tournament, between the games of its table.
+ * @author Jose Valera
+ * @version 1.0
+ * @since 19/10/2026
+ */
+public class Entrant {
+    private final int id;
+    private final String name;
+    private long stack;
+    private int place;
+
+    /**
+     * Constructor that registers a player with its initial chips.
+     * @param id Number of the player in the tournament.
+     * @param name Name of the player.
+     * @param stack Initial chips.
+     */
+    public Entrant(int id, String name, long stack) {
+        this.id = id;
+        this.name = name;
+        this.stack = stack;
+    }
+
+    /**
+     * Returns the number of the player in the tournament.
+     * @return Number of the player.
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Returns the name of the player.
+     * @return Name of the player.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the chips of the player.
+     * @return Chips of the player.
+     */
+    public long getStack() {
+        return stack;
+    }
+
+    void setStack(long stack) {
+        this.stack = stack;
+    }
+
+    /**
+     * Returns the place in which the player has finished the tournament.
+     * @return Final place, or 0 if it is still playing.
+     */
+    public int getPlace() {
+        return place;
+    }
+
+    void setPlace(int place) {
+        this.place = place;
+    }
+
+    /**
+     * Checks if the player is still playing.
+     * @return true if it has not been eliminated.
+     */
+    public boolean isActive() {
+        return place == 0;
+    }
+
+    @Override
+    public String toString() {
+        return name + " (" + stack + ")";
+    }
+}
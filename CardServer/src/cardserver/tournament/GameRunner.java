@@ -0,0 +1,19 @@
+package cardserver.tournament;
+
+import java.util.List;
+
+/**
+ * Plays a game at a table of a tournament. It is called from the threads
+ * of the tournament, several tables at the same time.
+ * @author Jose Valera
+ * @version 1.0
+ * @since 19/10/2026
+ */
+public interface GameRunner {
+    /**
+     * Plays a game with the players of a table.
+     * @param seats Players of the table, which must not be modified.
+     * @return Total of each player in half points, in the same order.
+     */
+    int[] play(List<Entrant> seats);
+}
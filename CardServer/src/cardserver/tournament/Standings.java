@@ -0,0 +1,95 @@
+package cardserver.tournament;
+
+import java.util.*;
+
+/**
+ * Cumulative ranking of a tournament: first the players still playing,
+ * by chips, and then the eliminated ones, by the place in which they
+ * have finished.<br/><br/>
+ * It is updated player by player when their chips change, so keeping it
+ * costs O(log n) per player of a finished game instead of sorting all
+ * the entrants after each round.
+ * @author Jose Valera
+ * @version 1.0
+ * @since 19/10/2026
+ */
+public class Standings {
+    private static final Comparator<Entrant> ranking =
+            Comparator.comparingLong((Entrant e) -> -e.getStack())
+                    .thenComparingInt(Entrant::getId);
+
+    private final NavigableSet<Entrant> active = new TreeSet<>(ranking);
+    private final Deque<Entrant> eliminated = new ArrayDeque<>();
+
+    /**
+     * Adds a player to the ranking.
+     * @param entrant Player that starts the tournament.
+     */
+    public synchronized void add(Entrant entrant) {
+        active.add(entrant);
+    }
+
+    /**
+     * Changes the chips of a player and moves it to its new position.
+     * @param entrant Player still playing.
+     * @param stack New chips of the player.
+     */
+    public synchronized void update(Entrant entrant, long stack) {
+        if(entrant.getStack() == stack)
+            return;
+
+        active.remove(entrant);
+        entrant.setStack(stack);
+        active.add(entrant);
+    }
+
+    /**
+     * Eliminates a player, which finishes in the place after the players
+     * that are still playing.
+     * @param entrant Player eliminated.
+     * @return Place in which the player finishes.
+     */
+    public synchronized int eliminate(Entrant entrant) {
+        active.remove(entrant);
+        entrant.setPlace(active.size() + 1);
+        eliminated.addFirst(entrant);
+
+        return entrant.getPlace();
+    }
+
+    /**
+     * Returns the number of players still playing.
+     * @return Number of active players.
+     */
+    public synchronized int getActive() {
+        return active.size();
+    }
+
+    /**
+     * Returns the leader of the tournament.
+     * @return The player with more chips, or the winner.
+     */
+    public synchronized Entrant getLeader() {
+        return active.isEmpty()? eliminated.peekFirst(): active.first();
+    }
+
+    /**
+     * Returns the first players of the ranking.
+     * @param n Maximum number of players returned.
+     * @return The first n players, in order.
+     */
+    public synchronized List<Entrant> top(int n) {
+        List<Entrant> top = new ArrayList<>(Math.min(n, active.size() + eliminated.size()));
+        Iterator<Entrant> iterator = active.iterator();
+
+        while (top.size() < n && iterator.hasNext())
+            top.add(iterator.next());
+
+        iterator = eliminated.iterator();
+
+        while (top.size() < n && iterator.hasNext())
+            top.add(iterator.next());
+
+        return top;
+    }
+}
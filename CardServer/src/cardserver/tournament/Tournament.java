@@ -0,0 +1,319 @@
+package cardserver.tournament;
+
+import cardmodel.Rules;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Elimination tournament played at many tables in parallel.<br/><br/>
+ * Every game costs each player an ante, which doubles every few games,
+ * and the pot goes to the best total of the table (split if there is a
+ * tie). The players without chips are eliminated, until only one is
+ * left.<br/><br/>
+ * The tables never wait for each other: each one plays its games on the
+ * executor and, when a game ends, the tournament settles it and
+ * rebalances only that table, which is the only one that is stopped:
+ * <br/>
+ * - if there are more tables than needed for the players left, or the
+ * table has fewer than two players, the table is broken and its players
+ * wait for a seat,<br/>
+ * - otherwise, the table gives its extra players to the waiting ones or
+ * takes waiting players until it reaches the average size.<br/><br/>
+ * So the players move between tables at the end of their games, and the
+ * cost of rebalancing is proportional to the players moved, not to the
+ * size of the tournament.
+ * @author Jose Valera
+ * @version 1.0
+ * @since 19/10/2026
+ */
+public class Tournament {
+    private static final int MAX_LEVEL = 40;
+
+    private final Rules rules;
+    private final GameRunner runner;
+    private final int seatsPerTable;
+    private final long initialStack;
+    private final long baseAnte;
+    private final int gamesPerLevel;
+
+    private final List<Entrant> entrants = new ArrayList<>();
+    private final Standings standings = new Standings();
+    private final Deque<Entrant> waiting = new ArrayDeque<>();
+    private final CompletableFuture<Entrant> winner = new CompletableFuture<>();
+    private Executor executor;
+    private int nextTableId;
+    private int openTables;
+    private int runningTables;
+    private long games;
+    private long moves;
+    private long brokenTables;
+    private long coordinationNanos;
+    private long maxCoordinationNanos;
+
+    private static class TournamentTable {
+        private final int id;
+        private final List<Entrant> seats;
+
+        private TournamentTable(int id, int capacity) {
+            this.id = id;
+            seats = new ArrayList<>(capacity);
+        }
+    }
+
+    /**
+     * Constructor that configures the tournament.
+     * @param rules Rules of the variant played.
+     * @param runner Player of the games of the tables.
+     * @param seatsPerTable Maximum number of players of a table.
+     * @param initialStack Initial chips of each player.
+     * @param baseAnte Ante of the first level.
+     * @param gamesPerLevel Games played in the whole tournament before
+     *      the ante doubles.
+     */
+    public Tournament(Rules rules, GameRunner runner, int seatsPerTable,
+                      long initialStack, long baseAnte, int gamesPerLevel) {
+        this.rules = rules;
+        this.runner = runner;
+        this.seatsPerTable = seatsPerTable;
+        this.initialStack = initialStack;
+        this.baseAnte = baseAnte;
+        this.gamesPerLevel = gamesPerLevel;
+    }
+
+    /**
+     * Registers a player before the tournament starts.
+     * @param name Name of the player.
+     * @return The player registered.
+     */
+    public synchronized Entrant register(String name) {
+        if(executor != null)
+            throw new IllegalStateException("The tournament has already started.");
+
+        Entrant entrant = new Entrant(entrants.size(), name, initialStack);
+        entrants.add(entrant);
+        standings.add(entrant);
+
+        return entrant;
+    }
+
+    /**
+     * Seats the players at the tables and starts all of them.
+     * @param executor Executor on which the games are played.
+     * @return Future completed with the winner of the tournament.
+     */
+    public synchronized CompletableFuture<Entrant> start(Executor executor) {
+        if(entrants.size() < 2)
+            throw new IllegalStateException("At least two players are needed.");
+
+        this.executor = executor;
+        int tables = ceilDiv(entrants.size(), seatsPerTable);
+        List<TournamentTable> seating = new ArrayList<>(tables);
+
+        for (int i = 0; i < tables; i++)
+            seating.add(openTable());
+
+        for (int i = 0; i < entrants.size(); i++)
+            seating.get(i % tables).seats.add(entrants.get(i));
+
+        for (TournamentTable table : seating)
+            schedule(table);
+
+        return winner;
+    }
+
+    private TournamentTable openTable() {
+        openTables++;
+        return new TournamentTable(nextTableId++, seatsPerTable);
+    }
+
+    private void schedule(TournamentTable table) {
+        runningTables++;
+        executor.execute(() -> {
+            try {
+                int[] totals = runner.play(table.seats);
+                gameOver(table, totals);
+            } catch (RuntimeException e) {
+                winner.completeExceptionally(e);
+            }
+        });
+    }
+
+    private synchronized void gameOver(TournamentTable table, int[] totals) {
+        long start = System.nanoTime();
+
+        runningTables--;
+        games++;
+        settle(table, totals);
+
+        int active = standings.getActive();
+
+        if(active <= 1) {
+            Entrant champion = standings.getLeader();
+            standings.eliminate(champion);
+            winner.complete(champion);
+            return;
+        }
+
+        int neededTables = ceilDiv(active, seatsPerTable);
+
+        if(openTables > neededTables || table.seats.size() < 2) {
+            waiting.addAll(table.seats);
+            table.seats.clear();
+            openTables--;
+            brokenTables++;
+        }
+
+        else {
+            rebalance(table, ceilDiv(active, openTables));
+            schedule(table);
+        }
+
+        // The waiting players that no table can take open new tables.
+        while (waiting.size() >= 2 && (openTables < neededTables || runningTables == 0)) {
+            TournamentTable newTable = openTable();
+            int target = ceilDiv(active, openTables);
+
+            while (newTable.seats.size() < target && !waiting.isEmpty()) {
+                newTable.seats.add(waiting.poll());
+                moves++;
+            }
+
+            schedule(newTable);
+        }
+
+        long elapsed = System.nanoTime() - start;
+        coordinationNanos += elapsed;
+        maxCoordinationNanos = Math.max(maxCoordinationNanos, elapsed);
+    }
+
+    private void rebalance(TournamentTable table, int target) {
+        while (table.seats.size() > target) {
+            waiting.add(table.seats.remove(table.seats.size() - 1));
+        }
+
+        while (table.seats.size() < target && !waiting.isEmpty()) {
+            table.seats.add(waiting.poll());
+            moves++;
+        }
+    }
+
+    /*
+     * Collects the antes, gives the pot to the winners (or returns it if
+     * all the players have busted) and eliminates the players left
+     * without chips.
+     */
+    private void settle(TournamentTable table, int[] totals) {
+        List<Entrant> seats = table.seats;
+        long ante = baseAnte << Math.min(games / gamesPerLevel, MAX_LEVEL);
+        long[] stacks = new long[seats.size()];
+        long pot = 0;
+        int best = -1;
+        int winners = 0;
+
+        for (int i = 0; i < seats.size(); i++) {
+            long paid = Math.min(ante, seats.get(i).getStack());
+            stacks[i] = seats.get(i).getStack() - paid;
+            pot += paid;
+
+            if(!rules.isBust(totals[i]) && totals[i] > best) {
+                best = totals[i];
+                winners = 0;
+            }
+
+            if(totals[i] == best)
+                winners++;
+        }
+
+        // The remainder of the split goes to the first winner.
+        long remainder = winners > 0? pot % winners: 0;
+
+        for (int i = 0; i < seats.size(); i++) {
+            if(best < 0)
+                stacks[i] = seats.get(i).getStack();
+
+            else if(totals[i] == best) {
+                stacks[i] += pot / winners + remainder;
+                remainder = 0;
+            }
+        }
+
+        for (int i = stacks.length - 1; i >= 0; i--) {
+            Entrant entrant = seats.get(i);
+
+            if(stacks[i] > 0)
+                standings.update(entrant, stacks[i]);
+
+            else {
+                standings.update(entrant, 0);
+                standings.eliminate(entrant);
+                seats.remove(i);
+            }
+        }
+    }
+
+    private static int ceilDiv(int a, int b) {
+        return (a + b - 1) / b;
+    }
+
+    /**
+     * Returns the ranking of the tournament.
+     * @return Standings of the tournament.
+     */
+    public Standings getStandings() {
+        return standings;
+    }
+
+    /**
+     * Returns the number of games played in all the tables.
+     * @return Number of games played.
+     */
+    public synchronized long getGames() {
+        return games;
+    }
+
+    /**
+     * Returns the number of times that a player has been seated at
+     * another table.
+     * @return Number of moves of players.
+     */
+    public synchronized long getMoves() {
+        return moves;
+    }
+
+    /**
+     * Returns the number of tables broken to merge their players into
+     * other tables.
+     * @return Number of tables broken.
+     */
+    public synchronized long getBrokenTables() {
+        return brokenTables;
+    }
+
+    /**
+     * Returns the number of tables that are being used.
+     * @return Number of open tables.
+     */
+    public synchronized int getOpenTables() {
+        return openTables;
+    }
+
+    /**
+     * Returns the average time spent settling and rebalancing a table
+     * after a game, during which the tournament is locked.
+     * @return Average time in nanoseconds.
+     */
+    public synchronized long getAverageCoordinationNanos() {
+        return games == 0? 0: coordinationNanos / games;
+    }
+
+    /**
+     * Returns the longest time spent settling and rebalancing a table
+     * after a game.
+     * @return Maximum time in nanoseconds.
+     */
+    public synchronized long getMaxCoordinationNanos() {
+        return maxCoordinationNanos;
+    }
+}
@@ -0,0 +1,475 @@
+package cardserver.web;
+
+import cardmodel.protocol.MessageType;
+import cardserver.Heartbeat;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Locale;
+
+/**
+ * WebSocket connection of a browser (RFC 6455), handled without blocking
+ * by the thread of the {@link WebSocketGateway}: the HTTP upgrade, the
+ * frames of the client (masked, not fragmented) and the frames sent to it.
+ * Each binary message carries one message of the game, encoded like the
+ * frames of {@link cardmodel.protocol.FrameChannel} without their length:
+ * the type (byte) followed by the payload. Only version 13 of the
+ * protocol is accepted, other versions are answered with the one
+ * supported.<br/><br/>
+ * An idle connection keeps no buffers: the bytes of an incomplete frame
+ * and the frames that the socket has not accepted yet are only kept
+ * while they exist.<br/><br/>
+ * The heartbeat of the server uses the ping frames of the protocol,
+ * which the browsers answer by themselves.
+ * @author Jose Valera
+ * @version 1.0
+ * @since 19/10/2026
+ */
+class WebSocketConnection {
+    static final int MAX_MESSAGE = 1024;
+
+    private static final String GUID = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
+    private static final String VERSION = "13";
+    private static final int MAX_REQUEST = 4096;
+    private static final int MAX_HEADER = 4;
+    private static final int MIN_OUTPUT = 512;
+
+    private static final int OP_CONTINUATION = 0x0;
+    private static final int OP_BINARY = 0x2;
+    private static final int OP_CLOSE = 0x8;
+    private static final int OP_PING = 0x9;
+    private static final int OP_PONG = 0xA;
+
+    static final int CLOSE_NORMAL = 1000;
+    static final int CLOSE_PROTOCOL_ERROR = 1002;
+    static final int CLOSE_UNSUPPORTED = 1003;
+    static final int CLOSE_TOO_BIG = 1009;
+    static final int CLOSE_TRY_AGAIN = 1013;
+
+    private final SocketChannel channel;
+    private final SelectionKey key;
+    private final WebSocketSeat seat;
+    private boolean upgraded;
+    private boolean closing;
+    private byte[] partial;
+    private ByteBuffer output;
+    private boolean blocked;
+    private long blockedSince;
+    private int frameStart = -1;
+    private long lastHeard = System.nanoTime();
+
+    WebSocketConnection(SocketChannel channel, SelectionKey key, WebSocketSeat seat) {
+        this.channel = channel;
+        this.key = key;
+        this.seat = seat;
+    }
+
+    /**
+     * Reads what the socket has received, using a buffer shared by all
+     * the connections, and passes the complete messages to the seat.
+     * @param buffer Buffer of the gateway, larger than any request or
+     *      frame accepted.
+     * @throws IOException If the socket fails.
+     */
+    void readable(ByteBuffer buffer) throws IOException {
+        buffer.clear();
+
+        if(partial != null) {
+            buffer.put(partial);
+            partial = null;
+        }
+
+        if(channel.read(buffer) < 0) {
+            close();
+            return;
+        }
+
+        lastHeard = System.nanoTime();
+
+        buffer.flip();
+
+        if(!upgraded)
+            readRequest(buffer);
+
+        if(upgraded)
+            readFrames(buffer);
+
+        if(buffer.hasRemaining() && channel.isOpen()) {
+            partial = new byte[buffer.remaining()];
+            buffer.get(partial);
+        }
+    }
+
+    private void readRequest(ByteBuffer buffer) throws IOException {
+        int end = findEnd(buffer);
+
+        if(end < 0) {
+            if(buffer.remaining() >= MAX_REQUEST)
+                reject("431 Request Header Fields Too Large");
+
+            return;
+        }
+
+        byte[] request = new byte[end - buffer.position()];
+        buffer.get(request);
+        buffer.position(end + 4);
+
+        String key = null;
+        String version = null;
+        boolean upgrade = false;
+        String[] lines = new String(request, StandardCharsets.ISO_8859_1).split("\r\n");
+
+        for (int i = 1; i < lines.length; i++) {
+            int colon = lines[i].indexOf(':');
+
+            if(colon < 0)
+                continue;
+
+            String name = lines[i].substring(0, colon).trim().toLowerCase(Locale.ROOT);
+            String value = lines[i].substring(colon + 1).trim();
+
+            if(name.equals("upgrade"))
+                upgrade = value.equalsIgnoreCase("websocket");
+
+            else if(name.equals("sec-websocket-key"))
+                key = value;
+
+            else if(name.equals("sec-websocket-version"))
+                version = value;
+        }
+
+        if(!lines[0].startsWith("GET ") || !upgrade || key == null) {
+            reject("400 Bad Request");
+            return;
+        }
+
+        if(!VERSION.equals(version)) {
+            reject("426 Upgrade Required\r\nSec-WebSocket-Version: " + VERSION);
+            return;
+        }
+
+        writeText("HTTP/1.1 101 Switching Protocols\r\n" +
+                "Upgrade: websocket\r\n" +
+                "Connection: Upgrade\r\n" +
+                "Sec-WebSocket-Accept: " + acceptKey(key) + "\r\n\r\n");
+        upgraded = true;
+        seat.upgraded();
+    }
+
+    private static int findEnd(ByteBuffer buffer) {
+        for (int i = buffer.position(); i + 3 < buffer.limit(); i++)
+            if(buffer.get(i) == '\r' && buffer.get(i + 1) == '\n' &&
+                    buffer.get(i + 2) == '\r' && buffer.get(i + 3) == '\n')
+                return i;
+
+        return -1;
+    }
+
+    private static String acceptKey(String key) {
+        try {
+            MessageDigest sha1 = MessageDigest.getInstance("SHA-1");
+            byte[] digest = sha1.digest((key + GUID).getBytes(StandardCharsets.ISO_8859_1));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void reject(String status) throws IOException {
+        writeText("HTTP/1.1 " + status + "\r\nContent-Length: 0\r\nConnection: close\r\n\r\n");
+        closing = true;
+        flush();
+    }
+
+    private void readFrames(ByteBuffer buffer) throws IOException {
+        while (buffer.remaining() >= 2 && !closing) {
+            int start = buffer.position();
+            int first = buffer.get(start) & 0xFF;
+            int second = buffer.get(start + 1) & 0xFF;
+            int opcode = first & 0x0F;
+            int length = second & 0x7F;
+            int header = 2;
+
+            if(length == 126) {
+                if(buffer.remaining() < 4)
+                    return;
+
+                length = buffer.getShort(start + 2) & 0xFFFF;
+                header = 4;
+            }
+
+            if((second & 0x80) == 0) {
+                close(CLOSE_PROTOCOL_ERROR);
+                return;
+            }
+
+            // Control frames carry at most 125 bytes.
+            if(opcode >= OP_CLOSE && length > 125) {
+                close(CLOSE_PROTOCOL_ERROR);
+                return;
+            }
+
+            if(length == 127 || length > MAX_MESSAGE) {
+                close(CLOSE_TOO_BIG);
+                return;
+            }
+
+            if(buffer.remaining() < header + 4 + length)
+                return;
+
+            byte[] payload = new byte[length];
+            int mask = start + header;
+
+            for (int i = 0; i < length; i++)
+                payload[i] = (byte) (buffer.get(mask + 4 + i) ^ buffer.get(mask + (i & 3)));
+
+            buffer.position(mask + 4 + length);
+
+            if((first & 0x80) == 0 || opcode == OP_CONTINUATION) {
+                close(CLOSE_UNSUPPORTED);
+                return;
+            }
+
+            switch (opcode) {
+                case OP_BINARY:
+                    if(length == 0) {
+                        close(CLOSE_PROTOCOL_ERROR);
+                        return;
+                    }
+
+                    seat.received(payload);
+                    break;
+
+                case OP_CLOSE:
+                    close(CLOSE_NORMAL);
+                    return;
+
+                case OP_PING:
+                    writeFrame(OP_PONG, payload);
+                    break;
+
+                case OP_PONG:
+                    break;
+
+                default:
+                    // Text messages are not part of the protocol.
+                    close(CLOSE_UNSUPPORTED);
+                    return;
+            }
+        }
+    }
+
+    /**
+     * Starts a binary message in the output and returns the buffer so
+     * that the payload is put directly into it. The message must be closed
+     * with {@link #end()}.
+     * @param type Type of the message.
+     * @param maxLength Maximum length of the payload.
+     * @return The output, positioned at the start of the payload.
+     */
+    ByteBuffer begin(MessageType type, int maxLength) {
+        reserve(MAX_HEADER + 1 + maxLength);
+        frameStart = output.position();
+        output.position(frameStart + MAX_HEADER);
+        output.put(type.getCode());
+
+        return output;
+    }
+
+    /*
+     * The header is written once the length is known. The length must be
+     * encoded with the fewest bytes, so short messages are moved back over
+     * the unused part of the header.
+     */
+    void end() {
+        int length = output.position() - frameStart - MAX_HEADER;
+
+        if(length <= 125) {
+            ByteBuffer message = output.duplicate();
+            message.position(frameStart + MAX_HEADER).limit(frameStart + MAX_HEADER + length);
+            output.position(frameStart);
+            output.put((byte) (0x80 | OP_BINARY)).put((byte) length).put(message);
+        }
+
+        else
+            output.put(frameStart, (byte) (0x80 | OP_BINARY))
+                  .put(frameStart + 1, (byte) 126)
+                  .putShort(frameStart + 2, (short) length);
+
+        frameStart = -1;
+    }
+
+    /**
+     * Adds a message without payload to the output.
+     * @param type Type of the message.
+     */
+    void write(MessageType type) {
+        begin(type, 0);
+        end();
+    }
+
+    /**
+     * Adds a message with a number to the output.
+     * @param type Type of the message.
+     * @param value Number of the message.
+     */
+    void write(MessageType type, long value) {
+        begin(type, Long.BYTES).putLong(value);
+        end();
+    }
+
+    private void writeFrame(int opcode, byte[] payload) {
+        reserve(2 + payload.length);
+        output.put((byte) (0x80 | opcode)).put((byte) payload.length).put(payload);
+    }
+
+    private void writeText(String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.ISO_8859_1);
+        reserve(bytes.length);
+        output.put(bytes);
+    }
+
+    private void reserve(int bytes) {
+        if(output == null)
+            output = ByteBuffer.allocate(Math.max(MIN_OUTPUT, bytes));
+
+        else if(output.remaining() < bytes) {
+            ByteBuffer larger = ByteBuffer.allocate(
+                    Math.max(output.capacity() * 2, output.position() + bytes));
+            output.flip();
+            larger.put(output);
+            output = larger;
+        }
+    }
+
+    /**
+     * Sends to the socket as much of the output as it accepts. The rest
+     * is sent when the socket is writable again.
+     * @throws IOException If the socket fails.
+     */
+    void flush() throws IOException {
+        if(output == null || !channel.isOpen())
+            return;
+
+        output.flip();
+        channel.write(output);
+
+        if(output.hasRemaining()) {
+            output.compact();
+            key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+
+            if(!blocked) {
+                blocked = true;
+                blockedSince = System.nanoTime();
+            }
+
+            return;
+        }
+
+        output = null;
+        blocked = false;
+
+        if(closing)
+            closeChannel();
+
+        else if(key.isValid())
+            key.interestOps(SelectionKey.OP_READ);
+    }
+
+    /**
+     * Checks the connection for the heartbeat: a client that has not been
+     * heard for an interval is sent a ping, and the connection of a client
+     * that has not been heard for too long is closed. The connections are
+     * read all the time, so any silence counts, also before the upgrade.
+     * A client that does not read what is sent to it (the output has
+     * waited for too long for the socket) is closed too, even while it
+     * is closing, since its close frame would never be sent.
+     * @param now Current time in nanoseconds.
+     * @param heartbeat Heartbeat of the server.
+     * @throws IOException If the socket fails.
+     */
+    void heartbeat(long now, Heartbeat heartbeat) throws IOException {
+        if(blocked && now - blockedSince >= heartbeat.getDeadNanos()) {
+            heartbeat.expired();
+            close();
+            return;
+        }
+
+        if(closing)
+            return;
+
+        long silence = now - lastHeard;
+
+        if(silence >= heartbeat.getDeadNanos()) {
+            heartbeat.expired();
+            close();
+        }
+
+        else if(silence >= heartbeat.getIntervalNanos() && upgraded && !blocked) {
+            heartbeat.pinged();
+            writeFrame(OP_PING, new byte[0]);
+            flush();
+        }
+    }
+
+    /**
+     * Sends a close frame and closes the connection once it has been
+     * sent.
+     * @param code Status code of the close frame.
+     * @throws IOException If the socket fails.
+     */
+    void close(int code) throws IOException {
+        if(closing)
+            return;
+
+        if(upgraded)
+            writeFrame(OP_CLOSE, new byte[] {(byte) (code >> 8), (byte) code});
+
+        closing = true;
+        flush();
+    }
+
+    /**
+     * Closes the connection immediately.
+     */
+    void close() {
+        closing = true;
+        closeChannel();
+    }
+
+    private void closeChannel() {
+        if(!channel.isOpen())
+            return;
+
+        output = null;
+        partial = null;
+        key.cancel();
+
+        try { channel.close(); } catch (IOException e) {}
+
+        seat.closed();
+    }
+
+    /**
+     * Returns the address of the client.
+     * @return IP address of the client.
+     */
+    InetAddress getRemoteAddress() {
+        return channel.socket().getInetAddress();
+    }
+
+    /**
+     * Checks if the connection has been closed or is being closed.
+     * @return true if no more messages are accepted.
+     */
+    boolean isClosing() {
+        return closing;
+    }
+}
@@ -0,0 +1,258 @@
+package cardserver.web;
+
+import cardserver.AdmissionControl;
+import cardserver.Heartbeat;
+import cardserver.ServerConfig;
+import cardserver.Table;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Embedded WebSocket endpoint for the browser clients: a single thread
+ * with a selector accepts the connections, upgrades them, reads and
+ * writes their frames and runs the steps of their seats
+ * ({@link WebSocketSeat}), so an idle connection only costs its socket
+ * and a few small objects.<br/><br/>
+ * The connections follow the same admission as those of the players of
+ * the JavaFX client (rate by IP address and maximum of seats, see
+ * {@link AdmissionControl}): the rejected ones receive a BUSY message and
+ * are closed. The admitted ones wait for a seat once they have sent their
+ * HELLO message, and are turned away with BUSY if the table is completed
+ * before (see {@link #closeSeating()}).<br/><br/>
+ * With the heartbeat of the server, the thread also checks all its
+ * connections in each interval of the heartbeat and closes the dead
+ * ones.<br/><br/>
+ * It does not support TLS (wss): in production it goes behind a proxy
+ * that terminates it.
+ * @author Jose Valera
+ * @version 1.0
+ * @since 19/10/2026
+ */
+public class WebSocketGateway extends Thread {
+    private static final int READ_BUFFER = 16384;
+
+    private final Selector selector;
+    private final ServerSocketChannel server;
+    private final Table table;
+    private final AdmissionControl admission;
+    private final BlockingQueue<WebSocketSeat> arrivals = new LinkedBlockingQueue<>();
+    private final Queue<WebSocketSeat> woken = new ConcurrentLinkedQueue<>();
+    private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(READ_BUFFER);
+    private final AtomicInteger connections = new AtomicInteger();
+    private final AtomicLong upgraded = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private volatile boolean open = true;
+    private volatile Heartbeat heartbeat;
+    private volatile boolean sweepPending;
+    private volatile boolean seatingClosed;
+
+    /**
+     * Constructor that opens the endpoint.
+     * @param port Port in which the endpoint listens.
+     * @param table Table at which the players are seated.
+     * @param admission Admission shared with the players of the JavaFX
+     *      client.
+     * @throws IOException If the port can not be opened.
+     */
+    public WebSocketGateway(int port, Table table, AdmissionControl admission)
+            throws IOException {
+        super("WebSocket-gateway");
+        this.table = table;
+        this.admission = admission;
+        selector = Selector.open();
+        server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress(port), ServerConfig.getBacklog());
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+        setDaemon(true);
+    }
+
+    /**
+     * Serves the connections until the endpoint is closed.
+     */
+    @Override
+    public void run() {
+        try {
+            while (open) {
+                selector.select();
+
+                WebSocketSeat seat;
+
+                while ((seat = woken.poll()) != null)
+                    seat.run();
+
+                if(seatingClosed)
+                    while ((seat = arrivals.poll()) != null)
+                        seat.turnAway();
+
+                if(sweepPending) {
+                    sweepPending = false;
+                    sweep();
+                }
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+
+                    if(!key.isValid())
+                        continue;
+
+                    if(key.isAcceptable())
+                        accept();
+
+                    else {
+                        seat = (WebSocketSeat) key.attachment();
+
+                        if(key.isWritable())
+                            seat.writable();
+
+                        if(key.isValid() && key.isReadable())
+                            seat.readable(readBuffer);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("WebSocket: " + e);
+        } finally {
+            closeAll();
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+
+        while ((channel = server.accept()) != null) {
+            try {
+                ServerConfig.configure(channel.socket());
+                channel.configureBlocking(false);
+            } catch (IOException e) {
+                try { channel.close(); } catch (IOException ex) {}
+                continue;
+            }
+
+            WebSocketSeat seat = new WebSocketSeat(this, table);
+            SelectionKey key = channel.register(selector, SelectionKey.OP_READ, seat);
+            seat.attach(new WebSocketConnection(channel, key, seat));
+            connections.incrementAndGet();
+        }
+    }
+
+    private void sweep() {
+        long now = System.nanoTime();
+
+        for (SelectionKey key : selector.keys())
+            if(key.isValid() && key.attachment() instanceof WebSocketSeat)
+                ((WebSocketSeat) key.attachment()).heartbeat(now, heartbeat);
+    }
+
+    private void closeAll() {
+        for (SelectionKey key : selector.keys())
+            try { key.channel().close(); } catch (IOException e) {}
+
+        try { selector.close(); } catch (IOException e) {}
+    }
+
+    /**
+     * Takes the next player waiting for a seat, if any.
+     * @return Seat of the player, or null if none is waiting.
+     */
+    public WebSocketSeat poll() {
+        return arrivals.poll();
+    }
+
+    /**
+     * Checks the connections with the heartbeat of the server. The timer
+     * of the heartbeat only asks for the check, which is done by the
+     * thread of the gateway.
+     * @param heartbeat Heartbeat of the server.
+     */
+    public void setHeartbeat(Heartbeat heartbeat) {
+        this.heartbeat = heartbeat;
+        heartbeat.addSweep(() -> {
+            sweepPending = true;
+            selector.wakeup();
+        });
+    }
+
+    /**
+     * Turns away the players waiting for a seat, and the ones that arrive
+     * later, because all the seats of the table are taken.
+     */
+    public void closeSeating() {
+        seatingClosed = true;
+        selector.wakeup();
+    }
+
+    /**
+     * Stops serving the connections and closes them.
+     */
+    public void close() {
+        open = false;
+        selector.wakeup();
+    }
+
+    /*
+     * Called from any thread: the seat runs in the thread of the gateway.
+     */
+    void wake(WebSocketSeat seat) {
+        woken.add(seat);
+        selector.wakeup();
+    }
+
+    boolean admit(WebSocketSeat seat) {
+        upgraded.incrementAndGet();
+
+        if(admission.admit(seat.getRemoteAddress()))
+            return true;
+
+        rejected.incrementAndGet();
+        return false;
+    }
+
+    void arrived(WebSocketSeat seat) {
+        if(seatingClosed)
+            seat.turnAway();
+
+        else
+            arrivals.add(seat);
+    }
+
+    boolean withdraw(WebSocketSeat seat) {
+        return arrivals.remove(seat);
+    }
+
+    void release() {
+        admission.releaseSeat();
+    }
+
+    void disconnected() {
+        connections.decrementAndGet();
+    }
+
+    /**
+     * Returns a text with the counters of the endpoint.
+     * @return Text with the counters.
+     */
+    @Override
+    public String toString() {
+        return "open=" + connections.get() +
+                " upgraded=" + upgraded.get() +
+                " rejected=" + rejected.get() +
+                " waiting=" + arrivals.size();
+    }
+}
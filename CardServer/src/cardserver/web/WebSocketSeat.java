@@ -0,0 +1,568 @@
+package cardserver.web;
+
+import cardmodel.Rules;
+import cardmodel.protocol.MessageType;
+import cardserver.DeckSeeds;
+import cardserver.Heartbeat;
+import cardserver.Seat;
+import cardserver.SeatState;
+import cardserver.ServerConfig;
+import cardserver.Table;
+import cardserver.chips.ChipLedger;
+import cardserver.fairness.ShuffleStats;
+import cardserver.integrity.IntegrityMonitor;
+import cardserver.jfr.CardDealtEvent;
+import cardserver.jfr.ConnectionErrorEvent;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Seat of a player connected through the {@link WebSocketGateway}. It
+ * plays the same game as a {@link cardserver.ServerThread}, with the same
+ * messages and in the same order, but without a thread: each step runs
+ * on the thread of the gateway when a message of the player arrives or
+ * when the table changes, and goes on until it has to wait again.
+ * <br/><br/>
+ * The messages of the player that arrive before they are expected (like
+ * the bet of the next game, sent with the answer to the retry) wait in
+ * the inbox of the seat, in order.
+ * @author Jose Valera
+ * @version 1.0
+ * @since 19/10/2026
+ */
+public class WebSocketSeat implements Seat {
+    private static final int MAX_NAME_LENGTH = 32;
+    private static final int MAX_INBOX = 8;
+
+    /*
+     * Steps of the seat, each one waiting for something: a message of the
+     * player, its seat, or a phase of its seat or of the table.
+     */
+    private enum Step {
+        HANDSHAKE, HELLO, SEATING, READY, BET, MORE_CARDS, RESULT, RETRY, NEXT_GAME, LEFT
+    }
+
+    private final WebSocketGateway gateway;
+    private final Table table;
+    private final Rules rules;
+    private final ChipLedger ledger;
+    private final IntegrityMonitor integrity;
+    private volatile SeatState seatState;
+    private final AtomicBoolean queued = new AtomicBoolean();
+    private WebSocketConnection connection;
+    private ArrayDeque<byte[]> inbox;
+    private Step step = Step.HANDSHAKE;
+    private volatile int numPlayer;
+    private volatile String playerName;
+    private volatile String playerKey = "";
+    private volatile long bet;
+    private volatile byte[] gameResult;
+    private volatile int seat;
+    private Runnable onLeave;
+    private ShuffleStats.Recorder shuffleRecorder;
+    private long askedNanos;
+    private int baseHalfPoints;
+    private int wildCards;
+    private int round;
+    private boolean lost;
+
+    WebSocketSeat(WebSocketGateway gateway, Table table) {
+        this.gateway = gateway;
+        this.table = table;
+        rules = table.getRules();
+        ledger = table.getLedger();
+        integrity = table.getIntegrityMonitor();
+    }
+
+    void attach(WebSocketConnection connection) {
+        this.connection = connection;
+    }
+
+    /**
+     * Sets the action executed when the player leaves the game, like
+     * freeing its seat.
+     * @param onLeave Action executed when the player leaves.
+     */
+    public void setOnLeave(Runnable onLeave) {
+        this.onLeave = onLeave;
+    }
+
+    /**
+     * Gives the player its seat: it receives the rules and its chips and
+     * waits for the table like the rest of the players.
+     * @param numPlayer Identification number in the game for the player.
+     */
+    public void join(int numPlayer) {
+        this.numPlayer = numPlayer;
+        wake();
+    }
+
+    @Override
+    public String getPlayerName() {
+        return playerName;
+    }
+
+    @Override
+    public void setSeatState(SeatState seatState) {
+        this.seatState = seatState;
+    }
+
+    @Override
+    public long getBet() {
+        return bet;
+    }
+
+    @Override
+    public void publishResult(byte[] gameResult, int seat) {
+        this.seat = seat;
+        this.gameResult = gameResult;
+
+        if(!seatState.transition(SeatState.Phase.DONE, SeatState.Phase.RESULT))
+            seatState.forcePhase(SeatState.Phase.RESULT);
+
+        wake();
+    }
+
+    @Override
+    public void tableChanged() {
+        wake();
+    }
+
+    /**
+     * Return true if have Connection errors.
+     * @return true if have Connection errors.
+     */
+    public boolean isConnectionErrors() {
+        return lost;
+    }
+
+    private void wake() {
+        if(queued.compareAndSet(false, true))
+            gateway.wake(this);
+    }
+
+    /*
+     * Called by the gateway, in its thread, for the wakes of the table.
+     */
+    void run() {
+        queued.set(false);
+        advance();
+    }
+
+    void readable(ByteBuffer buffer) {
+        try {
+            connection.readable(buffer);
+        } catch (IOException e) {
+            connection.close();
+        }
+
+        advance();
+    }
+
+    void heartbeat(long now, Heartbeat heartbeat) {
+        try {
+            connection.heartbeat(now, heartbeat);
+        } catch (IOException e) {
+            connection.close();
+        }
+    }
+
+    void writable() {
+        try {
+            connection.flush();
+        } catch (IOException e) {
+            connection.close();
+        }
+    }
+
+    InetAddress getRemoteAddress() {
+        return connection.getRemoteAddress();
+    }
+
+    void upgraded() {
+        if(gateway.admit(this))
+            step = Step.HELLO;
+
+        else {
+            connection.write(MessageType.BUSY);
+            close(WebSocketConnection.CLOSE_TRY_AGAIN);
+        }
+    }
+
+    void received(byte[] message) {
+        if(step == Step.LEFT || isConnectionErrors())
+            return;
+
+        try {
+            // The heartbeat uses the ping frames of the protocol instead.
+            if(MessageType.of(message[0]).isHeartbeat())
+                return;
+        } catch (IllegalArgumentException e) {
+            close(WebSocketConnection.CLOSE_PROTOCOL_ERROR);
+            return;
+        }
+
+        if(inbox == null)
+            inbox = new ArrayDeque<>();
+
+        if(inbox.size() >= MAX_INBOX) {
+            close(WebSocketConnection.CLOSE_PROTOCOL_ERROR);
+            return;
+        }
+
+        inbox.add(message);
+    }
+
+    /*
+     * A connection closed before its player is seated only frees its
+     * place. Once seated, the player goes on without connection, like a
+     * ServerThread with connection errors, so the table is not blocked.
+     */
+    void closed() {
+        inbox = null;
+        gateway.disconnected();
+
+        if(step == Step.HANDSHAKE || step == Step.LEFT)
+            step = Step.LEFT;
+
+        else if(step == Step.HELLO || (step == Step.SEATING && gateway.withdraw(this))) {
+            step = Step.LEFT;
+            gateway.release();
+        }
+
+        else if(!isConnectionErrors()) {
+            showConnectionError("Connection closed by the client.");
+            wake();
+        }
+    }
+
+    /*
+     * The table has no seat left for a player that was waiting for one.
+     */
+    void turnAway() {
+        step = Step.LEFT;
+        gateway.release();
+        connection.write(MessageType.BUSY);
+        close(WebSocketConnection.CLOSE_TRY_AGAIN);
+    }
+
+    private void close(int code) {
+        try {
+            connection.close(code);
+        } catch (IOException e) {
+            connection.close();
+        }
+    }
+
+    private void advance() {
+        while (step()) {
+            // Each step returns false when it has to wait.
+        }
+
+        writable();
+    }
+
+    private boolean step() {
+        switch (step) {
+            case HELLO:
+                return readPlayerName();
+
+            case SEATING:
+                return startSession();
+
+            case READY:
+                if(seatState.getPhase() == SeatState.Phase.READY)
+                    return false;
+
+                step = Step.BET;
+                return true;
+
+            case BET:
+                return placeBet();
+
+            case MORE_CARDS:
+                return askForCard();
+
+            case RESULT:
+                if(seatState.getPhase() != SeatState.Phase.RESULT)
+                    return false;
+
+                sendResult();
+                sendChips();
+                step = Step.RETRY;
+                return true;
+
+            case RETRY:
+                return askForRetry();
+
+            case NEXT_GAME:
+                return waitForRetry();
+
+            default:
+                return false;
+        }
+    }
+
+    private boolean readPlayerName() {
+        byte[] message = nextMessage();
+
+        if(message == null)
+            return false;
+
+        if(MessageType.of(message[0]) == MessageType.HELLO) {
+            String hello = new String(message, 1, message.length - 1,
+                    StandardCharsets.UTF_8);
+            int line = hello.indexOf('\n');
+            String name = (line < 0? hello: hello.substring(0, line)).trim();
+
+            if(line >= 0)
+                playerKey = hello.substring(line + 1).trim();
+
+            if(!name.isEmpty())
+                playerName = name.length() > MAX_NAME_LENGTH?
+                        name.substring(0, MAX_NAME_LENGTH):
+                        name;
+        }
+
+        step = Step.SEATING;
+        gateway.arrived(this);
+        return false;
+    }
+
+    private boolean startSession() {
+        if(numPlayer == 0)
+            return false;
+
+        playerName = table.claimName(playerName == null?
+                "Player " + numPlayer:
+                playerName, playerKey);
+
+        showDebuggerMessage("Joined as " + playerName + " (WebSocket).");
+
+        // Lost while it was being seated, before having its state.
+        if(lost)
+            seatState.markError();
+
+        if(table.getShuffleStats() != null)
+            shuffleRecorder = table.getShuffleStats().recorder();
+
+        if(!isConnectionErrors()) {
+            rules.encode(connection.begin(MessageType.RULES, rules.encodedSize()));
+            connection.end();
+            sendChips();
+        }
+
+        resetData();
+        step = Step.READY;
+        return true;
+    }
+
+    private void resetData() {
+        seatState.shuffle(DeckSeeds.forPlayer(numPlayer, round));
+
+        if(shuffleRecorder != null)
+            shuffleRecorder.newDeck();
+
+        bet = 0;
+        baseHalfPoints = 0;
+        wildCards = 0;
+        gameResult = null;
+        seatState.startGame();
+    }
+
+    private boolean placeBet() {
+        if(!isConnectionErrors()) {
+            byte[] message = nextMessage();
+
+            if(message == null)
+                return false;
+
+            MessageType type = MessageType.of(message[0]);
+
+            if(type != MessageType.BET || message.length != 1 + Long.BYTES)
+                showConnectionError("Bet expected, received " + type + ".");
+
+            else {
+                long amount = Math.min(
+                        Math.max(ByteBuffer.wrap(message, 1, Long.BYTES).getLong(), 0),
+                        ServerConfig.getMaxBet());
+
+                if(ledger.placeBet(playerName, amount))
+                    bet = amount;
+
+                showDebuggerMessage("Bet -> " + bet);
+            }
+        }
+
+        if(isConnectionErrors())
+            finishGame();
+
+        else
+            dealCard();
+
+        return true;
+    }
+
+    private void dealCard() {
+        int id = seatState.nextCard();
+
+        // The deck has run out, the game ends with the cards dealt.
+        if(id < 0) {
+            finishGame();
+            return;
+        }
+
+        if(shuffleRecorder != null)
+            shuffleRecorder.dealt(id);
+
+        if(rules.isWild(id))
+            wildCards++;
+
+        else
+            baseHalfPoints += rules.halfPoints(id);
+
+        long word = seatState.setHalfPoints(rules.score(baseHalfPoints, wildCards));
+        CardDealtEvent.emit(numPlayer, id, SeatState.total(word));
+        connection.begin(MessageType.CARD, 1).put((byte) id);
+        connection.end();
+        showDebuggerMessage("Total value -> " + SeatState.total(word));
+
+        if(SeatState.halfPoints(word) >= rules.getTarget())
+            finishGame();
+
+        else {
+            askedNanos = System.nanoTime();
+            step = Step.MORE_CARDS;
+        }
+    }
+
+    private boolean askForCard() {
+        if(!isConnectionErrors()) {
+            byte[] message = nextMessage();
+
+            if(message == null)
+                return false;
+
+            MessageType answer = MessageType.of(message[0]);
+            showDebuggerMessage("More cards? -> " + answer);
+
+            if(integrity != null)
+                integrity.decision(playerName, answer == MessageType.YES,
+                        askedNanos, System.nanoTime());
+
+            if(answer == MessageType.YES) {
+                dealCard();
+                return true;
+            }
+        }
+
+        finishGame();
+        return true;
+    }
+
+    private void finishGame() {
+        seatState.transition(SeatState.Phase.PLAYING, SeatState.Phase.DONE);
+        step = Step.RESULT;
+    }
+
+    private void sendResult() {
+        if(isConnectionErrors())
+            return;
+
+        connection.begin(MessageType.RESULT, 1 + gameResult.length)
+                .put((byte) seat)
+                .put(gameResult);
+        connection.end();
+    }
+
+    private void sendChips() {
+        if(!isConnectionErrors())
+            connection.write(MessageType.CHIPS, ledger.balance(playerName));
+    }
+
+    private boolean askForRetry() {
+        MessageType answer = null;
+
+        if(!isConnectionErrors()) {
+            byte[] message = nextMessage();
+
+            if(message == null)
+                return false;
+
+            answer = MessageType.of(message[0]);
+            showDebuggerMessage("Retry -> " + answer);
+        }
+
+        seatState.transition(
+                SeatState.Phase.RESULT,
+                answer == MessageType.YES ?
+                        SeatState.Phase.RETRY_YES :
+                        SeatState.Phase.RETRY_NO);
+        step = Step.NEXT_GAME;
+        return true;
+    }
+
+    private boolean waitForRetry() {
+        long tableState = table.getState();
+        Table.Phase phase = Table.phase(tableState);
+        boolean repeatGame = Table.round(tableState) > round || phase == Table.Phase.REPEAT;
+
+        if(!repeatGame && phase != Table.Phase.FINISH)
+            return false;
+
+        if(!isConnectionErrors())
+            connection.write(repeatGame? MessageType.RETRY: MessageType.FINISH);
+
+        round++;
+
+        if(repeatGame) {
+            resetData();
+            step = Step.READY;
+            return true;
+        }
+
+        leave();
+        return false;
+    }
+
+    private void leave() {
+        step = Step.LEFT;
+        close(WebSocketConnection.CLOSE_NORMAL);
+
+        if(shuffleRecorder != null)
+            shuffleRecorder.merge();
+
+        showDebuggerMessage("Left the game.");
+
+        if(onLeave != null)
+            onLeave.run();
+    }
+
+    private byte[] nextMessage() {
+        return inbox == null? null: inbox.poll();
+    }
+
+    private void showConnectionError(String message) {
+        System.err.println("Player " + numPlayer + ": " + message);
+        ConnectionErrorEvent.emit(numPlayer, message);
+        lost = true;
+
+        // The player goes on without connection, so nothing else is sent
+        // nor answered (also the pings).
+        close(WebSocketConnection.CLOSE_PROTOCOL_ERROR);
+
+        if(step != Step.SEATING)
+            seatState.markError();
+
+        table.reportBuggyPlayer();
+    }
+
+    private void showDebuggerMessage(String message) {
+        System.out.println("Player " + numPlayer + ": " + message);
+    }
+}
@@ -0,0 +1,4 @@
+module CardServer {
+    requires CardModel;
+    requires jdk.jfr;
+}
@@ -0,0 +1,165 @@
+package cardserver.tools;
+
+import cardmodel.Rules;
+import cardmodel.protocol.GameResult;
+import cardserver.Table;
+import cardserver.bots.BotSeat;
+import cardserver.bots.BotStrategy;
+import cardserver.chips.ChipLedger;
+import cardserver.players.PlayerStore;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Load test of the bots of the server: fills many tables only with bots,
+ * all of them on one small shared executor, plays a number of games at
+ * each table and prints the games per second, the threads and the memory
+ * used per bot, and whether the chips are conserved. The tables keep
+ * their own thread, the bots have none.<br/><br/>
+ * Usage: BotTables [tables] [seats per table] [games] [bot threads]
+ * [threshold|odds] [variant]
+ * @author Jose Valera
+ * @version 1.0
+ * @since 19/10/2026
+ */
+public class BotTables {
+    private static final long INITIAL_CHIPS = 1000;
+    private static final long BET = 10;
+    private static final int SETTLE_COLLECTIONS = 10;
+
+    /**
+     * Plays the games and prints the results.
+     * @param args Number of tables, seats per table, games, threads of
+     *      the bots, strategy and variant.
+     * @throws Exception If the stores can not be created or the test is
+     *      interrupted.
+     */
+    public static void main(String[] args) throws Exception {
+        int tables = args.length > 0? Integer.parseInt(args[0]): 200;
+        int seats = args.length > 1? Integer.parseInt(args[1]): 100;
+        int games = args.length > 2? Integer.parseInt(args[2]): 20;
+        int threads = args.length > 3? Integer.parseInt(args[3]): 2;
+        boolean odds = args.length > 4 && args[4].equalsIgnoreCase("odds");
+        Rules rules = Rules.load(args.length > 5? args[5]: "classic");
+
+        if(seats > GameResult.MAX_SEATS) {
+            System.out.println("A table has at most " + GameResult.MAX_SEATS + " seats.");
+            return;
+        }
+
+        Path dir = Files.createTempDirectory("bot-tables");
+        PlayerStore playerStore = new PlayerStore(
+                dir.resolve("players.db"), tables * seats, 1000);
+        ChipLedger ledger = new ChipLedger(
+                dir.resolve("chips.journal"), INITIAL_CHIPS, 1000);
+        ScheduledExecutorService executor = BotSeat.newExecutor(threads);
+        BotStrategy strategy = odds?
+                BotStrategy.odds(0.5):
+                BotStrategy.threshold(11);
+
+        long heapBefore = usedHeap();
+        int threadsBefore = Thread.activeCount();
+        AtomicInteger leftBots = new AtomicInteger();
+        Table[] allTables = new Table[tables];
+
+        for (int t = 0; t < tables; t++) {
+            allTables[t] = new Table(seats, playerStore, ledger, rules, null, null, null);
+
+            for (int s = 0; s < seats; s++) {
+                BotSeat bot = new BotSeat(t * seats + s + 1, allTables[t], strategy,
+                        executor, BET, 0, games);
+                bot.setOnLeave(leftBots::incrementAndGet);
+                allTables[t].seat(s, bot);
+                bot.start();
+            }
+        }
+
+        long heapAfter = usedHeap();
+        int bots = tables * seats;
+        System.out.printf("%d bots at %d tables (%s) on %d threads: %.0f bytes per bot%n",
+                bots, tables, strategy, threads,
+                (double) (heapAfter - heapBefore) / bots);
+
+        // The tables and the bots report every card and game.
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        CountDownLatch finished = new CountDownLatch(tables);
+        long start = System.nanoTime();
+
+        for (Table table : allTables) {
+            Thread thread = new Thread(() -> {
+                table.play();
+                finished.countDown();
+            }, "Table");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        TimeUnit.MILLISECONDS.sleep(500);
+        int threadsPlaying = Thread.activeCount() - threadsBefore;
+        finished.await();
+        long elapsed = System.nanoTime() - start;
+        System.setOut(out);
+
+        executor.shutdown();
+        playerStore.close();
+        ledger.close();
+
+        System.out.printf("%d games in %d ms: %.0f games per second, %.0f bot hands " +
+                        "per second%n",
+                (long) tables * games,
+                TimeUnit.NANOSECONDS.toMillis(elapsed),
+                tables * games / (elapsed / 1e9),
+                (double) bots * games / (elapsed / 1e9));
+        System.out.println("Threads while playing: " + threadsPlaying +
+                " (" + tables + " tables, " + threads + " for all the bots)");
+
+        boolean ok = check("all the bots left", leftBots.get() == bots);
+        ok &= check("chips conserved", ledger.total() == 0);
+        ok &= check("escrow empty", ledger.getEscrow() == 0);
+
+        for (String file : new String[] {"players.db", "chips.journal", "chips.journal.keys"})
+            Files.deleteIfExists(dir.resolve(file));
+
+        Files.deleteIfExists(dir);
+        System.out.println(ok? "PASSED": "FAILED");
+
+        if(!ok)
+            System.exit(1);
+    }
+
+    /*
+     * Collects until the used heap stops going down, since one collection
+     * may leave garbage of the previous steps and make the figure negative.
+     */
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+
+        for (int i = 0; i < SETTLE_COLLECTIONS; i++) {
+            System.gc();
+            TimeUnit.MILLISECONDS.sleep(20);
+            long current = runtime.totalMemory() - runtime.freeMemory();
+
+            if(current >= used)
+                break;
+
+            used = current;
+        }
+
+        return used;
+    }
+
+    private static boolean check(String invariant, boolean met) {
+        System.out.println(invariant + ": " + (met? "OK": "VIOLATED"));
+        return met;
+    }
+}
@@ -0,0 +1,100 @@
+package cardserver.tools;
+
+import cardmodel.protocol.FrameChannel;
+import cardmodel.protocol.MessageType;
+
+import java.io.IOException;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Harness that floods a local server with connections to check its
+ * admission control. Each connection is classified as:<br/>
+ * - admitted: the server keeps it open waiting for the game,<br/>
+ * - busy: the server answers with a BUSY message,<br/>
+ * - failed: the connection is refused or closed without message.
+ * <br/><br/>
+ * Usage: ConnectionFlood [host] [port] [connections] [threads]
+ * @author Jose Valera
+ * @version 1.0
+ * @since 19/10/2026
+ */
+public class ConnectionFlood {
+    private static final int ANSWER_TIMEOUT = 2000;
+
+    private static final AtomicInteger admitted = new AtomicInteger();
+    private static final AtomicInteger busy = new AtomicInteger();
+    private static final AtomicInteger failed = new AtomicInteger();
+    private static final List<Socket> openSockets = new ArrayList<>();
+
+    /**
+     * Opens the connections and prints how the server has treated them.
+     * @param args Host, port, number of connections and number of threads.
+     * @throws InterruptedException If the harness is interrupted.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        String host = args.length > 0? args[0]: "localhost";
+        int port = args.length > 1? Integer.parseInt(args[1]): 7000;
+        int connections = args.length > 2? Integer.parseInt(args[2]): 500;
+        int threads = args.length > 3? Integer.parseInt(args[3]): 32;
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+
+        for (int i = 0; i < connections; i++)
+            pool.execute(() -> connect(host, port));
+
+        pool.shutdown();
+        pool.awaitTermination(1, TimeUnit.MINUTES);
+        long elapsed = System.nanoTime() - start;
+
+        System.out.printf("%d connections in %d ms -> admitted=%d busy=%d failed=%d%n",
+                connections,
+                TimeUnit.NANOSECONDS.toMillis(elapsed),
+                admitted.get(), busy.get(), failed.get());
+
+        synchronized (openSockets) {
+            for (Socket socket : openSockets)
+                try { socket.close(); } catch (IOException e) {}
+        }
+    }
+
+    private static void connect(String host, int port) {
+        Socket socket = null;
+
+        try {
+            socket = new Socket(host, port);
+            socket.setSoTimeout(ANSWER_TIMEOUT);
+            FrameChannel channel = new FrameChannel(socket, 64);
+
+            if(channel.read() == MessageType.BUSY) {
+                busy.incrementAndGet();
+                socket.close();
+            }
+
+            else
+                keepOpen(socket);
+        } catch (SocketTimeoutException e) {
+            keepOpen(socket);
+        } catch (IOException e) {
+            failed.incrementAndGet();
+
+            if(socket != null)
+                try { socket.close(); } catch (IOException ex) {}
+        }
+    }
+
+    private static void keepOpen(Socket socket) {
+        admitted.incrementAndGet();
+
+        synchronized (openSockets) {
+            openSockets.add(socket);
+        }
+    }
+}
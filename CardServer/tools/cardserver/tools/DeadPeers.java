@@ -0,0 +1,201 @@
+package cardserver.tools;
+
+import cardmodel.protocol.FrameChannel;
+import cardmodel.protocol.MessageType;
+
+import java.io.IOException;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fault injection for the heartbeat of the server: some players go
+ * silent in the middle of the game, without closing their connection,
+ * like a client whose laptop is closed. They keep their socket open but
+ * answer nothing, not even the PINGs. The rest of the players play
+ * normally.<br/><br/>
+ * The even dropped players go silent at their first card, while the
+ * server waits for their decision, and the odd ones at the question of
+ * the retry, once the game is over. The test passes if the server closes
+ * the connection of every silent player and the rest of the players
+ * finish the game, all of it within the limit.<br/><br/>
+ * The server must be started for exactly these players, for example:
+ * <br/><br/>
+ * java -Dcardserver.heartbeatMillis=1000 -Dcardserver.heartbeatMisses=3
+ * ... cardserver.ServerMain 4<br/>
+ * java ... cardserver.tools.DeadPeers localhost 7000 4 2<br/><br/>
+ * Usage: DeadPeers host port [players] [dropped] [limit ms]
+ * @author Jose Valera
+ * @version 1.0
+ * @since 19/10/2026
+ */
+public class DeadPeers {
+    private static final int BUFFER_SIZE = 1024;
+    private static final long BET = 10;
+
+    /**
+     * Connects the players, runs the game and prints how long the server
+     * took to free the seats of the silent players.
+     * @param args Host, port, number of players, silent players and limit.
+     * @throws Exception If the test is interrupted.
+     */
+    public static void main(String[] args) throws Exception {
+        if(args.length < 2) {
+            System.out.println("Usage: DeadPeers host port [players] [dropped] [limit ms]");
+            return;
+        }
+
+        String host = args[0];
+        int port = Integer.parseInt(args[1]);
+        int players = args.length > 2? Integer.parseInt(args[2]): 4;
+        int dropped = args.length > 3? Integer.parseInt(args[3]): 1;
+        long limit = args.length > 4? Long.parseLong(args[4]): 10000;
+
+        List<Peer> peers = new ArrayList<>();
+
+        for (int i = 0; i < players; i++) {
+            Drop drop = i >= dropped? Drop.NEVER: i % 2 == 0? Drop.AT_CARD: Drop.AT_RETRY;
+            Peer peer = new Peer(host, port, i + 1, drop, (int) limit * 2);
+            peers.add(peer);
+            peer.start();
+        }
+
+        long lastDrop = 0;
+
+        for (Peer peer : peers) {
+            peer.join();
+            lastDrop = Math.max(lastDrop, peer.droppedNanos);
+        }
+
+        boolean ok = true;
+
+        for (Peer peer : peers) {
+            long millis;
+            boolean met;
+
+            if(peer.drop != Drop.NEVER) {
+                millis = TimeUnit.NANOSECONDS.toMillis(peer.endNanos - peer.droppedNanos);
+                met = peer.droppedNanos > 0 && peer.closedByServer && millis <= limit;
+                System.out.printf("%s: silent %s, connection closed by the server after %d ms%s%n",
+                        peer.getName(), peer.drop, millis, met? "": " (" + peer.failure + ")");
+            }
+
+            else {
+                millis = TimeUnit.NANOSECONDS.toMillis(peer.endNanos - lastDrop);
+                met = peer.finished && millis <= limit;
+                System.out.printf("%s: game finished %d ms after the last silence%s%n",
+                        peer.getName(), millis, met? "": " (" + peer.failure + ")");
+            }
+
+            ok &= met;
+        }
+
+        System.out.println(ok? "PASSED": "FAILED");
+
+        if(!ok)
+            System.exit(1);
+    }
+
+    private enum Drop {
+        NEVER, AT_CARD, AT_RETRY
+    }
+
+    /*
+     * Player that stands on its first card and does not repeat the game,
+     * or that goes silent at some point of it.
+     */
+    private static class Peer extends Thread {
+        private final String host;
+        private final int port;
+        private final Drop drop;
+        private final int timeout;
+        private long droppedNanos;
+        private long endNanos;
+        private boolean closedByServer;
+        private boolean finished;
+        private String failure = "no answer";
+
+        private Peer(String host, int port, int number, Drop drop, int timeout) {
+            super("peer-" + number);
+            this.host = host;
+            this.port = port;
+            this.drop = drop;
+            this.timeout = timeout;
+        }
+
+        @Override
+        public void run() {
+            try (Socket socket = new Socket(host, port)) {
+                socket.setTcpNoDelay(true);
+                socket.setSoTimeout(timeout);
+                FrameChannel channel = new FrameChannel(socket, BUFFER_SIZE);
+                channel.write(MessageType.HELLO, getName());
+                channel.write(MessageType.BET, BET);
+                channel.flush();
+                play(channel);
+            } catch (IOException e) {
+                failure = e.toString();
+            }
+
+            endNanos = System.nanoTime();
+        }
+
+        private void play(FrameChannel channel) throws IOException {
+            while (true) {
+                MessageType type;
+
+                try {
+                    type = channel.read();
+                } catch (IOException e) {
+                    closedByServer = droppedNanos > 0;
+                    failure = e.toString();
+                    return;
+                }
+
+                if(droppedNanos > 0)
+                    continue;
+
+                switch (type) {
+                    case PING:
+                        answer(channel, MessageType.PONG);
+                        break;
+
+                    case CARD:
+                        if(drop == Drop.AT_CARD)
+                            droppedNanos = System.nanoTime();
+
+                        else
+                            answer(channel, MessageType.NO);
+
+                        break;
+
+                    case RESULT:
+                        if(drop == Drop.AT_RETRY)
+                            droppedNanos = System.nanoTime();
+
+                        else
+                            answer(channel, MessageType.NO);
+
+                        break;
+
+                    case FINISH:
+                        finished = true;
+                        return;
+
+                    case BUSY:
+                        failure = "server busy";
+                        return;
+
+                    default:
+                        break;
+                }
+            }
+        }
+
+        private static void answer(FrameChannel channel, MessageType type) throws IOException {
+            channel.write(type);
+            channel.flush();
+        }
+    }
+}
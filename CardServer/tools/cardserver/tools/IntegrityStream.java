@@ -0,0 +1,263 @@
+package cardserver.tools;
+
+import cardmodel.Outcome;
+import cardserver.integrity.IntegrityMonitor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Feeds the {@link IntegrityMonitor} with synthetic games of many tables
+ * at full speed, from several threads as the seats and tables do, to
+ * measure its throughput and to check that it flags the cheats planted
+ * among honest players:<br/>
+ * - "twin-a" and "twin-b" always sit at the first table and stand within
+ * 10 ms of each other,<br/>
+ * - "machine" sits at the second table and decides in 400 ms with a 2%
+ * jitter,<br/>
+ * - "lucky" sits at the third table and wins three times as often as
+ * the rest.<br/><br/>
+ * The honest players are seated at random and decide in times spread
+ * around 2 seconds. The games run on a virtual clock, so they are
+ * produced as fast as the monitor takes them. When the queue of the
+ * monitor is full the event is dropped and counted by the monitor, as it
+ * is for the game threads of the server; the producers then offer it
+ * again, so the games checked are complete. The events dropped are
+ * printed next to the flags.<br/><br/>
+ * Usage: IntegrityStream [players] [tables] [seats] [games per table]
+ * [threads]
+ * @author Jose Valera
+ * @version 1.0
+ * @since 19/10/2026
+ */
+public class IntegrityStream {
+    private static final double ALERT_Z = 5;
+    private static final int MIN_GAMES = 30;
+    private static final long CHECK_MILLIS = 1000;
+    private static final long GAME_NANOS = TimeUnit.SECONDS.toNanos(30);
+    private static final String[] PLANTED = {"twin-a", "twin-b", "machine", "lucky"};
+
+    private static final LongAdder offers = new LongAdder();
+    private static final LongAdder retries = new LongAdder();
+    private static final LongAdder offerNanos = new LongAdder();
+
+    /**
+     * Runs the synthetic games and prints the throughput and the flags.
+     * @param args Honest players, tables, seats per table, games per table
+     *      and producer threads.
+     * @throws Exception If the producers are interrupted.
+     */
+    public static void main(String[] args) throws Exception {
+        int players = args.length > 0? Integer.parseInt(args[0]): 5000;
+        int tables = args.length > 1? Integer.parseInt(args[1]): 64;
+        int seats = args.length > 2? Integer.parseInt(args[2]): 8;
+        int games = args.length > 3? Integer.parseInt(args[3]): 2000;
+        int threads = args.length > 4? Integer.parseInt(args[4]): 4;
+
+        if(tables < 3 || seats < 3 || seats > players) {
+            System.out.println("At least 3 tables of 3 seats and as many players as seats are needed.");
+            return;
+        }
+
+        List<String> flags = new ArrayList<>();
+        IntegrityMonitor monitor = new IntegrityMonitor(ALERT_Z, MIN_GAMES, CHECK_MILLIS, flag -> {
+            synchronized (flags) {
+                flags.add(flag);
+            }
+        });
+
+        System.out.printf("%d honest players, %d tables of %d seats, %d games per table, " +
+                        "%d threads%n", players, tables, seats, games, threads);
+
+        long start = System.nanoTime();
+        Thread[] producers = new Thread[threads];
+
+        for (int t = 0; t < threads; t++) {
+            int first = t;
+            producers[t] = new Thread(() ->
+                    produce(monitor, first, threads, tables, seats, games, players));
+            producers[t].start();
+        }
+
+        for (Thread producer : producers)
+            producer.join();
+
+        long produced = System.nanoTime() - start;
+        monitor.close();
+        long elapsed = System.nanoTime() - start;
+
+        System.out.printf("Events: %d in %d ms, %.0f events/s processed%n",
+                offers.sum(), TimeUnit.NANOSECONDS.toMillis(elapsed),
+                offers.sum() / (elapsed / 1e9));
+        System.out.printf("Producers: %.0f ns per call, queue full %d times, " +
+                        "done %d ms before the monitor%n",
+                (double) offerNanos.sum() / (offers.sum() + retries.sum()), retries.sum(),
+                TimeUnit.NANOSECONDS.toMillis(elapsed - produced));
+        System.out.println("Monitor: " + monitor);
+        System.out.println("Flags, with " + monitor.getDropped() + " events dropped " +
+                "by the monitor and offered again:");
+
+        int planted = 0;
+        int others = 0;
+
+        for (String flag : flags) {
+            boolean isPlanted = false;
+
+            for (String name : PLANTED)
+                isPlanted |= flag.startsWith(name + " ");
+
+            System.out.println((isPlanted? "  flagged: ": "  false flag: ") + flag);
+
+            if(isPlanted)
+                planted++;
+
+            else
+                others++;
+        }
+
+        // The twins are flagged once, as a pair.
+        boolean ok = planted == PLANTED.length - 1 && others <= players / 1000;
+        System.out.println(ok? "PASSED": "FAILED");
+
+        if(!ok)
+            System.exit(1);
+    }
+
+    /*
+     * Plays the games of the tables first, first + step, ... in turn, so
+     * the games of each table are in order.
+     */
+    private static void produce(IntegrityMonitor monitor, int first, int step,
+                                int tables, int seats, int games, int players) {
+        Random random = new Random(first);
+
+        for (int game = 0; game < games; game++) {
+            for (int table = first; table < tables; table += step) {
+                long clock = game * GAME_NANOS + table;
+                String[] names = seat(random, table, seats, players);
+                long[] stands = new long[seats];
+
+                for (int s = 0; s < seats; s++)
+                    stands[s] = decide(monitor, random, names, s, clock, stands[0]);
+
+                offer(() -> monitor.results(names, outcomes(random, names)));
+            }
+        }
+    }
+
+    private static String[] seat(Random random, int table, int seats, int players) {
+        String[] names = new String[seats];
+        int planted = 0;
+
+        if(table == 0) {
+            names[planted++] = "twin-a";
+            names[planted++] = "twin-b";
+        }
+
+        else if(table == 1)
+            names[planted++] = "machine";
+
+        else if(table == 2)
+            names[planted++] = "lucky";
+
+        for (int s = planted; s < seats; s++) {
+            String name;
+            boolean taken;
+
+            do {
+                name = "player-" + random.nextInt(players);
+                taken = false;
+
+                for (int o = 0; o < s; o++)
+                    taken |= name.equals(names[o]);
+            } while (taken);
+
+            names[s] = name;
+        }
+
+        return names;
+    }
+
+    /*
+     * Asks for up to two more cards and then stands, returning when it
+     * stood. The second twin waits for the first one and stands just
+     * after it.
+     */
+    private static long decide(IntegrityMonitor monitor, Random random, String[] names,
+                               int s, long clock, long firstStand) {
+        String name = names[s];
+        int hits = name.equals("twin-b")? 0: random.nextInt(3);
+
+        for (int d = 0; d <= hits; d++) {
+            long wait;
+
+            if(name.equals("machine"))
+                wait = (long) (TimeUnit.MILLISECONDS.toNanos(400) *
+                        (1 + 0.02 * random.nextGaussian()));
+
+            else
+                wait = (long) (TimeUnit.MILLISECONDS.toNanos(2000) *
+                        Math.exp(0.7 * random.nextGaussian()));
+
+            boolean hit = d < hits;
+
+            if(!hit && name.equals("twin-b"))
+                wait = firstStand + random.nextInt(10_000_000) - clock;
+
+            long asked = clock;
+            clock += wait;
+            long answered = clock;
+
+            offer(() -> monitor.decision(name, hit, asked, answered));
+        }
+
+        return clock;
+    }
+
+    private static Outcome[] outcomes(Random random, String[] names) {
+        Outcome[] outcomes = new Outcome[names.length];
+        int[] weights = new int[names.length];
+        int total = 0;
+
+        for (int s = 0; s < names.length; s++) {
+            weights[s] = names[s].equals("lucky")? 3: 1;
+            total += weights[s];
+        }
+
+        int pick = random.nextInt(total);
+
+        for (int s = 0; s < names.length; s++) {
+            outcomes[s] = pick >= 0 && pick < weights[s]? Outcome.WIN: Outcome.LOSS;
+            pick -= weights[s];
+        }
+
+        return outcomes;
+    }
+
+    private interface Offer {
+        boolean send();
+    }
+
+    /*
+     * Only the calls to the monitor are timed, which is what a game
+     * thread would spend, not the waits for room in the queue.
+     */
+    private static void offer(Offer offer) {
+        while (true) {
+            long start = System.nanoTime();
+            boolean sent = offer.send();
+            offerNanos.add(System.nanoTime() - start);
+
+            if(sent)
+                break;
+
+            retries.increment();
+            Thread.yield();
+        }
+
+        offers.increment();
+    }
+}
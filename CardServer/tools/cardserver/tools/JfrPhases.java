@@ -0,0 +1,162 @@
+package cardserver.tools;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Summary of a flight recording of the server (see CardServer/cardserver.jfc):
+ * the latencies of the phases of the table and of the decisions of the
+ * players, the cards dealt and the connection errors, and the GC pauses
+ * and lock stalls that happened during each phase of the table.<br/><br/>
+ * Usage: JfrPhases recording.jfr
+ * @author Jose Valera
+ * @version 1.0
+ * @since 19/10/2026
+ */
+public class JfrPhases {
+    private static final String[] phases = {
+            "cardserver.RoundStart", "cardserver.RoundPlay",
+            "cardserver.ResultsPublished", "cardserver.RetryDecision"
+    };
+    private static final String[] stalls = {
+            "jdk.GCPhasePause", "jdk.JavaMonitorEnter", "jdk.SafepointBegin"
+    };
+    private static final int MAX_REPORTED_ERRORS = 5;
+
+    private static final Map<String, List<Long>> durations = new TreeMap<>();
+    private static final Map<String, List<long[]>> intervals = new HashMap<>();
+    private static final Map<String, List<long[]>> stallIntervals = new HashMap<>();
+    private static final List<String> errors = new ArrayList<>();
+    private static long cards;
+
+    /**
+     * Reads a recording and prints its summary.
+     * @param args Path of the recording.
+     * @throws Exception If the recording can not be read.
+     */
+    public static void main(String[] args) throws Exception {
+        if(args.length < 1) {
+            System.out.println("Usage: JfrPhases recording.jfr");
+            return;
+        }
+
+        try (RecordingFile recording = new RecordingFile(Paths.get(args[0]))) {
+            while (recording.hasMoreEvents())
+                read(recording.readEvent());
+        }
+
+        System.out.println("Latencies (ms):");
+
+        for (Map.Entry<String, List<Long>> entry : durations.entrySet())
+            printLatencies(entry.getKey(), entry.getValue());
+
+        System.out.println("Cards dealt: " + cards);
+        System.out.println("Connection errors: " + errors.size());
+
+        for (int i = 0; i < Math.min(errors.size(), MAX_REPORTED_ERRORS); i++)
+            System.out.println("  " + errors.get(i));
+
+        System.out.println("Stalls by phase of the table (count / total ms / max ms):");
+
+        for (String phase : phases)
+            printStalls(phase);
+    }
+
+    private static void read(RecordedEvent event) {
+        String name = event.getEventType().getName();
+
+        switch (name) {
+            case "cardserver.CardDealt":
+                cards++;
+                break;
+
+            case "cardserver.ConnectionError":
+                errors.add(event.getStartTime() + " player " + event.getInt("player") +
+                        ": " + event.getString("message"));
+                break;
+
+            case "cardserver.DecisionWait":
+                addDuration(name + " (" + event.getString("decision") + ")", event);
+                break;
+
+            default:
+                if(name.startsWith("cardserver.") && !event.getDuration().isZero()) {
+                    addDuration(name, event);
+                    intervals.computeIfAbsent(name, n -> new ArrayList<>()).add(interval(event));
+                }
+
+                else if(Arrays.asList(stalls).contains(name))
+                    stallIntervals.computeIfAbsent(name, n -> new ArrayList<>()).add(interval(event));
+        }
+    }
+
+    private static void addDuration(String name, RecordedEvent event) {
+        durations.computeIfAbsent(name, n -> new ArrayList<>())
+                .add(event.getDuration().toNanos());
+    }
+
+    private static long[] interval(RecordedEvent event) {
+        return new long[] {nanos(event.getStartTime()), nanos(event.getEndTime())};
+    }
+
+    private static long nanos(Instant instant) {
+        return TimeUnit.SECONDS.toNanos(instant.getEpochSecond()) + instant.getNano();
+    }
+
+    private static void printLatencies(String name, List<Long> values) {
+        long[] sorted = values.stream().mapToLong(Long::longValue).sorted().toArray();
+
+        System.out.printf("  %-38s %6d  p50 %8.2f  p99 %8.2f  max %8.2f%n",
+                name, sorted.length,
+                millis(sorted, 0.5), millis(sorted, 0.99), millis(sorted, 1));
+    }
+
+    private static double millis(long[] sorted, double quantile) {
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1e6;
+    }
+
+    /*
+     * The phases of the table do not overlap each other, so once sorted
+     * their ends are sorted too and the phases that overlap a stall are
+     * found with a binary search and a short walk back.
+     */
+    private static void printStalls(String phase) {
+        List<long[]> phaseIntervals = intervals.getOrDefault(phase, Collections.emptyList());
+        phaseIntervals.sort(Comparator.comparingLong(i -> i[0]));
+        long[] starts = phaseIntervals.stream().mapToLong(i -> i[0]).toArray();
+        StringBuilder line = new StringBuilder();
+
+        for (String stall : stalls) {
+            int count = 0;
+            long total = 0;
+            long max = 0;
+
+            for (long[] interval : stallIntervals.getOrDefault(stall, Collections.emptyList())) {
+                int index = Arrays.binarySearch(starts, interval[1]);
+                index = index >= 0? index: -index - 2;
+                long overlap = 0;
+
+                for (int i = index; i >= 0 && phaseIntervals.get(i)[1] > interval[0]; i--)
+                    overlap += Math.min(interval[1], phaseIntervals.get(i)[1]) -
+                            Math.max(interval[0], phaseIntervals.get(i)[0]);
+
+                if(overlap > 0) {
+                    count++;
+                    total += overlap;
+                    max = Math.max(max, overlap);
+                }
+            }
+
+            line.append(String.format("  %s %d / %.2f / %.2f", stall.substring(4),
+                    count, total / 1e6, max / 1e6));
+        }
+
+        System.out.printf("  %-28s%s%n", phase, line);
+    }
+}
@@ -0,0 +1,158 @@
+package cardserver.tools;
+
+import cardserver.chips.ChipLedger;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stress test of the chip ledger: many threads play as independent
+ * tables, betting and settling games of players chosen at random (so the
+ * same players are settled by several tables at the same time). A player
+ * who can not cover the highest bet is given the initial chips again by
+ * the house, in a settlement without bet, so the chips keep moving
+ * instead of the bets being rejected. At the end it checks that:<br/>
+ * - the chips are conserved (the sum of all the accounts is 0),<br/>
+ * - the escrow is empty and no player has a negative balance,<br/>
+ * - the journal rebuilds exactly the same balances,<br/>
+ * - a name is only given to the key that claimed it first, also after
+ * opening the ledger again.<br/><br/>
+ * Usage: LedgerStress [tables] [games per table] [players]
+ * @author Jose Valera
+ * @version 1.0
+ * @since 19/10/2026
+ */
+public class LedgerStress {
+    private static final int SEATS = 4;
+    private static final long INITIAL_CHIPS = 1000;
+    private static final long MAX_BET = 100;
+
+    private static final AtomicInteger rejectedBets = new AtomicInteger();
+    private static final AtomicInteger topUps = new AtomicInteger();
+
+    /**
+     * Runs the games and prints whether the invariants are met.
+     * @param args Number of tables, games per table and players.
+     * @throws Exception If the journal can not be used.
+     */
+    public static void main(String[] args) throws Exception {
+        int tables = args.length > 0? Integer.parseInt(args[0]): 16;
+        int games = args.length > 1? Integer.parseInt(args[1]): 20000;
+        int players = args.length > 2? Integer.parseInt(args[2]): 64;
+
+        Path journal = Files.createTempFile("ledger-stress", ".journal");
+        ChipLedger ledger = new ChipLedger(journal, INITIAL_CHIPS, 5);
+        ExecutorService pool = Executors.newFixedThreadPool(tables);
+        long start = System.nanoTime();
+
+        for (int t = 0; t < tables; t++)
+            pool.execute(() -> playGames(ledger, games, players));
+
+        pool.shutdown();
+        pool.awaitTermination(10, TimeUnit.MINUTES);
+        long elapsed = System.nanoTime() - start;
+        ledger.close();
+
+        System.out.printf("%d games in %d ms (%d bets rejected, %d top-ups)%n",
+                tables * games,
+                TimeUnit.NANOSECONDS.toMillis(elapsed),
+                rejectedBets.get(),
+                topUps.get());
+
+        boolean ok = check("chips conserved", ledger.total() == 0);
+        ok &= check("escrow empty", ledger.getEscrow() == 0);
+        ok &= check("no negative balances", noNegativeBalances(ledger, players));
+        ok &= check("journal replayed", sameBalances(ledger, journal, players));
+        ok &= check("accounts bound to their keys", keysBound(journal));
+
+        Files.deleteIfExists(journal);
+        Files.deleteIfExists(journal.resolveSibling(journal.getFileName() + ".keys"));
+        System.out.println(ok? "PASSED": "FAILED");
+
+        if(!ok)
+            System.exit(1);
+    }
+
+    private static void playGames(ChipLedger ledger, int games, int players) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String[] names = new String[SEATS];
+        long[] bets = new long[SEATS];
+        long[] payouts = new long[SEATS];
+
+        for (int g = 0; g < games; g++) {
+            for (int i = 0; i < SEATS; i++) {
+                names[i] = "player" + random.nextInt(players);
+                long balance = ledger.balance(names[i]);
+
+                if(balance < MAX_BET) {
+                    ledger.settle(new String[] {names[i]}, new long[] {0},
+                            new long[] {INITIAL_CHIPS});
+                    topUps.incrementAndGet();
+                    balance += INITIAL_CHIPS;
+                }
+
+                bets[i] = random.nextLong(Math.min(balance, MAX_BET) + 1);
+
+                if(!ledger.placeBet(names[i], bets[i])) {
+                    rejectedBets.incrementAndGet();
+                    bets[i] = 0;
+                }
+            }
+
+            for (int i = 0; i < SEATS; i++) {
+                int outcome = random.nextInt(3);
+                payouts[i] = outcome == 0? 2 * bets[i]: outcome == 1? bets[i]: 0;
+            }
+
+            ledger.settle(names, bets, payouts);
+        }
+    }
+
+    private static boolean noNegativeBalances(ChipLedger ledger, int players) {
+        for (int i = 0; i < players; i++)
+            if(ledger.balance("player" + i) < 0)
+                return false;
+
+        return true;
+    }
+
+    private static boolean sameBalances(ChipLedger ledger, Path journal, int players)
+            throws IOException {
+        ChipLedger replayed = new ChipLedger(journal, INITIAL_CHIPS, 1000);
+        boolean same = replayed.getHouse() == ledger.getHouse() &&
+                replayed.total() == 0;
+
+        for (int i = 0; i < players && same; i++)
+            same = replayed.balance("player" + i) == ledger.balance("player" + i);
+
+        replayed.close();
+        return same;
+    }
+
+    private static boolean keysBound(Path journal) throws IOException {
+        ChipLedger ledger = new ChipLedger(journal, INITIAL_CHIPS, 1000);
+        boolean bound = ledger.claim("owner", "secret") &&
+                !ledger.claim("owner", "other") &&
+                !ledger.claim("owner", "") &&
+                !ledger.claim("player0", "secret");
+        ledger.close();
+
+        ChipLedger reopened = new ChipLedger(journal, INITIAL_CHIPS, 1000);
+        bound &= reopened.claim("owner", "secret") &&
+                !reopened.claim("owner", "other");
+        reopened.close();
+
+        return bound;
+    }
+
+    private static boolean check(String invariant, boolean met) {
+        System.out.println(invariant + ": " + (met? "OK": "VIOLATED"));
+        return met;
+    }
+}
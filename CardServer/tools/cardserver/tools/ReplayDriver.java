@@ -0,0 +1,274 @@
+package cardserver.tools;
+
+import cardmodel.protocol.FrameChannel;
+import cardmodel.protocol.MessageType;
+import cardserver.capture.CaptureFile;
+
+import java.io.IOException;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Driver that replays against a server the sessions recorded with
+ * -Dcardserver.capture=dir, playing the part of the players: it sends
+ * the frames that the server received and checks that the server answers
+ * with the same frames, comparing the latencies with the recorded ones.
+ * <br/><br/>
+ * The server must be started with the base seed of the captures and the
+ * same number of players (the driver prints them), and with the same chip
+ * journal and player store as the original one if the CHIPS frames are
+ * also to match. The sessions connect in the order in which the players
+ * joined the original table, so each one gets the same seat and decks.
+ * <br/><br/>
+ * The frames of the players are sent at the original pace or, in fast
+ * mode, as soon as the previous answer arrives. The latency of an answer
+ * is the time between a frame of the player and the first frame of the
+ * server after it: the recorded one is measured in the server (from the
+ * read to the send) and the replayed one in the driver, so it includes
+ * the network.<br/><br/>
+ * The driver only answers the heartbeat while it waits for the server:
+ * to replay at the original pace sessions with pauses longer than the
+ * silence allowed by the heartbeat, the server must be started without
+ * it (-Dcardserver.heartbeatMillis=0).<br/><br/>
+ * Usage: ReplayDriver host port original|fast capture...
+ * @author Jose Valera
+ * @version 1.0
+ * @since 19/10/2026
+ */
+public class ReplayDriver {
+    private static final int BUFFER_SIZE = 8192;
+    private static final int ANSWER_TIMEOUT = 30000;
+    private static final int MAX_REPORTED_MISMATCHES = 5;
+
+    private static final Map<MessageType, List<long[]>> latencies =
+            new EnumMap<>(MessageType.class);
+
+    /**
+     * Replays the captures and prints the differences and the latencies.
+     * @param args Host, port, mode and paths of the captures.
+     * @throws Exception If the captures can not be read or the driver is
+     *      interrupted.
+     */
+    public static void main(String[] args) throws Exception {
+        if(args.length < 4) {
+            System.out.println("Usage: ReplayDriver host port original|fast capture...");
+            return;
+        }
+
+        String host = args[0];
+        int port = Integer.parseInt(args[1]);
+        boolean fast = args[2].equalsIgnoreCase("fast");
+        List<CaptureFile> captures = new ArrayList<>();
+
+        for (int i = 3; i < args.length; i++)
+            captures.add(CaptureFile.read(Paths.get(args[i])));
+
+        captures.sort(Comparator.comparingInt(CaptureFile::getNumPlayer));
+        long seed = captures.get(0).getBaseSeed();
+
+        for (CaptureFile capture : captures)
+            if(capture.getBaseSeed() != seed)
+                System.out.println("Warning: " + capture.getPath() +
+                        " was recorded by another server run.");
+
+        System.out.println("Replaying " + captures.size() + " sessions (" +
+                (fast? "fast": "original pace") + "), the server must run with " +
+                "-Dcardserver.seed=" + seed + " and " + captures.size() + " players.");
+
+        List<Session> sessions = new ArrayList<>();
+
+        for (CaptureFile capture : captures) {
+            Session session = new Session(capture, fast);
+            session.connect(host, port);
+            sessions.add(session);
+        }
+
+        for (Session session : sessions)
+            session.start();
+
+        boolean ok = true;
+
+        for (Session session : sessions) {
+            session.join();
+            ok &= session.report();
+        }
+
+        printLatencies();
+        System.out.println(ok? "REPLAY MATCHED": "REPLAY DIFFERS");
+
+        if(!ok)
+            System.exit(1);
+    }
+
+    private static void addLatency(MessageType type, long recorded, long replayed) {
+        synchronized (latencies) {
+            latencies.computeIfAbsent(type, t -> new ArrayList<>())
+                    .add(new long[] {recorded, replayed});
+        }
+    }
+
+    private static void printLatencies() {
+        System.out.println("Answer latency (recorded / replayed, us):");
+
+        for (Map.Entry<MessageType, List<long[]>> entry : latencies.entrySet()) {
+            List<long[]> samples = entry.getValue();
+            long[] recorded = new long[samples.size()];
+            long[] replayed = new long[samples.size()];
+
+            for (int i = 0; i < samples.size(); i++) {
+                recorded[i] = samples.get(i)[0];
+                replayed[i] = samples.get(i)[1];
+            }
+
+            Arrays.sort(recorded);
+            Arrays.sort(replayed);
+
+            System.out.printf("  %-7s %5d  p50 %8d / %-8d p99 %8d / %-8d max %8d / %d%n",
+                    entry.getKey(), samples.size(),
+                    micros(recorded, 0.5), micros(replayed, 0.5),
+                    micros(recorded, 0.99), micros(replayed, 0.99),
+                    micros(recorded, 1), micros(replayed, 1));
+        }
+    }
+
+    private static long micros(long[] sorted, double quantile) {
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return TimeUnit.NANOSECONDS.toMicros(sorted[Math.max(index, 0)]);
+    }
+
+    /*
+     * Replays the capture of one player in its own thread.
+     */
+    private static class Session extends Thread {
+        private final CaptureFile capture;
+        private final boolean fast;
+        private FrameChannel channel;
+        private int frames;
+        private int mismatches;
+        private String failure;
+
+        private Session(CaptureFile capture, boolean fast) {
+            super("Replay-p" + capture.getNumPlayer());
+            this.capture = capture;
+            this.fast = fast;
+        }
+
+        private void connect(String host, int port) throws IOException {
+            Socket socket = new Socket(host, port);
+            socket.setTcpNoDelay(true);
+            socket.setSoTimeout(ANSWER_TIMEOUT);
+            channel = new FrameChannel(socket, BUFFER_SIZE);
+        }
+
+        @Override
+        public void run() {
+            long start = System.nanoTime();
+            long lastSentRecorded = 0;
+            long lastSentReplayed = start;
+            boolean answered = false;
+            int index = 0;
+
+            try {
+                for (CaptureFile.Record record : capture.getRecords()) {
+                    index++;
+
+                    if(record.getKind() == CaptureFile.Kind.RECEIVED) {
+                        if(!fast)
+                            sleepUntil(start + record.getNanos());
+
+                        send(record);
+                        lastSentRecorded = record.getNanos();
+                        lastSentReplayed = System.nanoTime();
+                        answered = false;
+                    }
+
+                    else if(record.getKind() == CaptureFile.Kind.SENT) {
+                        MessageType type = read();
+                        long now = System.nanoTime();
+                        frames++;
+
+                        if(type != record.getType()) {
+                            failure = "expected " + record.getType() + ", received " +
+                                    type + " (record " + index + ")";
+                            return;
+                        }
+
+                        if(!answered) {
+                            addLatency(type, record.getNanos() - lastSentRecorded,
+                                    now - lastSentReplayed);
+                            answered = true;
+                        }
+
+                        compare(record, channel.getPayload());
+                    }
+                }
+            } catch (SocketTimeoutException e) {
+                failure = "no answer after " + ANSWER_TIMEOUT + " ms (record " + index + ")";
+            } catch (IOException | InterruptedException e) {
+                failure = e.getMessage() + " (record " + index + ")";
+            } finally {
+                try { channel.close(); } catch (IOException e) {}
+            }
+        }
+
+        /*
+         * The PINGs of the heartbeat are answered and skipped, they are not
+         * in the captures.
+         */
+        private MessageType read() throws IOException {
+            MessageType type;
+
+            while ((type = channel.read()) == MessageType.PING) {
+                channel.write(MessageType.PONG);
+                channel.flush();
+            }
+
+            return type;
+        }
+
+        private void sleepUntil(long deadline) throws InterruptedException {
+            long wait = deadline - System.nanoTime();
+
+            if(wait > 0)
+                TimeUnit.NANOSECONDS.sleep(wait);
+        }
+
+        private void send(CaptureFile.Record record) throws IOException {
+            byte[] payload = record.getPayload();
+            channel.begin(record.getType(), payload.length).put(payload);
+            channel.end();
+            channel.flush();
+        }
+
+        private void compare(CaptureFile.Record record, ByteBuffer payload) {
+            if(payload.equals(ByteBuffer.wrap(record.getPayload())))
+                return;
+
+            if(++mismatches <= MAX_REPORTED_MISMATCHES)
+                System.out.println(getName() + ": " + record.getType() +
+                        " differs, expected " + hex(ByteBuffer.wrap(record.getPayload())) +
+                        ", received " + hex(payload));
+        }
+
+        private static String hex(ByteBuffer buffer) {
+            StringBuilder text = new StringBuilder();
+
+            for (int i = buffer.position(); i < buffer.limit(); i++)
+                text.append(String.format("%02x", buffer.get(i)));
+
+            return text.toString();
+        }
+
+        private boolean report() {
+            System.out.println(getName() + ": " + frames + " frames of the server, " +
+                    mismatches + " different" +
+                    (failure != null? ", stopped: " + failure: ""));
+
+            return mismatches == 0 && failure == null;
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package cardserver.tools;
+
+import cardmodel.Rules;
+import cardserver.SeatState;
+import cardserver.SeatStore;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stress test of the lock-free state of the seats: many threads change
+ * the phases of a few seats of a {@link SeatStore} at the same time, as
+ * the threads of the players and the table do, with
+ * {@link SeatState#transition}, {@link SeatState#forcePhase} and
+ * {@link SeatState#addHalfPoints}. Each thread counts the changes that
+ * it has applied, and at the end it checks that:<br/>
+ * - for every seat and phase, the changes that entered the phase minus
+ * the ones that left it match its final phase, so every change was
+ * either applied once or rejected, never lost nor applied twice,<br/>
+ * - the points added to each seat are all in its final score,<br/>
+ * - the connection error flag marked at the start is still set.<br/><br/>
+ * Usage: SeatStateStress [threads] [changes per thread] [seats]
+ * @author Jose Valera
+ * @version 1.0
+ * @since 19/10/2026
+ */
+public class SeatStateStress {
+    private static final SeatState.Phase[] phases = SeatState.Phase.values();
+    private static final int MAX_HALF_POINTS = 0xFFFF;
+
+    /*
+     * Changes applied by a thread: transitions by phase of origin and
+     * destination, forced changes by previous and new phase, and points
+     * added, for each seat.
+     */
+    private static class Counts {
+        private final long[][][] transitions;
+        private final long[][][] forced;
+        private final long[] halfPoints;
+        private long rejected;
+
+        private Counts(int seats) {
+            transitions = new long[seats][phases.length][phases.length];
+            forced = new long[seats][phases.length][phases.length];
+            halfPoints = new long[seats];
+        }
+    }
+
+    /**
+     * Runs the threads and prints whether the invariants are met.
+     * @param args Number of threads, changes per thread and seats.
+     * @throws Exception If the variant can not be loaded.
+     */
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0? Integer.parseInt(args[0]): 8;
+        int changes = args.length > 1? Integer.parseInt(args[1]): 2_000_000;
+        int seats = args.length > 2? Integer.parseInt(args[2]): 4;
+
+        SeatStore store = new SeatStore(seats, Rules.load("classic"));
+        SeatState[] states = new SeatState[seats];
+
+        for (int s = 0; s < seats; s++) {
+            states[s] = store.state(s);
+            states[s].markError();
+        }
+
+        // Every thread may add points until the score would overflow.
+        int pointsPerThread = MAX_HALF_POINTS / threads / seats;
+        Counts[] counts = new Counts[threads];
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+
+        for (int t = 0; t < threads; t++) {
+            Counts mine = counts[t] = new Counts(seats);
+            pool.execute(() -> change(states, mine, changes, pointsPerThread));
+        }
+
+        pool.shutdown();
+        pool.awaitTermination(10, TimeUnit.MINUTES);
+        long elapsed = System.nanoTime() - start;
+
+        long applied = 0;
+        long rejected = 0;
+
+        for (Counts c : counts) {
+            rejected += c.rejected;
+
+            for (int s = 0; s < seats; s++)
+                for (int from = 0; from < phases.length; from++)
+                    for (int to = 0; to < phases.length; to++)
+                        applied += c.transitions[s][from][to] + c.forced[s][from][to];
+        }
+
+        System.out.printf("%d threads on %d seats: %d phase changes applied, " +
+                        "%d rejected in %d ms%n", threads, seats, applied, rejected,
+                TimeUnit.NANOSECONDS.toMillis(elapsed));
+
+        boolean ok = check("no phase change lost", phasesBalanced(states, counts));
+        ok &= check("no points lost", pointsKept(states, counts));
+        ok &= check("error flags kept", errorsKept(states));
+
+        System.out.println(ok? "PASSED": "FAILED");
+
+        if(!ok)
+            System.exit(1);
+    }
+
+    /*
+     * Most changes are transitions from the phase just read, which often
+     * changes before the compare-and-set, and some from a phase at random,
+     * which are usually rejected.
+     */
+    private static void change(SeatState[] states, Counts counts, int changes,
+                               int pointsPerThread) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long[] points = new long[states.length];
+
+        for (int i = 0; i < changes; i++) {
+            int s = random.nextInt(states.length);
+            SeatState state = states[s];
+            SeatState.Phase to = phases[random.nextInt(phases.length)];
+            int action = random.nextInt(100);
+
+            if(action < 10) {
+                SeatState.Phase from = state.forcePhase(to);
+                counts.forced[s][from.ordinal()][to.ordinal()]++;
+            }
+
+            else if(action < 15) {
+                if(points[s] < pointsPerThread) {
+                    state.addHalfPoints(1);
+                    points[s]++;
+                }
+            }
+
+            else {
+                SeatState.Phase from = action < 85?
+                        state.getPhase():
+                        phases[random.nextInt(phases.length)];
+
+                if(state.transition(from, to))
+                    counts.transitions[s][from.ordinal()][to.ordinal()]++;
+
+                else
+                    counts.rejected++;
+            }
+        }
+
+        System.arraycopy(points, 0, counts.halfPoints, 0, points.length);
+    }
+
+    /*
+     * Every seat starts JOINED. A change from a phase to itself enters
+     * and leaves it, so it does not count.
+     */
+    private static boolean phasesBalanced(SeatState[] states, Counts[] counts) {
+        for (int s = 0; s < states.length; s++) {
+            long[] balance = new long[phases.length];
+            balance[SeatState.Phase.JOINED.ordinal()] = 1;
+
+            for (Counts c : counts) {
+                for (int from = 0; from < phases.length; from++) {
+                    for (int to = 0; to < phases.length; to++) {
+                        long moved = c.transitions[s][from][to] + c.forced[s][from][to];
+                        balance[from] -= moved;
+                        balance[to] += moved;
+                    }
+                }
+            }
+
+            int last = states[s].getPhase().ordinal();
+
+            for (int p = 0; p < phases.length; p++) {
+                if(balance[p] != (p == last? 1: 0)) {
+                    System.out.printf("Seat %d, phase %s: %d%n", s, phases[p], balance[p]);
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    private static boolean pointsKept(SeatState[] states, Counts[] counts) {
+        for (int s = 0; s < states.length; s++) {
+            long added = 0;
+
+            for (Counts c : counts)
+                added += c.halfPoints[s];
+
+            if(SeatState.halfPoints(states[s].get()) != added)
+                return false;
+        }
+
+        return true;
+    }
+
+    private static boolean errorsKept(SeatState[] states) {
+        for (SeatState state : states)
+            if(!SeatState.hasError(state.get()))
+                return false;
+
+        return true;
+    }
+
+    private static boolean check(String invariant, boolean met) {
+        System.out.println(invariant + ": " + (met? "OK": "VIOLATED"));
+        return met;
+    }
+}
@@ -0,0 +1,229 @@
+package cardserver.tools;
+
+import cardmodel.Card;
+import cardmodel.Deck;
+import cardmodel.Rules;
+import cardserver.SeatState;
+import cardserver.SeatStore;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares the packed seat store of the tables ({@link SeatStore}) with
+ * the previous layout of a seat, an object with its own state word and
+ * its own {@link Deck}: the heap used per seat, the time to shuffle and
+ * deal some cards to every seat, and the time of the scans of the table
+ * over all the seats (checking their phase and finding the best score to
+ * settle the game). The seats are split into tables of 255 seats, the
+ * maximum of a table.<br/><br/>
+ * Usage: SeatStoreBench [seats] [rounds] [variant]
+ * @author Jose Valera
+ * @version 1.0
+ * @since 19/10/2026
+ */
+public class SeatStoreBench {
+    private static final int TABLE_SEATS = 255;
+    private static final int CARDS_PER_ROUND = 3;
+
+    private static Rules rules;
+    private static long sink;
+
+    /**
+     * Runs both layouts and prints the results.
+     * @param args Number of seats, rounds and variant.
+     * @throws Exception If the variant can not be loaded.
+     */
+    public static void main(String[] args) throws Exception {
+        int seats = args.length > 0? Integer.parseInt(args[0]): 100000;
+        int rounds = args.length > 1? Integer.parseInt(args[1]): 50;
+        rules = Rules.load(args.length > 2? args[2]: "classic");
+
+        System.out.printf("%d seats in tables of %d, %d rounds, %d cards per round%n",
+                seats, TABLE_SEATS, rounds, CARDS_PER_ROUND);
+
+        long before = usedHeap();
+        ObjectSeat[][] objects = objectTables(seats);
+        long objectBytes = usedHeap() - before;
+        long[] objectTimes = runObjects(objects, rounds);
+        report("objects", objectBytes, seats, objectTimes, rounds);
+        objects = null;
+
+        before = usedHeap();
+        PackedTable[] packed = packedTables(seats);
+        long packedBytes = usedHeap() - before;
+        long[] packedTimes = runPacked(packed, rounds);
+        report("packed", packedBytes, seats, packedTimes, rounds);
+
+        System.out.printf("Heap per seat: %.1f times smaller%n",
+                (double) objectBytes / packedBytes);
+
+        if(sink == 42)
+            System.out.println(sink);
+    }
+
+    /*
+     * A seat as it was before the store: the state object with its word
+     * and the deck of the current game, both created by the seat.
+     */
+    private static class ObjectSeat {
+        private final AtomicLong word = new AtomicLong();
+        private Deck deck;
+    }
+
+    private static ObjectSeat[][] objectTables(int seats) {
+        ObjectSeat[][] tables = new ObjectSeat[(seats + TABLE_SEATS - 1) / TABLE_SEATS][];
+
+        for (int t = 0; t < tables.length; t++) {
+            tables[t] = new ObjectSeat[Math.min(TABLE_SEATS, seats - t * TABLE_SEATS)];
+
+            for (int s = 0; s < tables[t].length; s++) {
+                tables[t][s] = new ObjectSeat();
+                tables[t][s].deck = new Deck(rules, s);
+            }
+        }
+
+        return tables;
+    }
+
+    /*
+     * The store of a table and the views of its seats, which the seats
+     * keep.
+     */
+    private static class PackedTable {
+        private final SeatStore store;
+        private final SeatState[] seats;
+
+        private PackedTable(int capacity) {
+            store = new SeatStore(capacity, rules);
+            seats = new SeatState[capacity];
+
+            for (int s = 0; s < capacity; s++) {
+                seats[s] = store.state(s);
+                seats[s].shuffle(s);
+            }
+        }
+    }
+
+    private static PackedTable[] packedTables(int seats) {
+        PackedTable[] tables = new PackedTable[(seats + TABLE_SEATS - 1) / TABLE_SEATS];
+
+        for (int t = 0; t < tables.length; t++)
+            tables[t] = new PackedTable(Math.min(TABLE_SEATS, seats - t * TABLE_SEATS));
+
+        return tables;
+    }
+
+    /*
+     * Returns the nanoseconds spent dealing and scanning, counting only
+     * the second half of the rounds, once the code has been compiled.
+     */
+    private static long[] runObjects(ObjectSeat[][] tables, int rounds) {
+        long[] times = new long[2];
+
+        for (int round = 0; round < rounds; round++) {
+            long start = System.nanoTime();
+
+            for (ObjectSeat[] table : tables)
+                for (int s = 0; s < table.length; s++) {
+                    ObjectSeat seat = table[s];
+                    seat.deck = new Deck(rules, round * 1000003L + s);
+                    int halfPoints = 0;
+
+                    for (int c = 0; c < CARDS_PER_ROUND; c++) {
+                        Card card = seat.deck.next();
+                        halfPoints += rules.halfPoints(card.getId());
+                    }
+
+                    seat.word.set(((long) halfPoints << 8) | SeatState.Phase.DONE.ordinal());
+                }
+
+            long dealt = System.nanoTime();
+
+            for (ObjectSeat[] table : tables) {
+                long[] words = new long[table.length];
+
+                for (int s = 0; s < table.length; s++)
+                    words[s] = table[s].word.get();
+
+                sink += settle(words);
+            }
+
+            if(round >= rounds / 2) {
+                times[0] += dealt - start;
+                times[1] += System.nanoTime() - dealt;
+            }
+        }
+
+        return times;
+    }
+
+    private static long[] runPacked(PackedTable[] tables, int rounds) {
+        long[] times = new long[2];
+
+        for (int round = 0; round < rounds; round++) {
+            long start = System.nanoTime();
+
+            for (PackedTable table : tables)
+                for (int s = 0; s < table.seats.length; s++) {
+                    SeatState seat = table.seats[s];
+                    seat.shuffle(round * 1000003L + s);
+                    int halfPoints = 0;
+
+                    for (int c = 0; c < CARDS_PER_ROUND; c++)
+                        halfPoints += rules.halfPoints(seat.nextCard());
+
+                    seat.startGame();
+                    seat.setHalfPoints(halfPoints);
+                    seat.forcePhase(SeatState.Phase.DONE);
+                }
+
+            long dealt = System.nanoTime();
+
+            for (PackedTable table : tables) {
+                long[] words = new long[table.store.getCapacity()];
+
+                if(table.store.allIn(SeatState.Phase.DONE))
+                    table.store.snapshot(words);
+
+                sink += settle(words);
+            }
+
+            if(round >= rounds / 2) {
+                times[0] += dealt - start;
+                times[1] += System.nanoTime() - dealt;
+            }
+        }
+
+        return times;
+    }
+
+    private static int settle(long[] words) {
+        int best = -1;
+
+        for (long word : words) {
+            int score = SeatState.halfPoints(word);
+
+            if(!rules.isBust(score) && !SeatState.hasError(word))
+                best = Math.max(best, score);
+        }
+
+        return best;
+    }
+
+    private static void report(String layout, long bytes, int seats, long[] times, int rounds) {
+        long measured = (long) seats * (rounds - rounds / 2);
+
+        System.out.printf("%-8s %7.1f bytes per seat  deal %6.1f ns per seat  " +
+                        "scan %5.2f ns per seat%n",
+                layout, (double) bytes / seats,
+                (double) times[0] / measured, (double) times[1] / measured);
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++)
+            System.gc();
+
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
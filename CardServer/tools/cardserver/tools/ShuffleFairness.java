@@ -0,0 +1,183 @@
+package cardserver.tools;
+
+import cardmodel.Card;
+import cardmodel.Deck;
+import cardmodel.Rules;
+import cardserver.fairness.ShuffleStats;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark and check of the fairness statistics of the shuffles:<br/>
+ * - deals the same decks with and without recording them, in several
+ * threads, and prints the cost of the recording per card,<br/>
+ * - checks that the decks of the server raise no alert,<br/>
+ * - checks that a biased shuffle (the naive one that swaps each card with
+ * any card of the deck) is detected.<br/><br/>
+ * Usage: ShuffleFairness [threads] [decks per thread] [cards per deck]
+ * [variant]
+ * @author Jose Valera
+ * @version 1.0
+ * @since 19/10/2026
+ */
+public class ShuffleFairness {
+    private static final double ALERT_Z = 5;
+    private static final int RUNS = 3;
+
+    /**
+     * Runs the benchmark and the checks and prints their results.
+     * @param args Number of threads, decks per thread, cards dealt from
+     *      each deck and variant.
+     * @throws Exception If the variant can not be loaded or the benchmark
+     *      is interrupted.
+     */
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0? Integer.parseInt(args[0]): 4;
+        int decks = args.length > 1? Integer.parseInt(args[1]): 250000;
+        int cardsPerDeck = args.length > 2? Integer.parseInt(args[2]): 8;
+        Rules rules = Rules.load(args.length > 3? args[3]: "classic");
+        long cards = (long) threads * decks * cardsPerDeck;
+
+        // The first runs only warm up the JIT.
+        deal(null, threads, decks / 10, cardsPerDeck, rules);
+        deal(new ShuffleStats(rules, ALERT_Z), threads, decks / 10, cardsPerDeck, rules);
+
+        // The runs alternate so that both see the same state of the JVM,
+        // and each one starts with the garbage of the previous collected.
+        // The fastest run of each kind is the one least disturbed.
+        long withoutStats = Long.MAX_VALUE;
+        long withStats = Long.MAX_VALUE;
+        ShuffleStats stats = null;
+
+        for (int run = 0; run < RUNS; run++) {
+            settleHeap();
+            withoutStats = Math.min(withoutStats,
+                    deal(null, threads, decks, cardsPerDeck, rules));
+            stats = new ShuffleStats(rules, ALERT_Z);
+            settleHeap();
+            withStats = Math.min(withStats,
+                    deal(stats, threads, decks, cardsPerDeck, rules));
+        }
+
+        double overhead = (double) (withStats - withoutStats) / cards;
+
+        System.out.printf("%d cards: %d ms without statistics, %d ms with them " +
+                        "(%s, %.0f million cards per minute)%n",
+                cards,
+                TimeUnit.NANOSECONDS.toMillis(withoutStats),
+                TimeUnit.NANOSECONDS.toMillis(withStats),
+                overhead > 0?
+                        String.format("%.1f ns per card", overhead):
+                        "no measurable cost per card",
+                cards / (withStats / 60e9) / 1e6);
+
+        boolean fair = check("Server decks", stats).isEmpty();
+        boolean biasDetected = !check("Naive shuffle",
+                dealBiased(rules, threads * decks, cardsPerDeck)).isEmpty();
+
+        System.out.println("No alerts with the server decks: " + fair);
+        System.out.println("Naive shuffle detected: " + biasDetected);
+
+        if(!fair || !biasDetected)
+            System.exit(1);
+    }
+
+    private static void settleHeap() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            TimeUnit.MILLISECONDS.sleep(20);
+        }
+    }
+
+    private static long deal(ShuffleStats stats, int threads, int decks,
+                             int cardsPerDeck, Rules rules) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+
+        for (int t = 0; t < threads; t++) {
+            long threadSeed = t;
+
+            pool.execute(() -> {
+                ShuffleStats.Recorder recorder = stats == null? null: stats.recorder();
+                // Consecutive seeds of Random give correlated shuffles.
+                SplittableRandom seeds = new SplittableRandom(threadSeed);
+                long checksum = 0;
+
+                for (int d = 0; d < decks; d++) {
+                    Deck deck = new Deck(rules, seeds.nextLong());
+
+                    if(recorder != null)
+                        recorder.newDeck();
+
+                    for (int c = 0; c < cardsPerDeck; c++) {
+                        Card card = deck.next();
+
+                        if(card == null)
+                            break;
+
+                        if(recorder != null)
+                            recorder.dealt(card.getId());
+
+                        checksum += card.getId();
+                    }
+                }
+
+                if(recorder != null)
+                    recorder.merge();
+
+                // Keeps the JIT from removing the deals.
+                if(checksum == 42)
+                    System.out.print("");
+            });
+        }
+
+        pool.shutdown();
+        pool.awaitTermination(1, TimeUnit.HOURS);
+
+        return System.nanoTime() - start;
+    }
+
+    private static ShuffleStats dealBiased(Rules rules, int decks, int cardsPerDeck) {
+        ShuffleStats stats = new ShuffleStats(rules, ALERT_Z);
+        ShuffleStats.Recorder recorder = stats.recorder();
+        int[] ordered = rules.getDeckCards();
+        int[] deck = new int[ordered.length];
+        Random random = new Random(1);
+
+        // The bias only shows if each deck starts from the same order.
+        for (int d = 0; d < decks; d++) {
+            System.arraycopy(ordered, 0, deck, 0, deck.length);
+
+            for (int i = 0; i < deck.length; i++) {
+                int j = random.nextInt(deck.length);
+                int card = deck[i];
+                deck[i] = deck[j];
+                deck[j] = card;
+            }
+
+            recorder.newDeck();
+
+            for (int c = 0; c < Math.min(cardsPerDeck, deck.length); c++)
+                recorder.dealt(deck[c]);
+        }
+
+        recorder.merge();
+        return stats;
+    }
+
+    private static List<String> check(String name, ShuffleStats stats) {
+        List<String> alerts = new ArrayList<>();
+        System.out.println(name + ": " + stats.check(alerts));
+
+        for (String alert : alerts)
+            System.out.println("  alert: " + alert);
+
+        return alerts;
+    }
+}
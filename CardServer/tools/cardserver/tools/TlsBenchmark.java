@@ -0,0 +1,182 @@
+package cardserver.tools;
+
+import cardserver.TlsSupport;
+
+import javax.net.ServerSocketFactory;
+import javax.net.SocketFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.TrustManagerFactory;
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.time.Duration;
+
+/**
+ * Benchmark that measures on loopback the connection latency and the CPU
+ * per round of the game with and without TLS.<br/><br/>
+ * Each round imitates the messages of a game: three cards sent by the
+ * server, two decisions of the player and the result. The certificates
+ * can be generated with scripts/gen-test-certs.sh.<br/><br/>
+ * Usage: TlsBenchmark [server.p12] [client-trust.p12] [password]
+ * [connections] [rounds per connection]
+ * @author Jose Valera
+ * @version 1.0
+ * @since 19/10/2026
+ */
+public class TlsBenchmark {
+    private static final int CARDS_PER_ROUND = 3;
+
+    /**
+     * Runs the benchmark without and with TLS and prints the results.
+     * @param args Key store, trust store, password, connections and rounds.
+     * @throws Exception If the benchmark can not be run.
+     */
+    public static void main(String[] args) throws Exception {
+        String keyStore = args.length > 0? args[0]: "server.p12";
+        String trustStore = args.length > 1? args[1]: "client-trust.p12";
+        char[] password = (args.length > 2? args[2]: "changeit").toCharArray();
+        int connections = args.length > 3? Integer.parseInt(args[3]): 200;
+        int rounds = args.length > 4? Integer.parseInt(args[4]): 50;
+
+        run("PLAIN",
+                ServerSocketFactory.getDefault(),
+                SocketFactory.getDefault(),
+                connections, rounds);
+
+        SSLContext serverContext = TlsSupport.createContext(keyStore, password);
+        SSLContext clientContext = createClientContext(trustStore, password);
+
+        run("TLS",
+                serverContext.getServerSocketFactory(),
+                clientContext.getSocketFactory(),
+                connections, rounds);
+    }
+
+    private static void run(String name, ServerSocketFactory serverFactory,
+                            SocketFactory clientFactory, int connections,
+                            int rounds) throws Exception {
+        try (ServerSocket server = serverFactory.createServerSocket(
+                0, 50, InetAddress.getLoopbackAddress())) {
+            Thread dealer = new Thread(() -> deal(server, connections, rounds));
+            dealer.setDaemon(true);
+            dealer.start();
+
+            long firstConnect = 0, totalConnect = 0;
+            long cpuStart = cpuNanos();
+            long roundsStart = System.nanoTime();
+
+            for (int i = 0; i < connections; i++) {
+                long start = System.nanoTime();
+                Socket socket = clientFactory.createSocket(
+                        server.getInetAddress(), server.getLocalPort());
+                socket.setTcpNoDelay(true);
+
+                if(socket instanceof SSLSocket)
+                    ((SSLSocket) socket).startHandshake();
+
+                long connect = System.nanoTime() - start;
+
+                if(i == 0)
+                    firstConnect = connect;
+                else
+                    totalConnect += connect;
+
+                try (socket) {
+                    play(socket, rounds);
+                }
+            }
+
+            long elapsed = System.nanoTime() - roundsStart;
+            long cpu = cpuNanos() - cpuStart;
+            long totalRounds = (long) connections * rounds;
+
+            System.out.printf("%-5s first connect: %8.1f us | next connects: %8.1f us" +
+                            " | CPU/round: %6.1f us | wall/round: %6.1f us%n",
+                    name,
+                    firstConnect / 1000.0,
+                    totalConnect / 1000.0 / Math.max(1, connections - 1),
+                    cpu / 1000.0 / totalRounds,
+                    elapsed / 1000.0 / totalRounds);
+        }
+    }
+
+    private static void deal(ServerSocket server, int connections, int rounds) {
+        for (int i = 0; i < connections; i++) {
+            try (Socket socket = server.accept()) {
+                socket.setTcpNoDelay(true);
+                DataInputStream in = new DataInputStream(
+                        new BufferedInputStream(socket.getInputStream()));
+                DataOutputStream out = new DataOutputStream(
+                        new BufferedOutputStream(socket.getOutputStream()));
+
+                for (int round = 0; round < rounds; round++) {
+                    for (int card = 0; card < CARDS_PER_ROUND; card++) {
+                        out.writeByte(card);
+                        out.flush();
+
+                        if(card < CARDS_PER_ROUND - 1)
+                            in.readUTF();
+                    }
+
+                    out.writeUTF("YOU WIN!");
+                    out.flush();
+                    in.readUTF();
+                }
+            } catch (IOException e) {
+                System.err.println(e);
+            }
+        }
+    }
+
+    private static void play(Socket socket, int rounds) throws IOException {
+        DataInputStream in = new DataInputStream(
+                new BufferedInputStream(socket.getInputStream()));
+        DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(socket.getOutputStream()));
+
+        for (int round = 0; round < rounds; round++) {
+            for (int card = 0; card < CARDS_PER_ROUND; card++) {
+                in.readByte();
+
+                if(card < CARDS_PER_ROUND - 1) {
+                    out.writeUTF(card == CARDS_PER_ROUND - 2? "NO": "YES");
+                    out.flush();
+                }
+            }
+
+            in.readUTF();
+            out.writeUTF("YES");
+            out.flush();
+        }
+    }
+
+    private static SSLContext createClientContext(String path, char[] password)
+            throws IOException {
+        try (InputStream in = new FileInputStream(path)) {
+            KeyStore trustStore = KeyStore.getInstance("PKCS12");
+            trustStore.load(in, password);
+
+            TrustManagerFactory trustManagers = TrustManagerFactory.getInstance(
+                    TrustManagerFactory.getDefaultAlgorithm());
+            trustManagers.init(trustStore);
+
+            SSLContext context = SSLContext.getInstance("TLS");
+            context.init(null, trustManagers.getTrustManagers(), null);
+
+            return context;
+        } catch (GeneralSecurityException e) {
+            throw new IOException("Invalid trust store: " + path, e);
+        }
+    }
+
+    private static long cpuNanos() {
+        return ProcessHandle.current().info()
+                .totalCpuDuration()
+                .map(Duration::toNanos)
+                .orElse(0L);
+    }
+}
@@ -0,0 +1,95 @@
+package cardserver.tools;
+
+import cardmodel.Card;
+import cardmodel.Deck;
+import cardmodel.Rules;
+import cardserver.tournament.Entrant;
+import cardserver.tournament.GameRunner;
+import cardserver.tournament.Tournament;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Local simulation of a tournament with bots, to measure how fast the
+ * tables are settled and rebalanced with many entrants. Each bot draws
+ * cards until it reaches its own stand score, between 4 and 6.5.
+ * <br/><br/>
+ * Usage: TournamentSimulation [entrants] [seats per table] [threads]
+ * [variant]
+ * @author Jose Valera
+ * @version 1.0
+ * @since 19/10/2026
+ */
+public class TournamentSimulation {
+    private static final long INITIAL_STACK = 1000;
+    private static final long BASE_ANTE = 25;
+
+    /**
+     * Plays the tournament and prints its statistics.
+     * @param args Entrants, seats per table, threads and variant.
+     * @throws Exception If the variant can not be loaded or the
+     *      tournament fails.
+     */
+    public static void main(String[] args) throws Exception {
+        int entrants = args.length > 0? Integer.parseInt(args[0]): 10000;
+        int seats = args.length > 1? Integer.parseInt(args[1]): 8;
+        int threads = args.length > 2? Integer.parseInt(args[2]):
+                Runtime.getRuntime().availableProcessors();
+        Rules rules = Rules.load(args.length > 3? args[3]: "classic");
+
+        Tournament tournament = new Tournament(rules, bots(rules), seats,
+                INITIAL_STACK, BASE_ANTE, Math.max(1, entrants / seats));
+
+        for (int i = 0; i < entrants; i++)
+            tournament.register("bot" + i);
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        Entrant winner = tournament.start(pool).get();
+        long elapsed = System.nanoTime() - start;
+        pool.shutdown();
+
+        System.out.printf("%d entrants, %d seats per table, %d threads%n",
+                entrants, seats, threads);
+        System.out.printf("Winner: %s after %d games in %d ms%n",
+                winner.getName(), tournament.getGames(),
+                TimeUnit.NANOSECONDS.toMillis(elapsed));
+        System.out.printf("Tables broken: %d, players moved: %d%n",
+                tournament.getBrokenTables(), tournament.getMoves());
+        System.out.printf("Settle + rebalance per game: avg %d us, max %d us%n",
+                TimeUnit.NANOSECONDS.toMicros(tournament.getAverageCoordinationNanos()),
+                TimeUnit.NANOSECONDS.toMicros(tournament.getMaxCoordinationNanos()));
+        System.out.println("Top 5: " + tournament.getStandings().top(5));
+    }
+
+    private static GameRunner bots(Rules rules) {
+        return seats -> {
+            int[] totals = new int[seats.size()];
+
+            for (int i = 0; i < totals.length; i++)
+                totals[i] = playBot(rules, 8 + seats.get(i).getId() % 6);
+
+            return totals;
+        };
+    }
+
+    private static int playBot(Rules rules, int standsOn) {
+        Deck deck = new Deck(rules);
+        int base = 0, wildCards = 0, score = 0;
+        Card card;
+
+        while (score < standsOn && (card = deck.next()) != null) {
+            if(rules.isWild(card.getId()))
+                wildCards++;
+
+            else
+                base += rules.halfPoints(card.getId());
+
+            score = rules.score(base, wildCards);
+        }
+
+        return score;
+    }
+}
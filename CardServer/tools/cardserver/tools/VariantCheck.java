@@ -0,0 +1,74 @@
+package cardserver.tools;
+
+import cardmodel.Rules;
+
+import java.nio.ByteBuffer;
+import java.util.TreeSet;
+
+/**
+ * Checks the scores of the included variants: for every hand value
+ * without wild cards, the wild card must take the value of one of the
+ * other cards of the deck, the highest one that does not exceed the
+ * target, and the rules sent to the players must score the same. It also
+ * checks that an ace and the wild card of wildking score 7, since no card
+ * is worth 6.5.<br/><br/>
+ * Usage: VariantCheck [variant...]
+ * @author Jose Valera
+ * @version 1.0
+ * @since 19/10/2026
+ */
+public class VariantCheck {
+    private static final String[] INCLUDED = {"classic", "spanish48", "wildking"};
+
+    /**
+     * Checks the variants and prints whether their scores are right.
+     * @param args Variants to check, all the included ones by default.
+     * @throws Exception If a variant can not be loaded.
+     */
+    public static void main(String[] args) throws Exception {
+        boolean ok = true;
+
+        for (String variant : args.length > 0? args: INCLUDED)
+            ok &= check(variant + " wild values", wildValues(Rules.load(variant)));
+
+        Rules wildking = Rules.load("wildking");
+        ok &= check("wildking ace and wild card score 7",
+                wildking.score(2, 1) == 14);
+
+        System.out.println(ok? "PASSED": "FAILED");
+
+        if(!ok)
+            System.exit(1);
+    }
+
+    private static boolean wildValues(Rules rules) {
+        TreeSet<Integer> values = new TreeSet<>();
+
+        for (int id : rules.getDeckCards())
+            if(!rules.isWild(id))
+                values.add(rules.halfPoints(id));
+
+        ByteBuffer buffer = ByteBuffer.allocate(rules.encodedSize());
+        rules.encode(buffer);
+        buffer.flip();
+        Rules decoded = Rules.decode(buffer);
+
+        for (int base = 0; base <= rules.getTarget() + values.last(); base++) {
+            Integer best = values.floor(rules.getTarget() - base);
+            int expected = base + (best != null? best: values.first());
+
+            if(rules.score(base, 1) != expected || decoded.score(base, 1) != expected) {
+                System.out.printf("%s, %d half points: %d instead of %d%n",
+                        rules, base, rules.score(base, 1), expected);
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static boolean check(String invariant, boolean met) {
+        System.out.println(invariant + ": " + (met? "OK": "VIOLATED"));
+        return met;
+    }
+}
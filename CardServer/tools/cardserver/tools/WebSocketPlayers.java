@@ -0,0 +1,352 @@
+package cardserver.tools;
+
+import cardmodel.Rules;
+import cardmodel.protocol.GameResult;
+import cardmodel.protocol.MessageType;
+
+import java.io.*;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Headless WebSocket client to test the endpoint of the server
+ * (cardserver.webSocketPort) without a browser: it opens a number of idle
+ * connections, which only upgrade and wait, and then plays some games
+ * with a number of players, which ask for cards up to 5 points. It prints
+ * the messages of the first player, the results of all of them and
+ * whether they all finished their games.<br/><br/>
+ * The server must admit all the connections: cardserver.maxSeats and
+ * cardserver.connectionsPerSecond must allow the idle ones too.<br/><br/>
+ * Usage: WebSocketPlayers host port [players] [games] [idle connections]
+ * @author Jose Valera
+ * @version 1.0
+ * @since 19/10/2026
+ */
+public class WebSocketPlayers {
+    private static final String GUID = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
+    private static final int STAND_ON = 10;
+    private static final long BET = 10;
+    private static final int TIMEOUT = 60000;
+
+    /**
+     * Opens the connections, plays the games and prints the results.
+     * @param args Host, port, number of players, games and idle
+     *      connections.
+     * @throws Exception If a connection can not be opened or the client
+     *      is interrupted.
+     */
+    public static void main(String[] args) throws Exception {
+        if(args.length < 2) {
+            System.out.println("Usage: WebSocketPlayers host port [players] [games] [idle connections]");
+            return;
+        }
+
+        String host = args[0];
+        int port = Integer.parseInt(args[1]);
+        int players = args.length > 2? Integer.parseInt(args[2]): 2;
+        int games = args.length > 3? Integer.parseInt(args[3]): 3;
+        int idle = args.length > 4? Integer.parseInt(args[4]): 0;
+
+        List<Connection> idleConnections = new ArrayList<>();
+        long start = System.nanoTime();
+
+        for (int i = 0; i < idle; i++)
+            idleConnections.add(new Connection(host, port));
+
+        boolean ok = true;
+
+        // The server closes every connection once the game is over.
+        for (Connection connection : idleConnections)
+            ok &= connection.isOpen();
+
+        if(idle > 0)
+            System.out.printf("%d idle connections upgraded in %d ms, still open: %s%n",
+                    idle, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), ok);
+
+        List<Player> threads = new ArrayList<>();
+
+        for (int i = 0; i < players; i++) {
+            Player player = new Player(host, port, "web-" + (i + 1), games, i == 0);
+            threads.add(player);
+            player.start();
+        }
+
+        for (Player player : threads) {
+            player.join();
+            System.out.println(player.getName() + ": " + player.report());
+            ok &= player.failure == null && player.played == games;
+        }
+
+        for (Connection connection : idleConnections)
+            connection.close();
+
+        System.out.println(ok? "PASSED": "FAILED");
+
+        if(!ok)
+            System.exit(1);
+    }
+
+    /*
+     * Plays the games of a player in its own thread.
+     */
+    private static class Player extends Thread {
+        private final String host;
+        private final int port;
+        private final int games;
+        private final boolean verbose;
+        private final StringBuilder outcomes = new StringBuilder();
+        private int played;
+        private String failure;
+
+        private Player(String host, int port, String name, int games, boolean verbose) {
+            super(name);
+            this.host = host;
+            this.port = port;
+            this.games = games;
+            this.verbose = verbose;
+        }
+
+        @Override
+        public void run() {
+            try (Connection connection = new Connection(host, port)) {
+                connection.send(MessageType.HELLO, getName().getBytes(StandardCharsets.UTF_8));
+                connection.send(MessageType.BET, longBytes(BET));
+                play(connection);
+            } catch (IOException e) {
+                failure = e.toString();
+            }
+        }
+
+        private void play(Connection connection) throws IOException {
+            Rules rules = null;
+            int baseHalfPoints = 0;
+            int wildCards = 0;
+
+            while (true) {
+                ByteBuffer message = connection.read();
+
+                if(message == null) {
+                    failure = "closed after " + played + " games";
+                    return;
+                }
+
+                MessageType type = MessageType.of(message.get());
+                log(type, message);
+
+                switch (type) {
+                    case RULES:
+                        rules = Rules.decode(message);
+                        break;
+
+                    case CARD:
+                        int id = message.get() & 0xFF;
+
+                        if(rules.isWild(id))
+                            wildCards++;
+
+                        else
+                            baseHalfPoints += rules.halfPoints(id);
+
+                        int score = rules.score(baseHalfPoints, wildCards);
+
+                        if(score < rules.getTarget())
+                            connection.send(score < STAND_ON? MessageType.YES: MessageType.NO, null);
+
+                        break;
+
+                    case RESULT:
+                        GameResult result = GameResult.decode(message);
+                        outcomes.append(result.getOutcome()).append(' ')
+                                .append(result.getTotal()).append("; ");
+                        played++;
+                        baseHalfPoints = 0;
+                        wildCards = 0;
+
+                        if(played < games) {
+                            connection.send(MessageType.YES, null);
+                            connection.send(MessageType.BET, longBytes(BET));
+                        }
+
+                        else
+                            connection.send(MessageType.NO, null);
+
+                        break;
+
+                    case BUSY:
+                        failure = "server busy";
+                        return;
+
+                    case FINISH:
+                        return;
+
+                    default:
+                        break;
+                }
+            }
+        }
+
+        private void log(MessageType type, ByteBuffer message) {
+            if(verbose)
+                System.out.println(getName() + " <- " + type + " (" +
+                        message.remaining() + " bytes)");
+        }
+
+        private String report() {
+            return played + " games: " + outcomes +
+                    (failure != null? "stopped: " + failure: "");
+        }
+    }
+
+    private static byte[] longBytes(long value) {
+        return ByteBuffer.allocate(Long.BYTES).putLong(value).array();
+    }
+
+    /*
+     * Client side of a WebSocket connection over a blocking socket: the
+     * frames sent are masked, as the protocol requires from the clients.
+     */
+    private static class Connection implements Closeable {
+        private final Socket socket;
+        private final DataInputStream in;
+        private final OutputStream out;
+
+        private Connection(String host, int port) throws IOException {
+            socket = new Socket(host, port);
+            socket.setTcpNoDelay(true);
+            socket.setSoTimeout(TIMEOUT);
+            in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            out = new BufferedOutputStream(socket.getOutputStream());
+            upgrade(host, port);
+        }
+
+        private void upgrade(String host, int port) throws IOException {
+            byte[] nonce = new byte[16];
+            ThreadLocalRandom.current().nextBytes(nonce);
+            String key = Base64.getEncoder().encodeToString(nonce);
+
+            out.write(("GET /cards HTTP/1.1\r\n" +
+                    "Host: " + host + ":" + port + "\r\n" +
+                    "Upgrade: websocket\r\n" +
+                    "Connection: Upgrade\r\n" +
+                    "Sec-WebSocket-Key: " + key + "\r\n" +
+                    "Sec-WebSocket-Version: 13\r\n\r\n").getBytes(StandardCharsets.ISO_8859_1));
+            out.flush();
+
+            String status = readLine();
+            String accept = null;
+            String line;
+
+            while (!(line = readLine()).isEmpty())
+                if(line.toLowerCase().startsWith("sec-websocket-accept:"))
+                    accept = line.substring(line.indexOf(':') + 1).trim();
+
+            if(!status.startsWith("HTTP/1.1 101") || !expectedAccept(key).equals(accept))
+                throw new IOException("Upgrade rejected: " + status);
+        }
+
+        private String readLine() throws IOException {
+            StringBuilder line = new StringBuilder();
+            int c;
+
+            while ((c = in.read()) != '\n') {
+                if(c < 0)
+                    throw new EOFException("Connection closed during the upgrade.");
+
+                if(c != '\r')
+                    line.append((char) c);
+            }
+
+            return line.toString();
+        }
+
+        private static String expectedAccept(String key) {
+            try {
+                MessageDigest sha1 = MessageDigest.getInstance("SHA-1");
+                return Base64.getEncoder().encodeToString(
+                        sha1.digest((key + GUID).getBytes(StandardCharsets.ISO_8859_1)));
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private void send(MessageType type, byte[] payload) throws IOException {
+            byte[] message = new byte[1 + (payload == null? 0: payload.length)];
+            message[0] = type.getCode();
+
+            if(payload != null)
+                System.arraycopy(payload, 0, message, 1, payload.length);
+
+            sendFrame(0x2, message);
+        }
+
+        private void sendFrame(int opcode, byte[] payload) throws IOException {
+            byte[] mask = new byte[4];
+            ThreadLocalRandom.current().nextBytes(mask);
+
+            out.write(0x80 | opcode);
+            out.write(0x80 | payload.length);
+            out.write(mask);
+
+            for (int i = 0; i < payload.length; i++)
+                out.write(payload[i] ^ mask[i & 3]);
+
+            out.flush();
+        }
+
+        /*
+         * Returns the next binary message, or null when the server closes
+         * the connection. The pings of the heartbeat of the server are
+         * answered like a browser does.
+         */
+        private ByteBuffer read() throws IOException {
+            while (true) {
+                int first = in.readUnsignedByte();
+                int length = in.readUnsignedByte() & 0x7F;
+
+                if(length == 126)
+                    length = in.readUnsignedShort();
+
+                byte[] payload = new byte[length];
+                in.readFully(payload);
+
+                if((first & 0x0F) == 0x2)
+                    return ByteBuffer.wrap(payload);
+
+                if((first & 0x0F) == 0x9)
+                    sendFrame(0xA, payload);
+
+                if((first & 0x0F) == 0x8)
+                    return null;
+            }
+        }
+
+        /*
+         * An idle connection is still open if the server has sent nothing
+         * and has not closed it.
+         */
+        private boolean isOpen() {
+            try {
+                socket.setSoTimeout(1);
+                in.read();
+                return false;
+            } catch (SocketTimeoutException e) {
+                return true;
+            } catch (IOException e) {
+                return false;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+}
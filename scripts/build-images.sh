@@ -0,0 +1,117 @@
+#!/bin/sh
+# Builds the modules from source and links slim runtime images:
+#   build/mods/          CardModel.jar, CardServer.jar and CardClient.jar
+#   build/image/server/  java.base, jdk.jfr, CardModel and CardServer
+#                        (bin/cardserver)
+#   build/image/client/  javafx.controls, javafx.fxml, CardModel and
+#                        CardClient (bin/cardclient)
+# The client is only built when the JavaFX SDK is given:
+#   FX_LIB     lib directory of the JavaFX SDK, to compile the client
+#   FX_JMODS   directory of the JavaFX jmods, to link its image
+# Other settings:
+#   SOURCE_DATE_EPOCH  timestamp of the entries of the jars (default: date
+#                      of the last commit), so that two builds of the same
+#                      sources produce the same jars
+#   SERVER_MODULES     JDK modules added to the server image, separated by
+#                      commas, e.g. jdk.crypto.ec for ECDHE with TLS
+#   PACKAGE=1          also wraps each image with jpackage in build/package
+#   TOOLS=1            also compiles the test harnesses of CardServer/tools
+#                      into build/tools, which are never part of the jars
+#                      nor the images. They run as a patch of the module:
+#                      java --module-path build/mods \
+#                           --patch-module CardServer=build/tools \
+#                           -m CardServer/cardserver.tools.LedgerStress
+# Needs JDK 17 or later (jar --date); the classes target Java 14. The
+# server is compiled with -source/-target instead of --release: the Java 14
+# API of JDK 17 lacks the superclass of jdk.jfr.Event (see cardserver.jfr).
+# Usage: scripts/build-images.sh
+set -e
+
+OUT=build
+RELEASE=14
+VERSION=1.0
+JAVA_HOME=${JAVA_HOME:-$(dirname "$(dirname "$(readlink -f "$(command -v javac)")")")}
+SOURCE_DATE_EPOCH=${SOURCE_DATE_EPOCH:-$(git log -1 --format=%ct 2>/dev/null || echo 0)}
+DATE=$(date -u -d "@$SOURCE_DATE_EPOCH" +%Y-%m-%dT%H:%M:%SZ)
+
+rm -rf "$OUT/classes" "$OUT/mods" "$OUT/image" "$OUT/package" "$OUT/tools"
+mkdir -p "$OUT/mods"
+
+# Compiles a module, copies its resources and packages it as a modular
+# jar whose entries are sorted and have a fixed timestamp.
+build_module() {
+    module=$1
+    main=$2
+    target=$3
+    shift 3
+    classes="$OUT/classes/$module"
+
+    mkdir -p "$classes"
+    javac $target -d "$classes" --module-path "$OUT/mods$*" \
+          $(find "$module/src" -name '*.java' | LC_ALL=C sort)
+    (cd "$module/src" && find . -type f ! -name '*.java' | LC_ALL=C sort |
+        while read -r file; do
+            mkdir -p "../../$classes/$(dirname "$file")"
+            cp "$file" "../../$classes/$file"
+        done)
+
+    (cd "$classes" && find . -type f | LC_ALL=C sort) |
+        sed "s|^\./|-C $classes |" > "$OUT/$module.files"
+    jar --create --file "$OUT/mods/$module.jar" --date="$DATE" \
+        --module-version "$VERSION" ${main:+--main-class "$main"} \
+        @"$OUT/$module.files"
+    rm "$OUT/$module.files"
+}
+
+# Links a runtime image with only the modules needed and generates the
+# default CDS archive of its JDK classes, which jlink does not include.
+link_image() {
+    name=$1
+    modules=$2
+    launcher=$3
+    path=$4
+
+    jlink --module-path "$JAVA_HOME/jmods:$OUT/mods$path" \
+          --add-modules "$modules" \
+          --launcher "$launcher" \
+          --strip-debug --no-header-files --no-man-pages --compress=2 \
+          --output "$OUT/image/$name"
+    "$OUT/image/$name/bin/java" -Xshare:dump > /dev/null
+
+    echo "$name image: $(du -sh "$OUT/image/$name" | cut -f1) ($modules)"
+}
+
+build_module CardModel "" "--release $RELEASE"
+build_module CardServer cardserver.ServerMain \
+        "-source $RELEASE -target $RELEASE -Xlint:-options"
+link_image server "CardServer${SERVER_MODULES:+,$SERVER_MODULES}" \
+        cardserver=CardServer/cardserver.ServerMain ""
+
+if [ -n "$FX_LIB" ] && [ -n "$FX_JMODS" ]; then
+    build_module CardClient cardclient.Main "--release $RELEASE" ":$FX_LIB"
+    link_image client CardClient \
+            cardclient=CardClient/cardclient.Main ":$FX_JMODS"
+else
+    echo "FX_LIB and FX_JMODS not set, the client is not built."
+fi
+
+if [ "$TOOLS" = 1 ]; then
+    javac -source $RELEASE -target $RELEASE -Xlint:-options -d "$OUT/tools" \
+          --module-path "$OUT/mods" --patch-module CardServer=CardServer/tools \
+          $(find CardServer/tools -name '*.java' | LC_ALL=C sort)
+    echo "tools: $OUT/tools"
+fi
+
+if [ "$PACKAGE" = 1 ]; then
+    jpackage --type app-image --dest "$OUT/package" --name CardServer \
+             --app-version "$VERSION" --runtime-image "$OUT/image/server" \
+             --module CardServer/cardserver.ServerMain
+
+    if [ -d "$OUT/image/client" ]; then
+        jpackage --type app-image --dest "$OUT/package" --name CardClient \
+                 --app-version "$VERSION" --runtime-image "$OUT/image/client" \
+                 --module CardClient/cardclient.Main
+    fi
+fi
+
+rm -rf "$OUT/classes"
@@ -0,0 +1,32 @@
+#!/bin/sh
+# Packages the client and the model as modular jars and records an AppCDS
+# archive of the classes loaded while the client starts, so later starts
+# map them from the archive instead of loading and verifying them again.
+#   FX_LIB      lib directory of the JavaFX SDK (required)
+#   CLIENT_OUT  compiled classes of CardClient (default: IntelliJ output)
+#   MODEL_OUT   compiled classes of CardModel (default: IntelliJ output)
+# Usage: FX_LIB=/opt/javafx-sdk/lib scripts/client-cds.sh [output dir]
+# The archive only matches the same JDK and the same module path, which
+# scripts/client-startup.sh reuses.
+set -e
+
+: "${FX_LIB:?set FX_LIB to the lib directory of the JavaFX SDK}"
+CLIENT_OUT=${CLIENT_OUT:-CardClient/out/production/CardClient}
+MODEL_OUT=${MODEL_OUT:-CardModel/out/production/CardModel}
+OUT=${1:-build/cds}
+
+mkdir -p "$OUT/mods"
+rm -f "$OUT/mods/"*.jar "$OUT/client.jsa"
+
+# CDS only archives classes loaded from jars, not from directories.
+jar --create --file "$OUT/mods/CardModel.jar" -C "$MODEL_OUT" .
+jar --create --file "$OUT/mods/CardClient.jar" \
+    --main-class cardclient.Main -C "$CLIENT_OUT" .
+
+# The benchmark mode exits once the window is ready, so the archive holds
+# exactly the classes of the start.
+java -XX:ArchiveClassesAtExit="$OUT/client.jsa" \
+     -Dcardclient.startupBenchmark=true \
+     --module-path "$OUT/mods:$FX_LIB" -m CardClient/cardclient.Main
+
+echo "CDS archive written to $OUT/client.jsa"
@@ -0,0 +1,36 @@
+#!/bin/sh
+# Measures the start of the client: launches it repeatedly in benchmark
+# mode (-Dcardclient.startupBenchmark=true), which prints the milestones
+# of the start and exits, with the default CDS archive of the JDK and with
+# the archive of the application written by scripts/client-cds.sh.
+#   FX_LIB  lib directory of the JavaFX SDK (required)
+# Usage: FX_LIB=/opt/javafx-sdk/lib scripts/client-startup.sh [runs] [cds dir]
+set -e
+
+: "${FX_LIB:?set FX_LIB to the lib directory of the JavaFX SDK}"
+RUNS=${1:-10}
+OUT=${2:-build/cds}
+
+if [ ! -f "$OUT/client.jsa" ]; then
+    echo "No archive in $OUT, run scripts/client-cds.sh first." >&2
+    exit 1
+fi
+
+run() {
+    label=$1
+    shift
+    i=0
+
+    while [ "$i" -lt "$RUNS" ]; do
+        java "$@" -Dcardclient.startupBenchmark=true \
+             --module-path "$OUT/mods:$FX_LIB" -m CardClient/cardclient.Main |
+            grep '^Startup:'
+        i=$((i + 1))
+    done | awk -v label="$label" '
+        { launch += $3; frame += $7; table += $10; images += $13; n++ }
+        END { if (n) printf "%-8s %d runs: launch %d ms, first frame %d ms, table %d ms, images %d ms\n",
+                  label, n, launch / n, frame / n, table / n, images / n }'
+}
+
+run "default"
+run "AppCDS" -XX:SharedArchiveFile="$OUT/client.jsa"
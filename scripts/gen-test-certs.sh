@@ -0,0 +1,25 @@
+#!/bin/sh
+# Generates a self-signed test certificate for local TLS runs:
+#   server.p12        key and certificate of the server (cardserver.keyStore)
+#   client-trust.p12  certificate trusted by the clients (cardclient.trustStore)
+# Usage: scripts/gen-test-certs.sh [output dir] [password]
+set -e
+
+OUT=${1:-.}
+PASS=${2:-changeit}
+
+mkdir -p "$OUT"
+rm -f "$OUT/server.p12" "$OUT/client-trust.p12" "$OUT/server.crt"
+
+keytool -genkeypair -alias cardserver -keyalg RSA -keysize 2048 \
+        -validity 365 -dname "CN=localhost" -ext "SAN=dns:localhost,ip:127.0.0.1" \
+        -storetype PKCS12 -keystore "$OUT/server.p12" -storepass "$PASS"
+
+keytool -exportcert -alias cardserver -rfc \
+        -keystore "$OUT/server.p12" -storepass "$PASS" -file "$OUT/server.crt"
+
+keytool -importcert -noprompt -alias cardserver -file "$OUT/server.crt" \
+        -storetype PKCS12 -keystore "$OUT/client-trust.p12" -storepass "$PASS"
+
+rm -f "$OUT/server.crt"
+echo "Test certificates written to $OUT"
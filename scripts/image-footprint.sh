@@ -0,0 +1,54 @@
+#!/bin/sh
+# Compares the server launched with the full JDK and from the runtime
+# image of scripts/build-images.sh: size on disk, time until it waits for
+# players and resident memory (VmRSS) at that moment. Linux only.
+# The servers run in a temporary directory, so they do not touch the
+# player store nor the chip journal of the working directory.
+# Usage: scripts/image-footprint.sh [runs] [port]
+set -e
+
+RUNS=${1:-5}
+PORT=${2:-7070}
+OUT=build
+JAVA_HOME=${JAVA_HOME:-$(dirname "$(dirname "$(readlink -f "$(command -v java)")")")}
+MODS=$(cd "$OUT/mods" && pwd)
+IMAGE=$(cd "$OUT/image/server" && pwd)
+WORK=$(mktemp -d)
+trap 'rm -rf "$WORK"' EXIT
+
+# Prints the average time until "Waiting players" and the average RSS of
+# the server started with the given java command.
+measure() {
+    label=$1
+    shift
+    i=0
+
+    while [ "$i" -lt "$RUNS" ]; do
+        start=$(date +%s%N)
+        (cd "$WORK" && exec "$@" -Dcardserver.port="$PORT" \
+                -m CardServer/cardserver.ServerMain 2 > server.log 2>&1) &
+        pid=$!
+
+        until grep -q '^Waiting players' "$WORK/server.log" 2>/dev/null; do
+            kill -0 "$pid" 2>/dev/null || { cat "$WORK/server.log" >&2; exit 1; }
+            sleep 0.01
+        done
+
+        end=$(date +%s%N)
+        rss=$(awk '/^VmRSS/ { print $2 }' "/proc/$pid/status")
+        kill "$pid"
+        wait "$pid" 2>/dev/null || true
+        rm -f "$WORK/server.log"
+
+        echo "$(( (end - start) / 1000000 )) $rss"
+        i=$((i + 1))
+    done | awk -v label="$label" '
+        { ms += $1; rss += $2; n++ }
+        END { if (n) printf "%-10s %d runs: ready %d ms, RSS %.1f MB\n",
+                  label, n, ms / n, rss / n / 1024 }'
+}
+
+echo "Full JDK:  $(du -sh "$JAVA_HOME/" | cut -f1)"
+echo "Image:     $(du -sh "$IMAGE/" | cut -f1)"
+measure "Full JDK" "$JAVA_HOME/bin/java" --module-path "$MODS"
+measure "Image" "$IMAGE/bin/java"